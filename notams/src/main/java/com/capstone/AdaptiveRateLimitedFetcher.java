@@ -0,0 +1,360 @@
+package com.capstone;
+
+import com.capstone.exceptions.NotamApiException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Decorates a {@link NotamDataFetcher} with an adaptive rate and concurrency
+ * limit.
+ * <p>
+ * Two limits apply to every request:
+ * <ul>
+ * <li>A token bucket caps the request rate at {@code requestsPerSecond},
+ * allowing short bursts of the same size.</li>
+ * <li>An AIMD (additive-increase, multiplicative-decrease) limit caps how many
+ * requests are in flight. Each request that completes within
+ * {@code healthyLatency} raises the limit by {@code 1 / limit}, so it grows by
+ * about one per round of requests. An HTTP 429 or 503 halves it.</li>
+ * </ul>
+ * A throttled request also pauses new requests for the server's Retry-After,
+ * or an exponential backoff if it sent none, and is then retried up to
+ * {@code maxRetries} times. The limit therefore settles just below the
+ * highest rate the API accepts without being tuned by hand.
+ * <p>
+ * A pause never lasts longer than {@code maxPause}, so callers above, such as
+ * a circuit breaker, see a failure instead of a request that hangs. If the
+ * server asks for a longer wait, the request is not retried; its exception is
+ * rethrown at once.
+ */
+public class AdaptiveRateLimitedFetcher implements NotamDataFetcher
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final double DEFAULT_REQUESTS_PER_SECOND = 10;
+	public static final int DEFAULT_INITIAL_CONCURRENCY = 4;
+	public static final int DEFAULT_MAX_CONCURRENCY = 32;
+	public static final Duration DEFAULT_HEALTHY_LATENCY = Duration.ofSeconds( 3 );
+	public static final int DEFAULT_MAX_RETRIES = 3;
+	public static final Duration DEFAULT_MAX_PAUSE = ResilientNotamFetcher.DEFAULT_MAX_BACKOFF;
+	// First wait after a throttled response without Retry-After, doubled on each retry
+	private static final Duration DEFAULT_BACKOFF = Duration.ofSeconds( 1 );
+	private static final double DECREASE_FACTOR = 0.5;
+
+	private final NotamDataFetcher delegate;
+	private final double tokensPerNano;
+	private final double bucketSize;
+	private final int maxConcurrency;
+	private final long healthyLatencyNanos;
+	private final int maxRetries;
+	private final Duration maxPause;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+	// Guarded by lock
+	private double concurrencyLimit;
+	private int inFlight;
+	private double tokens;
+	private long lastRefillNanos;
+	private long pausedUntilNanos;
+	private long lastDecreaseNanos;
+
+	public AdaptiveRateLimitedFetcher( NotamDataFetcher delegate )
+	{
+		this( delegate, DEFAULT_REQUESTS_PER_SECOND,
+				DEFAULT_INITIAL_CONCURRENCY, DEFAULT_MAX_CONCURRENCY,
+				DEFAULT_HEALTHY_LATENCY, DEFAULT_MAX_RETRIES );
+	}
+
+	/**
+	 * Creates a limiter that pauses for at most {@link #DEFAULT_MAX_PAUSE}.
+	 *
+	 * @see #AdaptiveRateLimitedFetcher(NotamDataFetcher, double, int, int,
+	 *     Duration, int, Duration)
+	 */
+	public AdaptiveRateLimitedFetcher( NotamDataFetcher delegate,
+									   double requestsPerSecond,
+									   int initialConcurrency,
+									   int maxConcurrency,
+									   Duration healthyLatency,
+									   int maxRetries )
+	{
+		this( delegate, requestsPerSecond, initialConcurrency, maxConcurrency,
+				healthyLatency, maxRetries, DEFAULT_MAX_PAUSE );
+	}
+
+	/**
+	 * @param delegate
+	 *     fetcher that sends the actual requests
+	 * @param requestsPerSecond
+	 *     sustained request rate; bursts of the same size are allowed
+	 * @param initialConcurrency
+	 *     requests allowed in flight before any feedback has been seen
+	 * @param maxConcurrency
+	 *     ceiling the adaptive limit never grows past
+	 * @param healthyLatency
+	 *     requests slower than this do not raise the limit
+	 * @param maxRetries
+	 *     how often a throttled request is retried before its exception is
+	 *     rethrown
+	 * @param maxPause
+	 *     longest pause after a throttled response; a longer Retry-After
+	 *     fails the request instead of being waited out
+	 */
+	public AdaptiveRateLimitedFetcher( NotamDataFetcher delegate,
+									   double requestsPerSecond,
+									   int initialConcurrency,
+									   int maxConcurrency,
+									   Duration healthyLatency,
+									   int maxRetries,
+									   Duration maxPause )
+	{
+		if( requestsPerSecond <= 0 ) {
+			throw new IllegalArgumentException(
+					"requestsPerSecond must be > 0, currently: "
+							+ requestsPerSecond );
+		}
+		if( initialConcurrency < 1 || maxConcurrency < initialConcurrency ) {
+			throw new IllegalArgumentException(
+					"Need 1 <= initialConcurrency <= maxConcurrency, currently: "
+							+ initialConcurrency + ", " + maxConcurrency );
+		}
+		if( maxRetries < 0 ) {
+			throw new IllegalArgumentException(
+					"maxRetries must be >= 0, currently: " + maxRetries );
+		}
+		if( maxPause.isNegative() ) {
+			throw new IllegalArgumentException(
+					"maxPause must be >= 0, currently: " + maxPause );
+		}
+		this.delegate = delegate;
+		this.tokensPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos( 1 );
+		this.bucketSize = Math.max( 1, Math.floor( requestsPerSecond ) );
+		this.maxConcurrency = maxConcurrency;
+		this.healthyLatencyNanos = healthyLatency.toNanos();
+		this.maxRetries = maxRetries;
+		this.maxPause = maxPause;
+
+		this.concurrencyLimit = initialConcurrency;
+		this.tokens = bucketSize;
+		this.lastRefillNanos = System.nanoTime();
+		this.pausedUntilNanos = lastRefillNanos;
+		this.lastDecreaseNanos = lastRefillNanos;
+	}
+
+	@Override
+	public String fetchByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return limited( () -> delegate.fetchByIcao( icaoCode ) );
+	}
+
+	@Override
+	public String fetchByLocation( double latitude,
+								   double longitude,
+								   double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return limited( () -> delegate.fetchByLocation( latitude, longitude,
+				radiusNm ) );
+	}
+
+	// The permit is held until the response headers arrive, not while the body is read
+	@Override
+	public InputStream streamByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return limited( () -> delegate.streamByIcao( icaoCode ) );
+	}
+
+	@Override
+	public InputStream streamByLocation( double latitude,
+										 double longitude,
+										 double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return limited( () -> delegate.streamByLocation( latitude, longitude,
+				radiusNm ) );
+	}
+
+	/** Returns the current adaptive concurrency limit. */
+	public double getConcurrencyLimit()
+	{
+		lock.lock();
+		try {
+			return concurrencyLimit;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns whether a request could be sent now without delaying others: no
+	 * Retry-After pause is running, at most half of the concurrency limit is
+	 * in use and at least half of the rate bucket is left. Background work such
+	 * as prefetching should only send requests while this is true.
+	 */
+	public boolean hasSpareCapacity()
+	{
+		lock.lock();
+		try {
+			final long now = System.nanoTime();
+			if( now - pausedUntilNanos < 0 ) {
+				return false;
+			}
+			refill( now );
+			return inFlight < Math.max( 1, (int) concurrencyLimit / 2 )
+					&& tokens >= bucketSize / 2;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private <T> T limited( Request<T> request )
+			throws IOException, InterruptedException
+	{
+		for( int attempt = 0;; attempt++ ) {
+			acquire();
+			final long startNanos = System.nanoTime();
+			final T response;
+			try {
+				response = request.send();
+			}
+			catch( final NotamApiException e ) {
+				if( !e.isThrottled() ) {
+					release();
+					throw e;
+				}
+				final Duration asked = e.getRetryAfter().orElse( DEFAULT_BACKOFF
+						.multipliedBy( 1L << Math.min( attempt, 10 ) ) );
+				final boolean tooLong = e.getRetryAfter().isPresent() && asked
+						.compareTo( maxPause ) > 0;
+				final Duration wait = asked.compareTo( maxPause ) > 0 ? maxPause
+						: asked;
+				onThrottled( startNanos, wait );
+				if( tooLong ) {
+					logger.warn(
+							"NOTAM API throttled with HTTP {} and asked to wait {}, longer than {}; not retrying",
+							e.getStatusCode(), asked, maxPause );
+					throw e;
+				}
+				if( attempt >= maxRetries ) {
+					throw e;
+				}
+				logger.info( "NOTAM API throttled with HTTP {}, retrying in {}",
+						e.getStatusCode(), wait );
+				continue;
+			}
+			catch( IOException | InterruptedException | RuntimeException e ) {
+				release();
+				throw e;
+			}
+			onSuccess( System.nanoTime() - startNanos );
+			return response;
+		}
+	}
+
+	// Waits until the pause is over, a concurrency slot is free and a rate token is available
+	private void acquire() throws InterruptedException
+	{
+		lock.lock();
+		try {
+			while( true ) {
+				final long now = System.nanoTime();
+				if( now - pausedUntilNanos < 0 ) {
+					changed.awaitNanos( pausedUntilNanos - now );
+					continue;
+				}
+				if( inFlight >= (int) concurrencyLimit ) {
+					changed.await();
+					continue;
+				}
+				refill( now );
+				if( tokens >= 1 ) {
+					tokens -= 1;
+					inFlight++;
+					return;
+				}
+				changed.awaitNanos( (long) Math.ceil( (1 - tokens)
+						/ tokensPerNano ) );
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void refill( long now )
+	{
+		tokens = Math.min( bucketSize, tokens + (now - lastRefillNanos)
+				* tokensPerNano );
+		lastRefillNanos = now;
+	}
+
+	private void onSuccess( long latencyNanos )
+	{
+		lock.lock();
+		try {
+			inFlight--;
+			if( latencyNanos <= healthyLatencyNanos ) {
+				concurrencyLimit = Math.min( maxConcurrency, concurrencyLimit + 1
+						/ concurrencyLimit );
+			}
+			changed.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void onThrottled( long startNanos, Duration wait )
+	{
+		lock.lock();
+		try {
+			inFlight--;
+			final long now = System.nanoTime();
+			// Requests already in flight when the limit was cut report the same overload, cut once
+			if( startNanos - lastDecreaseNanos >= 0 ) {
+				concurrencyLimit = Math.max( 1, concurrencyLimit
+						* DECREASE_FACTOR );
+				lastDecreaseNanos = now;
+			}
+			final long resumeNanos = now + wait.toNanos();
+			if( resumeNanos - pausedUntilNanos > 0 ) {
+				pausedUntilNanos = resumeNanos;
+			}
+			changed.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void release()
+	{
+		lock.lock();
+		try {
+			inFlight--;
+			changed.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@FunctionalInterface
+	private interface Request<T>
+	{
+		T send() throws IOException, InterruptedException;
+	}
+}
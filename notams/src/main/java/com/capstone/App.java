@@ -27,6 +27,9 @@ public class App
 		String validatedArrivalIcao = null;
 		AirportValidator airportValidator = null;
 
+		// Connects to the NMS hosts in the background while the airport data loads
+		NotamHttpContext.shared().warmUpNms();
+
 		try {
 			airportValidator = new AirportValidator();
 		}
@@ -0,0 +1,94 @@
+package com.capstone;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helpers shared by the asynchronous fetcher methods: running a blocking call
+ * without tying up a platform thread, and carrying cancellation and deadlines
+ * from the future a caller holds back to the work behind it.
+ */
+final class AsyncCalls
+{
+	@FunctionalInterface
+	interface BlockingCall<T>
+	{
+		T call() throws IOException, InterruptedException;
+	}
+
+	private AsyncCalls()
+	{
+
+	}
+
+	/**
+	 * Runs a blocking call on its own virtual thread. Cancelling the returned
+	 * future, or missing the deadline, interrupts the call.
+	 *
+	 * @param deadline
+	 *     time after which the future fails with a TimeoutException; null for
+	 *     none
+	 */
+	static <T> CompletableFuture<T> onVirtualThread( BlockingCall<T> call,
+													  Duration deadline )
+	{
+		final CompletableFuture<T> result = new CompletableFuture<>();
+		final Thread worker = Thread.ofVirtual().name( "notam-async" )
+				.unstarted( () -> {
+					try {
+						result.complete( call.call() );
+					}
+					catch( final Throwable e ) {
+						result.completeExceptionally( e );
+					}
+				} );
+		result.whenComplete( ( value, failure ) -> {
+			if( failure != null ) {
+				worker.interrupt();
+			}
+		} );
+		worker.start();
+		return withDeadline( result, deadline );
+	}
+
+	/**
+	 * Makes {@code result} fail with a TimeoutException once the deadline has
+	 * passed. Returns the same future; a null deadline leaves it unchanged.
+	 */
+	static <T> CompletableFuture<T> withDeadline( CompletableFuture<T> result,
+												  Duration deadline )
+	{
+		if( deadline == null ) {
+			return result;
+		}
+		return result.orTimeout( deadline.toNanos(), TimeUnit.NANOSECONDS );
+	}
+
+	/**
+	 * Cancels {@code upstream} when {@code result} is cancelled, times out or
+	 * otherwise fails, so an abandoned HTTP exchange is aborted instead of
+	 * running to completion. Returns {@code result}.
+	 */
+	static <T> CompletableFuture<T> cancelUpstreamOnFailure(
+			CompletableFuture<T> result,
+			CompletableFuture<?> upstream )
+	{
+		result.whenComplete( ( value, failure ) -> {
+			if( failure != null ) {
+				upstream.cancel( true );
+			}
+		} );
+		return result;
+	}
+
+	/** Returns the shorter of the request timeout and the deadline. */
+	static Duration requestTimeout( Duration requestTimeout, Duration deadline )
+	{
+		if( deadline == null || deadline.compareTo( requestTimeout ) >= 0 ) {
+			return requestTimeout;
+		}
+		return deadline;
+	}
+}
@@ -0,0 +1,398 @@
+package com.capstone;
+
+import com.capstone.exceptions.NotamApiException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Obtains and caches the NMS bearer token using the client credentials flow.
+ * <p>
+ * Only one token request is ever in flight per manager; callers that find
+ * the token expired while a request is running wait for that request instead
+ * of sending their own. Once a token is obtained, a background refresh is
+ * scheduled shortly before it enters its {@code TOKEN_REFRESH_BUFFER_SECONDS}
+ * window, so in the steady state {@link #getToken()} returns the cached token
+ * without blocking. Tokens usable for no longer than that lead are only
+ * refreshed when a caller needs one. At most one background refresh is pending at a time;
+ * scheduling another cancels it, and {@link #close()} stops them for good.
+ * <p>
+ * {@link #shared(String, String, String, HttpClient)} returns one manager
+ * per auth URL and credentials, so every fetcher in the process reuses the
+ * same token.
+ */
+public class BearerTokenManager implements AutoCloseable
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds( 30 );
+	// Refresh token slightly before expiration to avoid edge-case failures
+	static final long TOKEN_REFRESH_BUFFER_SECONDS = 60;
+	private static final long DEFAULT_TOKEN_TTL_SECONDS = 1800;
+	// How long before the buffer window the background refresh runs
+	private static final long PROACTIVE_REFRESH_LEAD_SECONDS = 60;
+	// Wait before retrying a failed background refresh while the old token is still valid
+	private static final long BACKGROUND_RETRY_SECONDS = 15;
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+	private static final Map<String, BearerTokenManager> sharedManagers = new ConcurrentHashMap<>();
+
+	private final String clientId;
+	private final String clientSecret;
+	private final String authUrl;
+	private final HttpClient httpClient;
+	private final Clock clock;
+	private final ScheduledExecutorService scheduler;
+
+	private volatile Token current;
+	// Guarded by this
+	private CompletableFuture<Token> inFlight;
+	// Guarded by this
+	private ScheduledFuture<?> pendingRefresh;
+	// Guarded by this
+	private boolean closed;
+
+	public BearerTokenManager( String clientId,
+							   String clientSecret,
+							   String authUrl,
+							   HttpClient httpClient )
+	{
+		this( clientId, clientSecret, authUrl, httpClient, Clock.systemUTC(),
+				RefreshScheduler.INSTANCE );
+	}
+
+	// Package-private constructor for testing purposes
+	BearerTokenManager( String clientId,
+						String clientSecret,
+						String authUrl,
+						HttpClient httpClient,
+						Clock clock,
+						ScheduledExecutorService scheduler )
+	{
+		this.clientId = clientId;
+		this.clientSecret = clientSecret;
+		this.authUrl = authUrl;
+		this.httpClient = httpClient;
+		this.clock = clock;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Returns the process-wide manager for these credentials, creating it on
+	 * first use. The HTTP client of the first caller is used for all token
+	 * requests.
+	 */
+	public static BearerTokenManager shared( String clientId,
+											 String clientSecret,
+											 String authUrl,
+											 HttpClient httpClient )
+	{
+		return sharedManagers.computeIfAbsent( sharedKey( clientId,
+				clientSecret, authUrl ), key -> new BearerTokenManager( clientId,
+						clientSecret, authUrl, httpClient ) );
+	}
+
+	// Keyed by a digest of the secret so a rotated secret gets its own manager without keeping it in the key
+	private static String sharedKey( String clientId,
+									 String clientSecret,
+									 String authUrl )
+	{
+		try {
+			final byte[] digest = MessageDigest.getInstance( "SHA-256" ).digest(
+					String.valueOf( clientSecret ).getBytes(
+							StandardCharsets.UTF_8 ) );
+			return authUrl + "|" + clientId + "|" + Base64.getEncoder()
+					.encodeToString( digest );
+		}
+		catch( NoSuchAlgorithmException e ) {
+			throw new IllegalStateException( "SHA-256 is not available", e );
+		}
+	}
+
+	/**
+	 * Cancels the pending background refresh and stops scheduling new ones.
+	 * Tokens are still requested on demand. A closed shared manager is
+	 * dropped, so the next {@code shared} call for its credentials creates a
+	 * new one.
+	 */
+	@Override
+	public void close()
+	{
+		synchronized( this ) {
+			closed = true;
+			if( pendingRefresh != null ) {
+				pendingRefresh.cancel( false );
+				pendingRefresh = null;
+			}
+		}
+		sharedManagers.values().remove( this );
+	}
+
+	/**
+	 * Returns a valid bearer token, requesting a new one only if the cached
+	 * token has expired and no other caller is already requesting one.
+	 */
+	public String getToken() throws IOException, InterruptedException
+	{
+		final Token token = current;
+		if( isValid( token ) ) {
+			return token.value;
+		}
+		return refresh( false ).value;
+	}
+
+	/**
+	 * Asynchronous {@link #getToken()}. Completes immediately with the cached
+	 * token while it is valid; otherwise the refresh runs on a virtual thread.
+	 */
+	public CompletableFuture<String> getTokenAsync()
+	{
+		final Token token = current;
+		if( isValid( token ) ) {
+			return CompletableFuture.completedFuture( token.value );
+		}
+		return AsyncCalls.onVirtualThread( this::getToken, null );
+	}
+
+	/**
+	 * Requests a new token, or joins the request already in flight. Unless
+	 * {@code force} is set, a token that became valid while waiting for the
+	 * lock is returned instead.
+	 */
+	private Token refresh( boolean force )
+			throws IOException, InterruptedException
+	{
+		final CompletableFuture<Token> pending;
+		final boolean leader;
+		synchronized( this ) {
+			final Token token = current;
+			if( !force && isValid( token ) ) {
+				return token;
+			}
+			leader = inFlight == null;
+			if( leader ) {
+				inFlight = new CompletableFuture<>();
+			}
+			pending = inFlight;
+		}
+
+		if( !leader ) {
+			return await( pending );
+		}
+
+		try {
+			final Token token = requestToken();
+			current = token;
+			pending.complete( token );
+			scheduleRefresh( token );
+			return token;
+		}
+		catch( IOException | InterruptedException | RuntimeException e ) {
+			pending.completeExceptionally( e );
+			throw e;
+		}
+		finally {
+			synchronized( this ) {
+				inFlight = null;
+			}
+		}
+	}
+
+	private void scheduleRefresh( Token token )
+	{
+		final long usableSeconds = Math.max( 0, Duration.between( token.fetchedAt,
+				token.validUntil ).toSeconds() );
+		if( usableSeconds <= PROACTIVE_REFRESH_LEAD_SECONDS ) {
+			// Refreshing these in the background would keep the token endpoint busy; callers refresh on demand
+			logger.debug( "Bearer token usable for only {} s, not refreshing it in the background",
+					usableSeconds );
+			return;
+		}
+		// Short-lived tokens are refreshed halfway through instead of right away
+		final long delaySeconds = usableSeconds - Math.min(
+				PROACTIVE_REFRESH_LEAD_SECONDS, usableSeconds / 2 );
+		scheduleRefresh( delaySeconds );
+	}
+
+	// Replaces the pending refresh, so refreshes from callers and the background never stack up
+	private synchronized void scheduleRefresh( long delaySeconds )
+	{
+		if( closed ) {
+			return;
+		}
+		if( pendingRefresh != null ) {
+			pendingRefresh.cancel( false );
+		}
+		pendingRefresh = scheduler.schedule( this::refreshInBackground,
+				delaySeconds, TimeUnit.SECONDS );
+	}
+
+	// Runs on the scheduler thread; callers keep using the old token until this finishes
+	void refreshInBackground()
+	{
+		try {
+			refresh( true );
+		}
+		catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+		catch( IOException | RuntimeException e ) {
+			logger.warn( "Background bearer token refresh failed: {}", e
+					.getMessage() );
+			if( isValid( current ) ) {
+				scheduleRefresh( BACKGROUND_RETRY_SECONDS );
+			}
+		}
+	}
+
+	private boolean isValid( Token token )
+	{
+		return token != null && clock.instant().isBefore( token.validUntil );
+	}
+
+	private static Token await( CompletableFuture<Token> pending )
+			throws IOException, InterruptedException
+	{
+		try {
+			return pending.get();
+		}
+		catch( ExecutionException e ) {
+			final Throwable cause = e.getCause();
+			if( cause instanceof IOException ioException ) {
+				throw ioException;
+			}
+			if( cause instanceof InterruptedException ) {
+				// The leader was interrupted, not this caller
+				throw new IOException( "Bearer token request was interrupted",
+						cause );
+			}
+			if( cause instanceof RuntimeException runtimeException ) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException( "Bearer token request failed",
+					cause );
+		}
+	}
+
+	private Token requestToken() throws IOException, InterruptedException
+	{
+		String basicAuth = Base64.getEncoder().encodeToString(
+				(clientId + ":" + clientSecret).getBytes(
+						StandardCharsets.UTF_8 ) );
+
+		HttpRequest request = HttpRequest.newBuilder()
+				.uri( URI.create( authUrl ) )
+				.header( "Authorization", "Basic " + basicAuth )
+				.header( "Content-Type", "application/x-www-form-urlencoded" )
+				.header( "Accept", "application/json" )
+				.POST( HttpRequest.BodyPublishers.ofString(
+						"grant_type=client_credentials" ) )
+				.timeout( REQUEST_TIMEOUT ).build();
+
+		HttpResponse<String> response = httpClient.send( request,
+				HttpResponse.BodyHandlers.ofString() );
+
+		int status = response.statusCode();
+		if( status < 200 || status >= 300 ) {
+			throw new NotamApiException( status,
+					"Token request returned HTTP " + status + ": "
+							+ response.body() );
+		}
+
+		String accessToken = parseAccessToken( response.body() );
+		long expiresInSeconds = parseExpiresInSeconds( response.body() );
+
+		// Clamp to 0 in case the server returns an expires_in shorter than the buffer
+		Instant fetchedAt = clock.instant();
+		return new Token( accessToken, fetchedAt, fetchedAt.plusSeconds( Math
+				.max( 0, expiresInSeconds - TOKEN_REFRESH_BUFFER_SECONDS ) ) );
+	}
+
+	private static String parseAccessToken( String responseBody )
+	{
+		try {
+			JsonNode root = mapper.readTree( responseBody );
+			JsonNode tokenNode = root.get( "access_token" );
+
+			if( tokenNode == null || tokenNode.isNull() ) {
+				throw new IllegalStateException(
+						"access_token was not found in token response: "
+								+ responseBody );
+			}
+
+			return tokenNode.asText();
+		}
+		catch( Exception e ) {
+			throw new IllegalStateException(
+					"Failed to parse access_token from response: "
+							+ responseBody, e );
+		}
+	}
+
+	private static long parseExpiresInSeconds( String responseBody )
+	{
+		try {
+			JsonNode root = mapper.readTree( responseBody );
+			JsonNode expiresNode = root.get( "expires_in" );
+
+			if( expiresNode == null || expiresNode.isNull() ) {
+				return DEFAULT_TOKEN_TTL_SECONDS;
+			}
+
+			return expiresNode.asLong();
+		}
+		catch( Exception e ) {
+			return DEFAULT_TOKEN_TTL_SECONDS;
+		}
+	}
+
+	private static final class Token
+	{
+		private final String value;
+		private final Instant fetchedAt;
+		private final Instant validUntil;
+
+		private Token( String value, Instant fetchedAt, Instant validUntil )
+		{
+			this.value = value;
+			this.fetchedAt = fetchedAt;
+			this.validUntil = validUntil;
+		}
+	}
+
+	// One daemon thread serves the background refreshes of every manager
+	private static final class RefreshScheduler
+	{
+		private static final ScheduledExecutorService INSTANCE = Executors
+				.newSingleThreadScheduledExecutor( runnable -> {
+					Thread thread = new Thread( runnable,
+							"bearer-token-refresh" );
+					thread.setDaemon( true );
+					return thread;
+				} );
+	}
+}
@@ -0,0 +1,156 @@
+package com.capstone;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Decorates a {@link NotamDataFetcher} with an in-memory response cache.
+ * <p>
+ * Responses are keyed by {@link NotamQueryKey}, kept for a fixed time to live
+ * and evicted least-recently-used once the cache is full. Safe to share
+ * between threads. Two threads that miss on the same key at the same time
+ * will both call the delegate, unless the delegate is a
+ * {@link CoalescingNotamFetcher}.
+ */
+public class CachingNotamFetcher implements NotamDataFetcher
+{
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes( 5 );
+
+	private final NotamDataFetcher delegate;
+	private final LruTtlCache<NotamQueryKey, String> cache;
+
+	public CachingNotamFetcher( NotamDataFetcher delegate )
+	{
+		this( delegate, DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE );
+	}
+
+	public CachingNotamFetcher( NotamDataFetcher delegate,
+								int maxEntries,
+								Duration timeToLive )
+	{
+		this( delegate, maxEntries, timeToLive, Clock.systemUTC() );
+	}
+
+	// Package-private constructor for testing purposes
+	CachingNotamFetcher( NotamDataFetcher delegate,
+						 int maxEntries,
+						 Duration timeToLive,
+						 Clock clock )
+	{
+		this.delegate = delegate;
+		this.cache = new LruTtlCache<>( maxEntries, timeToLive, clock );
+	}
+
+	@Override
+	public String fetchByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return fetch( NotamQueryKey.forIcao( icaoCode ) );
+	}
+
+	@Override
+	public String fetchByLocation( double latitude,
+								   double longitude,
+								   double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return fetch( NotamQueryKey.forLocation( latitude, longitude,
+				radiusNm ) );
+	}
+
+	private String fetch( NotamQueryKey key )
+			throws IOException, InterruptedException
+	{
+		final String cached = cache.get( key );
+		if( cached != null ) {
+			return cached;
+		}
+
+		final String response = key.fetchFrom( delegate );
+		cache.put( key, response );
+		return response;
+	}
+
+	/**
+	 * Returns a fetcher that keeps this cache warm: a query whose entry has
+	 * more than {@code refreshAhead} left to live is answered from the cache,
+	 * any other is fetched from the delegate and stored, restarting its time to
+	 * live. Queries through it are not counted as hits or misses.
+	 *
+	 * @param refreshAhead
+	 *     how long before it expires an entry is fetched again
+	 */
+	public NotamDataFetcher refresher( Duration refreshAhead )
+	{
+		return refresher( refreshAhead, delegate );
+	}
+
+	/**
+	 * Returns a fetcher that keeps this cache warm like
+	 * {@link #refresher(Duration)}, but fetches from {@code source} instead of
+	 * the delegate. Use it when the delegate has a cache of its own that must
+	 * be refreshed too, such as
+	 * {@link DiskCachingNotamFetcher#refresher(Duration)}.
+	 */
+	public NotamDataFetcher refresher( Duration refreshAhead,
+									   NotamDataFetcher source )
+	{
+		return new NotamDataFetcher()
+		{
+			@Override
+			public String fetchByIcao( String icaoCode )
+					throws IOException, InterruptedException
+			{
+				return refresh( NotamQueryKey.forIcao( icaoCode ),
+						refreshAhead, source );
+			}
+
+			@Override
+			public String fetchByLocation( double latitude,
+										   double longitude,
+										   double radiusNm )
+					throws IOException, InterruptedException
+			{
+				return refresh( NotamQueryKey.forLocation( latitude, longitude,
+						radiusNm ), refreshAhead, source );
+			}
+		};
+	}
+
+	private String refresh( NotamQueryKey key,
+							Duration refreshAhead,
+							NotamDataFetcher source )
+			throws IOException, InterruptedException
+	{
+		final String cached = cache.peek( key, refreshAhead );
+		if( cached != null ) {
+			return cached;
+		}
+
+		final String response = key.fetchFrom( source );
+		cache.put( key, response );
+		return response;
+	}
+
+	public long getHitCount()
+	{
+		return cache.getHitCount();
+	}
+
+	public long getMissCount()
+	{
+		return cache.getMissCount();
+	}
+
+	public int size()
+	{
+		return cache.size();
+	}
+
+	public void clear()
+	{
+		cache.clear();
+	}
+}
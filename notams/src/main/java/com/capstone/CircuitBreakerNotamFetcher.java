@@ -0,0 +1,361 @@
+package com.capstone;
+
+import com.capstone.exceptions.CircuitOpenException;
+import com.capstone.exceptions.NotamApiException;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Decorates a {@link NotamDataFetcher} with a circuit breaker and a
+ * last-known-good fallback, so a degraded NOTAM API slows a briefing down by
+ * milliseconds instead of a timeout per query.
+ * <p>
+ * The breaker is <b>closed</b> while the API is healthy. After
+ * {@code failureThreshold} failures or slow calls in a row it <b>opens</b>:
+ * for {@code openDuration} no request is sent, and each query is answered at
+ * once with the last good response for the same {@link NotamQueryKey}, or
+ * fails with {@link CircuitOpenException} if there is none. It then turns
+ * <b>half-open</b> and lets a single probe through. A healthy probe closes the
+ * breaker; a failed one opens it again.
+ * <p>
+ * Failures are I/O errors and HTTP 5xx or 429 responses; other 4xx responses
+ * mean the API is up and count as successes. A call slower than
+ * {@code slowCallThreshold} counts as a failure even though its response is
+ * used. A query whose live request fails while the breaker is closed also
+ * falls back to its last good response. Every stale answer is reported to
+ * the {@link StaleDataListener} with the time the response was fetched.
+ * <p>
+ * The breaker belongs directly around the network tier, below any response
+ * cache, so that only real API calls count towards its thresholds and a cache
+ * hit can never answer the half-open probe. A stale answer must not be stored
+ * by those caches as if it were fresh, so such a chain wraps its top cache in
+ * {@link #servingStale(NotamDataFetcher)}: the breaker then hands stale
+ * responses up past the caches, and that fetcher serves them.
+ */
+public class CircuitBreakerNotamFetcher implements NotamDataFetcher
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+	public static final Duration DEFAULT_SLOW_CALL_THRESHOLD = Duration.ofSeconds( 10 );
+	public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds( 30 );
+	// Responses older than this are not served, even as a fallback
+	public static final Duration DEFAULT_MAX_STALE_AGE = Duration.ofHours( 12 );
+	private static final int MAX_LAST_GOOD_ENTRIES = 1000;
+
+	public enum State
+	{
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final NotamDataFetcher delegate;
+	private final int failureThreshold;
+	private final Duration slowCallThreshold;
+	private final Duration openDuration;
+	private final StaleDataListener listener;
+	private final Clock clock;
+	private final LruTtlCache<NotamQueryKey, LastGood> lastGood;
+
+	// Set once stale responses are served by a fetcher above this one, see servingStale
+	private volatile boolean staleServedAbove;
+
+	// Guarded by this
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private Instant openedAt;
+	private boolean probeInFlight;
+
+	/** Uses the default thresholds and logs every stale answer. */
+	public CircuitBreakerNotamFetcher( NotamDataFetcher delegate )
+	{
+		this( delegate, DEFAULT_FAILURE_THRESHOLD, DEFAULT_SLOW_CALL_THRESHOLD,
+				DEFAULT_OPEN_DURATION, DEFAULT_MAX_STALE_AGE,
+				CircuitBreakerNotamFetcher::logStale );
+	}
+
+	/**
+	 * @param delegate
+	 *     fetcher that sends the actual requests
+	 * @param failureThreshold
+	 *     failures or slow calls in a row that open the breaker
+	 * @param slowCallThreshold
+	 *     calls that take longer count as failures
+	 * @param openDuration
+	 *     how long the breaker stays open before a probe is let through
+	 * @param maxStaleAge
+	 *     oldest response served as a fallback
+	 * @param listener
+	 *     told about every query answered with stale data
+	 */
+	public CircuitBreakerNotamFetcher( NotamDataFetcher delegate,
+									   int failureThreshold,
+									   Duration slowCallThreshold,
+									   Duration openDuration,
+									   Duration maxStaleAge,
+									   StaleDataListener listener )
+	{
+		this( delegate, failureThreshold, slowCallThreshold, openDuration,
+				maxStaleAge, listener, Clock.systemUTC() );
+	}
+
+	// Package-private constructor for testing purposes
+	CircuitBreakerNotamFetcher( NotamDataFetcher delegate,
+								int failureThreshold,
+								Duration slowCallThreshold,
+								Duration openDuration,
+								Duration maxStaleAge,
+								StaleDataListener listener,
+								Clock clock )
+	{
+		if( failureThreshold < 1 ) {
+			throw new IllegalArgumentException(
+					"failureThreshold must be >= 1, currently: "
+							+ failureThreshold );
+		}
+		this.delegate = delegate;
+		this.failureThreshold = failureThreshold;
+		this.slowCallThreshold = slowCallThreshold;
+		this.openDuration = openDuration;
+		this.listener = listener;
+		this.clock = clock;
+		this.lastGood = new LruTtlCache<>( MAX_LAST_GOOD_ENTRIES, maxStaleAge,
+				clock );
+	}
+
+	@Override
+	public String fetchByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return fetch( NotamQueryKey.forIcao( icaoCode ) );
+	}
+
+	@Override
+	public String fetchByLocation( double latitude,
+								   double longitude,
+								   double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return fetch( NotamQueryKey.forLocation( latitude, longitude,
+				radiusNm ) );
+	}
+
+	/**
+	 * Returns a fetcher that answers from {@code above}, a chain of caches
+	 * over this breaker, and serves the stale responses of this breaker
+	 * itself. From then on this breaker no longer returns stale responses;
+	 * it fails past the caches in between, so they never store one, and the
+	 * returned fetcher turns the failure back into the stale response.
+	 */
+	public NotamDataFetcher servingStale( NotamDataFetcher above )
+	{
+		staleServedAbove = true;
+		return new StaleServingFetcher( above );
+	}
+
+	public synchronized State getState()
+	{
+		// Report the half-open state as soon as it is due, not only once a call arrives
+		if( state == State.OPEN && isOpenDurationOver() ) {
+			return State.HALF_OPEN;
+		}
+		return state;
+	}
+
+	private String fetch( NotamQueryKey key )
+			throws IOException, InterruptedException
+	{
+		if( !tryAcquire() ) {
+			return fallback( key, new CircuitOpenException(
+					"NOTAM API circuit is open, not querying " + key ) );
+		}
+
+		final Instant start = clock.instant();
+		final String response;
+		try {
+			response = key.fetchFrom( delegate );
+		}
+		catch( IOException | RuntimeException e ) {
+			if( !isSourceFailure( e ) ) {
+				onResult( true );
+				throw e;
+			}
+			onResult( false );
+			return fallback( key, e );
+		}
+		catch( InterruptedException e ) {
+			releaseProbe();
+			throw e;
+		}
+
+		final Instant end = clock.instant();
+		lastGood.put( key, new LastGood( response, end ) );
+		onResult( Duration.between( start, end ).compareTo(
+				slowCallThreshold ) <= 0 );
+		return response;
+	}
+
+	// Returns whether a request may be sent; in the half-open state only one is
+	private synchronized boolean tryAcquire()
+	{
+		if( state == State.CLOSED ) {
+			return true;
+		}
+		if( state == State.OPEN ) {
+			if( !isOpenDurationOver() ) {
+				return false;
+			}
+			state = State.HALF_OPEN;
+			logger.info( "NOTAM API circuit half-open, sending a probe" );
+		}
+		if( probeInFlight ) {
+			return false;
+		}
+		probeInFlight = true;
+		return true;
+	}
+
+	private synchronized void onResult( boolean healthy )
+	{
+		probeInFlight = false;
+		if( healthy ) {
+			if( state != State.CLOSED ) {
+				logger.info( "NOTAM API circuit closed" );
+			}
+			state = State.CLOSED;
+			consecutiveFailures = 0;
+			return;
+		}
+
+		consecutiveFailures++;
+		if( state == State.HALF_OPEN || consecutiveFailures >= failureThreshold ) {
+			if( state != State.OPEN ) {
+				logger.warn( "NOTAM API circuit open for {} after {} failures",
+						openDuration, consecutiveFailures );
+			}
+			state = State.OPEN;
+			openedAt = clock.instant();
+		}
+	}
+
+	private synchronized void releaseProbe()
+	{
+		probeInFlight = false;
+	}
+
+	private boolean isOpenDurationOver()
+	{
+		return !clock.instant().isBefore( openedAt.plus( openDuration ) );
+	}
+
+	private String fallback( NotamQueryKey key, Exception cause )
+			throws IOException
+	{
+		final LastGood stale = lastGood.get( key );
+		if( stale == null ) {
+			if( cause instanceof IOException ioException ) {
+				throw ioException;
+			}
+			throw (RuntimeException) cause;
+		}
+		if( staleServedAbove ) {
+			throw new StaleResponseException( key, stale, cause );
+		}
+		listener.onStaleData( key, stale.fetchedAt, cause );
+		return stale.body;
+	}
+
+	private static boolean isSourceFailure( Exception e )
+	{
+		if( e instanceof NotamApiException apiException ) {
+			return apiException.isThrottled() || apiException
+					.getStatusCode() >= 500;
+		}
+		return e instanceof IOException;
+	}
+
+	private static void logStale( NotamQueryKey key,
+								  Instant fetchedAt,
+								  Exception cause )
+	{
+		logger.warn( "Serving STALE NOTAMs for {} fetched at {} ({})", key,
+				fetchedAt, cause.getMessage() );
+	}
+
+	// Carries a stale response past the caches to the fetcher returned by servingStale
+	private static final class StaleResponseException extends IOException
+	{
+		private final NotamQueryKey key;
+		private final transient LastGood stale;
+
+		private StaleResponseException( NotamQueryKey key,
+										LastGood stale,
+										Exception cause )
+		{
+			super( "NOTAM API unavailable, serving the response fetched at "
+					+ stale.fetchedAt + " for " + key, cause );
+			this.key = key;
+			this.stale = stale;
+		}
+	}
+
+	private final class StaleServingFetcher implements NotamDataFetcher
+	{
+		private final NotamDataFetcher delegate;
+
+		private StaleServingFetcher( NotamDataFetcher delegate )
+		{
+			this.delegate = delegate;
+		}
+
+		@Override
+		public String fetchByIcao( String icaoCode )
+				throws IOException, InterruptedException
+		{
+			try {
+				return delegate.fetchByIcao( icaoCode );
+			}
+			catch( StaleResponseException e ) {
+				return serve( e );
+			}
+		}
+
+		@Override
+		public String fetchByLocation( double latitude,
+									   double longitude,
+									   double radiusNm )
+				throws IOException, InterruptedException
+		{
+			try {
+				return delegate.fetchByLocation( latitude, longitude, radiusNm );
+			}
+			catch( StaleResponseException e ) {
+				return serve( e );
+			}
+		}
+
+		private String serve( StaleResponseException e )
+		{
+			listener.onStaleData( e.key, e.stale.fetchedAt, (Exception) e
+					.getCause() );
+			return e.stale.body;
+		}
+	}
+
+	private static final class LastGood
+	{
+		private final String body;
+		private final Instant fetchedAt;
+
+		private LastGood( String body, Instant fetchedAt )
+		{
+			this.body = body;
+			this.fetchedAt = fetchedAt;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.capstone;
+
+import java.io.IOException;
+
+/**
+ * Decorates a {@link NotamDataFetcher} so that identical queries running at
+ * the same time share one upstream call.
+ * <p>
+ * Queries are keyed by {@link NotamQueryKey}, the same key the response
+ * caches use, so a burst of requests for a busy hub becomes a single request.
+ * Place it behind {@link CachingNotamFetcher} to coalesce cache misses. The
+ * stream methods are not overridden: a stream can only be read once, so
+ * streaming callers share the buffered response instead.
+ */
+public class CoalescingNotamFetcher implements NotamDataFetcher
+{
+	private final NotamDataFetcher delegate;
+	private final RequestCoalescer<NotamQueryKey, String> coalescer = new RequestCoalescer<>();
+
+	public CoalescingNotamFetcher( NotamDataFetcher delegate )
+	{
+		this.delegate = delegate;
+	}
+
+	@Override
+	public String fetchByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return fetch( NotamQueryKey.forIcao( icaoCode ) );
+	}
+
+	@Override
+	public String fetchByLocation( double latitude,
+								   double longitude,
+								   double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return fetch( NotamQueryKey.forLocation( latitude, longitude,
+				radiusNm ) );
+	}
+
+	private String fetch( NotamQueryKey key )
+			throws IOException, InterruptedException
+	{
+		return coalescer.execute( key, () -> key.fetchFrom( delegate ) );
+	}
+
+	/** Returns how many upstream calls were made. */
+	public long getUpstreamCallCount()
+	{
+		return coalescer.getLoadCount();
+	}
+
+	/** Returns how many calls were answered by another caller's request. */
+	public long getCoalescedCount()
+	{
+		return coalescer.getCoalescedCount();
+	}
+}
@@ -0,0 +1,215 @@
+package com.capstone;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Body handlers that decompress gzip and deflate responses.
+ * <p>
+ * {@code java.net.http} neither asks for compression nor undoes it, so the
+ * fetchers send {@link #ACCEPT_ENCODING} and read bodies through these
+ * handlers. GeoJSON NOTAM responses are highly repetitive and usually shrink
+ * several times over. Streamed bodies are inflated as they are read, so the
+ * parser never waits for, or holds, the whole decompressed response.
+ * <p>
+ * String bodies are decoded with the charset of the Content-Type header, or
+ * UTF-8 if it names none. An uncompressed String body is decoded as it
+ * arrives; a compressed one is inflated once the whole body has arrived, as a
+ * blocking stream may not be read inside a body subscriber.
+ */
+final class ContentEncoding
+{
+	static final String ACCEPT_ENCODING = "gzip, deflate";
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private ContentEncoding()
+	{
+
+	}
+
+	/** Body handler for a String body, decompressed if the server compressed it. */
+	static HttpResponse.BodyHandler<String> ofString()
+	{
+		return responseInfo -> {
+			final String encoding = encodingOf( responseInfo.headers() );
+			final Charset charset = charsetOf( responseInfo.headers() );
+			if( encoding == null || encoding.equals( "identity" ) ) {
+				return HttpResponse.BodySubscribers.ofString( charset );
+			}
+			return HttpResponse.BodySubscribers.mapping(
+					HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+						try (InputStream in = decode( new ByteArrayInputStream(
+								bytes ), encoding )) {
+							return new String( in.readAllBytes(), charset );
+						}
+						catch( IOException e ) {
+							throw new UncheckedIOException( e );
+						}
+					} );
+		};
+	}
+
+	/** Body handler for a streamed body that is decompressed as it is read. */
+	static HttpResponse.BodyHandler<InputStream> ofInputStream()
+	{
+		return responseInfo -> {
+			final String encoding = encodingOf( responseInfo.headers() );
+			return HttpResponse.BodySubscribers.mapping(
+					HttpResponse.BodySubscribers.ofInputStream(),
+					in -> decode( in, encoding ) );
+		};
+	}
+
+	/**
+	 * Wraps {@code in} in a decoder for the given Content-Encoding. The
+	 * decoder is only created on the first read, since creating it reads the
+	 * compression header and the body may not have arrived yet.
+	 *
+	 * @param encoding
+	 *     Content-Encoding of the response, lower case; null or
+	 *     {@code identity} for an uncompressed body
+	 */
+	static InputStream decode( InputStream in, String encoding )
+	{
+		if( encoding == null || encoding.equals( "identity" ) ) {
+			return in;
+		}
+		return new LazyDecoder( in, encoding );
+	}
+
+	private static String encodingOf( HttpHeaders headers )
+	{
+		return headers.firstValue( "Content-Encoding" ).map( value -> value
+				.trim().toLowerCase( Locale.ROOT ) ).orElse( null );
+	}
+
+	/**
+	 * Returns the charset named by the Content-Type header, or UTF-8 if there
+	 * is none or it is not supported.
+	 */
+	static Charset charsetOf( HttpHeaders headers )
+	{
+		final String contentType = headers.firstValue( "Content-Type" ).orElse(
+				null );
+		if( contentType == null ) {
+			return StandardCharsets.UTF_8;
+		}
+		for( String parameter : contentType.split( ";" ) ) {
+			final int equals = parameter.indexOf( '=' );
+			if( equals < 0 || !parameter.substring( 0, equals ).trim()
+					.equalsIgnoreCase( "charset" ) ) {
+				continue;
+			}
+			String name = parameter.substring( equals + 1 ).trim();
+			if( name.length() >= 2 && name.startsWith( "\"" ) && name.endsWith(
+					"\"" ) ) {
+				name = name.substring( 1, name.length() - 1 );
+			}
+			try {
+				return Charset.forName( name );
+			}
+			catch( IllegalCharsetNameException | UnsupportedCharsetException e ) {
+				return StandardCharsets.UTF_8;
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	private static InputStream decoder( InputStream in, String encoding )
+			throws IOException
+	{
+		switch( encoding ) {
+			case "gzip", "x-gzip":
+				return new GZIPInputStream( in, BUFFER_SIZE );
+			case "deflate":
+				return inflater( in );
+			default:
+				throw new IOException( "Unsupported Content-Encoding: "
+						+ encoding );
+		}
+	}
+
+	// "deflate" is meant to be zlib-wrapped, but some servers send raw deflate data
+	private static InputStream inflater( InputStream in ) throws IOException
+	{
+		final PushbackInputStream peek = new PushbackInputStream( in, 2 );
+		final int first = peek.read();
+		final int second = peek.read();
+		if( second != -1 ) {
+			peek.unread( second );
+		}
+		if( first != -1 ) {
+			peek.unread( first );
+		}
+		final boolean zlib = first != -1 && second != -1 && (first & 0x0F) == 8
+				&& ((first << 8) | second) % 31 == 0;
+		return new InflaterInputStream( peek, new Inflater( !zlib ),
+				BUFFER_SIZE );
+	}
+
+	private static final class LazyDecoder extends FilterInputStream
+	{
+		private final String encoding;
+		private boolean started;
+
+		private LazyDecoder( InputStream in, String encoding )
+		{
+			super( in );
+			this.encoding = encoding;
+		}
+
+		private InputStream decoded() throws IOException
+		{
+			if( !started ) {
+				started = true;
+				in = decoder( in, encoding );
+			}
+			return in;
+		}
+
+		@Override
+		public int read() throws IOException
+		{
+			return decoded().read();
+		}
+
+		@Override
+		public int read( byte[] b, int off, int len ) throws IOException
+		{
+			return decoded().read( b, off, len );
+		}
+
+		@Override
+		public long skip( long n ) throws IOException
+		{
+			return decoded().skip( n );
+		}
+
+		@Override
+		public int available() throws IOException
+		{
+			return started ? in.available() : 0;
+		}
+
+		@Override
+		public boolean markSupported()
+		{
+			return false;
+		}
+	}
+}
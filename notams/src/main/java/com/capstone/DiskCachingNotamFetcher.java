@@ -0,0 +1,145 @@
+package com.capstone;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Decorates a {@link NotamDataFetcher} with a {@link DiskResponseCache}, so a
+ * new JVM can answer recently made queries without any network calls.
+ * <p>
+ * A disk problem never fails a fetch: read and write errors are logged and
+ * the request falls through to the delegate.
+ */
+public class DiskCachingNotamFetcher implements NotamDataFetcher
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final String DEFAULT_DIRECTORY = ".notam-cache";
+	public static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes( 30 );
+	public static final long DEFAULT_MAX_TOTAL_BYTES = 256L * 1024 * 1024;
+
+	private final NotamDataFetcher delegate;
+	private final DiskResponseCache cache;
+	private final Clock clock;
+
+	public DiskCachingNotamFetcher( NotamDataFetcher delegate, Path directory )
+			throws IOException
+	{
+		this( delegate, new DiskResponseCache( directory, DEFAULT_MAX_AGE,
+				DEFAULT_MAX_TOTAL_BYTES ), Clock.systemUTC() );
+	}
+
+	public DiskCachingNotamFetcher( NotamDataFetcher delegate,
+									DiskResponseCache cache,
+									Clock clock )
+	{
+		this.delegate = delegate;
+		this.cache = cache;
+		this.clock = clock;
+	}
+
+	/**
+	 * Returns the cache directory from the optional {@code NOTAM_CACHE_DIR}
+	 * entry in the .env file, or {@link #DEFAULT_DIRECTORY} when it is not
+	 * set.
+	 */
+	public static Path configuredDirectory()
+	{
+		String directory = NotamHttpContext.shared().get( "NOTAM_CACHE_DIR" );
+		if( directory == null || directory.isBlank() ) {
+			return Path.of( DEFAULT_DIRECTORY );
+		}
+		return Path.of( directory );
+	}
+
+	@Override
+	public String fetchByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return fetch( NotamQueryKey.forIcao( icaoCode ) );
+	}
+
+	@Override
+	public String fetchByLocation( double latitude,
+								   double longitude,
+								   double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return fetch( NotamQueryKey.forLocation( latitude, longitude,
+				radiusNm ) );
+	}
+
+	/**
+	 * Returns a fetcher that keeps the disk cache warm: a query whose entry has
+	 * more than {@code refreshAhead} left before it reaches the cache's max age
+	 * is answered from disk, any other is fetched from the delegate and
+	 * written, replacing the entry.
+	 *
+	 * @param refreshAhead
+	 *     how long before it expires an entry is fetched again
+	 */
+	public NotamDataFetcher refresher( Duration refreshAhead )
+	{
+		return new NotamDataFetcher()
+		{
+			@Override
+			public String fetchByIcao( String icaoCode )
+					throws IOException, InterruptedException
+			{
+				return fetch( NotamQueryKey.forIcao( icaoCode ), refreshAhead );
+			}
+
+			@Override
+			public String fetchByLocation( double latitude,
+										   double longitude,
+										   double radiusNm )
+					throws IOException, InterruptedException
+			{
+				return fetch( NotamQueryKey.forLocation( latitude, longitude,
+						radiusNm ), refreshAhead );
+			}
+		};
+	}
+
+	private String fetch( NotamQueryKey key )
+			throws IOException, InterruptedException
+	{
+		return fetch( key, Duration.ZERO );
+	}
+
+	// Serves the stored body only if it has more than minTimeToLive left before it expires
+	private String fetch( NotamQueryKey key, Duration minTimeToLive )
+			throws IOException, InterruptedException
+	{
+		try {
+			final Instant now = clock.instant();
+			final Optional<DiskResponseCache.CachedResponse> cached = cache
+					.read( key, now );
+			if( cached.isPresent() && now.plus( minTimeToLive ).isBefore(
+					cached.get().getFetchedAt().plus( cache.getMaxAge() ) ) ) {
+				return cached.get().getBody();
+			}
+		}
+		catch( final IOException e ) {
+			logger.warn( "Could not read NOTAM cache entry {}: {}", key, e
+					.getMessage() );
+		}
+
+		final String response = key.fetchFrom( delegate );
+		try {
+			cache.write( key, response, clock.instant() );
+		}
+		catch( final IOException e ) {
+			logger.warn( "Could not write NOTAM cache entry {}: {}", key, e
+					.getMessage() );
+		}
+		return response;
+	}
+}
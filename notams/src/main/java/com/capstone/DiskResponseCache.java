@@ -0,0 +1,389 @@
+package com.capstone;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Stores raw NOTAM API responses on disk so they survive JVM restarts.
+ * <p>
+ * Layout of the cache directory:
+ * <ul>
+ * <li>{@code index.dat} - append-only log of fixed 24-byte records
+ * {@code (long keyHash, long fetchedAtMillis, long storedBytes)}. A record
+ * with {@code storedBytes == -1} removes the key. The file is memory-mapped
+ * and replayed into a hash map when the cache opens, so a lookup never touches
+ * the disk until the body is actually read.</li>
+ * <li>{@code <keyHash>.json.gz} - the gzip-compressed response body, preceded
+ * by the full key so a hash collision is detected instead of served.</li>
+ * </ul>
+ * Entries older than {@code maxAge} are dropped, and once the stored bytes
+ * exceed {@code maxTotalBytes} the oldest entries are evicted first. The
+ * index is only touched under the instance lock, while bodies are compressed
+ * and decompressed outside it, so one instance can be shared between threads
+ * without concurrent reads waiting on each other.
+ * <p>
+ * Several processes may share a directory, such as the briefing tool and the
+ * {@link com.capstone.services.PrefetchWarmer}. Appends to the index and its
+ * compaction hold an exclusive file lock on {@code index.lock}, and the index
+ * is read again under that lock before it is compacted, so records another
+ * process appends are never lost. Each process only sees entries written by
+ * others once it opens the cache again.
+ */
+public class DiskResponseCache
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final String INDEX_FILENAME = "index.dat";
+	private static final String LOCK_FILENAME = "index.lock";
+	private static final String BODY_SUFFIX = ".json.gz";
+	private static final int RECORD_BYTES = 3 * Long.BYTES;
+	private static final long REMOVED = -1;
+	// A JVM may not hold two locks on the same file, so instances over one directory also take turns
+	private static final Map<Path, Object> directoryLocks = new ConcurrentHashMap<>();
+
+	private final Path directory;
+	private final Path indexFile;
+	private final Path lockFile;
+	private final Duration maxAge;
+	private final long maxTotalBytes;
+	private final Map<Long, IndexEntry> index = new HashMap<>();
+	private long totalBytes;
+	private long indexRecords;
+	// Guarded by this, like the index; greater than 0 while the index file lock is held
+	private int indexLockDepth;
+
+	public DiskResponseCache( Path directory,
+							  Duration maxAge,
+							  long maxTotalBytes ) throws IOException
+	{
+		this( directory, maxAge, maxTotalBytes, Clock.systemUTC() );
+	}
+
+	/**
+	 * @param clock
+	 *     time used to drop entries that expired while the cache was closed
+	 */
+	public DiskResponseCache( Path directory,
+							  Duration maxAge,
+							  long maxTotalBytes,
+							  Clock clock ) throws IOException
+	{
+		this.directory = directory;
+		this.indexFile = directory.resolve( INDEX_FILENAME );
+		this.lockFile = directory.resolve( LOCK_FILENAME );
+		this.maxAge = maxAge;
+		this.maxTotalBytes = maxTotalBytes;
+
+		Files.createDirectories( directory );
+		withIndexLock( () -> {
+			loadIndex();
+			evict( clock.instant() );
+			if( indexRecords > 2L * index.size() ) {
+				compactIndex();
+			}
+		} );
+	}
+
+	/**
+	 * Returns the stored body for the key if one exists and is younger than
+	 * {@code maxAge}.
+	 */
+	public Optional<CachedResponse> read( NotamQueryKey key, Instant now )
+			throws IOException
+	{
+		final long hash = hash( key );
+		final IndexEntry entry;
+		synchronized( this ) {
+			entry = index.get( hash );
+			if( entry == null ) {
+				return Optional.empty();
+			}
+			if( isExpired( entry, now ) ) {
+				remove( hash );
+				return Optional.empty();
+			}
+		}
+
+		// Bodies are replaced by an atomic rename, so the file read is always a complete body
+		try (final InputStream in = new GZIPInputStream( Files.newInputStream(
+				bodyFile( hash ) ) )) {
+			final byte[] bytes = in.readAllBytes();
+			final String content = new String( bytes, StandardCharsets.UTF_8 );
+			final int newline = content.indexOf( '\n' );
+			if( newline < 0 || !content.substring( 0, newline ).equals( key
+					.toString() ) ) {
+				// Hash collision with a different query, never serve another query's body
+				return Optional.empty();
+			}
+			return Optional.of( new CachedResponse( content.substring( newline
+					+ 1 ), Instant.ofEpochMilli( entry.fetchedAtMillis ) ) );
+		}
+		catch( final NoSuchFileException e ) {
+			synchronized( this ) {
+				// Only drop the entry if no newer body was written in the meantime
+				if( index.get( hash ) == entry ) {
+					remove( hash );
+				}
+			}
+			return Optional.empty();
+		}
+	}
+
+	/** Stores the body for the key, replacing any earlier entry. */
+	public void write( NotamQueryKey key, String body, Instant fetchedAt )
+			throws IOException
+	{
+		final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (final OutputStream out = new GZIPOutputStream( compressed )) {
+			out.write( (key.toString() + "\n").getBytes(
+					StandardCharsets.UTF_8 ) );
+			out.write( body.getBytes( StandardCharsets.UTF_8 ) );
+		}
+		store( hash( key ), compressed, fetchedAt );
+	}
+
+	private synchronized void store( long hash,
+									 ByteArrayOutputStream compressed,
+									 Instant fetchedAt ) throws IOException
+	{
+		// Write then rename, so a crash never leaves a half-written body behind
+		final Path temp = Files.createTempFile( directory, "body", ".tmp" );
+		Files.write( temp, compressed.toByteArray() );
+		Files.move( temp, bodyFile( hash ), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE );
+
+		final IndexEntry previous = index.put( hash, new IndexEntry( hash,
+				fetchedAt.toEpochMilli(), compressed.size() ) );
+		if( previous != null ) {
+			totalBytes -= previous.storedBytes;
+		}
+		totalBytes += compressed.size();
+		appendRecord( hash, fetchedAt.toEpochMilli(), compressed.size() );
+		evict( fetchedAt );
+	}
+
+	public Duration getMaxAge()
+	{
+		return maxAge;
+	}
+
+	public synchronized int size()
+	{
+		return index.size();
+	}
+
+	public synchronized long getTotalBytes()
+	{
+		return totalBytes;
+	}
+
+	/** Drops expired entries, then the oldest entries until under the size limit. */
+	private void evict( Instant now ) throws IOException
+	{
+		final List<IndexEntry> byAge = new ArrayList<>( index.values() );
+		byAge.sort( Comparator.comparingLong( e -> e.fetchedAtMillis ) );
+		for( final IndexEntry entry : byAge ) {
+			if( isExpired( entry, now ) || totalBytes > maxTotalBytes ) {
+				remove( entry.hash );
+			}
+		}
+	}
+
+	private boolean isExpired( IndexEntry entry, Instant now )
+	{
+		return !now.isBefore( Instant.ofEpochMilli( entry.fetchedAtMillis )
+				.plus( maxAge ) );
+	}
+
+	private void remove( long hash ) throws IOException
+	{
+		final IndexEntry removed = index.remove( hash );
+		if( removed == null ) {
+			return;
+		}
+		totalBytes -= removed.storedBytes;
+		Files.deleteIfExists( bodyFile( hash ) );
+		appendRecord( hash, 0, REMOVED );
+	}
+
+	private void loadIndex() throws IOException
+	{
+		if( !Files.exists( indexFile ) ) {
+			return;
+		}
+		try (final FileChannel channel = FileChannel.open( indexFile,
+				StandardOpenOption.READ )) {
+			final long usable = channel.size() - channel.size() % RECORD_BYTES;
+			final MappedByteBuffer records = channel.map(
+					FileChannel.MapMode.READ_ONLY, 0, usable );
+			// Later records win, so replaying the log in order rebuilds the current state
+			while( records.remaining() >= RECORD_BYTES ) {
+				final long hash = records.getLong();
+				final long fetchedAtMillis = records.getLong();
+				final long storedBytes = records.getLong();
+				final IndexEntry previous = storedBytes == REMOVED ?
+						index.remove( hash ) :
+						index.put( hash, new IndexEntry( hash, fetchedAtMillis,
+								storedBytes ) );
+				if( previous != null ) {
+					totalBytes -= previous.storedBytes;
+				}
+				if( storedBytes != REMOVED ) {
+					totalBytes += storedBytes;
+				}
+				indexRecords++;
+			}
+		}
+	}
+
+	private void appendRecord( long hash,
+							   long fetchedAtMillis,
+							   long storedBytes ) throws IOException
+	{
+		final ByteBuffer record = ByteBuffer.allocate( RECORD_BYTES );
+		record.putLong( hash ).putLong( fetchedAtMillis ).putLong( storedBytes )
+				.flip();
+		withIndexLock( () -> {
+			try (final FileChannel channel = FileChannel.open( indexFile,
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND )) {
+				channel.write( record );
+			}
+		} );
+		indexRecords++;
+	}
+
+	// Runs the action holding the lock on index.lock, which other processes take before touching the index
+	private void withIndexLock( IndexAction action ) throws IOException
+	{
+		if( indexLockDepth > 0 ) {
+			action.run();
+			return;
+		}
+		synchronized( directoryLocks.computeIfAbsent( lockFile
+				.toAbsolutePath().normalize(), path -> new Object() ) ) {
+			try (final FileChannel channel = FileChannel.open( lockFile,
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE );
+					final FileLock lock = channel.lock()) {
+				indexLockDepth++;
+				try {
+					action.run();
+				}
+				finally {
+					indexLockDepth--;
+				}
+			}
+		}
+	}
+
+	// Rewrites the index with only live entries once removals outnumber them
+	private void compactIndex()
+	{
+		try {
+			final Path temp = Files.createTempFile( directory, "index", ".tmp" );
+			final ByteBuffer records = ByteBuffer.allocate( index.size()
+					* RECORD_BYTES );
+			for( final IndexEntry entry : index.values() ) {
+				records.putLong( entry.hash ).putLong( entry.fetchedAtMillis )
+						.putLong( entry.storedBytes );
+			}
+			Files.write( temp, records.array() );
+			Files.move( temp, indexFile, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE );
+			indexRecords = index.size();
+		}
+		catch( final IOException e ) {
+			// Compaction only saves space; a failure leaves the longer log in place
+			logger.warn( "Could not compact NOTAM cache index: {}", e
+					.getMessage() );
+		}
+	}
+
+	private Path bodyFile( long hash )
+	{
+		return directory.resolve( String.format( "%016x", hash )
+				+ BODY_SUFFIX );
+	}
+
+	// 64-bit FNV-1a over the key's stable string form
+	private static long hash( NotamQueryKey key )
+	{
+		long hash = 0xcbf29ce484222325L;
+		for( final byte b : key.toString().getBytes(
+				StandardCharsets.UTF_8 ) ) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	@FunctionalInterface
+	private interface IndexAction
+	{
+		void run() throws IOException;
+	}
+
+	/** A response body read back from disk, with the time it was fetched. */
+	public static final class CachedResponse
+	{
+		private final String body;
+		private final Instant fetchedAt;
+
+		CachedResponse( String body, Instant fetchedAt )
+		{
+			this.body = body;
+			this.fetchedAt = fetchedAt;
+		}
+
+		public String getBody()
+		{
+			return body;
+		}
+
+		public Instant getFetchedAt()
+		{
+			return fetchedAt;
+		}
+	}
+
+	private static final class IndexEntry
+	{
+		private final long hash;
+		private final long fetchedAtMillis;
+		private final long storedBytes;
+
+		private IndexEntry( long hash, long fetchedAtMillis, long storedBytes )
+		{
+			this.hash = hash;
+			this.fetchedAtMillis = fetchedAtMillis;
+			this.storedBytes = storedBytes;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.capstone;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads the features of a NOTAM API response one at a time from a stream.
+ * <p>
+ * The reader walks the token stream down to the feature array (for example
+ * {@code data.geojson} or {@code items}), skipping everything else without
+ * building it. Each feature is read into its own small tree and handed over
+ * before the next one is read, so only one feature is held in memory at a
+ * time no matter how large the response is.
+ */
+final class GeoJsonFeatureReader
+{
+	@FunctionalInterface
+	interface FeatureHandler
+	{
+		void handle( JsonNode feature );
+	}
+
+	@FunctionalInterface
+	interface RangeHandler
+	{
+		/** Receives the byte range {@code [start, end)} of one feature. */
+		void handle( long start, long end ) throws IOException,
+				InterruptedException;
+	}
+
+	private GeoJsonFeatureReader()
+	{
+
+	}
+
+	/**
+	 * Streams every object in the array found at {@code arrayPath} to the
+	 * handler. A missing path or a value that is not an array yields no
+	 * features, matching {@link JsonNode#path(String)} on a full tree.
+	 *
+	 * @throws com.fasterxml.jackson.core.JsonProcessingException
+	 *     if the body is not valid JSON
+	 */
+	static void readFeatures( ObjectMapper mapper,
+							  InputStream in,
+							  List<String> arrayPath,
+							  FeatureHandler handler ) throws IOException
+	{
+		try (final JsonParser parser = mapper.createParser( in )) {
+			if( !moveToArray( parser, arrayPath ) ) {
+				return;
+			}
+
+			while( parser.nextToken() != JsonToken.END_ARRAY ) {
+				if( parser.currentToken() == JsonToken.START_OBJECT ) {
+					handler.handle( mapper.readTree( parser ) );
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Like {@link #readFeatures}, but only reports where each object in the
+	 * array starts and ends in the stream. The features are tokenized to find
+	 * their end, never built, so this is much cheaper than reading them and
+	 * the features can be built later, elsewhere, from their bytes.
+	 *
+	 * @throws com.fasterxml.jackson.core.JsonProcessingException
+	 *     if the body is not valid JSON
+	 */
+	static void readFeatureRanges( ObjectMapper mapper,
+								   InputStream in,
+								   List<String> arrayPath,
+								   RangeHandler handler ) throws IOException,
+								   InterruptedException
+	{
+		try (final JsonParser parser = mapper.createParser( in )) {
+			if( !moveToArray( parser, arrayPath ) ) {
+				return;
+			}
+
+			while( parser.nextToken() != JsonToken.END_ARRAY ) {
+				if( parser.currentToken() == JsonToken.START_OBJECT ) {
+					final long start = parser.currentTokenLocation()
+							.getByteOffset();
+					parser.skipChildren();
+					handler.handle( start, parser.currentTokenLocation()
+							.getByteOffset() + 1 );
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
+	}
+
+	// Leaves the parser on the array at the path; false if there is none
+	private static boolean moveToArray( JsonParser parser,
+										List<String> arrayPath ) throws IOException
+	{
+		if( parser.nextToken() != JsonToken.START_OBJECT ) {
+			return false;
+		}
+		for( final String field : arrayPath ) {
+			if( !moveToField( parser, field ) ) {
+				return false;
+			}
+		}
+		return parser.currentToken() == JsonToken.START_ARRAY;
+	}
+
+	/**
+	 * Advances through the current object until {@code field}, leaving the
+	 * parser on its value. Returns false if the object has no such field or
+	 * the value found on the way down is not an object or array.
+	 */
+	private static boolean moveToField( JsonParser parser, String field )
+			throws IOException
+	{
+		if( parser.currentToken() != JsonToken.START_OBJECT ) {
+			return false;
+		}
+		while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+			final String name = parser.currentName();
+			parser.nextToken();
+			if( field.equals( name ) ) {
+				return true;
+			}
+			parser.skipChildren();
+		}
+		return false;
+	}
+}
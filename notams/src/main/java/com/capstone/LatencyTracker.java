@@ -0,0 +1,59 @@
+package com.capstone;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent request latencies in a fixed-size ring and answers
+ * percentile queries over them. Thread-safe.
+ */
+public class LatencyTracker
+{
+	private final long[] samplesNanos;
+	private int next;
+	private int count;
+
+	public LatencyTracker( int windowSize )
+	{
+		if( windowSize < 1 ) {
+			throw new IllegalArgumentException(
+					"windowSize must be >= 1, currently: " + windowSize );
+		}
+		this.samplesNanos = new long[windowSize];
+	}
+
+	public synchronized void record( Duration latency )
+	{
+		samplesNanos[next] = latency.toNanos();
+		next = (next + 1) % samplesNanos.length;
+		count = Math.min( count + 1, samplesNanos.length );
+	}
+
+	public synchronized int size()
+	{
+		return count;
+	}
+
+	/**
+	 * Returns the latency at the given percentile of the current window, for
+	 * example 0.95 for p95, or null if nothing has been recorded yet.
+	 */
+	public Duration percentile( double percentile )
+	{
+		if( percentile <= 0 || percentile > 1 ) {
+			throw new IllegalArgumentException(
+					"percentile must be in (0, 1], currently: " + percentile );
+		}
+		final long[] sorted;
+		synchronized( this ) {
+			if( count == 0 ) {
+				return null;
+			}
+			sorted = Arrays.copyOf( samplesNanos, count );
+		}
+		Arrays.sort( sorted );
+		// Nearest-rank percentile
+		final int rank = (int) Math.ceil( percentile * sorted.length );
+		return Duration.ofNanos( sorted[Math.max( 0, rank - 1 )] );
+	}
+}
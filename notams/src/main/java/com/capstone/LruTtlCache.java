@@ -0,0 +1,142 @@
+package com.capstone;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread-safe cache where every entry expires a fixed time after it
+ * was stored. When the cache is full the least recently used entry is evicted.
+ *
+ * @param <K>
+ *     key type
+ * @param <V>
+ *     value type
+ */
+public class LruTtlCache<K, V>
+{
+	private final int maxEntries;
+	private final Duration timeToLive;
+	private final Clock clock;
+	private final LinkedHashMap<K, Entry<V>> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public LruTtlCache( int maxEntries, Duration timeToLive, Clock clock )
+	{
+		if( maxEntries < 1 ) {
+			throw new IllegalArgumentException(
+					"maxEntries must be >= 1, currently: " + maxEntries );
+		}
+		if( timeToLive.isNegative() || timeToLive.isZero() ) {
+			throw new IllegalArgumentException(
+					"timeToLive must be positive, currently: " + timeToLive );
+		}
+		this.maxEntries = maxEntries;
+		this.timeToLive = timeToLive;
+		this.clock = clock;
+		// accessOrder = true keeps the least recently used entry first
+		this.entries = new LinkedHashMap<>( 16, 0.75f, true )
+		{
+			@Override
+			protected boolean removeEldestEntry( Map.Entry<K, Entry<V>> eldest )
+			{
+				return size() > LruTtlCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached value, or null if it is missing or has expired.
+	 * Counts a hit or a miss.
+	 */
+	public V get( K key )
+	{
+		final Instant now = clock.instant();
+		synchronized( entries ) {
+			final Entry<V> entry = entries.get( key );
+			if( entry != null && now.isBefore( entry.expiresAt ) ) {
+				hits.incrementAndGet();
+				return entry.value;
+			}
+			if( entry != null ) {
+				entries.remove( key );
+			}
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Returns the cached value if it will still be valid {@code minTimeToLive}
+	 * from now, otherwise null. Counts neither a hit nor a miss.
+	 */
+	public V peek( K key, Duration minTimeToLive )
+	{
+		final Instant validUntil = clock.instant().plus( minTimeToLive );
+		synchronized( entries ) {
+			final Entry<V> entry = entries.get( key );
+			if( entry != null && validUntil.isBefore( entry.expiresAt ) ) {
+				return entry.value;
+			}
+		}
+		return null;
+	}
+
+	public void put( K key, V value )
+	{
+		final Entry<V> entry = new Entry<>( value, clock.instant().plus(
+				timeToLive ) );
+		synchronized( entries ) {
+			entries.put( key, entry );
+		}
+	}
+
+	public void invalidate( K key )
+	{
+		synchronized( entries ) {
+			entries.remove( key );
+		}
+	}
+
+	public void clear()
+	{
+		synchronized( entries ) {
+			entries.clear();
+		}
+	}
+
+	/** Returns the number of stored entries, including any not yet purged after expiring. */
+	public int size()
+	{
+		synchronized( entries ) {
+			return entries.size();
+		}
+	}
+
+	public long getHitCount()
+	{
+		return hits.get();
+	}
+
+	public long getMissCount()
+	{
+		return misses.get();
+	}
+
+	private static final class Entry<V>
+	{
+		private final V value;
+		private final Instant expiresAt;
+
+		private Entry( V value, Instant expiresAt )
+		{
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
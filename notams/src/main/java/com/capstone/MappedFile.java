@@ -0,0 +1,148 @@
+package com.capstone;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read-only file mapped into memory, of any size.
+ * <p>
+ * One mapping is limited to 2 GB, so the file is mapped as consecutive
+ * windows. The mapped pages live outside the heap and are loaded and dropped
+ * by the operating system as they are touched, so even a file larger than the
+ * heap can be read. Reads by position never change any shared state and may
+ * run on several threads at once.
+ */
+final class MappedFile
+{
+	// Below the 2 GB limit of a single mapping
+	static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+	private final List<MappedByteBuffer> windows = new ArrayList<>();
+	private final long windowSize;
+	private final long size;
+
+	private MappedFile( List<MappedByteBuffer> windows,
+						long windowSize,
+						long size )
+	{
+		this.windows.addAll( windows );
+		this.windowSize = windowSize;
+		this.size = size;
+	}
+
+	static MappedFile open( Path path ) throws IOException
+	{
+		return open( path, DEFAULT_WINDOW_SIZE );
+	}
+
+	// Package-private for testing windows smaller than a gigabyte
+	static MappedFile open( Path path, long windowSize ) throws IOException
+	{
+		if( windowSize < 1 || windowSize > Integer.MAX_VALUE ) {
+			throw new IllegalArgumentException(
+					"windowSize must be in [1, 2^31 - 1], currently: "
+							+ windowSize );
+		}
+		// The mappings stay valid after the channel is closed
+		try (final FileChannel channel = FileChannel.open( path,
+				StandardOpenOption.READ )) {
+			final long size = channel.size();
+			final List<MappedByteBuffer> windows = new ArrayList<>();
+			for( long offset = 0; offset < size; offset += windowSize ) {
+				windows.add( channel.map( FileChannel.MapMode.READ_ONLY, offset,
+						Math.min( windowSize, size - offset ) ) );
+			}
+			return new MappedFile( windows, windowSize, size );
+		}
+	}
+
+	long size()
+	{
+		return size;
+	}
+
+	/**
+	 * Copies {@code length} bytes starting at {@code offset} into a new array.
+	 */
+	byte[] read( long offset, int length )
+	{
+		if( offset < 0 || length < 0 || offset + length > size ) {
+			throw new IndexOutOfBoundsException( "Range [" + offset + ", "
+					+ (offset + length) + ") is outside the file of " + size
+					+ " bytes" );
+		}
+		final byte[] bytes = new byte[length];
+		int copied = 0;
+		while( copied < length ) {
+			final long position = offset + copied;
+			final MappedByteBuffer window = windows.get( (int) (position
+					/ windowSize) );
+			final int index = (int) (position % windowSize);
+			final int count = Math.min( length - copied, window.limit()
+					- index );
+			window.get( index, bytes, copied, count );
+			copied += count;
+		}
+		return bytes;
+	}
+
+	/** Returns a stream over the whole file, independent of other streams. */
+	InputStream newInputStream()
+	{
+		return new InputStream()
+		{
+			private long position;
+
+			@Override
+			public int read()
+			{
+				if( position >= size ) {
+					return -1;
+				}
+				final MappedByteBuffer window = windows.get( (int) (position
+						/ windowSize) );
+				return window.get( (int) (position++ % windowSize) ) & 0xFF;
+			}
+
+			@Override
+			public int read( byte[] buffer, int off, int len )
+			{
+				if( len == 0 ) {
+					return 0;
+				}
+				if( position >= size ) {
+					return -1;
+				}
+				final MappedByteBuffer window = windows.get( (int) (position
+						/ windowSize) );
+				final int index = (int) (position % windowSize);
+				// Stops at the end of the window; callers read again for the rest
+				final int count = Math.min( len, window.limit() - index );
+				window.get( index, buffer, off, count );
+				position += count;
+				return count;
+			}
+
+			@Override
+			public long skip( long n )
+			{
+				final long skipped = Math.max( 0, Math.min( n, size
+						- position ) );
+				position += skipped;
+				return skipped;
+			}
+
+			@Override
+			public int available()
+			{
+				return (int) Math.min( Integer.MAX_VALUE, size - position );
+			}
+		};
+	}
+}
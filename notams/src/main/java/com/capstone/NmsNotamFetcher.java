@@ -2,9 +2,8 @@ package com.capstone;
 
 import com.capstone.exceptions.NotamApiException;
 
-import io.github.cdimascio.dotenv.Dotenv;
-
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
@@ -12,53 +11,59 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Base64;
-
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Fetches raw NOTAM JSON from the NMS API.
  * <p>
- * How it works: - First requests a bearer token using the client credentials
- * flow - Reuses the token until it is close to expiration - Sends authenticated
- * NOTAM requests using the bearer token - Supports fetching NOTAMs by ICAO code
- * or by latitude/longitude/radius
+ * How it works: - Gets a bearer token from a {@link BearerTokenManager}, which
+ * runs the client credentials flow and refreshes the token in the background
+ * - Sends authenticated NOTAM requests using the bearer token - Supports
+ * fetching NOTAMs by ICAO code or by latitude/longitude/radius
  * <p>
- * - Returns raw JSON as a String
+ * - Returns raw JSON as a String, or as an unread stream from the
+ * {@code stream...} methods so large responses can be parsed as they arrive
  *
  */
 public class NmsNotamFetcher implements NotamDataFetcher
 {
-	// NM = Nautical Miles. Max allowed by API
-	private static final int MAX_RADIUS_NM = 100;
 	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds( 30 );
-	// Refresh token slightly before expiration to avoid edge-case failures
-	private static final long TOKEN_REFRESH_BUFFER_SECONDS = 60;
-	private static final long DEFAULT_TOKEN_TTL_SECONDS = 1800;
-
-	private static final ObjectMapper mapper = new ObjectMapper();
 
-	private final String clientId;
-	private final String clientSecret;
-	private final String authUrl;
+	private final BearerTokenManager tokenManager;
 	private final String notamBaseUrl;
 	private final HttpClient httpClient;
 
-	private String bearerToken;
-	private Instant tokenExpiresAt;
-
 	public NmsNotamFetcher()
 	{
-		Dotenv dotenv = Dotenv.load();
-		this.clientId = requireEnv( dotenv, "CLIENT_ID" );
-		this.clientSecret = requireEnv( dotenv, "CLIENT_SECRET" );
-		this.authUrl = requireEnv( dotenv, "NMS_AUTH_URL" );
-		this.notamBaseUrl = requireEnv( dotenv, "NMS_NOTAM_BASE_URL" );
-
-		this.httpClient = HttpClient.newBuilder()
-				.connectTimeout( REQUEST_TIMEOUT ).build();
+		this( NotamHttpContext.shared() );
+	}
+
+	/**
+	 * Reads the NMS settings from the context and uses its shared client. The
+	 * connections to the NOTAM and auth hosts are warmed in the background.
+	 */
+	public NmsNotamFetcher( NotamHttpContext context )
+	{
+		String clientId = context.require( "CLIENT_ID" );
+		String clientSecret = context.require( "CLIENT_SECRET" );
+		String authUrl = context.require( "NMS_AUTH_URL" );
+		this.notamBaseUrl = context.require( "NMS_NOTAM_BASE_URL" );
+
+		this.httpClient = context.getHttpClient();
+		// Shared so every fetcher in the process uses the same token
+		this.tokenManager = BearerTokenManager.shared( clientId, clientSecret,
+				authUrl, httpClient );
+		context.warmUp( notamBaseUrl, authUrl );
+	}
+
+	public NmsNotamFetcher( BearerTokenManager tokenManager,
+							String notamBaseUrl,
+							HttpClient httpClient )
+	{
+		this.tokenManager = tokenManager;
+		this.notamBaseUrl = notamBaseUrl;
+		this.httpClient = httpClient;
 	}
 
 	// Test-only constructor for injecting mock dependencies
@@ -68,142 +73,171 @@ public class NmsNotamFetcher implements NotamDataFetcher
 					 String notamBaseUrl,
 					 HttpClient httpClient )
 	{
-		this.clientId = clientId;
-		this.clientSecret = clientSecret;
-		this.authUrl = authUrl;
-		this.notamBaseUrl = notamBaseUrl;
-		this.httpClient = httpClient;
+		this( new BearerTokenManager( clientId, clientSecret, authUrl,
+				httpClient ), notamBaseUrl, httpClient );
 	}
 
 	public String fetchByIcao( String icaoCode )
 			throws IOException, InterruptedException
 	{
-		validateIcaoCode( icaoCode );
-
-		String location = icaoCode.toUpperCase();
-		String url = notamBaseUrl + "?location=" + URLEncoder.encode( location,
-				StandardCharsets.UTF_8 );
+		return sendNotamRequest( icaoUrl( icaoCode ) );
+	}
 
-		return sendNotamRequest( url );
+	@Override
+	public InputStream streamByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return sendStreamingNotamRequest( icaoUrl( icaoCode ) );
 	}
 
 	public String fetchByLocation( double latitude,
 								   double longitude,
 								   double radiusNm )
 			throws IOException, InterruptedException
+	{
+		return sendNotamRequest( locationUrl( latitude, longitude, radiusNm ) );
+	}
+
+	@Override
+	public InputStream streamByLocation( double latitude,
+										 double longitude,
+										 double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return sendStreamingNotamRequest( locationUrl( latitude, longitude,
+				radiusNm ) );
+	}
+
+	@Override
+	public CompletableFuture<String> fetchByIcaoAsync( String icaoCode,
+													   Duration deadline )
+	{
+		try {
+			return sendNotamRequestAsync( icaoUrl( icaoCode ), deadline );
+		}
+		catch( IllegalArgumentException e ) {
+			return CompletableFuture.failedFuture( e );
+		}
+	}
+
+	@Override
+	public CompletableFuture<String> fetchByLocationAsync( double latitude,
+														   double longitude,
+														   double radiusNm,
+														   Duration deadline )
+	{
+		try {
+			return sendNotamRequestAsync( locationUrl( latitude, longitude,
+					radiusNm ), deadline );
+		}
+		catch( IllegalArgumentException e ) {
+			return CompletableFuture.failedFuture( e );
+		}
+	}
+
+	private String icaoUrl( String icaoCode )
+	{
+		validateIcaoCode( icaoCode );
+
+		String location = icaoCode.toUpperCase();
+		return notamBaseUrl + "?location=" + URLEncoder.encode( location,
+				StandardCharsets.UTF_8 );
+	}
+
+	private String locationUrl( double latitude,
+								double longitude,
+								double radiusNm )
 	{
 		validateCoordinates( latitude, longitude );
 		validateRadius( radiusNm );
 
-		String url = notamBaseUrl + "?latitude=" + latitude + "&longitude="
+		return notamBaseUrl + "?latitude=" + latitude + "&longitude="
 				+ longitude + "&radius=" + radiusNm;
-
-		return sendNotamRequest( url );
 	}
 
 	// Sends the NOTAM request with the required headers.
 	private String sendNotamRequest( String url )
 			throws IOException, InterruptedException
 	{
-		String token = getBearerToken();
+		HttpResponse<String> response = httpClient.send( buildNotamRequest(
+				url, tokenManager.getToken(), REQUEST_TIMEOUT ),
+				ContentEncoding.ofString() );
 
-		HttpRequest request = HttpRequest.newBuilder().uri( URI.create( url ) )
-				.header( "Authorization", "Bearer " + token )
-				.header( "Accept", "application/json" )
-				.header( "nmsResponseFormat", "GEOJSON" ).GET()
-				.timeout( REQUEST_TIMEOUT ).build();
+		return bodyOrThrow( response );
+	}
 
-		HttpResponse<String> response = httpClient.send( request,
-				HttpResponse.BodyHandlers.ofString() );
+	// Same as sendNotamRequest, but never blocks; the request timeout is cut to the deadline if that is sooner
+	private CompletableFuture<String> sendNotamRequestAsync( String url,
+															 Duration deadline )
+	{
+		// Set once the token is known, so a cancelled call can abort the exchange
+		AtomicReference<CompletableFuture<?>> exchange = new AtomicReference<>();
+		CompletableFuture<String> result = tokenManager.getTokenAsync()
+				.thenCompose( token -> {
+					CompletableFuture<HttpResponse<String>> sent = httpClient
+							.sendAsync( buildNotamRequest( url, token,
+									AsyncCalls.requestTimeout( REQUEST_TIMEOUT,
+											deadline ) ),
+									ContentEncoding.ofString() );
+					exchange.set( sent );
+					return sent;
+				} ).thenApply( NmsNotamFetcher::bodyOrThrow );
+
+		result.whenComplete( ( body, failure ) -> {
+			CompletableFuture<?> sent = exchange.get();
+			if( failure != null && sent != null ) {
+				sent.cancel( true );
+			}
+		} );
+		return AsyncCalls.withDeadline( result, deadline );
+	}
 
+	private static String bodyOrThrow( HttpResponse<String> response )
+	{
 		int status = response.statusCode();
 		if( status < 200 || status >= 300 ) {
 			throw new NotamApiException( status,
 					"NOTAM API returned HTTP " + status + ": "
-							+ response.body() );
+							+ response.body(), RetryAfterHeader.parse(
+									response ) );
 		}
 
 		return response.body();
 	}
 
-	private String getBearerToken() throws IOException, InterruptedException
+	// Same as sendNotamRequest, but hands back the body unread so it can be parsed as it arrives
+	private InputStream sendStreamingNotamRequest( String url )
+			throws IOException, InterruptedException
 	{
-		if( bearerToken != null && tokenExpiresAt != null && Instant.now()
-				.isBefore( tokenExpiresAt ) ) {
-			return bearerToken;
-		}
-
-		String basicAuth = Base64.getEncoder().encodeToString(
-				(clientId + ":" + clientSecret).getBytes(
-						StandardCharsets.UTF_8 ) );
-
-		HttpRequest request = HttpRequest.newBuilder()
-				.uri( URI.create( authUrl ) )
-				.header( "Authorization", "Basic " + basicAuth )
-				.header( "Content-Type", "application/x-www-form-urlencoded" )
-				.header( "Accept", "application/json" )
-				.POST( HttpRequest.BodyPublishers.ofString(
-						"grant_type=client_credentials" ) )
-				.timeout( REQUEST_TIMEOUT ).build();
-
-		HttpResponse<String> response = httpClient.send( request,
-				HttpResponse.BodyHandlers.ofString() );
+		HttpResponse<InputStream> response = httpClient.send(
+				buildNotamRequest( url, tokenManager.getToken(),
+						REQUEST_TIMEOUT ),
+				ContentEncoding.ofInputStream() );
 
 		int status = response.statusCode();
 		if( status < 200 || status >= 300 ) {
+			String body;
+			try (InputStream in = response.body()) {
+				body = new String( in.readAllBytes(), StandardCharsets.UTF_8 );
+			}
 			throw new NotamApiException( status,
-					"Token request returned HTTP " + status + ": "
-							+ response.body() );
+					"NOTAM API returned HTTP " + status + ": " + body,
+					RetryAfterHeader.parse( response ) );
 		}
 
-		String accessToken = parseAccessToken( response.body() );
-		long expiresInSeconds = parseExpiresInSeconds( response.body() );
-
-		this.bearerToken = accessToken;
-
-		// Clamp to 0 in case the server returns an expires_in shorter than the buffer
-		this.tokenExpiresAt = Instant.now().plusSeconds( Math.max( 0,
-				expiresInSeconds - TOKEN_REFRESH_BUFFER_SECONDS ) );
-
-		return bearerToken;
-	}
-
-	private static String parseAccessToken( String responseBody )
-	{
-		try {
-			JsonNode root = mapper.readTree( responseBody );
-			JsonNode tokenNode = root.get( "access_token" );
-
-			if( tokenNode == null || tokenNode.isNull() ) {
-				throw new IllegalStateException(
-						"access_token was not found in token response: "
-								+ responseBody );
-			}
-
-			return tokenNode.asText();
-		}
-		catch( Exception e ) {
-			throw new IllegalStateException(
-					"Failed to parse access_token from response: "
-							+ responseBody, e );
-		}
+		return response.body();
 	}
 
-	private static long parseExpiresInSeconds( String responseBody )
+	private HttpRequest buildNotamRequest( String url,
+										   String token,
+										   Duration timeout )
 	{
-		try {
-			JsonNode root = mapper.readTree( responseBody );
-			JsonNode expiresNode = root.get( "expires_in" );
-
-			if( expiresNode == null || expiresNode.isNull() ) {
-				return DEFAULT_TOKEN_TTL_SECONDS;
-			}
-
-			return expiresNode.asLong();
-		}
-		catch( Exception e ) {
-			return DEFAULT_TOKEN_TTL_SECONDS;
-		}
+		return HttpRequest.newBuilder().uri( URI.create( url ) )
+				.header( "Authorization", "Bearer " + token )
+				.header( "Accept", "application/json" )
+				.header( "Accept-Encoding", ContentEncoding.ACCEPT_ENCODING )
+				.header( "nmsResponseFormat", "GEOJSON" ).GET()
+				.timeout( timeout ).build();
 	}
 
 	// Request validation
@@ -244,14 +278,4 @@ public class NmsNotamFetcher implements NotamDataFetcher
 							+ ", currently: " + radiusNm );
 		}
 	}
-
-	private static String requireEnv( Dotenv dotenv, String key )
-	{
-		String value = dotenv.get( key );
-		if( value == null || value.isBlank() ) {
-			throw new IllegalArgumentException(
-					key + " is missing from .env file" );
-		}
-		return value;
-	}
 }
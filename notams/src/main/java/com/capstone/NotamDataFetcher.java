@@ -1,12 +1,97 @@
 package com.capstone;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 public interface NotamDataFetcher
 {
+	// NM = Nautical Miles. Largest query radius allowed by the NOTAM APIs
+	int MAX_RADIUS_NM = 100;
+
 	String fetchByIcao( String icaoCode )
 			throws IOException, InterruptedException;
 
 	String fetchByLocation( double latitude, double longitude, double radiusNm )
 			throws IOException, InterruptedException;
+
+	/**
+	 * Opens the response for an ICAO query as a stream, so it can be parsed
+	 * while it is still arriving. The caller must close the stream. The
+	 * default buffers {@link #fetchByIcao(String)}; fetchers that talk to the
+	 * API override it to stream the HTTP body directly.
+	 */
+	default InputStream streamByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return new ByteArrayInputStream( fetchByIcao( icaoCode ).getBytes(
+				StandardCharsets.UTF_8 ) );
+	}
+
+	/**
+	 * Opens the response for a location query as a stream. See
+	 * {@link #streamByIcao(String)}.
+	 */
+	default InputStream streamByLocation( double latitude,
+										  double longitude,
+										  double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return new ByteArrayInputStream( fetchByLocation( latitude, longitude,
+				radiusNm ).getBytes( StandardCharsets.UTF_8 ) );
+	}
+
+	/**
+	 * Asynchronous {@link #fetchByIcao(String)}. Cancelling the future aborts
+	 * the request. I/O failures complete it with a CompletionException around
+	 * the IOException; API errors complete it with the NotamApiException.
+	 */
+	default CompletableFuture<String> fetchByIcaoAsync( String icaoCode )
+	{
+		return fetchByIcaoAsync( icaoCode, null );
+	}
+
+	/**
+	 * Asynchronous {@link #fetchByIcao(String)} that fails with a
+	 * TimeoutException, and aborts the request, once {@code deadline} has
+	 * passed. The default runs the blocking method on a virtual thread;
+	 * fetchers that talk to the API override it to use
+	 * {@code HttpClient.sendAsync}.
+	 *
+	 * @param deadline
+	 *     longest time the call may take; null for no deadline
+	 */
+	default CompletableFuture<String> fetchByIcaoAsync( String icaoCode,
+														Duration deadline )
+	{
+		return AsyncCalls.onVirtualThread( () -> fetchByIcao( icaoCode ),
+				deadline );
+	}
+
+	/**
+	 * Asynchronous {@link #fetchByLocation(double, double, double)}. See
+	 * {@link #fetchByIcaoAsync(String)}.
+	 */
+	default CompletableFuture<String> fetchByLocationAsync( double latitude,
+															double longitude,
+															double radiusNm )
+	{
+		return fetchByLocationAsync( latitude, longitude, radiusNm, null );
+	}
+
+	/**
+	 * Asynchronous {@link #fetchByLocation(double, double, double)} with a
+	 * deadline. See {@link #fetchByIcaoAsync(String, Duration)}.
+	 */
+	default CompletableFuture<String> fetchByLocationAsync( double latitude,
+															double longitude,
+															double radiusNm,
+															Duration deadline )
+	{
+		return AsyncCalls.onVirtualThread( () -> fetchByLocation( latitude,
+				longitude, radiusNm ), deadline );
+	}
 }
@@ -2,51 +2,144 @@ package com.capstone;
 
 import com.capstone.exceptions.NotamApiException;
 
-import io.github.cdimascio.dotenv.Dotenv;
-
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 // This class returns raw Json. No mapping or parsing is done here
 
 public class NotamFetcher implements NotamDataFetcher
 {
-	private static final String BASE_URL = "https://external-api.faa.gov/notamapi/v1/notams";
+	public static final String DEFAULT_BASE_URL = "https://external-api.faa.gov/notamapi/v1/notams";
 	private static final int DEFAULT_PAGE_SIZE = 1000; // Large number to pull up to 1000 notams at once
-	private static final int MAX_RADIUS_NM = 100; // NM = Nautical Miles. Max allowed by API
 	private static final Duration TIMEOUT = Duration.ofSeconds( 30 );
+	// Default upper bound on pages fetched for one query, 10 pages = 10,000 NOTAMs
+	public static final int DEFAULT_MAX_PAGES = 10;
+	// Pages after the first that may be in flight at once
+	public static final int DEFAULT_MAX_CONCURRENT_PAGES = 4;
+
+	private static final Logger logger = LogManager.getLogger();
+	private static final JsonFactory jsonFactory = new JsonFactory();
 
 	private final String clientId;
 	private final String clientSecret;
+	private final String baseUrl;
 	private final HttpClient httpClient;
+	private final int maxPages;
 
 	public NotamFetcher()
 	{
-		Dotenv dotenv = Dotenv.load();
-		this.clientId = requireEnv( dotenv, "CLIENT_ID" );
-		this.clientSecret = requireEnv( dotenv, "CLIENT_SECRET" );
+		this( NotamHttpContext.shared() );
+	}
 
-		this.httpClient = HttpClient.newBuilder().connectTimeout( TIMEOUT )
-				.build();
+	/**
+	 * Uses the context's shared client and warms the connection to the API in
+	 * the background. The optional {@code FAA_NOTAM_BASE_URL} entry points the
+	 * fetcher at another server, such as a local stand-in, and the optional
+	 * {@code FAA_NOTAM_MAX_PAGES} entry changes {@link #DEFAULT_MAX_PAGES}.
+	 */
+	public NotamFetcher( NotamHttpContext context )
+	{
+		this( context.require( "CLIENT_ID" ), context.require(
+				"CLIENT_SECRET" ), baseUrlOf( context ), context
+						.getHttpClient(), maxPagesOf( context ) );
+		context.warmUp( baseUrl );
 	}
 
-	// Package-private constructor for testing purposes
-	NotamFetcher( String clientId, String clientSecret, HttpClient httpClient )
+	public NotamFetcher( String clientId,
+						 String clientSecret,
+						 String baseUrl,
+						 HttpClient httpClient )
+	{
+		this( clientId, clientSecret, baseUrl, httpClient, DEFAULT_MAX_PAGES );
+	}
+
+	/**
+	 * @param maxPages
+	 *     most pages fetched for one query; results beyond them are dropped
+	 *     with a warning
+	 */
+	public NotamFetcher( String clientId,
+						 String clientSecret,
+						 String baseUrl,
+						 HttpClient httpClient,
+						 int maxPages )
 	{
+		if( maxPages < 1 ) {
+			throw new IllegalArgumentException(
+					"maxPages must be >= 1, currently: " + maxPages );
+		}
 		this.clientId = clientId;
 		this.clientSecret = clientSecret;
+		this.baseUrl = baseUrl;
 		this.httpClient = httpClient;
+		this.maxPages = maxPages;
+	}
+
+	// Package-private constructor for testing purposes
+	NotamFetcher( String clientId, String clientSecret, HttpClient httpClient )
+	{
+		this( clientId, clientSecret, DEFAULT_BASE_URL, httpClient );
 	}
 
-	// Overload: defaults to page 1 and DEFAULT_PAGE_SIZE results.
+	private static String baseUrlOf( NotamHttpContext context )
+	{
+		String baseUrl = context.get( "FAA_NOTAM_BASE_URL" );
+		return baseUrl == null || baseUrl.isBlank() ? DEFAULT_BASE_URL
+				: baseUrl;
+	}
+
+	private static int maxPagesOf( NotamHttpContext context )
+	{
+		String maxPages = context.get( "FAA_NOTAM_MAX_PAGES" );
+		if( maxPages == null || maxPages.isBlank() ) {
+			return DEFAULT_MAX_PAGES;
+		}
+		try {
+			return Integer.parseInt( maxPages.trim() );
+		}
+		catch( NumberFormatException e ) {
+			throw new IllegalStateException(
+					"FAA_NOTAM_MAX_PAGES must be a whole number, currently: "
+							+ maxPages, e );
+		}
+	}
+
+	/**
+	 * Fetches every page for the ICAO code, up to the fetcher's page limit,
+	 * and returns them as one response whose {@code items} hold the NOTAMs of
+	 * all pages.
+	 */
 	public String fetchByIcao( String icaoCode )
 			throws IOException, InterruptedException
 	{
-		return fetchByIcao( icaoCode, DEFAULT_PAGE_SIZE, 1 );
+		return mergePages( fetchAllPagesByIcao( icaoCode ) );
 	}
 
 	// Overload: can specify pageNum and pageSize
@@ -54,27 +147,33 @@ public class NotamFetcher implements NotamDataFetcher
 			throws IOException, InterruptedException
 	{
 
-		validateIcaoCode( icaoCode );
-		validatePagination( pageSize, pageNum );
-
-		String icao = icaoCode.toUpperCase();
-
-		String url =
-				BASE_URL + "?" + "responseFormat=geoJson" + "&icaoLocation="
-						+ icao + "&pageSize=" + pageSize + "&pageNum="
-						+ pageNum;
+		return sendRequest( icaoUrl( icaoCode, pageSize, pageNum ) );
+	}
 
-		return sendRequest( url );
+	/**
+	 * Like {@link #fetchByIcao(String)}. The page count is only known once the
+	 * first page has been read, so the pages are read in full before the
+	 * stream is returned; a single page is streamed from its one buffer.
+	 */
+	@Override
+	public InputStream streamByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return new ByteArrayInputStream( fetchByIcao( icaoCode ).getBytes(
+				StandardCharsets.UTF_8 ) );
 	}
 
-	// Overload: defaults to page 1 and DEFAULT_PAGE_SIZE results.
+	/**
+	 * Fetches every page for the location, up to the fetcher's page limit,
+	 * and returns them as one response. See {@link #fetchByIcao(String)}.
+	 */
 	public String fetchByLocation( double latitude,
 								   double longitude,
 								   double radiusNm )
 			throws IOException, InterruptedException
 	{
-		return fetchByLocation( latitude, longitude, radiusNm,
-				DEFAULT_PAGE_SIZE, 1 );
+		return mergePages( fetchAllPagesByLocation( latitude, longitude,
+				radiusNm ) );
 	}
 
 	// Overload: can specify pageSize and pageNum.
@@ -86,42 +185,427 @@ public class NotamFetcher implements NotamDataFetcher
 			throws IOException, InterruptedException
 	{
 
+		return sendRequest( locationUrl( latitude, longitude, radiusNm, pageSize,
+				pageNum ) );
+	}
+
+	// Like fetchByLocation, read in full for the same reason as streamByIcao
+	@Override
+	public InputStream streamByLocation( double latitude,
+										 double longitude,
+										 double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return new ByteArrayInputStream( fetchByLocation( latitude, longitude,
+				radiusNm ).getBytes( StandardCharsets.UTF_8 ) );
+	}
+
+	// Every page as one response like fetchByIcao, sent with HttpClient.sendAsync
+	@Override
+	public CompletableFuture<String> fetchByIcaoAsync( String icaoCode,
+													   Duration deadline )
+	{
+		try {
+			validateIcaoCode( icaoCode );
+			return fetchAllPagesAsync( pageNum -> icaoUrl( icaoCode,
+					DEFAULT_PAGE_SIZE, pageNum ), deadline );
+		}
+		catch( IllegalArgumentException e ) {
+			return CompletableFuture.failedFuture( e );
+		}
+	}
+
+	// Every page as one response like fetchByLocation, sent with HttpClient.sendAsync
+	@Override
+	public CompletableFuture<String> fetchByLocationAsync( double latitude,
+														   double longitude,
+														   double radiusNm,
+														   Duration deadline )
+	{
+		try {
+			validateCoordinates( latitude, longitude );
+			validateRadius( radiusNm );
+			return fetchAllPagesAsync( pageNum -> locationUrl( latitude,
+					longitude, radiusNm, DEFAULT_PAGE_SIZE, pageNum ),
+					deadline );
+		}
+		catch( IllegalArgumentException e ) {
+			return CompletableFuture.failedFuture( e );
+		}
+	}
+
+	/**
+	 * Fetches every page for an ICAO code, up to the fetcher's page limit,
+	 * and returns the raw JSON of each page in page order.
+	 */
+	public List<String> fetchAllPagesByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		final List<String> pages = new ArrayList<>();
+		fetchAllPagesByIcao( icaoCode, pages::add );
+		return pages;
+	}
+
+	/**
+	 * Fetches every page for an ICAO code, up to the fetcher's page limit.
+	 * The first page says how many pages there are; the rest are then
+	 * fetched concurrently, and each page is handed to {@code pageConsumer}
+	 * in page order as soon as it and all earlier pages have arrived.
+	 */
+	public void fetchAllPagesByIcao( String icaoCode,
+									 Consumer<String> pageConsumer )
+			throws IOException, InterruptedException
+	{
+		validateIcaoCode( icaoCode );
+		fetchAllPages( pageNum -> icaoUrl( icaoCode, DEFAULT_PAGE_SIZE,
+				pageNum ), pageConsumer );
+	}
+
+	/**
+	 * Fetches every page for a location, up to the fetcher's page limit,
+	 * and returns the raw JSON of each page in page order.
+	 */
+	public List<String> fetchAllPagesByLocation( double latitude,
+												 double longitude,
+												 double radiusNm )
+			throws IOException, InterruptedException
+	{
+		final List<String> pages = new ArrayList<>();
+		fetchAllPagesByLocation( latitude, longitude, radiusNm, pages::add );
+		return pages;
+	}
+
+	/**
+	 * Fetches every page for a location, up to the fetcher's page limit.
+	 * See {@link #fetchAllPagesByIcao(String, Consumer)}.
+	 */
+	public void fetchAllPagesByLocation( double latitude,
+										 double longitude,
+										 double radiusNm,
+										 Consumer<String> pageConsumer )
+			throws IOException, InterruptedException
+	{
 		validateCoordinates( latitude, longitude );
 		validateRadius( radiusNm );
+		fetchAllPages( pageNum -> locationUrl( latitude, longitude, radiusNm,
+				DEFAULT_PAGE_SIZE, pageNum ), pageConsumer );
+	}
+
+	private void fetchAllPages( IntFunction<String> urlForPage,
+								Consumer<String> pageConsumer )
+			throws IOException, InterruptedException
+	{
+		final String firstPage = sendRequest( urlForPage.apply( 1 ) );
+		final int lastPage = lastPage( readTotalPages( firstPage ) );
+		pageConsumer.accept( firstPage );
+		if( lastPage <= 1 ) {
+			return;
+		}
+
+		final Semaphore permits = new Semaphore( DEFAULT_MAX_CONCURRENT_PAGES );
+		try (final ExecutorService executor = Executors
+				.newVirtualThreadPerTaskExecutor()) {
+			final List<Future<String>> pages = new ArrayList<>();
+			for( int pageNum = 2; pageNum <= lastPage; pageNum++ ) {
+				final String url = urlForPage.apply( pageNum );
+				pages.add( executor.submit( () -> {
+					permits.acquire();
+					try {
+						return sendRequest( url );
+					}
+					finally {
+						permits.release();
+					}
+				} ) );
+			}
+
+			// Joined in page order, so a page is only handed over after every earlier page
+			for( final Future<String> page : pages ) {
+				pageConsumer.accept( awaitPage( page, pages ) );
+			}
+		}
+	}
+
+	// Fetches page 1, then every other page at once, and merges them. Failing or cancelling the
+	// result aborts every exchange still running.
+	private CompletableFuture<String> fetchAllPagesAsync( IntFunction<String> urlForPage,
+														  Duration deadline )
+	{
+		final CompletableFuture<String> result = new CompletableFuture<>();
+		final CompletableFuture<String> firstPage = sendRequestAsync( urlForPage
+				.apply( 1 ), deadline );
+		AsyncCalls.cancelUpstreamOnFailure( result, firstPage );
+		firstPage.whenComplete( ( body, failure ) -> {
+			if( failure != null ) {
+				result.completeExceptionally( unwrap( failure ) );
+				return;
+			}
+			final List<CompletableFuture<String>> pages = new ArrayList<>();
+			pages.add( firstPage );
+			try {
+				final int lastPage = lastPage( readTotalPages( body ) );
+				for( int pageNum = 2; pageNum <= lastPage && !result
+						.isDone(); pageNum++ ) {
+					final CompletableFuture<String> page = sendRequestAsync(
+							urlForPage.apply( pageNum ), deadline );
+					AsyncCalls.cancelUpstreamOnFailure( result, page );
+					pages.add( page );
+				}
+			}
+			catch( IOException | RuntimeException e ) {
+				result.completeExceptionally( e );
+				return;
+			}
+			CompletableFuture.allOf( pages.toArray( CompletableFuture[]::new ) )
+					.whenComplete( ( done, pageFailure ) -> {
+						if( pageFailure != null ) {
+							result.completeExceptionally( unwrap( pageFailure ) );
+							return;
+						}
+						try {
+							result.complete( mergePages( pages.stream().map(
+									CompletableFuture::join ).toList() ) );
+						}
+						catch( IOException e ) {
+							result.completeExceptionally( e );
+						}
+					} );
+		} );
+		return AsyncCalls.withDeadline( result, deadline );
+	}
+
+	private static Throwable unwrap( Throwable failure )
+	{
+		return failure instanceof CompletionException && failure
+				.getCause() != null ? failure.getCause() : failure;
+	}
+
+	// Last page to fetch of a query with totalPages pages, warning when the limit cuts results
+	private int lastPage( int totalPages )
+	{
+		if( totalPages > maxPages ) {
+			logger.warn(
+					"Query has {} pages, only the first {} are fetched; raise FAA_NOTAM_MAX_PAGES to fetch the rest",
+					totalPages, maxPages );
+		}
+		return Math.min( totalPages, maxPages );
+	}
+
+	/**
+	 * Joins pages into one response: the first page with the {@code items} of
+	 * every page in page order. A single page is returned unchanged.
+	 */
+	static String mergePages( List<String> pages ) throws IOException
+	{
+		if( pages.size() == 1 ) {
+			return pages.get( 0 );
+		}
+		final StringWriter merged = new StringWriter();
+		try (JsonParser first = jsonFactory.createParser( pages.get( 0 ) );
+				JsonGenerator out = jsonFactory.createGenerator( merged )) {
+			boolean itemsWritten = false;
+			if( first.nextToken() == JsonToken.START_OBJECT ) {
+				out.writeStartObject();
+				while( first.nextToken() == JsonToken.FIELD_NAME ) {
+					final String name = first.currentName();
+					first.nextToken();
+					if( "items".equals( name ) && !itemsWritten ) {
+						out.writeFieldName( name );
+						writeItems( first, pages, out );
+						itemsWritten = true;
+					}
+					else {
+						out.writeFieldName( name );
+						out.copyCurrentStructure( first );
+					}
+				}
+			}
+			else {
+				out.writeStartObject();
+			}
+			if( !itemsWritten ) {
+				out.writeFieldName( "items" );
+				writeItems( null, pages, out );
+			}
+			out.writeEndObject();
+		}
+		return merged.toString();
+	}
+
+	// Writes one array with the first page's items, if any, followed by the items of the other pages
+	private static void writeItems( JsonParser firstItems,
+									List<String> pages,
+									JsonGenerator out ) throws IOException
+	{
+		out.writeStartArray();
+		copyElements( firstItems, out );
+		for( int i = 1; i < pages.size(); i++ ) {
+			try (JsonParser page = jsonFactory.createParser( pages.get( i ) )) {
+				if( page.nextToken() != JsonToken.START_OBJECT ) {
+					continue;
+				}
+				while( page.nextToken() == JsonToken.FIELD_NAME ) {
+					final String name = page.currentName();
+					page.nextToken();
+					if( "items".equals( name ) ) {
+						copyElements( page, out );
+					}
+					else {
+						page.skipChildren();
+					}
+				}
+			}
+		}
+		out.writeEndArray();
+	}
+
+	// Copies the elements of the array at the parser's current token, skipping anything else
+	private static void copyElements( JsonParser array, JsonGenerator out )
+			throws IOException
+	{
+		if( array == null ) {
+			return;
+		}
+		if( array.currentToken() != JsonToken.START_ARRAY ) {
+			array.skipChildren();
+			return;
+		}
+		while( array.nextToken() != JsonToken.END_ARRAY ) {
+			out.copyCurrentStructure( array );
+		}
+	}
+
+	// Waits for one page; if it failed, the remaining pages are cancelled and the cause rethrown
+	private static String awaitPage( Future<String> page,
+									 List<Future<String>> all )
+			throws IOException, InterruptedException
+	{
+		try {
+			return page.get();
+		}
+		catch( ExecutionException e ) {
+			all.forEach( f -> f.cancel( true ) );
+			Throwable cause = e.getCause();
+			if( cause instanceof IOException ioException ) {
+				throw ioException;
+			}
+			if( cause instanceof InterruptedException interruptedException ) {
+				throw interruptedException;
+			}
+			if( cause instanceof RuntimeException runtimeException ) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException( "Page fetch failed", cause );
+		}
+		catch( InterruptedException e ) {
+			all.forEach( f -> f.cancel( true ) );
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the page count from the top level of a page without building the
+	 * rest of it. Uses {@code totalPages}, or {@code totalCount} divided by the
+	 * page size when only the count is present, and 1 if neither is.
+	 */
+	static int readTotalPages( String page ) throws IOException
+	{
+		try (JsonParser parser = jsonFactory.createParser( page )) {
+			if( parser.nextToken() != JsonToken.START_OBJECT ) {
+				return 1;
+			}
+			int totalCount = -1;
+			while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+				String name = parser.currentName();
+				parser.nextToken();
+				if( "totalPages".equals( name ) ) {
+					return Math.max( 1, parser.getValueAsInt( 1 ) );
+				}
+				if( "totalCount".equals( name ) ) {
+					totalCount = parser.getValueAsInt( -1 );
+				}
+				parser.skipChildren();
+			}
+			if( totalCount > 0 ) {
+				return (totalCount + DEFAULT_PAGE_SIZE - 1) / DEFAULT_PAGE_SIZE;
+			}
+			return 1;
+		}
+	}
+
+	private String icaoUrl( String icaoCode, int pageSize, int pageNum )
+	{
+		validateIcaoCode( icaoCode );
 		validatePagination( pageSize, pageNum );
 
-		String url =
-				BASE_URL + "?" + "responseFormat=geoJson" + "&locationLatitude="
-						+ latitude + "&locationLongitude=" + longitude
-						+ "&locationRadius=" + radiusNm + "&pageSize="
-						+ pageSize + "&pageNum=" + pageNum;
+		String icao = icaoCode.toUpperCase();
 
-		return sendRequest( url );
+		return baseUrl + "?" + "responseFormat=geoJson" + "&icaoLocation="
+				+ icao + "&pageSize=" + pageSize + "&pageNum=" + pageNum;
+	}
+
+	private String locationUrl( double latitude,
+								double longitude,
+								double radiusNm,
+								int pageSize,
+								int pageNum )
+	{
+		validateCoordinates( latitude, longitude );
+		validateRadius( radiusNm );
+		validatePagination( pageSize, pageNum );
+
+		return baseUrl + "?" + "responseFormat=geoJson" + "&locationLatitude="
+				+ latitude + "&locationLongitude=" + longitude
+				+ "&locationRadius=" + radiusNm + "&pageSize=" + pageSize
+				+ "&pageNum=" + pageNum;
 	}
 
 	// This sends the http get request, it enforces the required headers and a 30-second timeout
 	private String sendRequest( String url )
 			throws IOException, InterruptedException
 	{
-		HttpRequest request = HttpRequest.newBuilder().uri( URI.create( url ) )
-				.header( "client_id", clientId )
-				.header( "client_secret", clientSecret )
-				.header( "Accept", "application/json" ).GET().timeout( TIMEOUT )
-				.build();
+		HttpResponse<String> response = httpClient.send( buildRequest( url,
+				TIMEOUT ), ContentEncoding.ofString() );
 
-		HttpResponse<String> response = httpClient.send( request,
-				HttpResponse.BodyHandlers.ofString() );
+		return bodyOrThrow( response );
+	}
 
+	// Same as sendRequest, but never blocks; the request timeout is cut to the deadline if that is sooner
+	private CompletableFuture<String> sendRequestAsync( String url,
+														Duration deadline )
+	{
+		CompletableFuture<HttpResponse<String>> exchange = httpClient.sendAsync(
+				buildRequest( url, AsyncCalls.requestTimeout( TIMEOUT,
+						deadline ) ), ContentEncoding.ofString() );
+
+		return AsyncCalls.withDeadline( AsyncCalls.cancelUpstreamOnFailure(
+				exchange.thenApply( NotamFetcher::bodyOrThrow ), exchange ),
+				deadline );
+	}
+
+	private static String bodyOrThrow( HttpResponse<String> response )
+	{
 		int status = response.statusCode();
 		if( !(status >= 200 && status < 300) ) {
 			throw new NotamApiException( status,
 					"NOTAM API returned HTTP " + status + ": "
-							+ response.body() );
+							+ response.body(), RetryAfterHeader.parse(
+									response ) );
 		}
 
 		return response.body();
 	}
 
+	private HttpRequest buildRequest( String url, Duration timeout )
+	{
+		return HttpRequest.newBuilder().uri( URI.create( url ) )
+				.header( "client_id", clientId )
+				.header( "client_secret", clientSecret )
+				.header( "Accept", "application/json" )
+				.header( "Accept-Encoding", ContentEncoding.ACCEPT_ENCODING ).GET()
+				.timeout( timeout ).build();
+	}
+
 	// Validation Section
 
 	private static void validateIcaoCode( String icaoCode )
@@ -173,14 +657,4 @@ public class NotamFetcher implements NotamDataFetcher
 					"pageNum must be >= 1, currently: " + pageNum );
 		}
 	}
-
-	private static String requireEnv( Dotenv dotenv, String key )
-	{
-		String value = dotenv.get( key );
-		if( value == null || value.isBlank() ) {
-			throw new IllegalArgumentException(
-					key + " is missing from .env file" );
-		}
-		return value;
-	}
 }
@@ -0,0 +1,168 @@
+package com.capstone;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Configuration and HTTP client shared by every fetcher in the process.
+ * <p>
+ * The .env file is read once, and one {@link HttpClient} preferring HTTP/2 is
+ * built for all NOTAM and token requests, so fetchers created later reuse the
+ * connections opened by earlier ones. Over HTTP/2 all requests to a host are
+ * multiplexed on one connection.
+ * <p>
+ * {@link #warmUp(String...)} opens the connection to each host in the
+ * background, including the TLS handshake, so the first real query does not
+ * pay for it. Each host is warmed at most once.
+ */
+public class NotamHttpContext
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final Duration CONNECT_TIMEOUT = Duration.ofSeconds( 30 );
+	private static final Duration WARM_UP_TIMEOUT = Duration.ofSeconds( 10 );
+
+	private final Function<String, String> env;
+	private final HttpClient httpClient;
+	private final Set<URI> warmedOrigins = ConcurrentHashMap.newKeySet();
+
+	private NotamHttpContext()
+	{
+		this( Dotenv.configure().ignoreIfMissing().load()::get, HttpClient
+				.newBuilder().version( HttpClient.Version.HTTP_2 )
+				.connectTimeout( CONNECT_TIMEOUT ).executor( Executors
+						.newVirtualThreadPerTaskExecutor() ).build() );
+	}
+
+	// Package-private constructor for testing purposes
+	NotamHttpContext( Function<String, String> env, HttpClient httpClient )
+	{
+		this.env = env;
+		this.httpClient = httpClient;
+	}
+
+	/** Returns the process-wide context, loading the .env file on first use. */
+	public static NotamHttpContext shared()
+	{
+		return Holder.INSTANCE;
+	}
+
+	public HttpClient getHttpClient()
+	{
+		return httpClient;
+	}
+
+	/** Returns the .env entry for {@code key}, or null when it is not set. */
+	public String get( String key )
+	{
+		return env.apply( key );
+	}
+
+	/**
+	 * Returns the .env entry for {@code key}.
+	 *
+	 * @throws IllegalArgumentException
+	 *     if the entry is missing or blank
+	 */
+	public String require( String key )
+	{
+		String value = get( key );
+		if( value == null || value.isBlank() ) {
+			throw new IllegalArgumentException(
+					key + " is missing from .env file" );
+		}
+		return value;
+	}
+
+	/**
+	 * Warms the connections to the NMS NOTAM and auth hosts, if they are
+	 * configured.
+	 */
+	public CompletableFuture<Void> warmUpNms()
+	{
+		final List<String> urls = new ArrayList<>();
+		for( final String key : List.of( "NMS_NOTAM_BASE_URL", "NMS_AUTH_URL" ) ) {
+			final String url = get( key );
+			if( url != null && !url.isBlank() ) {
+				urls.add( url );
+			}
+		}
+		return warmUp( urls.toArray( String[]::new ) );
+	}
+
+	/**
+	 * Opens a connection to the host of each URL by sending it a HEAD request
+	 * in the background. Hosts already warmed are skipped. The returned future
+	 * completes once every warm-up has finished; a failed warm-up is only
+	 * logged, since the real request will simply connect on its own.
+	 */
+	public CompletableFuture<Void> warmUp( String... urls )
+	{
+		final List<CompletableFuture<?>> warmUps = new ArrayList<>();
+		for( final String url : urls ) {
+			final URI origin;
+			try {
+				origin = originOf( url );
+			}
+			catch( IllegalArgumentException e ) {
+				logger.warn( "Not warming invalid URL {}: {}", url, e
+						.getMessage() );
+				continue;
+			}
+			if( !warmedOrigins.add( origin ) ) {
+				continue;
+			}
+
+			final HttpRequest request = HttpRequest.newBuilder( origin )
+					.method( "HEAD", HttpRequest.BodyPublishers.noBody() )
+					.timeout( WARM_UP_TIMEOUT ).build();
+			final long startNanos = System.nanoTime();
+			warmUps.add( httpClient.sendAsync( request, HttpResponse.BodyHandlers
+					.discarding() ).handle( ( response, failure ) -> {
+						if( failure != null ) {
+							logger.debug( "Warm-up of {} failed: {}", origin,
+									failure.getMessage() );
+						}
+						else {
+							logger.debug( "Warmed {} over {} in {} ms", origin,
+									response.version(), (System.nanoTime()
+											- startNanos) / 1_000_000 );
+						}
+						return null;
+					} ) );
+		}
+		return CompletableFuture.allOf( warmUps.toArray(
+				CompletableFuture[]::new ) );
+	}
+
+	// Scheme, host and port only; connections are pooled per origin
+	private static URI originOf( String url )
+	{
+		final URI uri = URI.create( url );
+		if( uri.getScheme() == null || uri.getHost() == null ) {
+			throw new IllegalArgumentException( "URL has no scheme or host" );
+		}
+		return URI.create( uri.getScheme() + "://" + uri.getHost() + (uri
+				.getPort() == -1 ? "" : ":" + uri.getPort()) + "/" );
+	}
+
+	private static final class Holder
+	{
+		private static final NotamHttpContext INSTANCE = new NotamHttpContext();
+	}
+}
@@ -5,10 +5,16 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -17,181 +23,38 @@ public class NotamParser implements NotamParserInterface
 {
 	private final ObjectMapper mapper = new ObjectMapper();
 	private static final Logger logger = LogManager.getLogger();
+	// Where the response keeps its NOTAM items
+	private static final List<String> ITEMS_PATH = List.of( "items" );
 
     /**
      * Parses the provided JSON string and returns a list of Notam objects.
      */
     @Override
     public List<Notam> parseNotams( String jsonResponse )
+    {
+        return parseNotams( jsonResponse, Collections.emptyMap() );
+    }
+
+    /**
+     * Parses the provided JSON string, returning the instance from
+     * {@code knownNotams} for any item whose id has already been built and
+     * whose lastUpdated has not changed.
+     */
+    @Override
+    public List<Notam> parseNotams( String jsonResponse,
+                                    Map<String, Notam> knownNotams )
     {
         final List<Notam> notamList = new ArrayList<>();
 
 		try {
 			final JsonNode root = mapper.readTree( jsonResponse );
 			final JsonNode items = root.path( "items" );
+			final QLineDecoder qLine = new QLineDecoder();
 
 			for( final JsonNode item : items ) {
-				try {
-					final JsonNode coreData = item.path( "properties" )
-							.path( "coreNOTAMData" );
-					final JsonNode notamNode = coreData.path( "notam" );
-
-					String formattedText = null;
-					String selectionCode = null;
-					String traffic = null;
-					String purpose = null;
-					String scope = null;
-					String affectedFIR = null;
-
-					final JsonNode translations = coreData.path(
-							"notamTranslation" );
-					for( final JsonNode t : translations ) {
-						if( "ICAO".equals( t.path( "type" ).asText() ) ) {
-							formattedText = t.path( "formattedText" ).asText();
-							final String[] lines = formattedText.split( "\n" );
-
-							String qLine = null;
-
-							// Not all ICAO translations begin the same way, we need to find where the "Q)" begins.
-							for( final String line : lines ) {
-								if( line.trim().startsWith( "Q)" ) ) {
-									qLine = line.trim();
-									break;
-								}
-							}
-							if( qLine != null ) {
-								final String[] qParts = qLine.split( "/" );
-								// qParts[0] is the FIR/header portion, ex: "Q) KZFW"
-								// qParts[1] = selectionCode
-								// qParts[2] = traffic
-								// qParts[3] = purpose
-								// qParts[4] = scope
-								// Later parts contain other Q-line data we are not using right now.
-								// If for some reason the Q-line has fewer than 5, print a warning to stderr,
-								// this will not stop parsing unless the Q-line is missing or we don't find a line that starts with "Q)"
-								if( qParts.length < 5 ) {
-									logger.trace(
-											"Q-line has fewer than 5 parts: {}",
-											qLine );
-								}
-								// Extract affectedFIR from the first Q-line segment
-								if( qParts.length > 0 ) {
-									final String firstPart = qParts[0].trim();
-									affectedFIR = firstPart.substring( 2 )
-											.trim();
-								}
-								// checks are still needed to prevent out of bounds access
-								if( qParts.length > 1 ) {
-									selectionCode = qParts[1];
-								}
-								if( qParts.length > 2 ) {
-									traffic = qParts[2];
-								}
-								if( qParts.length > 3 ) {
-									purpose = qParts[3];
-								}
-								if( qParts.length > 4 ) {
-									scope = qParts[4];
-								}
-							}
-							else {
-								// if Q-line is missing, the selectionCode, traffic, etc., remain null as initialized above.
-								logger.info(
-										"ICAO translation found, but missing the Q-line" );
-							}
-						}
-					}
-
-					// parse timestamps into Instants
-					final Instant issued = parseInstant(
-							notamNode.path( "issued" ).asText() );
-					final Instant effectiveStart = parseInstant(
-							notamNode.path( "effectiveStart" ).asText() );
-					final Instant effectiveEnd = parseInstant(
-							notamNode.path( "effectiveEnd" ).asText() );
-
-					// Extract the required strings that Notam class is expecting
-					final String notamId = notamNode.path( "id" ).asText();
-					final String notamNumber = notamNode.path( "number" )
-							.asText();
-					final String notamType = notamNode.path( "type" ).asText();
-					final String notamText = notamNode.path( "text" ).asText();
-
-					// Skip NOTAMs that are missing the 7 required fields, but log which fields are missing and add to a list.
-					if( notamId.isBlank() || notamNumber.isBlank()
-							|| notamType.isBlank() || notamText.isBlank()
-							|| issued == null || effectiveStart == null
-							|| effectiveEnd == null ) {
-
-						final List<String> missingFields = new ArrayList<>();
-						addMissing( missingFields, notamId.isBlank(), "id" );
-						addMissing( missingFields, notamNumber.isBlank(),
-								"number" );
-						addMissing( missingFields, notamType.isBlank(),
-								"type" );
-						addMissing( missingFields, notamText.isBlank(),
-								"text" );
-						addMissing( missingFields, issued == null, "issued" );
-						addMissing( missingFields, effectiveStart == null,
-								"effectiveStart" );
-						addMissing( missingFields, effectiveEnd == null,
-								"effectiveEnd" );
-
-						String notamInfoError;
-						String notamInfoLabel;
-						// If we skip a NOTAM, we still want to be able to identify which one was skipped
-						// Prefer NOTAM id first, then fall back to number, text, or formattedText.
-						if( !notamId.isBlank() ) {
-							notamInfoError = notamId;
-							notamInfoLabel = "NOTAM ID: ";
-						}
-						else if( !notamNumber.isBlank() ) {
-							notamInfoError = notamNumber;
-							notamInfoLabel = "NOTAM Number: ";
-						}
-						else if( !notamText.isBlank() ) {
-							notamInfoError = notamText;
-							notamInfoLabel = "NOTAM Text: ";
-						}
-						else if( formattedText != null
-								&& !formattedText.isBlank() ) {
-							notamInfoError = formattedText;
-							notamInfoLabel = "NOTAM Formatted Text: ";
-						}
-						else {
-							notamInfoError = "NOTAM does not have ID, number, text, or formattedText available";
-							notamInfoLabel = "No identifying NOTAM information available: ";
-						}
-						// Print the missing fields followed by the NOTAM identifier
-						logger.warn(
-								"Skipping NOTAM due to missing required fields: {}\nNOTAM info:\n{}{}\n",
-								missingFields, notamInfoLabel, notamInfoError );
-						continue; // log and skip to the next NOTAM
-					}
-
-					final Notam parsedNotam = Notam.builder().id( notamId )
-							.number( notamNumber ).type( notamType )
-							.issued( issued ).effectiveStart( effectiveStart )
-							.effectiveEnd( effectiveEnd ).text( notamText )
-							.location( notamNode.path( "location" ).asText() )
-							.classification( notamNode.path( "classification" )
-									.asText() ).icaoLocation(
-									notamNode.path( "icaoLocation" ).asText() )
-							.coordinates(
-									notamNode.path( "coordinates" ).asText() )
-							.radius( notamNode.path( "radius" ).asText() )
-							.series( notamNode.path( "series" ).asText() )
-							.affectedFIR( affectedFIR )
-							.formattedText( formattedText )
-							.selectionCode( selectionCode ).traffic( traffic )
-							.purpose( purpose ).scope( scope ).build();
-
-					notamList.add( parsedNotam );
-				}
-				catch( final IllegalArgumentException |
-							 NullPointerException e ) {
-					// Catch any bad NOTAM that got past our checks. Skip the broken/missing-info NOTAM, log it and move on
-					logger.error( "Skipped malformed NOTAM: ", e );
+				final Notam notam = parseItem( item, knownNotams, qLine );
+				if( notam != null ) {
+					notamList.add( notam );
 				}
 			}
 		}
@@ -203,6 +66,186 @@ public class NotamParser implements NotamParserInterface
 		return notamList;
 	}
 
+	/**
+	 * Parses the response body as it is read, handing each NOTAM to
+	 * {@code consumer} as soon as it is built. Only one item is held in memory
+	 * at a time.
+	 */
+	@Override
+	public void parseNotams( InputStream jsonResponse,
+	                         Map<String, Notam> knownNotams,
+	                         Consumer<Notam> consumer ) throws IOException
+	{
+		final QLineDecoder qLine = new QLineDecoder();
+		try {
+			GeoJsonFeatureReader.readFeatures( mapper, jsonResponse,
+					ITEMS_PATH, item -> {
+						final Notam notam = parseItem( item, knownNotams,
+								qLine );
+						if( notam != null ) {
+							consumer.accept( notam );
+						}
+					} );
+		}
+		catch( final JsonProcessingException e ) {
+			throw new RuntimeException( "Failed to parse NOTAM JSON: " + e
+					.getMessage(), e );
+		}
+	}
+
+	@Override
+	public List<String> itemsPath()
+	{
+		return ITEMS_PATH;
+	}
+
+	/**
+	 * Builds one NOTAM from a response item. Returns the known instance if the
+	 * item has not been updated since it was built, or null if the item is
+	 * skipped because it is missing required fields or malformed.
+	 */
+	@Override
+	public Notam parseItem( final JsonNode item,
+	                        final Map<String, Notam> knownNotams )
+	{
+		return parseItem( item, knownNotams, new QLineDecoder() );
+	}
+
+	// Decodes the Q-line with qLine, reset first, so one decoder serves a whole response
+	private Notam parseItem( final JsonNode item,
+	                         final Map<String, Notam> knownNotams,
+	                         final QLineDecoder qLine )
+	{
+		try {
+			final JsonNode coreData = item.path( "properties" )
+					.path( "coreNOTAMData" );
+			final JsonNode notamNode = coreData.path( "notam" );
+
+			// Already built from an earlier response and not updated since, reuse it rather than parsing it again
+			final Notam known = knownNotams.get(
+					notamNode.path( "id" ).asText() );
+			final Instant lastUpdated = parseInstant(
+					notamNode.path( "lastUpdated" ).asText() );
+			if( known != null && Objects.equals(
+					known.getLastUpdated().orElse( null ), lastUpdated ) ) {
+				return known;
+			}
+
+			String formattedText = null;
+			qLine.reset();
+
+			final JsonNode translations = coreData.path(
+					"notamTranslation" );
+			for( final JsonNode t : translations ) {
+				if( "ICAO".equals( t.path( "type" ).asText() ) ) {
+					formattedText = t.path( "formattedText" ).asText();
+					qLine.decode( formattedText );
+				}
+			}
+			final String coordinates = notamNode.path( "coordinates" ).asText();
+			final String radius = notamNode.path( "radius" ).asText();
+			qLine.decodePositionIfMissing( coordinates, radius );
+
+			// parse timestamps into Instants
+			final Instant issued = parseInstant(
+					notamNode.path( "issued" ).asText() );
+			final Instant effectiveStart = parseInstant(
+					notamNode.path( "effectiveStart" ).asText() );
+			final Instant effectiveEnd = parseInstant(
+					notamNode.path( "effectiveEnd" ).asText() );
+
+			// Extract the required strings that Notam class is expecting
+			final String notamId = notamNode.path( "id" ).asText();
+			final String notamNumber = notamNode.path( "number" )
+					.asText();
+			final String notamType = notamNode.path( "type" ).asText();
+			final String notamText = notamNode.path( "text" ).asText();
+
+			// Skip NOTAMs that are missing the 7 required fields, but log which fields are missing and add to a list.
+			if( notamId.isBlank() || notamNumber.isBlank()
+					|| notamType.isBlank() || notamText.isBlank()
+					|| issued == null || effectiveStart == null
+					|| effectiveEnd == null ) {
+
+				final List<String> missingFields = new ArrayList<>();
+				addMissing( missingFields, notamId.isBlank(), "id" );
+				addMissing( missingFields, notamNumber.isBlank(),
+						"number" );
+				addMissing( missingFields, notamType.isBlank(),
+						"type" );
+				addMissing( missingFields, notamText.isBlank(),
+						"text" );
+				addMissing( missingFields, issued == null, "issued" );
+				addMissing( missingFields, effectiveStart == null,
+						"effectiveStart" );
+				addMissing( missingFields, effectiveEnd == null,
+						"effectiveEnd" );
+
+				String notamInfoError;
+				String notamInfoLabel;
+				// If we skip a NOTAM, we still want to be able to identify which one was skipped
+				// Prefer NOTAM id first, then fall back to number, text, or formattedText.
+				if( !notamId.isBlank() ) {
+					notamInfoError = notamId;
+					notamInfoLabel = "NOTAM ID: ";
+				}
+				else if( !notamNumber.isBlank() ) {
+					notamInfoError = notamNumber;
+					notamInfoLabel = "NOTAM Number: ";
+				}
+				else if( !notamText.isBlank() ) {
+					notamInfoError = notamText;
+					notamInfoLabel = "NOTAM Text: ";
+				}
+				else if( formattedText != null
+						&& !formattedText.isBlank() ) {
+					notamInfoError = formattedText;
+					notamInfoLabel = "NOTAM Formatted Text: ";
+				}
+				else {
+					notamInfoError = "NOTAM does not have ID, number, text, or formattedText available";
+					notamInfoLabel = "No identifying NOTAM information available: ";
+				}
+				// Print the missing fields followed by the NOTAM identifier
+				logger.warn(
+						"Skipping NOTAM due to missing required fields: {}\nNOTAM info:\n{}{}\n",
+						missingFields, notamInfoLabel, notamInfoError );
+				return null; // log and skip to the next NOTAM
+			}
+
+			final Notam parsedNotam = Notam.builder().id( notamId )
+					.number( notamNumber ).type( notamType )
+					.issued( issued ).effectiveStart( effectiveStart )
+					.effectiveEnd( effectiveEnd ).text( notamText )
+					.location( notamNode.path( "location" ).asText() )
+					.classification( notamNode.path( "classification" )
+							.asText() ).icaoLocation(
+							notamNode.path( "icaoLocation" ).asText() )
+					.coordinates( coordinates ).radius( radius )
+					.series( notamNode.path( "series" ).asText() )
+					.lastUpdated( lastUpdated )
+					.affectedFIR( qLine.getAffectedFIR() )
+					.formattedText( formattedText )
+					.selectionCode( qLine.getSelectionCode() )
+					.traffic( qLine.getTraffic() ).purpose( qLine.getPurpose() )
+					.scope( qLine.getScope() ).minimumFL( qLine.getMinimumFL() )
+					.maximumFL( qLine.getMaximumFL() )
+					.minimumFlightLevel( qLine.getMinimumFlightLevel() )
+					.maximumFlightLevel( qLine.getMaximumFlightLevel() )
+					.latitude( qLine.getLatitude() )
+					.longitude( qLine.getLongitude() )
+					.radiusNm( qLine.getRadiusNm() ).build();
+
+			return parsedNotam;
+		}
+		catch( final IllegalArgumentException |
+					 NullPointerException e ) {
+			// Catch any bad NOTAM that got past our checks. Skip the broken/missing-info NOTAM, log it and move on
+			logger.error( "Skipped malformed NOTAM: ", e );
+		}
+		return null;
+	}
+
 	/**
 	 * Helper method to convert the effective start/end and issued strings into
 	 * Instants Returns null if the string is empty or invalid
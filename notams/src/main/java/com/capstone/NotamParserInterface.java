@@ -1,7 +1,13 @@
 package com.capstone;
 
 import com.capstone.models.Notam;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface NotamParserInterface
 {
@@ -13,4 +19,72 @@ public interface NotamParserInterface
      * @return list of parsed Notam objects
      */
     List<Notam> parseNotams( String jsonResponse );
-}
\ No newline at end of file
+
+    /**
+     * Parses the provided JSON string, reusing NOTAMs that have already been
+     * built instead of constructing them again. An item whose id is a key of
+     * {@code knownNotams}, and whose lastUpdated matches the mapped NOTAM's,
+     * is returned as the mapped instance. An item that has been updated since
+     * is built again.
+     *
+     * @param jsonResponse
+     *     the raw JSON response body from the Notam API
+     * @param knownNotams
+     *     previously parsed NOTAMs keyed by {@link Notam#getId()}; only read,
+     *     never modified
+     * @return list of parsed Notam objects
+     */
+    default List<Notam> parseNotams( String jsonResponse,
+                                     Map<String, Notam> knownNotams )
+    {
+        return parseNotams( jsonResponse );
+    }
+
+    /**
+     * Parses NOTAMs from a response body stream, handing each one to
+     * {@code consumer} in response order. Implementations that can read the
+     * body incrementally should override this so large responses are never
+     * held in memory as a whole; the default reads the body into a String.
+     * Known NOTAMs are reused as in {@link #parseNotams(String, Map)}.
+     *
+     * @param jsonResponse
+     *     the raw JSON response body from the Notam API; the caller closes it
+     * @param knownNotams
+     *     previously parsed NOTAMs keyed by {@link Notam#getId()}; only read,
+     *     never modified
+     * @param consumer
+     *     receives each parsed Notam
+     * @throws IOException
+     *     if reading the stream fails
+     */
+    default void parseNotams( InputStream jsonResponse,
+                              Map<String, Notam> knownNotams,
+                              Consumer<Notam> consumer ) throws IOException
+    {
+        parseNotams( new String( jsonResponse.readAllBytes(),
+                StandardCharsets.UTF_8 ), knownNotams ).forEach( consumer );
+    }
+
+    /**
+     * Returns the field names leading from the root of a response to the array
+     * that holds its NOTAM items, for example {@code data} then
+     * {@code geojson}.
+     */
+    List<String> itemsPath();
+
+    /**
+     * Builds one NOTAM from a single item of the array at
+     * {@link #itemsPath()}, reusing known NOTAMs as in
+     * {@link #parseNotams(String, Map)}. Safe to call from several threads at
+     * once.
+     *
+     * @param item
+     *     one element of the items array
+     * @param knownNotams
+     *     previously parsed NOTAMs keyed by {@link Notam#getId()}; only read,
+     *     never modified
+     * @return the parsed Notam, or null if the item is skipped because it is
+     *     missing required fields or malformed
+     */
+    Notam parseItem( JsonNode item, Map<String, Notam> knownNotams );
+}
@@ -0,0 +1,171 @@
+package com.capstone;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Identifies a NOTAM API query so identical requests can share one response.
+ * <p>
+ * ICAO keys are the upper-cased code. Location keys are quantized: latitude
+ * and longitude are rounded to 0.01 degrees and the radius is rounded up to a
+ * whole nautical mile, so queries for nearly the same circle map to the same
+ * key. When rounding moves the centre, the radius is first widened by
+ * {@link #MAX_CENTRE_SHIFT_NM}, so the key's circle still contains the whole
+ * requested circle. A centre already on the grid is not moved and its radius
+ * is not widened, so building a key from another key's values gives the same
+ * key. The widened radius is capped at {@link NotamDataFetcher#MAX_RADIUS_NM};
+ * requests up to {@link #MAX_COVERED_RADIUS_NM} are always fully covered.
+ * Callers that fetch on a miss should query the key's quantized values so the
+ * cached response matches the key exactly.
+ */
+public final class NotamQueryKey
+{
+	// 0.01 degree steps; dividing by a whole number keeps values like 35.39 exact when printed
+	private static final double STEPS_PER_DEGREE = 100.0;
+
+	/**
+	 * Largest distance rounding can move a centre: half a step, 0.005
+	 * degrees, is at most 0.3 NM of latitude plus 0.3 NM of longitude.
+	 */
+	public static final double MAX_CENTRE_SHIFT_NM = 0.43;
+
+	/** Largest radius whose widened key still fits the APIs' limit. */
+	public static final double MAX_COVERED_RADIUS_NM = NotamDataFetcher.MAX_RADIUS_NM
+			- 1;
+
+	private final String icaoCode;
+	// Quantized location stored as whole steps so equality is exact
+	private final long latitudeSteps;
+	private final long longitudeSteps;
+	private final long radiusNm;
+
+	private NotamQueryKey( String icaoCode,
+						   long latitudeSteps,
+						   long longitudeSteps,
+						   long radiusNm )
+	{
+		this.icaoCode = icaoCode;
+		this.latitudeSteps = latitudeSteps;
+		this.longitudeSteps = longitudeSteps;
+		this.radiusNm = radiusNm;
+	}
+
+	public static NotamQueryKey forIcao( String icaoCode )
+	{
+		if( icaoCode == null || icaoCode.isBlank() ) {
+			throw new IllegalArgumentException(
+					"ICAO code must not be null or blank" );
+		}
+		return new NotamQueryKey( icaoCode.trim().toUpperCase( Locale.ROOT ),
+				0, 0, 0 );
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *     if a value is NaN or infinite
+	 */
+	public static NotamQueryKey forLocation( double latitude,
+											 double longitude,
+											 double radiusNm )
+	{
+		if( !Double.isFinite( latitude ) || !Double.isFinite( longitude )
+				|| !Double.isFinite( radiusNm ) ) {
+			throw new IllegalArgumentException(
+					"Location must be finite, currently: " + latitude + ", "
+							+ longitude + ", " + radiusNm + " NM" );
+		}
+		final long latitudeSteps = Math.round( latitude * STEPS_PER_DEGREE );
+		final long longitudeSteps = Math.round( longitude * STEPS_PER_DEGREE );
+		double coveredNm = radiusNm;
+		if( latitudeSteps / STEPS_PER_DEGREE != latitude
+				|| longitudeSteps / STEPS_PER_DEGREE != longitude ) {
+			coveredNm = Math.min( NotamDataFetcher.MAX_RADIUS_NM, radiusNm
+					+ MAX_CENTRE_SHIFT_NM );
+		}
+		return new NotamQueryKey( null, latitudeSteps, longitudeSteps,
+				(long) Math.ceil( coveredNm ) );
+	}
+
+	public boolean isIcao()
+	{
+		return icaoCode != null;
+	}
+
+	/** Returns the upper-cased ICAO code, or null for a location key. */
+	public String getIcaoCode()
+	{
+		return icaoCode;
+	}
+
+	/** Returns the quantized latitude in decimal degrees. */
+	public double getLatitude()
+	{
+		return latitudeSteps / STEPS_PER_DEGREE;
+	}
+
+	/** Returns the quantized longitude in decimal degrees. */
+	public double getLongitude()
+	{
+		return longitudeSteps / STEPS_PER_DEGREE;
+	}
+
+	/**
+	 * Returns the radius, widened for the centre's rounding if needed, rounded
+	 * up to whole nautical miles.
+	 */
+	public double getRadiusNm()
+	{
+		return radiusNm;
+	}
+
+	/**
+	 * Fetches this key's query from the given fetcher, using the quantized
+	 * location for location keys.
+	 */
+	public String fetchFrom( NotamDataFetcher fetcher )
+			throws IOException, InterruptedException
+	{
+		if( isIcao() ) {
+			return fetcher.fetchByIcao( icaoCode );
+		}
+		return fetcher.fetchByLocation( getLatitude(), getLongitude(),
+				getRadiusNm() );
+	}
+
+	@Override
+	public boolean equals( Object o )
+	{
+		if( this == o )
+			return true;
+		if( !(o instanceof NotamQueryKey) )
+			return false;
+		NotamQueryKey other = (NotamQueryKey) o;
+		if( isIcao() || other.isIcao() ) {
+			return icaoCode != null && icaoCode.equals( other.icaoCode );
+		}
+		return latitudeSteps == other.latitudeSteps
+				&& longitudeSteps == other.longitudeSteps
+				&& radiusNm == other.radiusNm;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		if( isIcao() ) {
+			return icaoCode.hashCode();
+		}
+		int result = Long.hashCode( latitudeSteps );
+		result = 31 * result + Long.hashCode( longitudeSteps );
+		return 31 * result + Long.hashCode( radiusNm );
+	}
+
+	// Stable, human-readable form, e.g. "icao:KOKC" or "loc:3539:-9760:50"
+	@Override
+	public String toString()
+	{
+		if( isIcao() ) {
+			return "icao:" + icaoCode;
+		}
+		return "loc:" + latitudeSteps + ":" + longitudeSteps + ":" + radiusNm;
+	}
+}
@@ -0,0 +1,166 @@
+package com.capstone;
+
+import com.capstone.exceptions.NotamApiException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Archive format shared by {@link RecordingNotamFetcher} and
+ * {@link ReplayNotamFetcher}.
+ * <p>
+ * An archive is one gzip stream: a header of {@code (int MAGIC, int VERSION)}
+ * followed by one record per request, in the order the requests finished.
+ * Each record is the {@link NotamQueryKey} string, the request latency in
+ * nanoseconds and a kind byte, then either the UTF-8 response body or, for a
+ * failed request, the HTTP status, the Retry-After in milliseconds (-1 for
+ * none) and the error message. Bodies are length-prefixed rather than
+ * written with {@code writeUTF}, which is limited to 64 KB.
+ */
+final class NotamRecording
+{
+	private static final int MAGIC = 0x4E544D52; // "NTMR"
+	private static final int VERSION = 1;
+	private static final byte KIND_BODY = 0;
+	private static final byte KIND_API_ERROR = 1;
+
+	private NotamRecording()
+	{
+
+	}
+
+	/** One recorded request: the response body, or the API error it failed with. */
+	static final class Entry
+	{
+		final String key;
+		final long latencyNanos;
+		final String body;
+		final NotamApiException error;
+
+		Entry( String key, long latencyNanos, String body )
+		{
+			this( key, latencyNanos, body, null );
+		}
+
+		Entry( String key, long latencyNanos, NotamApiException error )
+		{
+			this( key, latencyNanos, null, error );
+		}
+
+		private Entry( String key,
+					   long latencyNanos,
+					   String body,
+					   NotamApiException error )
+		{
+			this.key = key;
+			this.latencyNanos = latencyNanos;
+			this.body = body;
+			this.error = error;
+		}
+	}
+
+	static void writeHeader( DataOutputStream out ) throws IOException
+	{
+		out.writeInt( MAGIC );
+		out.writeInt( VERSION );
+	}
+
+	static void write( DataOutputStream out, Entry entry ) throws IOException
+	{
+		out.writeUTF( entry.key );
+		out.writeLong( entry.latencyNanos );
+		if( entry.error == null ) {
+			out.writeByte( KIND_BODY );
+			writeString( out, entry.body );
+		}
+		else {
+			out.writeByte( KIND_API_ERROR );
+			out.writeInt( entry.error.getStatusCode() );
+			out.writeLong( entry.error.getRetryAfter().map( Duration::toMillis )
+					.orElse( -1L ) );
+			writeString( out, String.valueOf( entry.error.getMessage() ) );
+		}
+	}
+
+	/**
+	 * Reads every record of an archive. An archive cut short, for example by
+	 * a crash while recording, yields the records before the damaged one.
+	 */
+	static List<Entry> read( Path archive ) throws IOException
+	{
+		final List<Entry> entries = new ArrayList<>();
+		try (DataInputStream in = new DataInputStream( new BufferedInputStream(
+				new GZIPInputStream( Files.newInputStream( archive ) ) ) )) {
+			if( in.readInt() != MAGIC ) {
+				throw new IOException( "Not a NOTAM recording: " + archive );
+			}
+			final int version = in.readInt();
+			if( version != VERSION ) {
+				throw new IOException( "Unsupported NOTAM recording version "
+						+ version + ": " + archive );
+			}
+			while( true ) {
+				final String key;
+				try {
+					key = in.readUTF();
+				}
+				catch( EOFException e ) {
+					break;
+				}
+				try {
+					entries.add( readEntry( in, key ) );
+				}
+				catch( EOFException e ) {
+					break;
+				}
+			}
+		}
+		catch( EOFException e ) {
+			// The gzip trailer is missing; keep what was read
+		}
+		return entries;
+	}
+
+	private static Entry readEntry( DataInputStream in, String key )
+			throws IOException
+	{
+		final long latencyNanos = in.readLong();
+		final byte kind = in.readByte();
+		if( kind == KIND_BODY ) {
+			return new Entry( key, latencyNanos, readString( in ) );
+		}
+		if( kind == KIND_API_ERROR ) {
+			final int status = in.readInt();
+			final long retryAfterMillis = in.readLong();
+			return new Entry( key, latencyNanos, new NotamApiException( status,
+					readString( in ), retryAfterMillis < 0 ? null
+							: Duration.ofMillis( retryAfterMillis ) ) );
+		}
+		throw new IOException( "Unknown NOTAM recording record kind " + kind );
+	}
+
+	private static void writeString( DataOutputStream out, String value )
+			throws IOException
+	{
+		final byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+		out.writeInt( bytes.length );
+		out.write( bytes );
+	}
+
+	private static String readString( DataInputStream in ) throws IOException
+	{
+		final byte[] bytes = new byte[in.readInt()];
+		in.readFully( bytes );
+		return new String( bytes, StandardCharsets.UTF_8 );
+	}
+}
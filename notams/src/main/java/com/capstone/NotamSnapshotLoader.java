@@ -0,0 +1,196 @@
+package com.capstone;
+
+import com.capstone.models.Notam;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Loads a NOTAM snapshot, a file with the same shape as a NOTAM API response,
+ * of any size, using all cores and a bounded amount of heap.
+ * <p>
+ * The file is memory-mapped (see {@link MappedFile}). The calling thread
+ * scans it once for the byte range of each item in the parser's
+ * {@link NotamParserInterface#itemsPath() items array}, which only tokenizes
+ * the items. The ranges are handed in batches through a bounded queue to
+ * {@code parallelism} worker threads, which build each item from its bytes
+ * and parse it with {@link NotamParserInterface#parseItem}. At most a few
+ * batches of items are waiting at any time, so memory does not grow with the
+ * file, and a slow consumer slows the scan down instead of filling the heap.
+ */
+public class NotamSnapshotLoader
+{
+	public static final int DEFAULT_PARALLELISM = Runtime.getRuntime()
+			.availableProcessors();
+	// Items per queue entry, so workers do not contend on the queue for every item
+	private static final int BATCH_SIZE = 64;
+	private static final int BATCHES_PER_WORKER = 4;
+	private static final long[] END_OF_FILE = new long[0];
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final NotamParserInterface parser;
+	private final int parallelism;
+
+	public NotamSnapshotLoader( NotamParserInterface parser )
+	{
+		this( parser, DEFAULT_PARALLELISM );
+	}
+
+	/**
+	 * @param parser
+	 *     parser matching the snapshot's format
+	 * @param parallelism
+	 *     number of threads parsing items
+	 */
+	public NotamSnapshotLoader( NotamParserInterface parser, int parallelism )
+	{
+		if( parallelism < 1 ) {
+			throw new IllegalArgumentException(
+					"parallelism must be >= 1, currently: " + parallelism );
+		}
+		this.parser = parser;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Parses every NOTAM in the snapshot and hands each to {@code consumer}.
+	 *
+	 * @param snapshot
+	 *     path of the snapshot file
+	 * @param consumer
+	 *     receives each parsed NOTAM; called from several threads at once and
+	 *     in no particular order, so it must be thread-safe
+	 *
+	 * @return number of NOTAMs handed to the consumer
+	 *
+	 * @throws IOException
+	 *     if the file cannot be read or is not valid JSON
+	 */
+	public long load( Path snapshot, Consumer<Notam> consumer )
+			throws IOException, InterruptedException
+	{
+		return load( snapshot, Collections.emptyMap(), consumer );
+	}
+
+	/**
+	 * Like {@link #load(Path, Consumer)}, reusing known NOTAMs as in
+	 * {@link NotamParserInterface#parseNotams(String, Map)}.
+	 */
+	public long load( Path snapshot,
+					  Map<String, Notam> knownNotams,
+					  Consumer<Notam> consumer )
+			throws IOException, InterruptedException
+	{
+		final MappedFile file = MappedFile.open( snapshot );
+		final BlockingQueue<long[]> batches = new ArrayBlockingQueue<>(
+				parallelism * BATCHES_PER_WORKER );
+		final ExecutorService workers = Executors.newFixedThreadPool(
+				parallelism );
+		final List<Future<Long>> results = new ArrayList<>();
+		try {
+			for( int i = 0; i < parallelism; i++ ) {
+				results.add( workers.submit( () -> parseBatches( file, batches,
+						knownNotams, consumer ) ) );
+			}
+
+			// Start and end offset pairs of the items in the batch being filled
+			final long[][] batch = { new long[BATCH_SIZE * 2] };
+			final int[] filled = { 0 };
+			GeoJsonFeatureReader.readFeatureRanges( mapper, file
+					.newInputStream(), parser.itemsPath(), ( start, end ) -> {
+						batch[0][filled[0]++] = start;
+						batch[0][filled[0]++] = end;
+						if( filled[0] == batch[0].length ) {
+							put( batches, batch[0], results );
+							batch[0] = new long[BATCH_SIZE * 2];
+							filled[0] = 0;
+						}
+					} );
+			if( filled[0] > 0 ) {
+				final long[] last = new long[filled[0]];
+				System.arraycopy( batch[0], 0, last, 0, filled[0] );
+				put( batches, last, results );
+			}
+			for( int i = 0; i < parallelism; i++ ) {
+				put( batches, END_OF_FILE, results );
+			}
+
+			long parsed = 0;
+			for( final Future<Long> result : results ) {
+				parsed += await( result );
+			}
+			return parsed;
+		}
+		finally {
+			workers.shutdownNow();
+		}
+	}
+
+	private long parseBatches( MappedFile file,
+							   BlockingQueue<long[]> batches,
+							   Map<String, Notam> knownNotams,
+							   Consumer<Notam> consumer )
+			throws IOException, InterruptedException
+	{
+		long parsed = 0;
+		for( long[] batch = batches.take(); batch != END_OF_FILE; batch = batches
+				.take() ) {
+			for( int i = 0; i < batch.length; i += 2 ) {
+				final Notam notam = parser.parseItem( mapper.readTree( file.read(
+						batch[i], (int) (batch[i + 1] - batch[i]) ) ),
+						knownNotams );
+				if( notam != null ) {
+					consumer.accept( notam );
+					parsed++;
+				}
+			}
+		}
+		return parsed;
+	}
+
+	// Waits for room in the queue, failing as soon as a worker has failed
+	private static void put( BlockingQueue<long[]> batches,
+							 long[] batch,
+							 List<Future<Long>> results )
+			throws IOException, InterruptedException
+	{
+		while( !batches.offer( batch, 100, TimeUnit.MILLISECONDS ) ) {
+			for( final Future<Long> result : results ) {
+				if( result.isDone() ) {
+					await( result );
+				}
+			}
+		}
+	}
+
+	private static long await( Future<Long> result )
+			throws IOException, InterruptedException
+	{
+		try {
+			return result.get();
+		}
+		catch( final ExecutionException e ) {
+			final Throwable cause = e.getCause();
+			if( cause instanceof IOException ioException ) {
+				throw ioException;
+			}
+			if( cause instanceof RuntimeException runtimeException ) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException( "Snapshot parsing failed", cause );
+		}
+	}
+}
@@ -0,0 +1,375 @@
+package com.capstone;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Decodes the Q-line of an ICAO formatted NOTAM text, for example
+ * {@code Q) KZFW/QMRLC/IV/NBO/A/000/999/3524N09736W005}.
+ * <p>
+ * The text is scanned once by index: lines, trimming and the {@code /}
+ * separators are found without building intermediate arrays or strings, and
+ * only the decoded fields are allocated. The first line that starts with
+ * {@code Q)} after trimming is the Q-line. Its first part, without the
+ * {@code Q)}, is the affected FIR; the next four are the selection code,
+ * traffic, purpose and scope, kept exactly as written. Empty parts at the end
+ * of the line do not count, as with {@link String#split(String)}.
+ * <p>
+ * The rest of the line is decoded into numbers as well: the lower and upper
+ * flight levels, and the centre and radius of the affected area from a group
+ * such as {@code 3524N09736W005}, latitude and longitude in degrees and the
+ * radius in nautical miles. Parts that are not well formed leave the number
+ * unknown, {@link #UNKNOWN} or {@link Double#NaN}.
+ * <p>
+ * A decoder accumulates: decoding another text replaces only the fields its
+ * Q-line has, and the position only if it is well formed, so a NOTAM with
+ * several ICAO translations keeps the fields of earlier ones that later ones
+ * lack. Call {@link #reset()} before decoding the next NOTAM, so a parser can
+ * reuse one decoder for a whole response. Not thread-safe.
+ */
+final class QLineDecoder
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	/** Value of a flight level or radius that is not known. */
+	static final int UNKNOWN = -1;
+
+	// Parts decoded: FIR, selection code, traffic, purpose, scope, lower and upper FL, position
+	private static final int DECODED_PARTS = 8;
+	// FIR, selection code, traffic, purpose and scope; the numeric tail is optional
+	private static final int REQUIRED_PARTS = 5;
+
+	private String affectedFIR;
+	private String selectionCode;
+	private String traffic;
+	private String purpose;
+	private String scope;
+	private String minimumFL;
+	private String maximumFL;
+	private int minimumFlightLevel = UNKNOWN;
+	private int maximumFlightLevel = UNKNOWN;
+	private double latitude = Double.NaN;
+	private double longitude = Double.NaN;
+	private int radiusNm = UNKNOWN;
+
+	// Bounds of the last Q-line found, kept so it is only copied out when logged
+	private String source;
+	private int qLineStart;
+	private int qLineEnd;
+
+	// Start and end of each decoded part of the current Q-line
+	private final int[] partBounds = new int[DECODED_PARTS * 2];
+
+	/** Forgets every decoded field, as if the decoder were new. */
+	void reset()
+	{
+		affectedFIR = null;
+		selectionCode = null;
+		traffic = null;
+		purpose = null;
+		scope = null;
+		minimumFL = null;
+		maximumFL = null;
+		minimumFlightLevel = UNKNOWN;
+		maximumFlightLevel = UNKNOWN;
+		latitude = Double.NaN;
+		longitude = Double.NaN;
+		radiusNm = UNKNOWN;
+		source = null;
+		qLineStart = 0;
+		qLineEnd = 0;
+	}
+
+	/**
+	 * Finds the Q-line in {@code formattedText} and stores the fields it has.
+	 *
+	 * @return true if a Q-line was found
+	 */
+	boolean decode( String formattedText )
+	{
+		if( !findQLine( formattedText ) ) {
+			// if Q-line is missing, the selectionCode, traffic, etc., keep their earlier values
+			logger.info( "ICAO translation found, but missing the Q-line" );
+			return false;
+		}
+
+		int parts = 0;
+		int lastNonEmpty = 0;
+		int partStart = qLineStart;
+		for( int i = qLineStart; i <= qLineEnd; i++ ) {
+			if( i < qLineEnd && formattedText.charAt( i ) != '/' ) {
+				continue;
+			}
+			if( parts < DECODED_PARTS ) {
+				partBounds[parts * 2] = partStart;
+				partBounds[parts * 2 + 1] = i;
+			}
+			if( i > partStart ) {
+				lastNonEmpty = parts;
+			}
+			parts++;
+			partStart = i + 1;
+		}
+		// Trailing empty parts are dropped, as String.split does
+		parts = lastNonEmpty + 1;
+
+		if( parts < REQUIRED_PARTS && logger.isTraceEnabled() ) {
+			logger.trace( "Q-line has fewer than {} parts: {}", REQUIRED_PARTS,
+					getQLine() );
+		}
+
+		// The first part starts with "Q)", the FIR follows it
+		int firStart = partBounds[0] + 2;
+		int firEnd = partBounds[1];
+		while( firStart < firEnd && formattedText.charAt( firStart ) <= ' ' ) {
+			firStart++;
+		}
+		while( firEnd > firStart && formattedText.charAt( firEnd - 1 ) <= ' ' ) {
+			firEnd--;
+		}
+		affectedFIR = formattedText.substring( firStart, firEnd );
+		if( parts > 1 ) {
+			selectionCode = part( 1 );
+		}
+		if( parts > 2 ) {
+			traffic = part( 2 );
+		}
+		if( parts > 3 ) {
+			purpose = part( 3 );
+		}
+		if( parts > 4 ) {
+			scope = part( 4 );
+		}
+		if( parts > 5 ) {
+			minimumFL = part( 5 );
+			minimumFlightLevel = number( formattedText, partBounds[10],
+					partBounds[11], 3 );
+		}
+		if( parts > 6 ) {
+			maximumFL = part( 6 );
+			maximumFlightLevel = number( formattedText, partBounds[12],
+					partBounds[13], 3 );
+		}
+		if( parts > 7 ) {
+			decodePosition( formattedText, partBounds[14], partBounds[15] );
+		}
+		return true;
+	}
+
+	/**
+	 * Decodes the NOTAM's own coordinates and radius fields, for example
+	 * {@code 3524N09736W} and {@code 005}, if no Q-line gave a position.
+	 */
+	void decodePositionIfMissing( String coordinates, String radius )
+	{
+		if( hasPosition() || coordinates == null ) {
+			return;
+		}
+		decodePosition( coordinates, 0, coordinates.length() );
+		if( hasPosition() && radiusNm == UNKNOWN && radius != null ) {
+			radiusNm = number( radius, 0, radius.length(), 3 );
+		}
+	}
+
+	boolean hasPosition()
+	{
+		return !Double.isNaN( latitude );
+	}
+
+	// Decodes degrees and minutes with optional seconds, then an optional radius, ex: 3524N09736W005
+	// or 352410N0973600W. The position is only replaced if the text is of that form.
+	private void decodePosition( String text, int start, int end )
+	{
+		while( start < end && text.charAt( start ) <= ' ' ) {
+			start++;
+		}
+		while( end > start && text.charAt( end - 1 ) <= ' ' ) {
+			end--;
+		}
+
+		final int latitudeEnd = skipDigits( text, start, end );
+		if( latitudeEnd == end ) {
+			return;
+		}
+		final double lat = angle( text, start, latitudeEnd, 2, 90 );
+		final char ns = text.charAt( latitudeEnd );
+		final int longitudeEnd = skipDigits( text, latitudeEnd + 1, end );
+		if( Double.isNaN( lat ) || (ns != 'N' && ns != 'S')
+				|| longitudeEnd == end ) {
+			return;
+		}
+		final double lon = angle( text, latitudeEnd + 1, longitudeEnd, 3, 180 );
+		final char ew = text.charAt( longitudeEnd );
+		if( Double.isNaN( lon ) || (ew != 'E' && ew != 'W') ) {
+			return;
+		}
+
+		int radius = UNKNOWN;
+		if( longitudeEnd + 1 < end ) {
+			radius = number( text, longitudeEnd + 1, end, 3 );
+			if( radius == UNKNOWN ) {
+				return;
+			}
+		}
+		latitude = ns == 'S' ? -lat : lat;
+		longitude = ew == 'W' ? -lon : lon;
+		radiusNm = radius;
+	}
+
+	// Degrees with the given number of digits, then minutes and optional seconds; NaN if malformed
+	private static double angle( String text,
+								 int start,
+								 int end,
+								 int degreeDigits,
+								 int maxDegrees )
+	{
+		final int length = end - start;
+		if( length != degreeDigits + 2 && length != degreeDigits + 4 ) {
+			return Double.NaN;
+		}
+		final int degrees = number( text, start, start + degreeDigits,
+				degreeDigits );
+		final int minutes = number( text, start + degreeDigits, start
+				+ degreeDigits + 2, 2 );
+		final int seconds = length == degreeDigits + 4 ? number( text, end - 2,
+				end, 2 ) : 0;
+		final double angle = degrees + minutes / 60.0 + seconds / 3600.0;
+		if( minutes >= 60 || seconds >= 60 || angle > maxDegrees ) {
+			return Double.NaN;
+		}
+		return angle;
+	}
+
+	private static int skipDigits( String text, int start, int end )
+	{
+		while( start < end && text.charAt( start ) >= '0' && text.charAt(
+				start ) <= '9' ) {
+			start++;
+		}
+		return start;
+	}
+
+	// Value of the trimmed digits between start and end, or UNKNOWN if there are none, too many or others
+	private static int number( String text, int start, int end, int maxDigits )
+	{
+		while( start < end && text.charAt( start ) <= ' ' ) {
+			start++;
+		}
+		while( end > start && text.charAt( end - 1 ) <= ' ' ) {
+			end--;
+		}
+		if( start == end || end - start > maxDigits ) {
+			return UNKNOWN;
+		}
+		int value = 0;
+		for( int i = start; i < end; i++ ) {
+			final char c = text.charAt( i );
+			if( c < '0' || c > '9' ) {
+				return UNKNOWN;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	// Sets qLineStart and qLineEnd to the trimmed bounds of the first line starting with "Q)"
+	private boolean findQLine( String text )
+	{
+		int lineStart = 0;
+		while( lineStart <= text.length() ) {
+			int lineEnd = text.indexOf( '\n', lineStart );
+			if( lineEnd < 0 ) {
+				lineEnd = text.length();
+			}
+			int start = lineStart;
+			int end = lineEnd;
+			while( start < end && text.charAt( start ) <= ' ' ) {
+				start++;
+			}
+			while( end > start && text.charAt( end - 1 ) <= ' ' ) {
+				end--;
+			}
+			if( text.startsWith( "Q)", start ) ) {
+				source = text;
+				qLineStart = start;
+				qLineEnd = end;
+				return true;
+			}
+			lineStart = lineEnd + 1;
+		}
+		return false;
+	}
+
+	private String part( int index )
+	{
+		final int start = partBounds[index * 2];
+		final int end = partBounds[index * 2 + 1];
+		return source.substring( start, end );
+	}
+
+	/** Returns the last Q-line found, trimmed, or null if none was found. */
+	String getQLine()
+	{
+		return source == null ? null : source.substring( qLineStart, qLineEnd );
+	}
+
+	String getAffectedFIR()
+	{
+		return affectedFIR;
+	}
+
+	String getSelectionCode()
+	{
+		return selectionCode;
+	}
+
+	String getTraffic()
+	{
+		return traffic;
+	}
+
+	String getPurpose()
+	{
+		return purpose;
+	}
+
+	String getScope()
+	{
+		return scope;
+	}
+
+	String getMinimumFL()
+	{
+		return minimumFL;
+	}
+
+	String getMaximumFL()
+	{
+		return maximumFL;
+	}
+
+	int getMinimumFlightLevel()
+	{
+		return minimumFlightLevel;
+	}
+
+	int getMaximumFlightLevel()
+	{
+		return maximumFlightLevel;
+	}
+
+	double getLatitude()
+	{
+		return latitude;
+	}
+
+	double getLongitude()
+	{
+		return longitude;
+	}
+
+	int getRadiusNm()
+	{
+		return radiusNm;
+	}
+}
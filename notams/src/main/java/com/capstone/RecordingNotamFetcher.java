@@ -0,0 +1,114 @@
+package com.capstone;
+
+import com.capstone.exceptions.NotamApiException;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Decorates a {@link NotamDataFetcher} and writes every request, its latency
+ * and its raw response body to a compressed archive that
+ * {@link ReplayNotamFetcher} can serve back later.
+ * <p>
+ * Requests that fail with a {@link NotamApiException} are recorded too, so a
+ * replay reproduces the errors of the original run. I/O failures are not,
+ * since there is no response to record. The stream methods are not
+ * overridden, so streamed responses are buffered in order to be recorded.
+ * The archive is complete once {@link #close()} has been called.
+ */
+public class RecordingNotamFetcher implements NotamDataFetcher, Closeable
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	private final NotamDataFetcher delegate;
+	private final Path archive;
+	// Guarded by this
+	private final DataOutputStream out;
+	private int recorded;
+
+	/**
+	 * @param delegate
+	 *     fetcher whose responses are recorded
+	 * @param archive
+	 *     file to write; an existing file is replaced
+	 */
+	public RecordingNotamFetcher( NotamDataFetcher delegate, Path archive )
+			throws IOException
+	{
+		this.delegate = delegate;
+		this.archive = archive;
+		final Path parent = archive.toAbsolutePath().getParent();
+		if( parent != null ) {
+			Files.createDirectories( parent );
+		}
+		this.out = new DataOutputStream( new BufferedOutputStream(
+				new GZIPOutputStream( Files.newOutputStream( archive ) ) ) );
+		NotamRecording.writeHeader( out );
+	}
+
+	@Override
+	public String fetchByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return record( NotamQueryKey.forIcao( icaoCode ),
+				() -> delegate.fetchByIcao( icaoCode ) );
+	}
+
+	@Override
+	public String fetchByLocation( double latitude,
+								   double longitude,
+								   double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return record( NotamQueryKey.forLocation( latitude, longitude,
+				radiusNm ), () -> delegate.fetchByLocation( latitude, longitude,
+						radiusNm ) );
+	}
+
+	/** Returns how many requests have been written to the archive. */
+	public synchronized int getRecordedCount()
+	{
+		return recorded;
+	}
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		out.close();
+		logger.info( "Recorded {} NOTAM requests to {}", recorded, archive );
+	}
+
+	private String record( NotamQueryKey key,
+						   AsyncCalls.BlockingCall<String> request )
+			throws IOException, InterruptedException
+	{
+		final long startNanos = System.nanoTime();
+		final String body;
+		try {
+			body = request.call();
+		}
+		catch( NotamApiException e ) {
+			write( new NotamRecording.Entry( key.toString(), System.nanoTime()
+					- startNanos, e ) );
+			throw e;
+		}
+		write( new NotamRecording.Entry( key.toString(), System.nanoTime()
+				- startNanos, body ) );
+		return body;
+	}
+
+	private synchronized void write( NotamRecording.Entry entry )
+			throws IOException
+	{
+		NotamRecording.write( out, entry );
+		recorded++;
+	}
+}
@@ -0,0 +1,106 @@
+package com.capstone;
+
+import com.capstone.exceptions.NotamApiException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the responses captured by {@link RecordingNotamFetcher} without
+ * calling any API, so benchmarks of the route service, the parsers and the
+ * printer run on real payloads with repeatable results and no credentials.
+ * <p>
+ * Responses are matched by {@link NotamQueryKey}. When the same query was
+ * recorded several times, repeated requests get the recordings in their
+ * original order and then start over. Recorded API errors are thrown again.
+ * With {@link Timing#ORIGINAL} every response is delayed by the latency it was
+ * recorded with; {@link Timing#NONE} answers at once.
+ */
+public class ReplayNotamFetcher implements NotamDataFetcher
+{
+	public enum Timing
+	{
+		/** Waits as long as the recorded request took. */
+		ORIGINAL,
+		/** Answers immediately. */
+		NONE
+	}
+
+	private final Map<String, Replay> replays = new HashMap<>();
+	private final Timing timing;
+
+	/**
+	 * @throws IOException
+	 *     if the archive cannot be read or is not a NOTAM recording
+	 */
+	public ReplayNotamFetcher( Path archive, Timing timing ) throws IOException
+	{
+		this.timing = timing;
+		for( final NotamRecording.Entry entry : NotamRecording.read(
+				archive ) ) {
+			replays.computeIfAbsent( entry.key, key -> new Replay() ).entries
+					.add( entry );
+		}
+	}
+
+	@Override
+	public String fetchByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return replay( NotamQueryKey.forIcao( icaoCode ) );
+	}
+
+	@Override
+	public String fetchByLocation( double latitude,
+								   double longitude,
+								   double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return replay( NotamQueryKey.forLocation( latitude, longitude,
+				radiusNm ) );
+	}
+
+	/** Returns how many distinct queries the archive holds. */
+	public int getQueryCount()
+	{
+		return replays.size();
+	}
+
+	private String replay( NotamQueryKey key )
+			throws IOException, InterruptedException
+	{
+		final Replay replay = replays.get( key.toString() );
+		if( replay == null ) {
+			throw new IOException( "No recorded response for " + key );
+		}
+		final NotamRecording.Entry entry = replay.next();
+		if( timing == Timing.ORIGINAL ) {
+			TimeUnit.NANOSECONDS.sleep( entry.latencyNanos );
+		}
+		if( entry.error != null ) {
+			// A fresh exception, so each caller gets its own stack trace
+			throw new NotamApiException( entry.error
+					.getStatusCode(), entry.error.getMessage(), entry.error
+							.getRetryAfter().orElse( null ) );
+		}
+		return entry.body;
+	}
+
+	private static final class Replay
+	{
+		private final List<NotamRecording.Entry> entries = new ArrayList<>();
+		private final AtomicInteger cursor = new AtomicInteger();
+
+		private NotamRecording.Entry next()
+		{
+			return entries.get( Math.floorMod( cursor.getAndIncrement(), entries
+					.size() ) );
+		}
+	}
+}
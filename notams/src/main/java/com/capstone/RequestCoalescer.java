@@ -0,0 +1,114 @@
+package com.capstone;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets concurrent callers asking for the same key share one load.
+ * <p>
+ * The first caller for a key runs the loader; everyone who asks for the key
+ * while it is running waits on the same {@link CompletableFuture} and gets the
+ * same result or exception. If the load fails only because the caller running
+ * it was interrupted, for example because its task was cancelled, the waiters
+ * are not failed with it: one of them runs the load again. Nothing is kept
+ * once the load finishes, so this is not a cache: the next caller after that
+ * loads again.
+ *
+ * @param <K>
+ *     key type, for example {@link NotamQueryKey}
+ * @param <V>
+ *     result type
+ */
+public class RequestCoalescer<K, V>
+{
+	@FunctionalInterface
+	public interface Loader<V>
+	{
+		V load() throws IOException, InterruptedException;
+	}
+
+	private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final AtomicLong loads = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+
+	/**
+	 * Returns the result of the load already running for the key, or runs
+	 * {@code loader} on the calling thread if there is none.
+	 */
+	public V execute( K key, Loader<V> loader )
+			throws IOException, InterruptedException
+	{
+		CompletableFuture<V> mine;
+		CompletableFuture<V> running;
+		while( true ) {
+			mine = new CompletableFuture<>();
+			running = inFlight.putIfAbsent( key, mine );
+			if( running == null ) {
+				break;
+			}
+			coalesced.incrementAndGet();
+			final V value = await( running );
+			if( value != null || !isInterrupted( running ) ) {
+				return value;
+			}
+			// The caller running the load was interrupted, not this one, so load again
+		}
+
+		loads.incrementAndGet();
+		try {
+			final V value = loader.load();
+			mine.complete( value );
+			return value;
+		}
+		catch( IOException | InterruptedException | RuntimeException e ) {
+			mine.completeExceptionally( e );
+			throw e;
+		}
+		finally {
+			inFlight.remove( key, mine );
+		}
+	}
+
+	/** Returns how many loads were actually run. */
+	public long getLoadCount()
+	{
+		return loads.get();
+	}
+
+	/** Returns how many callers shared a load started by someone else. */
+	public long getCoalescedCount()
+	{
+		return coalesced.get();
+	}
+
+	// Result of the load, or null if it failed because its caller was interrupted
+	private static <V> V await( CompletableFuture<V> running )
+			throws IOException, InterruptedException
+	{
+		try {
+			return running.get();
+		}
+		catch( final ExecutionException e ) {
+			final Throwable cause = e.getCause();
+			if( cause instanceof IOException ioException ) {
+				throw ioException;
+			}
+			if( cause instanceof InterruptedException ) {
+				return null;
+			}
+			if( cause instanceof RuntimeException runtimeException ) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException( "Shared request failed", cause );
+		}
+	}
+
+	private static boolean isInterrupted( CompletableFuture<?> load )
+	{
+		return load.isCompletedExceptionally() && load.exceptionNow()
+				instanceof InterruptedException;
+	}
+}
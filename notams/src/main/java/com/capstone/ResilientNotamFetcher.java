@@ -0,0 +1,331 @@
+package com.capstone;
+
+import com.capstone.exceptions.NotamApiException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Decorates a {@link NotamDataFetcher} with retries and hedged requests.
+ * <p>
+ * Every NOTAM query is an idempotent GET, so both are safe:
+ * <ul>
+ * <li><b>Retries</b> - a request that fails with an I/O error or an HTTP 5xx
+ * or 429 is retried up to {@code maxAttempts} times in total. Throttled
+ * responses, HTTP 429 and 503, are left alone when {@code retryThrottled} is
+ * off, for a delegate such as {@link AdaptiveRateLimitedFetcher} that already
+ * retries them after the server's Retry-After. Before each
+ * retry the fetcher sleeps a random time between 0 and
+ * {@code baseBackoff * 2^retry}, capped at {@code maxBackoff} ("full jitter"),
+ * so clients that failed together do not retry together.</li>
+ * <li><b>Hedging</b> - if an attempt has not answered after the
+ * {@code hedgePercentile} latency of recent successful requests, a duplicate
+ * is sent. Whichever answers first is used and the other is cancelled. Until
+ * enough latencies have been seen, {@code defaultHedgeDelay} is used.</li>
+ * </ul>
+ * Only the slowest few percent of requests are hedged, so the extra load is
+ * small while the tail latency drops to roughly that of the second try.
+ */
+public class ResilientNotamFetcher implements NotamDataFetcher
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+	public static final Duration DEFAULT_BASE_BACKOFF = Duration.ofMillis( 200 );
+	public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds( 5 );
+	public static final double DEFAULT_HEDGE_PERCENTILE = 0.95;
+	public static final Duration DEFAULT_HEDGE_DELAY = Duration.ofSeconds( 2 );
+	// Latencies kept for the percentile, and how many are needed before it is trusted
+	private static final int LATENCY_WINDOW = 256;
+	private static final int MIN_LATENCY_SAMPLES = 20;
+
+	private final NotamDataFetcher delegate;
+	private final int maxAttempts;
+	private final Duration baseBackoff;
+	private final Duration maxBackoff;
+	private final double hedgePercentile;
+	private final Duration defaultHedgeDelay;
+	private final boolean retryThrottled;
+	private final LatencyTracker latencies = new LatencyTracker(
+			LATENCY_WINDOW );
+	private final ExecutorService executor = Executors
+			.newVirtualThreadPerTaskExecutor();
+
+	public ResilientNotamFetcher( NotamDataFetcher delegate )
+	{
+		this( delegate, DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_BACKOFF,
+				DEFAULT_MAX_BACKOFF, DEFAULT_HEDGE_PERCENTILE,
+				DEFAULT_HEDGE_DELAY );
+	}
+
+	/**
+	 * @param delegate
+	 *     fetcher that sends the actual requests
+	 * @param maxAttempts
+	 *     attempts per call including the first; 1 disables retries
+	 * @param baseBackoff
+	 *     upper bound of the random wait before the first retry, doubled for
+	 *     each further retry
+	 * @param maxBackoff
+	 *     ceiling for the random wait
+	 * @param hedgePercentile
+	 *     latency percentile of recent requests after which a duplicate is
+	 *     sent, for example 0.95
+	 * @param defaultHedgeDelay
+	 *     hedge delay used until enough latencies have been recorded
+	 */
+	public ResilientNotamFetcher( NotamDataFetcher delegate,
+								  int maxAttempts,
+								  Duration baseBackoff,
+								  Duration maxBackoff,
+								  double hedgePercentile,
+								  Duration defaultHedgeDelay )
+	{
+		this( delegate, maxAttempts, baseBackoff, maxBackoff, hedgePercentile,
+				defaultHedgeDelay, true );
+	}
+
+	/**
+	 * Like the constructor above.
+	 *
+	 * @param retryThrottled
+	 *     whether HTTP 429 and 503 are retried; off when the delegate retries
+	 *     them itself, so one throttled request is not retried by both
+	 */
+	public ResilientNotamFetcher( NotamDataFetcher delegate,
+								  int maxAttempts,
+								  Duration baseBackoff,
+								  Duration maxBackoff,
+								  double hedgePercentile,
+								  Duration defaultHedgeDelay,
+								  boolean retryThrottled )
+	{
+		if( maxAttempts < 1 ) {
+			throw new IllegalArgumentException(
+					"maxAttempts must be >= 1, currently: " + maxAttempts );
+		}
+		if( hedgePercentile <= 0 || hedgePercentile > 1 ) {
+			throw new IllegalArgumentException(
+					"hedgePercentile must be in (0, 1], currently: "
+							+ hedgePercentile );
+		}
+		this.delegate = delegate;
+		this.maxAttempts = maxAttempts;
+		this.baseBackoff = baseBackoff;
+		this.maxBackoff = maxBackoff;
+		this.hedgePercentile = hedgePercentile;
+		this.defaultHedgeDelay = defaultHedgeDelay;
+		this.retryThrottled = retryThrottled;
+	}
+
+	@Override
+	public String fetchByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return withRetries( () -> delegate.fetchByIcao( icaoCode ),
+				ResilientNotamFetcher::discardNothing );
+	}
+
+	@Override
+	public String fetchByLocation( double latitude,
+								   double longitude,
+								   double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return withRetries( () -> delegate.fetchByLocation( latitude,
+				longitude, radiusNm ), ResilientNotamFetcher::discardNothing );
+	}
+
+	// A hedged stream that loses the race is closed so its connection is released
+	@Override
+	public InputStream streamByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return withRetries( () -> delegate.streamByIcao( icaoCode ),
+				ResilientNotamFetcher::closeQuietly );
+	}
+
+	@Override
+	public InputStream streamByLocation( double latitude,
+										 double longitude,
+										 double radiusNm )
+			throws IOException, InterruptedException
+	{
+		return withRetries( () -> delegate.streamByLocation( latitude,
+				longitude, radiusNm ), ResilientNotamFetcher::closeQuietly );
+	}
+
+	/**
+	 * Returns the delay after which an attempt is hedged: the configured
+	 * percentile of recent latencies, or the default until enough have been
+	 * seen.
+	 */
+	public Duration getHedgeDelay()
+	{
+		if( latencies.size() < MIN_LATENCY_SAMPLES ) {
+			return defaultHedgeDelay;
+		}
+		return latencies.percentile( hedgePercentile );
+	}
+
+	private <T> T withRetries( Request<T> request, Discard<T> discard )
+			throws IOException, InterruptedException
+	{
+		for( int attempt = 1;; attempt++ ) {
+			try {
+				return hedged( request, discard );
+			}
+			catch( IOException | RuntimeException e ) {
+				if( attempt >= maxAttempts || !isRetryable( e ) ) {
+					throw e;
+				}
+				final long backoffMillis = backoffMillis( attempt );
+				logger.info( "NOTAM request failed ({}), retry {} of {} in {} ms",
+						e.getMessage(), attempt, maxAttempts - 1, backoffMillis );
+				Thread.sleep( backoffMillis );
+			}
+		}
+	}
+
+	/**
+	 * Sends the request and, if it has not answered within the hedge delay, a
+	 * duplicate. Returns the first successful answer; fails only if every
+	 * attempt fails, with the first failure.
+	 */
+	private <T> T hedged( Request<T> request, Discard<T> discard )
+			throws IOException, InterruptedException
+	{
+		final CompletionService<T> race = new ExecutorCompletionService<>(
+				executor );
+		final List<Future<T>> attempts = new ArrayList<>();
+		Future<T> winner = null;
+		attempts.add( race.submit( () -> timed( request ) ) );
+		try {
+			final Duration hedgeDelay = getHedgeDelay();
+			Future<T> done = race.poll( hedgeDelay.toNanos(),
+					TimeUnit.NANOSECONDS );
+			if( done == null ) {
+				logger.debug( "NOTAM request slower than {}, sending hedge",
+						hedgeDelay );
+				attempts.add( race.submit( () -> timed( request ) ) );
+				done = race.take();
+			}
+
+			Throwable firstFailure = null;
+			for( int remaining = attempts.size(); remaining > 0; remaining-- ) {
+				if( done == null ) {
+					done = race.take();
+				}
+				try {
+					final T response = done.get();
+					winner = done;
+					return response;
+				}
+				catch( final ExecutionException e ) {
+					if( firstFailure == null ) {
+						firstFailure = e.getCause();
+					}
+					done = null;
+				}
+			}
+			throw rethrow( firstFailure );
+		}
+		finally {
+			for( final Future<T> attempt : attempts ) {
+				// A loser that already finished holds a response nobody will read
+				if( attempt != winner && !attempt.cancel( true ) && attempt
+						.state() == Future.State.SUCCESS ) {
+					discard.discard( attempt.resultNow() );
+				}
+			}
+		}
+	}
+
+	private <T> T timed( Request<T> request )
+			throws IOException, InterruptedException
+	{
+		final long startNanos = System.nanoTime();
+		final T response = request.send();
+		latencies.record( Duration.ofNanos( System.nanoTime() - startNanos ) );
+		return response;
+	}
+
+	// Throws unchecked and interrupt failures as they are; returns an I/O failure for the caller to throw
+	private static IOException rethrow( Throwable failure )
+			throws InterruptedException
+	{
+		if( failure instanceof IOException ioException ) {
+			return ioException;
+		}
+		if( failure instanceof InterruptedException interruptedException ) {
+			throw interruptedException;
+		}
+		if( failure instanceof RuntimeException runtimeException ) {
+			throw runtimeException;
+		}
+		if( failure instanceof Error error ) {
+			throw error;
+		}
+		throw new IllegalStateException( "NOTAM request failed", failure );
+	}
+
+	private boolean isRetryable( Exception e )
+	{
+		if( e instanceof NotamApiException apiException ) {
+			if( apiException.isThrottled() ) {
+				return retryThrottled;
+			}
+			return apiException.getStatusCode() >= 500;
+		}
+		return e instanceof IOException;
+	}
+
+	private long backoffMillis( int retry )
+	{
+		final long ceiling = Math.min( maxBackoff.toMillis(), baseBackoff
+				.toMillis() << Math.min( retry - 1, 20 ) );
+		return ThreadLocalRandom.current().nextLong( ceiling + 1 );
+	}
+
+	private static void discardNothing( String response )
+	{
+
+	}
+
+	private static void closeQuietly( InputStream stream )
+	{
+		try {
+			stream.close();
+		}
+		catch( final IOException e ) {
+			logger.debug( "Could not close hedged response: {}", e
+					.getMessage() );
+		}
+	}
+
+	@FunctionalInterface
+	private interface Request<T>
+	{
+		T send() throws IOException, InterruptedException;
+	}
+
+	@FunctionalInterface
+	private interface Discard<T>
+	{
+		void discard( T response );
+	}
+}
@@ -0,0 +1,56 @@
+package com.capstone;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads the Retry-After header that rate-limited (429) and overloaded (503)
+ * responses may carry. The header is either a number of seconds or an HTTP
+ * date.
+ */
+final class RetryAfterHeader
+{
+	private RetryAfterHeader()
+	{
+
+	}
+
+	/**
+	 * Returns the requested wait for a 429 or 503 response, or null for any
+	 * other status or if the header is missing or invalid.
+	 */
+	static Duration parse( HttpResponse<?> response )
+	{
+		final int status = response.statusCode();
+		if( status != 429 && status != 503 ) {
+			return null;
+		}
+		return response.headers().firstValue( "Retry-After" ).map(
+				value -> parse( value, Instant.now() ) ).orElse( null );
+	}
+
+	static Duration parse( String value, Instant now )
+	{
+		final String trimmed = value.trim();
+		try {
+			return Duration.ofSeconds( Math.max( 0, Long.parseLong(
+					trimmed ) ) );
+		}
+		catch( final NumberFormatException e ) {
+			// Not a number of seconds, try the HTTP date form below
+		}
+		try {
+			final Instant retryAt = ZonedDateTime.parse( trimmed,
+					DateTimeFormatter.RFC_1123_DATE_TIME ).toInstant();
+			return retryAt.isAfter( now ) ? Duration.between( now, retryAt ) :
+					Duration.ZERO;
+		}
+		catch( final DateTimeParseException e ) {
+			return null;
+		}
+	}
+}
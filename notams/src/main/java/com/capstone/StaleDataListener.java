@@ -0,0 +1,22 @@
+package com.capstone;
+
+import java.time.Instant;
+
+/**
+ * Told when {@link CircuitBreakerNotamFetcher} answers a query with an earlier
+ * response because the NOTAM API failed or its circuit is open.
+ */
+@FunctionalInterface
+public interface StaleDataListener
+{
+	/**
+	 * @param key
+	 *     query that was answered with stale data
+	 * @param fetchedAt
+	 *     when the served response was originally fetched
+	 * @param cause
+	 *     failure of the live request, or the {@code CircuitOpenException} if
+	 *     no request was sent
+	 */
+	void onStaleData( NotamQueryKey key, Instant fetchedAt, Exception cause );
+}
@@ -0,0 +1,284 @@
+package com.capstone;
+
+import com.capstone.models.Notam;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Parses NMS responses like {@link NMSNotamParser}, but straight from
+ * Jackson's token stream instead of a {@link JsonNode} tree.
+ * <p>
+ * Each item is read token by token: only the fields a NOTAM is built from are
+ * turned into strings, and everything else is skipped without being
+ * materialized. The values then go through the same build, reuse and skip
+ * rules as {@link NMSNotamParser}, so both parsers return the same NOTAMs for
+ * the same response. Values are read as {@link JsonNode#asText()} would read
+ * them, so numbers, booleans and nulls in text fields are handled identically.
+ */
+public class StreamingNmsNotamParser implements NotamParserInterface
+{
+    private static final JsonFactory factory = new JsonFactory();
+    private static final List<String> ITEMS_PATH = List.of( "data", "geojson" );
+
+    @Override
+    public List<Notam> parseNotams( String jsonResponse )
+    {
+        return parseNotams( jsonResponse, Collections.emptyMap() );
+    }
+
+    @Override
+    public List<Notam> parseNotams( String jsonResponse,
+                                    Map<String, Notam> knownNotams )
+    {
+        final List<Notam> notamList = new ArrayList<>();
+        try (final JsonParser parser = factory.createParser( jsonResponse )) {
+            readResponse( parser, knownNotams, notamList::add );
+        }
+        catch( final JsonProcessingException e ) {
+            throw new RuntimeException( "Failed to parse NOTAM JSON: " + e
+                    .getMessage(), e );
+        }
+        catch( final IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+        return notamList;
+    }
+
+    /**
+     * Parses the response body as it is read, handing each NOTAM to
+     * {@code consumer} as soon as it is built.
+     */
+    @Override
+    public void parseNotams( InputStream jsonResponse,
+                             Map<String, Notam> knownNotams,
+                             Consumer<Notam> consumer ) throws IOException
+    {
+        try (final JsonParser parser = factory.createParser( jsonResponse )) {
+            readResponse( parser, knownNotams, consumer );
+        }
+        catch( final JsonProcessingException e ) {
+            throw new RuntimeException( "Failed to parse NOTAM JSON: " + e
+                    .getMessage(), e );
+        }
+    }
+
+    @Override
+    public List<String> itemsPath()
+    {
+        return ITEMS_PATH;
+    }
+
+    @Override
+    public Notam parseItem( JsonNode item, Map<String, Notam> knownNotams )
+    {
+        try (final JsonParser parser = item.traverse()) {
+            parser.nextToken();
+            return NMSNotamParser.buildItem( readItem( parser ), knownNotams );
+        }
+        catch( final IOException e ) {
+            // Reading an in-memory tree does not fail
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Reads the whole response, so malformed JSON after the items fails the
+     * parse as it does for the tree parser.
+     */
+    private static void readResponse( JsonParser parser,
+                                      Map<String, Notam> knownNotams,
+                                      Consumer<Notam> consumer ) throws IOException
+    {
+        if( parser.nextToken() != JsonToken.START_OBJECT ) {
+            parser.skipChildren();
+            return;
+        }
+        while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            final String name = parser.currentName();
+            if( parser.nextToken() == JsonToken.START_OBJECT && "data".equals(
+                    name ) ) {
+                readData( parser, knownNotams, consumer );
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readData( JsonParser parser,
+                                  Map<String, Notam> knownNotams,
+                                  Consumer<Notam> consumer ) throws IOException
+    {
+        final QLineDecoder qLine = new QLineDecoder();
+        while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            final String name = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            if( !"geojson".equals( name ) || !value.isStructStart() ) {
+                parser.skipChildren();
+                continue;
+            }
+            // Like iterating a JsonNode, an object yields the values of its fields
+            final JsonToken end = value == JsonToken.START_ARRAY
+                    ? JsonToken.END_ARRAY : JsonToken.END_OBJECT;
+            while( parser.nextToken() != end ) {
+                if( parser.currentToken() == JsonToken.FIELD_NAME ) {
+                    parser.nextToken();
+                }
+                final Notam notam = NMSNotamParser.buildItem( readItem( parser ),
+                        knownNotams, qLine );
+                if( notam != null ) {
+                    consumer.accept( notam );
+                }
+            }
+        }
+    }
+
+    // Reads the item at the current token and leaves the parser on its last token
+    private static NMSNotamParser.ItemFields readItem( JsonParser parser )
+            throws IOException
+    {
+        final NMSNotamParser.ItemFields fields = new NMSNotamParser.ItemFields();
+        if( parser.currentToken() != JsonToken.START_OBJECT ) {
+            parser.skipChildren();
+            return fields;
+        }
+        while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            final String name = parser.currentName();
+            if( parser.nextToken() == JsonToken.START_OBJECT && "properties"
+                    .equals( name ) ) {
+                readProperties( parser, fields );
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+        return fields;
+    }
+
+    private static void readProperties( JsonParser parser,
+                                        NMSNotamParser.ItemFields fields ) throws IOException
+    {
+        while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            final String name = parser.currentName();
+            if( parser.nextToken() == JsonToken.START_OBJECT && "coreNOTAMData"
+                    .equals( name ) ) {
+                readCoreData( parser, fields );
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readCoreData( JsonParser parser,
+                                      NMSNotamParser.ItemFields fields ) throws IOException
+    {
+        while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            final String name = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            if( value == JsonToken.START_OBJECT && "notam".equals( name ) ) {
+                readNotam( parser, fields );
+            }
+            else if( value.isStructStart() && "notamTranslation".equals(
+                    name ) ) {
+                readTranslations( parser, fields );
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readNotam( JsonParser parser,
+                                   NMSNotamParser.ItemFields fields ) throws IOException
+    {
+        while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            final String name = parser.currentName();
+            parser.nextToken();
+            switch( name ) {
+            case "id" -> fields.id = text( parser );
+            case "number" -> fields.number = text( parser );
+            case "type" -> fields.type = text( parser );
+            case "text" -> fields.text = text( parser );
+            case "issued" -> fields.issued = text( parser );
+            case "effectiveStart" -> fields.effectiveStart = text( parser );
+            case "effectiveEnd" -> fields.effectiveEnd = text( parser );
+            case "lastUpdated" -> fields.lastUpdated = text( parser );
+            case "location" -> fields.location = text( parser );
+            case "classification" -> fields.classification = text( parser );
+            case "icaoLocation" -> fields.icaoLocation = text( parser );
+            case "coordinates" -> fields.coordinates = text( parser );
+            case "radius" -> fields.radius = text( parser );
+            case "series" -> fields.series = text( parser );
+            default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readTranslations( JsonParser parser,
+                                          NMSNotamParser.ItemFields fields ) throws IOException
+    {
+        final JsonToken end = parser.currentToken() == JsonToken.START_ARRAY
+                ? JsonToken.END_ARRAY : JsonToken.END_OBJECT;
+        while( parser.nextToken() != end ) {
+            if( parser.currentToken() == JsonToken.FIELD_NAME ) {
+                parser.nextToken();
+            }
+            if( parser.currentToken() != JsonToken.START_OBJECT ) {
+                parser.skipChildren();
+                continue;
+            }
+
+            // The type may come after the text, so both are kept until the translation ends
+            String type = "";
+            String formattedText = "";
+            while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+                final String name = parser.currentName();
+                parser.nextToken();
+                if( "type".equals( name ) ) {
+                    type = text( parser );
+                }
+                else if( "formattedText".equals( name ) ) {
+                    formattedText = text( parser );
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+            if( "ICAO".equals( type ) ) {
+                fields.icaoFormattedTexts.add( formattedText );
+            }
+        }
+    }
+
+    /**
+     * Returns the current value as {@link JsonNode#asText()} would, skipping
+     * it if it is an object or array.
+     */
+    private static String text( JsonParser parser ) throws IOException
+    {
+        return switch( parser.currentToken() ) {
+        case VALUE_STRING -> parser.getText();
+        case VALUE_NUMBER_INT -> parser.getNumberValue().toString();
+        case VALUE_NUMBER_FLOAT -> String.valueOf( parser.getDoubleValue() );
+        case VALUE_TRUE -> "true";
+        case VALUE_FALSE -> "false";
+        case VALUE_NULL -> "null";
+        default -> {
+            parser.skipChildren();
+            yield "";
+        }
+        };
+    }
+}
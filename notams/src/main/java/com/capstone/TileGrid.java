@@ -0,0 +1,193 @@
+package com.capstone;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.capstone.services.FlightPathCalculator;
+
+/**
+ * Fixed global grid of roughly square tiles used to turn arbitrary location
+ * queries into a small set of repeatable ones.
+ * <p>
+ * Rows are {@code tileDegrees} of latitude high. Each row is split into as
+ * many equal columns as fit {@code tileDegrees} of distance at the row's
+ * centre latitude, so tiles keep about the same size towards the poles and a
+ * row always wraps cleanly at 180 degrees. Every tile is fetched with the
+ * smallest circle around its centre that contains the whole tile. The few
+ * tiles next to the poles whose circle would be larger than
+ * {@link NotamQueryKey#MAX_COVERED_RADIUS_NM} are split in half, along their
+ * longer side, until every part fits, so the circles always cover the tile.
+ */
+public final class TileGrid
+{
+	public static final double DEFAULT_TILE_DEGREES = 1.0;
+
+	private final double tileDegrees;
+	private final int rows;
+
+	public TileGrid( double tileDegrees )
+	{
+		// Larger tiles would need circles beyond what the API accepts
+		if( tileDegrees <= 0 || tileDegrees > 2 ) {
+			throw new IllegalArgumentException(
+					"tileDegrees must be in (0, 2], currently: " + tileDegrees );
+		}
+		this.rows = (int) Math.ceil( 180 / tileDegrees );
+		this.tileDegrees = 180.0 / rows;
+	}
+
+	/**
+	 * Returns every tile that overlaps the circle, in row then column order.
+	 */
+	public List<Tile> tilesCovering( double latitude,
+									 double longitude,
+									 double radiusNm )
+	{
+		final List<Tile> tiles = new ArrayList<>();
+		final Point2D centre = new Point2D.Double( latitude, longitude );
+		final double spanDegrees = radiusNm / 60.0;
+		final int firstRow = row( Math.max( -90, latitude - spanDegrees ) );
+		final int lastRow = row( Math.min( 90, latitude + spanDegrees ) );
+
+		for( int row = firstRow; row <= lastRow; row++ ) {
+			final int columns = columns( row );
+			final double columnDegrees = 360.0 / columns;
+			// Longitude span of the circle at the row edge nearest the pole, where it is widest
+			final double poleward = Math.min( 89.9, Math.max( Math.abs(
+					rowSouth( row ) ), Math.abs( rowSouth( row )
+							+ tileDegrees ) ) );
+			final double lonSpan = spanDegrees / Math.cos( Math.toRadians(
+					poleward ) );
+			final int firstColumn;
+			final int lastColumn;
+			if( lonSpan >= 180 ) {
+				firstColumn = 0;
+				lastColumn = columns - 1;
+			}
+			else {
+				firstColumn = (int) Math.floor( (longitude - lonSpan + 180)
+						/ columnDegrees );
+				lastColumn = Math.min( firstColumn + columns - 1, (int) Math
+						.floor( (longitude + lonSpan + 180) / columnDegrees ) );
+			}
+
+			for( int column = firstColumn; column <= lastColumn; column++ ) {
+				for( final Tile tile : tile( row, Math.floorMod( column,
+						columns ) ) ) {
+					final double distanceNm = FlightPathCalculator
+							.haversineDistance( centre, new Point2D.Double(
+									tile.latitude, tile.longitude ) );
+					if( distanceNm <= radiusNm + tile.radiusNm ) {
+						tiles.add( tile );
+					}
+				}
+			}
+		}
+		return tiles;
+	}
+
+	private int row( double latitude )
+	{
+		return Math.min( rows - 1, (int) Math.floor( (latitude + 90)
+				/ tileDegrees ) );
+	}
+
+	private double rowSouth( int row )
+	{
+		return -90 + row * tileDegrees;
+	}
+
+	private int columns( int row )
+	{
+		final double centre = rowSouth( row ) + tileDegrees / 2;
+		return Math.max( 1, (int) Math.floor( 360 * Math.cos( Math.toRadians(
+				centre ) ) / tileDegrees ) );
+	}
+
+	// The circles covering one tile: usually one, more for tiles next to the poles
+	private List<Tile> tile( int row, int column )
+	{
+		final double south = rowSouth( row );
+		final double columnDegrees = 360.0 / columns( row );
+		final double west = -180 + column * columnDegrees;
+		final List<Tile> parts = new ArrayList<>( 1 );
+		cover( south, south + tileDegrees, west, west + columnDegrees, parts );
+		return parts;
+	}
+
+	// Adds the circle around the area, or splits it in half along its longer side if that is too large
+	private static void cover( double south,
+							   double north,
+							   double west,
+							   double east,
+							   List<Tile> parts )
+	{
+		final Point2D centre = new Point2D.Double( (south + north) / 2, (west
+				+ east) / 2 );
+		double radiusNm = 0;
+		for( final double lat : new double[] { south, north } ) {
+			for( final double lon : new double[] { west, east } ) {
+				radiusNm = Math.max( radiusNm, FlightPathCalculator
+						.haversineDistance( centre, new Point2D.Double( lat,
+								lon ) ) );
+			}
+		}
+		radiusNm = Math.ceil( radiusNm );
+		if( radiusNm <= NotamQueryKey.MAX_COVERED_RADIUS_NM ) {
+			parts.add( new Tile( centre.getX(), centre.getY(), radiusNm ) );
+			return;
+		}
+
+		// Width along the edge nearest the equator, where the area is widest
+		final double widthNm = (east - west) * 60 * Math.cos( Math.toRadians(
+				Math.min( Math.abs( south ), Math.abs( north ) ) ) );
+		final double heightNm = (north - south) * 60;
+		if( widthNm >= heightNm ) {
+			cover( south, north, west, centre.getY(), parts );
+			cover( south, north, centre.getY(), east, parts );
+		}
+		else {
+			cover( south, centre.getX(), west, east, parts );
+			cover( centre.getX(), north, west, east, parts );
+		}
+	}
+
+	/** One grid tile and the circle that covers it. */
+	public static final class Tile
+	{
+		private final double latitude;
+		private final double longitude;
+		private final double radiusNm;
+
+		private Tile( double latitude, double longitude, double radiusNm )
+		{
+			this.latitude = latitude;
+			this.longitude = longitude;
+			this.radiusNm = radiusNm;
+		}
+
+		public double getLatitude()
+		{
+			return latitude;
+		}
+
+		public double getLongitude()
+		{
+			return longitude;
+		}
+
+		/** Radius in whole nautical miles of the circle that covers the tile. */
+		public double getRadiusNm()
+		{
+			return radiusNm;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "Tile(" + latitude + ", " + longitude + ", " + radiusNm
+					+ " NM)";
+		}
+	}
+}
@@ -0,0 +1,562 @@
+package com.capstone;
+
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.capstone.services.FlightPathCalculator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Answers location queries from a fixed {@link TileGrid}, so that routes
+ * passing close to each other share cached responses.
+ * <p>
+ * A location query is split into the grid tiles it overlaps. Each tile is
+ * fetched from the delegate with the same circle every time, so a cache
+ * below this fetcher (see {@link CachingNotamFetcher}) is hit by any later
+ * query that overlaps the tile, whatever its exact centre. The tile responses
+ * are merged, NOTAMs listed in several tiles are kept once, and NOTAMs that
+ * lie entirely outside the requested circle are dropped. A NOTAM whose
+ * position cannot be read is kept. ICAO queries are passed through.
+ * <p>
+ * Both the NMS ({@code data.geojson}) and the FAA ({@code items}) response
+ * shapes are understood; the merged response has the shape of the first
+ * tile's response. Responses are read and written token by token: each
+ * feature is buffered as tokens with only the fields the filter needs picked
+ * out, and no JSON tree is built.
+ */
+public class TileGridNotamFetcher implements NotamDataFetcher
+{
+	public static final int DEFAULT_MAX_CONCURRENT_TILES = 4;
+
+	// Q-line style position, degrees and minutes with optional seconds, ex: 3523N09736W
+	private static final Pattern COORDINATES = Pattern.compile(
+			"(\\d{2})(\\d{2})(\\d{2})?([NS])(\\d{3})(\\d{2})(\\d{2})?([EW])" );
+	// Q-line radius meaning "no limit"
+	private static final int UNLIMITED_RADIUS = 999;
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private final NotamDataFetcher delegate;
+	private final TileGrid grid;
+	private final int maxConcurrentTiles;
+
+	public TileGridNotamFetcher( NotamDataFetcher delegate )
+	{
+		this( delegate, new TileGrid( TileGrid.DEFAULT_TILE_DEGREES ),
+				DEFAULT_MAX_CONCURRENT_TILES );
+	}
+
+	/**
+	 * @param delegate
+	 *     fetcher the tiles are requested from, normally a caching one
+	 * @param grid
+	 *     tile grid to answer location queries from
+	 * @param maxConcurrentTiles
+	 *     tiles of one query fetched at once
+	 */
+	public TileGridNotamFetcher( NotamDataFetcher delegate,
+								 TileGrid grid,
+								 int maxConcurrentTiles )
+	{
+		if( maxConcurrentTiles < 1 ) {
+			throw new IllegalArgumentException(
+					"maxConcurrentTiles must be >= 1, currently: "
+							+ maxConcurrentTiles );
+		}
+		this.delegate = delegate;
+		this.grid = grid;
+		this.maxConcurrentTiles = maxConcurrentTiles;
+	}
+
+	@Override
+	public String fetchByIcao( String icaoCode )
+			throws IOException, InterruptedException
+	{
+		return delegate.fetchByIcao( icaoCode );
+	}
+
+	@Override
+	public String fetchByLocation( double latitude,
+								   double longitude,
+								   double radiusNm )
+			throws IOException, InterruptedException
+	{
+		if( radiusNm <= 0 || radiusNm > MAX_RADIUS_NM ) {
+			throw new IllegalArgumentException(
+					"Radius must be greater than 0 and at most " + MAX_RADIUS_NM
+							+ ", currently: " + radiusNm );
+		}
+
+		final Point2D centre = new Point2D.Double( latitude, longitude );
+		final Set<String> seenIds = new HashSet<>();
+		final List<TokenBuffer> features = new ArrayList<>();
+		final List<Feature> tileFeatures = new ArrayList<>();
+		final String[] first = new String[1];
+		final boolean[] faaShape = new boolean[1];
+		fetchTiles( grid.tilesCovering( latitude, longitude, radiusNm ),
+				response -> {
+					tileFeatures.clear();
+					final boolean hasItems = readFeatures( response,
+							tileFeatures );
+					if( first[0] == null ) {
+						first[0] = response;
+						faaShape[0] = hasItems;
+					}
+					for( final Feature feature : tileFeatures ) {
+						if( (!feature.id.isEmpty() && !seenIds.add( feature.id ))
+								|| !feature.mayReach( centre, radiusNm ) ) {
+							continue;
+						}
+						features.add( feature.tokens );
+					}
+				} );
+		return writeMerged( first[0], faaShape[0], features );
+	}
+
+	@FunctionalInterface
+	private interface TileConsumer
+	{
+		void accept( String response ) throws IOException;
+	}
+
+	/**
+	 * Hands the tile responses to {@code consumer} in tile order as they are
+	 * ready, so each can be dropped once read; fails with the first failure if
+	 * any tile fails.
+	 */
+	private void fetchTiles( List<TileGrid.Tile> tiles, TileConsumer consumer )
+			throws IOException, InterruptedException
+	{
+		if( tiles.size() == 1 ) {
+			final TileGrid.Tile tile = tiles.get( 0 );
+			consumer.accept( delegate.fetchByLocation( tile.getLatitude(), tile
+					.getLongitude(), tile.getRadiusNm() ) );
+			return;
+		}
+
+		final Semaphore permits = new Semaphore( maxConcurrentTiles );
+		final List<Future<String>> pending = new ArrayList<>();
+		try (final ExecutorService executor = Executors
+				.newVirtualThreadPerTaskExecutor()) {
+			// Failures cancel the other tiles before the executor closes, so closing does not wait for them
+			try {
+				for( final TileGrid.Tile tile : tiles ) {
+					pending.add( executor.submit( () -> {
+						permits.acquire();
+						try {
+							return delegate.fetchByLocation( tile.getLatitude(),
+									tile.getLongitude(), tile.getRadiusNm() );
+						}
+						finally {
+							permits.release();
+						}
+					} ) );
+				}
+
+				for( int i = 0; i < pending.size(); i++ ) {
+					final String response = pending.get( i ).get();
+					pending.set( i, null );
+					consumer.accept( response );
+				}
+			}
+			catch( final ExecutionException e ) {
+				cancel( pending );
+				final Throwable cause = e.getCause();
+				if( cause instanceof IOException ioException ) {
+					throw ioException;
+				}
+				if( cause instanceof RuntimeException runtimeException ) {
+					throw runtimeException;
+				}
+				throw new IllegalStateException( "Tile fetch failed", cause );
+			}
+			catch( final InterruptedException | IOException
+					| RuntimeException e ) {
+				cancel( pending );
+				throw e;
+			}
+		}
+	}
+
+	private static void cancel( List<Future<String>> pending )
+	{
+		for( final Future<String> tile : pending ) {
+			if( tile != null ) {
+				tile.cancel( true );
+			}
+		}
+	}
+
+	/**
+	 * Reads the features of one tile response token by token. Each feature is
+	 * kept as a buffer of its tokens, with only the fields the filter needs
+	 * picked out, so no tree is built. The {@code items} array is used if
+	 * there is one, otherwise {@code data.geojson}.
+	 *
+	 * @return whether the response has a top-level {@code items} field, the
+	 *     FAA shape
+	 */
+	private static boolean readFeatures( String response, List<Feature> into )
+			throws IOException
+	{
+		List<Feature> items = null;
+		List<Feature> geojson = null;
+		try (final JsonParser parser = mapper.createParser( response )) {
+			if( parser.nextToken() != JsonToken.START_OBJECT ) {
+				return false;
+			}
+			while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+				final String name = parser.currentName();
+				final JsonToken value = parser.nextToken();
+				if( "items".equals( name ) ) {
+					items = readArray( parser );
+				}
+				else if( "data".equals( name ) && value == JsonToken.START_OBJECT ) {
+					while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+						final String dataName = parser.currentName();
+						parser.nextToken();
+						if( "geojson".equals( dataName ) ) {
+							geojson = readArray( parser );
+						}
+						else {
+							parser.skipChildren();
+						}
+					}
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
+		if( items != null ) {
+			into.addAll( items );
+			return true;
+		}
+		if( geojson != null ) {
+			into.addAll( geojson );
+		}
+		return false;
+	}
+
+	private static List<Feature> readArray( JsonParser parser )
+			throws IOException
+	{
+		final List<Feature> features = new ArrayList<>();
+		if( parser.currentToken() != JsonToken.START_ARRAY ) {
+			parser.skipChildren();
+			return features;
+		}
+		while( parser.nextToken() != JsonToken.END_ARRAY ) {
+			final TokenBuffer tokens = new TokenBuffer( parser );
+			tokens.copyCurrentStructure( parser );
+			features.add( Feature.of( tokens ) );
+		}
+		return features;
+	}
+
+	/**
+	 * Writes the first tile's response with its features replaced by the
+	 * merged ones, copying everything else token by token. FAA responses get
+	 * {@code totalCount} set to the merged count.
+	 */
+	private static String writeMerged( String first,
+									   boolean faaShape,
+									   List<TokenBuffer> features )
+			throws IOException
+	{
+		final StringWriter merged = new StringWriter();
+		try (final JsonGenerator out = mapper.createGenerator( merged )) {
+			out.writeStartObject();
+			boolean featuresWritten = false;
+			boolean countWritten = false;
+			if( first != null ) {
+				try (final JsonParser parser = mapper.createParser( first )) {
+					if( parser.nextToken() == JsonToken.START_OBJECT ) {
+						while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+							final String name = parser.currentName();
+							final JsonToken value = parser.nextToken();
+							if( !faaShape && "data".equals( name )
+									&& value != JsonToken.START_OBJECT ) {
+								// Replaced by the data object written below
+								parser.skipChildren();
+								continue;
+							}
+							out.writeFieldName( name );
+							if( faaShape && "items".equals( name ) ) {
+								parser.skipChildren();
+								writeFeatures( out, features );
+								featuresWritten = true;
+							}
+							else if( faaShape && "totalCount".equals( name ) ) {
+								parser.skipChildren();
+								out.writeNumber( features.size() );
+								countWritten = true;
+							}
+							else if( !faaShape && "data".equals( name )
+									&& value == JsonToken.START_OBJECT ) {
+								writeData( parser, out, features );
+								featuresWritten = true;
+							}
+							else {
+								out.copyCurrentStructure( parser );
+							}
+						}
+					}
+				}
+			}
+			if( faaShape && !countWritten ) {
+				out.writeNumberField( "totalCount", features.size() );
+			}
+			if( !featuresWritten ) {
+				out.writeObjectFieldStart( "data" );
+				out.writeFieldName( "geojson" );
+				writeFeatures( out, features );
+				out.writeEndObject();
+			}
+			out.writeEndObject();
+		}
+		return merged.toString();
+	}
+
+	// Copies the data object, replacing or adding its geojson array
+	private static void writeData( JsonParser parser,
+								   JsonGenerator out,
+								   List<TokenBuffer> features ) throws IOException
+	{
+		out.writeStartObject();
+		boolean written = false;
+		while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+			final String name = parser.currentName();
+			parser.nextToken();
+			out.writeFieldName( name );
+			if( "geojson".equals( name ) ) {
+				parser.skipChildren();
+				writeFeatures( out, features );
+				written = true;
+			}
+			else {
+				out.copyCurrentStructure( parser );
+			}
+		}
+		if( !written ) {
+			out.writeFieldName( "geojson" );
+			writeFeatures( out, features );
+		}
+		out.writeEndObject();
+	}
+
+	private static void writeFeatures( JsonGenerator out,
+									   List<TokenBuffer> features )
+			throws IOException
+	{
+		out.writeStartArray();
+		for( final TokenBuffer feature : features ) {
+			feature.serialize( out );
+		}
+		out.writeEndArray();
+	}
+
+	/**
+	 * Returns false only if the NOTAM's position is known and its area lies
+	 * completely outside the circle.
+	 *
+	 * @param coordinates
+	 *     the NOTAM's Q-line style position, ex: 3523N09736W, or empty
+	 * @param radius
+	 *     the NOTAM's radius in nautical miles, or empty
+	 * @param point
+	 *     (latitude, longitude) of a GeoJSON Point geometry, or null
+	 */
+	static boolean mayReach( String coordinates,
+							 String radius,
+							 Point2D point,
+							 Point2D centre,
+							 double radiusNm )
+	{
+		Point2D position = parseCoordinates( coordinates );
+		double notamRadiusNm = 0;
+		if( position != null ) {
+			if( !radius.isBlank() ) {
+				try {
+					notamRadiusNm = Integer.parseInt( radius.trim() );
+				}
+				catch( final NumberFormatException e ) {
+					return true;
+				}
+				if( notamRadiusNm >= UNLIMITED_RADIUS ) {
+					return true;
+				}
+			}
+		}
+		else {
+			if( point == null ) {
+				return true;
+			}
+			position = point;
+		}
+		return FlightPathCalculator.haversineDistance( centre,
+				position ) <= radiusNm + notamRadiusNm;
+	}
+
+	// One buffered feature and the fields the filter reads from it
+	private static final class Feature
+	{
+		private final TokenBuffer tokens;
+		private String id = "";
+		private String coordinates = "";
+		private String radius = "";
+		private String geometryType = "";
+		private double[] point;
+
+		private Feature( TokenBuffer tokens )
+		{
+			this.tokens = tokens;
+		}
+
+		// Picks the filter fields out of the buffered tokens
+		private static Feature of( TokenBuffer tokens ) throws IOException
+		{
+			final Feature feature = new Feature( tokens );
+			try (final JsonParser parser = tokens.asParser()) {
+				if( parser.nextToken() != JsonToken.START_OBJECT ) {
+					return feature;
+				}
+				while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+					final String name = parser.currentName();
+					final JsonToken value = parser.nextToken();
+					if( "properties".equals( name ) && value == JsonToken.START_OBJECT ) {
+						feature.readProperties( parser );
+					}
+					else if( "geometry".equals( name )
+							&& value == JsonToken.START_OBJECT ) {
+						feature.readGeometry( parser );
+					}
+					else {
+						parser.skipChildren();
+					}
+				}
+			}
+			return feature;
+		}
+
+		// properties.coreNOTAMData.notam holds the id, coordinates and radius
+		private void readProperties( JsonParser parser ) throws IOException
+		{
+			while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+				final String name = parser.currentName();
+				final JsonToken value = parser.nextToken();
+				if( !"coreNOTAMData".equals( name )
+						|| value != JsonToken.START_OBJECT ) {
+					parser.skipChildren();
+					continue;
+				}
+				while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+					final String coreName = parser.currentName();
+					final JsonToken coreValue = parser.nextToken();
+					if( !"notam".equals( coreName )
+							|| coreValue != JsonToken.START_OBJECT ) {
+						parser.skipChildren();
+						continue;
+					}
+					while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+						final String field = parser.currentName();
+						parser.nextToken();
+						switch( field ) {
+							case "id" -> id = text( parser );
+							case "coordinates" -> coordinates = text( parser );
+							case "radius" -> radius = text( parser );
+							default -> parser.skipChildren();
+						}
+					}
+				}
+			}
+		}
+
+		private void readGeometry( JsonParser parser ) throws IOException
+		{
+			while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+				final String name = parser.currentName();
+				final JsonToken value = parser.nextToken();
+				if( "type".equals( name ) ) {
+					geometryType = text( parser );
+				}
+				else if( "coordinates".equals( name )
+						&& value == JsonToken.START_ARRAY ) {
+					final double[] values = new double[2];
+					int count = 0;
+					while( parser.nextToken() != JsonToken.END_ARRAY ) {
+						if( count < 2 ) {
+							values[count] = parser.currentToken().isNumeric()
+									? parser.getDoubleValue() : parser
+											.getValueAsDouble();
+						}
+						parser.skipChildren();
+						count++;
+					}
+					point = count >= 2 ? values : null;
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
+
+		// Scalar value as text, as JsonNode.asText does; empty for objects and arrays
+		private static String text( JsonParser parser ) throws IOException
+		{
+			if( parser.currentToken().isStructStart() ) {
+				parser.skipChildren();
+				return "";
+			}
+			final String text = parser.getValueAsString();
+			return text == null ? "" : text;
+		}
+
+		private boolean mayReach( Point2D centre, double radiusNm )
+		{
+			final Point2D pointPosition = "Point".equals( geometryType )
+					&& point != null ? new Point2D.Double( point[1], point[0] )
+							: null;
+			return TileGridNotamFetcher.mayReach( coordinates, radius,
+					pointPosition, centre, radiusNm );
+		}
+	}
+
+	// Returns (latitude, longitude), or null if the text is not a Q-line style position
+	private static Point2D parseCoordinates( String text )
+	{
+		final Matcher m = COORDINATES.matcher( text.trim() );
+		if( !m.matches() ) {
+			return null;
+		}
+		double latitude = Integer.parseInt( m.group( 1 ) ) + Integer.parseInt( m
+				.group( 2 ) ) / 60.0 + (m.group( 3 ) == null ? 0
+						: Integer.parseInt( m.group( 3 ) ) / 3600.0);
+		double longitude = Integer.parseInt( m.group( 5 ) ) + Integer.parseInt( m
+				.group( 6 ) ) / 60.0 + (m.group( 7 ) == null ? 0
+						: Integer.parseInt( m.group( 7 ) ) / 3600.0);
+		if( "S".equals( m.group( 4 ) ) ) {
+			latitude = -latitude;
+		}
+		if( "W".equals( m.group( 8 ) ) ) {
+			longitude = -longitude;
+		}
+		return new Point2D.Double( latitude, longitude );
+	}
+}
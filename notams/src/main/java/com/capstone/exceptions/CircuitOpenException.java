@@ -0,0 +1,15 @@
+package com.capstone.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown without calling the NOTAM API while its circuit breaker is open and
+ * no earlier response is available for the query.
+ */
+public class CircuitOpenException extends IOException
+{
+	public CircuitOpenException( String message )
+	{
+		super( message );
+	}
+}
@@ -1,17 +1,48 @@
 package com.capstone.exceptions;
 
+import java.time.Duration;
+import java.util.Optional;
+
 public class NotamApiException extends RuntimeException
 {
 	private final int statusCode;
+	private final Duration retryAfter;
 
 	public NotamApiException( int statusCode, String message )
+	{
+		this( statusCode, message, null );
+	}
+
+	/**
+	 * @param retryAfter
+	 *     how long the server asked us to wait before trying again, from its
+	 *     Retry-After header; null if it did not say
+	 */
+	public NotamApiException( int statusCode,
+							  String message,
+							  Duration retryAfter )
 	{
 		super( message );
 		this.statusCode = statusCode;
+		this.retryAfter = retryAfter;
 	}
 
 	public int getStatusCode()
 	{
 		return statusCode;
 	}
+
+	public Optional<Duration> getRetryAfter()
+	{
+		return Optional.ofNullable( retryAfter );
+	}
+
+	/**
+	 * Returns true for responses that mean the server is overloaded or rate
+	 * limiting us (HTTP 429 and 503), so the request can be retried later.
+	 */
+	public boolean isThrottled()
+	{
+		return statusCode == 429 || statusCode == 503;
+	}
 }
@@ -0,0 +1,66 @@
+package com.capstone.models;
+
+import java.util.Objects;
+
+/**
+ * A single circular NOTAM area query: a centre point and a radius.
+ * <p>
+ * Follows the project-wide convention of latitude/longitude in decimal degrees
+ * and distances in nautical miles.
+ */
+public final class LocationQuery
+{
+    private final double latitude;
+    private final double longitude;
+    private final double radiusNm;
+
+    public LocationQuery( final double latitude,
+                          final double longitude,
+                          final double radiusNm )
+    {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radiusNm = radiusNm;
+    }
+
+    public double getLatitude()
+    {
+        return latitude;
+    }
+
+    public double getLongitude()
+    {
+        return longitude;
+    }
+
+    public double getRadiusNm()
+    {
+        return radiusNm;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if( this == o )
+            return true;
+        if( !(o instanceof LocationQuery) )
+            return false;
+        LocationQuery other = (LocationQuery) o;
+        return Double.compare( latitude, other.latitude ) == 0 && Double
+                .compare( longitude, other.longitude ) == 0 && Double.compare(
+                        radiusNm, other.radiusNm ) == 0;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash( latitude, longitude, radiusNm );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LocationQuery{" + "latitude=" + latitude + ", longitude="
+                + longitude + ", radiusNm=" + radiusNm + '}';
+    }
+}
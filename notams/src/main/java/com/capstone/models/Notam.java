@@ -3,6 +3,8 @@ package com.capstone.models;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
 
 /**
  * Represents a single NOTAM (Notice to Air Missions).
@@ -73,6 +75,10 @@ public final class Notam {
     // Maximum flight level as provided (example: "999"). Optional. 
     private final String maximumFL;
 
+    // Flight levels decoded from the Q-line (example: 0 and 999), -1 if unknown.
+    private final int minimumFlightLevel;
+    private final int maximumFlightLevel;
+
     // Location short code (example: "OKC"). Optional. 
     private final String location;
 
@@ -103,6 +109,16 @@ public final class Notam {
     /** Radius in NM (?) as provided (example: "005"). Optional. */
     private final String radius;
 
+    /**
+     * Centre of the affected area in degrees, south and west negative, decoded
+     * from the Q-line or the coordinates. NaN if unknown.
+     */
+    private final double latitude;
+    private final double longitude;
+
+    // Radius of the affected area in NM (example: 5, 999 means no limit), -1 if unknown.
+    private final int radiusNm;
+
     /**
      * Optional formatted ICAO translation text (from
      * notamTranslation[0].formattedText).
@@ -154,7 +170,15 @@ public final class Notam {
         this.lastUpdated = b.lastUpdated;
         this.icaoLocation = normalizeOptional(b.icaoLocation);
         this.coordinates = normalizeOptional(b.coordinates);
-        this.radius = normalizeOptional(b.radius);        this.formattedText = normalizeOptional(b.formattedText);
+        this.radius = normalizeOptional(b.radius);
+        this.minimumFlightLevel = unknownIfNegative(b.minimumFlightLevel);
+        this.maximumFlightLevel = unknownIfNegative(b.maximumFlightLevel);
+        this.radiusNm = unknownIfNegative(b.radiusNm);
+        // A position needs both coordinates
+        boolean hasPosition = !Double.isNaN(b.latitude) && !Double.isNaN(b.longitude);
+        this.latitude = hasPosition ? b.latitude : Double.NaN;
+        this.longitude = hasPosition ? b.longitude : Double.NaN;
+        this.formattedText = normalizeOptional(b.formattedText);
 
         this.importanceScore = b.importanceScore;
     }
@@ -227,6 +251,16 @@ public final class Notam {
         return Optional.ofNullable(maximumFL);
     }
 
+    /** Returns the minimum flight level as a number, if known. */
+    public OptionalInt getMinimumFlightLevel() {
+        return minimumFlightLevel < 0 ? OptionalInt.empty() : OptionalInt.of(minimumFlightLevel);
+    }
+
+    /** Returns the maximum flight level as a number, if known. */
+    public OptionalInt getMaximumFlightLevel() {
+        return maximumFlightLevel < 0 ? OptionalInt.empty() : OptionalInt.of(maximumFlightLevel);
+    }
+
     /** Returns the location code (often 3-letter), if present. */
     public Optional<String> getLocation() {
         return Optional.ofNullable(location);
@@ -277,6 +311,21 @@ public final class Notam {
         return Optional.ofNullable(radius);
     }
 
+    /** Returns the latitude of the affected area's centre in degrees, if known. */
+    public OptionalDouble getLatitude() {
+        return Double.isNaN(latitude) ? OptionalDouble.empty() : OptionalDouble.of(latitude);
+    }
+
+    /** Returns the longitude of the affected area's centre in degrees, if known. */
+    public OptionalDouble getLongitude() {
+        return Double.isNaN(longitude) ? OptionalDouble.empty() : OptionalDouble.of(longitude);
+    }
+
+    /** Returns the radius of the affected area in NM, if known. */
+    public OptionalInt getRadiusNm() {
+        return radiusNm < 0 ? OptionalInt.empty() : OptionalInt.of(radiusNm);
+    }
+
     /** Returns a human-friendly formatted text version, if present. */
     public Optional<String> getFormattedText() {
         return Optional.ofNullable(formattedText);
@@ -364,6 +413,11 @@ public final class Notam {
         return normalized.isBlank() ? null : normalized;
     }
 
+    // Maps every negative value to -1, so unknown numbers compare equal.
+    private static int unknownIfNegative(int value) {
+        return value < 0 ? -1 : value;
+    }
+
     /**
      * Builder class used to construct an immutable {@link Notam}.
      * Required fields must be set before calling {@link #build()}.
@@ -391,6 +445,11 @@ public final class Notam {
         private String icaoLocation;
         private String coordinates;
         private String radius;
+        private int minimumFlightLevel = -1;
+        private int maximumFlightLevel = -1;
+        private double latitude = Double.NaN;
+        private double longitude = Double.NaN;
+        private int radiusNm = -1;
         private String formattedText;
         private int importanceScore = 0;
 
@@ -530,6 +589,36 @@ public final class Notam {
             return this;
         }
 
+        /** Sets minimum flight level as a number (optional; negative if unknown). */
+        public Builder minimumFlightLevel(int minimumFlightLevel) {
+            this.minimumFlightLevel = minimumFlightLevel;
+            return this;
+        }
+
+        /** Sets maximum flight level as a number (optional; negative if unknown). */
+        public Builder maximumFlightLevel(int maximumFlightLevel) {
+            this.maximumFlightLevel = maximumFlightLevel;
+            return this;
+        }
+
+        /** Sets centre latitude in degrees (optional; NaN if unknown). */
+        public Builder latitude(double latitude) {
+            this.latitude = latitude;
+            return this;
+        }
+
+        /** Sets centre longitude in degrees (optional; NaN if unknown). */
+        public Builder longitude(double longitude) {
+            this.longitude = longitude;
+            return this;
+        }
+
+        /** Sets radius in NM (optional; negative if unknown). */
+        public Builder radiusNm(int radiusNm) {
+            this.radiusNm = radiusNm;
+            return this;
+        }
+
         /** Sets formatted/translated text (optional). */
         public Builder formattedText(String formattedText) {
             this.formattedText = formattedText;
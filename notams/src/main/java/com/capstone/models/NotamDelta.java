@@ -0,0 +1,70 @@
+package com.capstone.models;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The difference between two refreshes of the same query area.
+ * <p>
+ * Only NOTAMs that are new, changed or removed are listed. NOTAMs that did not
+ * change are carried over from the previous refresh as the same instances and
+ * are only counted here.
+ */
+public final class NotamDelta
+{
+    private final List<Notam> added;
+    private final List<Notam> changed;
+    private final List<Notam> removed;
+    private final int unchangedCount;
+    private final Instant newestLastUpdated;
+
+    public NotamDelta( final List<Notam> added,
+                       final List<Notam> changed,
+                       final List<Notam> removed,
+                       final int unchangedCount,
+                       final Instant newestLastUpdated )
+    {
+        this.added = List.copyOf( added );
+        this.changed = List.copyOf( changed );
+        this.removed = List.copyOf( removed );
+        this.unchangedCount = unchangedCount;
+        this.newestLastUpdated = newestLastUpdated;
+    }
+
+    /** Returns NOTAMs that were not in the previous refresh. */
+    public List<Notam> getAdded()
+    {
+        return added;
+    }
+
+    /** Returns NOTAMs whose lastUpdated changed since the previous refresh. */
+    public List<Notam> getChanged()
+    {
+        return changed;
+    }
+
+    /** Returns NOTAMs from the previous refresh that are no longer returned. */
+    public List<Notam> getRemoved()
+    {
+        return removed;
+    }
+
+    /** Returns how many NOTAMs were reused from the previous refresh. */
+    public int getUnchangedCount()
+    {
+        return unchangedCount;
+    }
+
+    /** Returns true if nothing was added, changed or removed. */
+    public boolean isEmpty()
+    {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    /** Returns the newest lastUpdated seen in the area, if any NOTAM has one. */
+    public Optional<Instant> getNewestLastUpdated()
+    {
+        return Optional.ofNullable( newestLastUpdated );
+    }
+}
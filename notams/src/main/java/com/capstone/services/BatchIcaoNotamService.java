@@ -0,0 +1,216 @@
+package com.capstone.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import com.capstone.NotamDataFetcher;
+import com.capstone.NotamParserInterface;
+import com.capstone.StreamingNmsNotamParser;
+import com.capstone.models.Notam;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Fetches and parses the NOTAMs of many airports at once, for example every
+ * station of a hub-and-spoke schedule.
+ * <p>
+ * Codes are trimmed, upper-cased and de-duplicated, then fetched concurrently
+ * on virtual threads, at most {@code maxConcurrentRequests} at a time. Neither
+ * NOTAM API accepts several locations in one request, so each airport is its
+ * own request; the fetcher's caching and coalescing still apply. A failed
+ * airport does not fail the batch: its {@link Result} carries the error
+ * instead of NOTAMs.
+ */
+public class BatchIcaoNotamService
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+
+	private final NotamDataFetcher fetcher;
+	private final NotamParserInterface parser;
+	private final int maxConcurrentRequests;
+
+	public BatchIcaoNotamService()
+	{
+		this( RouteNotamService.defaultFetcher() );
+	}
+
+	public BatchIcaoNotamService( final NotamDataFetcher fetcher )
+	{
+		this( fetcher, new StreamingNmsNotamParser(), DEFAULT_MAX_CONCURRENT_REQUESTS );
+	}
+
+	/**
+	 * @param fetcher
+	 *     source of raw NOTAM JSON
+	 * @param parser
+	 *     parser matching the fetcher's response format
+	 * @param maxConcurrentRequests
+	 *     upper bound on airport requests in flight at once
+	 */
+	public BatchIcaoNotamService( final NotamDataFetcher fetcher,
+								  final NotamParserInterface parser,
+								  final int maxConcurrentRequests )
+	{
+		if( maxConcurrentRequests < 1 ) {
+			throw new IllegalArgumentException(
+					"maxConcurrentRequests must be >= 1, currently: "
+							+ maxConcurrentRequests );
+		}
+		this.fetcher = fetcher;
+		this.parser = parser;
+		this.maxConcurrentRequests = maxConcurrentRequests;
+	}
+
+	/**
+	 * Fetches the NOTAMs of every airport in {@code icaoCodes}.
+	 *
+	 * @param icaoCodes
+	 *     ICAO codes in any case; duplicates are fetched once
+	 *
+	 * @return one result per distinct upper-cased code, in the order the codes
+	 *     were first given
+	 *
+	 * @throws InterruptedException
+	 *     if interrupted while waiting; requests still running are cancelled
+	 */
+	public Map<String, Result> fetchByIcaos( final Collection<String> icaoCodes )
+			throws InterruptedException
+	{
+		final Map<String, Result> results = new LinkedHashMap<>();
+		for( final String icaoCode : icaoCodes ) {
+			if( icaoCode == null ) {
+				throw new IllegalArgumentException(
+						"ICAO codes must not contain null" );
+			}
+			results.putIfAbsent( icaoCode.trim().toUpperCase( Locale.ROOT ),
+					null );
+		}
+		if( results.isEmpty() ) {
+			return results;
+		}
+
+		final Semaphore permits = new Semaphore( maxConcurrentRequests );
+		// Airports that share a NOTAM, such as an FDC or ARTCC NOTAM, reuse the parsed instance
+		final Map<String, Notam> parsedById = new ConcurrentHashMap<>();
+		final Map<String, Future<List<Notam>>> pending = new LinkedHashMap<>();
+		try (final ExecutorService executor = Executors
+				.newVirtualThreadPerTaskExecutor()) {
+			for( final String icaoCode : results.keySet() ) {
+				pending.put( icaoCode, executor.submit( () -> fetchAirport(
+						icaoCode, permits, parsedById ) ) );
+			}
+
+			try {
+				for( final Map.Entry<String, Future<List<Notam>>> entry : pending
+						.entrySet() ) {
+					results.put( entry.getKey(), await( entry.getKey(), entry
+							.getValue() ) );
+				}
+			}
+			catch( final InterruptedException e ) {
+				// Cancelled before the executor closes, so closing does not wait for them
+				pending.values().forEach( f -> f.cancel( true ) );
+				throw e;
+			}
+		}
+		return results;
+	}
+
+	private List<Notam> fetchAirport( final String icaoCode,
+									  final Semaphore permits,
+									  final Map<String, Notam> parsedById )  throws IOException,
+																			 InterruptedException
+	{
+		final List<Notam> notams = new ArrayList<>();
+		permits.acquire();
+		try (final InputStream response = fetcher.streamByIcao( icaoCode )) {
+			parser.parseNotams( response, parsedById, notam -> {
+				// Another airport may have parsed the same NOTAM at the same time, keep whichever was stored first
+				final Notam stored = parsedById.putIfAbsent( notam.getId(),
+						notam );
+				notams.add( stored != null && Objects.equals( stored
+						.getLastUpdated(), notam.getLastUpdated() ) ? stored : notam );
+			} );
+		}
+		finally {
+			permits.release();
+		}
+		return notams;
+	}
+
+	private static Result await( final String icaoCode,
+								 final Future<List<Notam>> result )
+			throws InterruptedException
+	{
+		try {
+			return Result.success( result.get() );
+		}
+		catch( final ExecutionException e ) {
+			final Throwable cause = e.getCause();
+			logger.warn( "Could not fetch NOTAMs for {}: {}", icaoCode, cause
+					.getMessage() );
+			if( cause instanceof Exception exception ) {
+				return Result.failure( exception );
+			}
+			throw new IllegalStateException( "NOTAM fetch for " + icaoCode
+					+ " failed", cause );
+		}
+	}
+
+	/** NOTAMs of one airport, or the error that prevented fetching them. */
+	public static final class Result
+	{
+		private final List<Notam> notams;
+		private final Exception error;
+
+		private Result( List<Notam> notams, Exception error )
+		{
+			this.notams = notams;
+			this.error = error;
+		}
+
+		static Result success( List<Notam> notams )
+		{
+			return new Result( Collections.unmodifiableList( notams ), null );
+		}
+
+		static Result failure( Exception error )
+		{
+			return new Result( List.of(), error );
+		}
+
+		public boolean isSuccess()
+		{
+			return error == null;
+		}
+
+		/** Returns the airport's NOTAMs; empty if the fetch failed. */
+		public List<Notam> getNotams()
+		{
+			return notams;
+		}
+
+		public Optional<Exception> getError()
+		{
+			return Optional.ofNullable( error );
+		}
+	}
+}
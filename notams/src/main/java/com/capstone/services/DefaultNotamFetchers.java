@@ -0,0 +1,137 @@
+package com.capstone.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import com.capstone.AdaptiveRateLimitedFetcher;
+import com.capstone.CachingNotamFetcher;
+import com.capstone.CircuitBreakerNotamFetcher;
+import com.capstone.CoalescingNotamFetcher;
+import com.capstone.DiskCachingNotamFetcher;
+import com.capstone.NmsNotamFetcher;
+import com.capstone.NotamDataFetcher;
+import com.capstone.ResilientNotamFetcher;
+import com.capstone.TileGridNotamFetcher;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The default NMS fetcher chain, built once per process so that every service
+ * and the {@link PrefetchWarmer} share its caches and its rate limit.
+ * <p>
+ * The NMS fetcher sits behind an adaptive rate limiter, retries with hedging,
+ * a circuit breaker, an in-memory cache and, when the cache directory can be
+ * opened, a disk cache that survives restarts. Cache hits never count against
+ * the rate limit or the breaker, and every retry or hedge goes through the
+ * limiter. Concurrent cache misses for the same query are coalesced into one
+ * call. While the API is failing the breaker answers from the last good
+ * responses, so a briefing degrades to stale data instead of timing out;
+ * those are served above the caches so they are never cached as fresh.
+ * Location queries are answered from fixed grid tiles, so routes that pass
+ * close to each other share cached responses. Every query is recorded in a
+ * {@link QueryHistory} so the warmer can learn which ones are hot.
+ */
+final class DefaultNotamFetchers
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	// Twice the default warming interval, so a warmed entry is refreshed before it expires
+	static final Duration REFRESH_AHEAD = PrefetchWarmer.DEFAULT_INTERVAL
+			.multipliedBy( 2 );
+
+	private static DefaultNotamFetchers shared;
+
+	private final QueryHistory history = new QueryHistory();
+	private final NotamDataFetcher fetcher;
+	private final NotamDataFetcher refresher;
+	private final BooleanSupplier spareCapacity;
+	private final BooleanSupplier circuitOpen;
+
+	private DefaultNotamFetchers()
+	{
+		final AdaptiveRateLimitedFetcher limiter = new AdaptiveRateLimitedFetcher(
+				new NmsNotamFetcher() );
+		// The limiter already retries throttled responses, so they are not retried twice
+		final NotamDataFetcher resilient = new ResilientNotamFetcher( limiter,
+				ResilientNotamFetcher.DEFAULT_MAX_ATTEMPTS,
+				ResilientNotamFetcher.DEFAULT_BASE_BACKOFF,
+				ResilientNotamFetcher.DEFAULT_MAX_BACKOFF,
+				ResilientNotamFetcher.DEFAULT_HEDGE_PERCENTILE,
+				ResilientNotamFetcher.DEFAULT_HEDGE_DELAY, false );
+		// Below the caches, so only real API calls move the breaker
+		final CircuitBreakerNotamFetcher breaker = new CircuitBreakerNotamFetcher(
+				resilient );
+		NotamDataFetcher upstream = breaker;
+		NotamDataFetcher refreshSource = breaker;
+		final Path cacheDirectory = DiskCachingNotamFetcher
+				.configuredDirectory();
+		try {
+			final DiskCachingNotamFetcher disk = new DiskCachingNotamFetcher(
+					upstream, cacheDirectory );
+			upstream = disk;
+			// Early enough that a refreshed entry is still within the disk max age when it leaves memory
+			refreshSource = disk.refresher( REFRESH_AHEAD.plus(
+					CachingNotamFetcher.DEFAULT_TIME_TO_LIVE ) );
+		}
+		catch( final IOException e ) {
+			logger.warn( "NOTAM disk cache disabled, could not open {}: {}",
+					cacheDirectory, e.getMessage() );
+		}
+		// Concurrent misses for the same query share one upstream call
+		final CachingNotamFetcher cache = new CachingNotamFetcher(
+				new CoalescingNotamFetcher( upstream ) );
+
+		this.fetcher = history.recording( new TileGridNotamFetcher( breaker
+				.servingStale( cache ) ) );
+		this.spareCapacity = limiter::hasSpareCapacity;
+		// Checked per tile, since each tile the cache refreshes is one API request
+		this.refresher = new TileGridNotamFetcher( PrefetchWarmer.capacityGated(
+				cache.refresher( REFRESH_AHEAD, refreshSource ), spareCapacity ) );
+		this.circuitOpen = () -> breaker
+				.getState() == CircuitBreakerNotamFetcher.State.OPEN;
+	}
+
+	/** Returns the process-wide chain, building it on first use. */
+	static synchronized DefaultNotamFetchers shared()
+	{
+		if( shared == null ) {
+			shared = new DefaultNotamFetchers();
+		}
+		return shared;
+	}
+
+	/** Fetcher that answers queries and records them in {@link #getHistory()}. */
+	NotamDataFetcher getFetcher()
+	{
+		return fetcher;
+	}
+
+	/**
+	 * Fetcher that refreshes the in-memory cache behind {@link #getFetcher()}
+	 * ahead of expiry, and the disk cache below it ahead of its max age.
+	 */
+	NotamDataFetcher getRefresher()
+	{
+		return refresher;
+	}
+
+	QueryHistory getHistory()
+	{
+		return history;
+	}
+
+	/** True while the rate limiter has room for background requests. */
+	BooleanSupplier getSpareCapacity()
+	{
+		return spareCapacity;
+	}
+
+	/** True while the circuit breaker in front of the API is open. */
+	BooleanSupplier getCircuitOpen()
+	{
+		return circuitOpen;
+	}
+}
@@ -46,9 +46,9 @@ public class FlightPathCalculator
      * Spherical linear interpolation (slerp) between two lat/lon points.
      * Follows the great-circle (shortest) path on the globe.
      */
-    private static Point2D interpolatePoint( Point2D start,
-                                             Point2D end,
-                                             double fraction )
+    static Point2D interpolatePoint( Point2D start,
+                                     Point2D end,
+                                     double fraction )
     {
         double lat1 = Math.toRadians( start.getX() );
         double lon1 = Math.toRadians( start.getY() );
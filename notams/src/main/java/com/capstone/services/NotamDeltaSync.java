@@ -0,0 +1,150 @@
+package com.capstone.services;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.capstone.NMSNotamParser;
+import com.capstone.NotamDataFetcher;
+import com.capstone.NotamParserInterface;
+import com.capstone.NotamQueryKey;
+import com.capstone.models.Notam;
+import com.capstone.models.NotamDelta;
+
+/**
+ * Keeps the latest NOTAMs for a set of query areas and refreshes them
+ * incrementally.
+ * <p>
+ * Each refresh passes the area's previous NOTAMs to the parser, which reuses
+ * any NOTAM whose id and lastUpdated are unchanged instead of building it
+ * again. Only new, changed and removed NOTAMs are materialized and reported
+ * in the returned {@link NotamDelta}. The newest lastUpdated per area is
+ * tracked so callers can tell at a glance whether an area has moved on.
+ */
+public class NotamDeltaSync
+{
+	private final NotamDataFetcher fetcher;
+	private final NotamParserInterface parser;
+	private final Map<NotamQueryKey, AreaState> areas = new ConcurrentHashMap<>();
+
+	public NotamDeltaSync( final NotamDataFetcher fetcher )
+	{
+		this( fetcher, new NMSNotamParser() );
+	}
+
+	public NotamDeltaSync( final NotamDataFetcher fetcher,
+						   final NotamParserInterface parser )
+	{
+		this.fetcher = fetcher;
+		this.parser = parser;
+	}
+
+	public NotamDelta refreshIcao( final String icaoCode )  throws IOException,
+															InterruptedException
+	{
+		return refresh( NotamQueryKey.forIcao( icaoCode ) );
+	}
+
+	public NotamDelta refreshLocation(  final double latitude,
+										final double longitude,
+										final double radiusNm )  throws IOException,
+																 InterruptedException
+	{
+		return refresh( NotamQueryKey.forLocation( latitude, longitude,
+				radiusNm ) );
+	}
+
+	/**
+	 * Fetches the area again and compares it with the previous refresh. The
+	 * first refresh of an area reports every NOTAM as added.
+	 */
+	public NotamDelta refresh( final NotamQueryKey area )   throws IOException,
+															InterruptedException
+	{
+		final AreaState previous = areas.getOrDefault( area, AreaState.EMPTY );
+		final String response = area.fetchFrom( fetcher );
+		final List<Notam> parsed = parser.parseNotams( response,
+				previous.notamsById );
+
+		final Map<String, Notam> current = new LinkedHashMap<>();
+		final List<Notam> added = new ArrayList<>();
+		final List<Notam> changed = new ArrayList<>();
+		int unchanged = 0;
+		Instant newest = null;
+
+		for( final Notam notam : parsed ) {
+			if( current.putIfAbsent( notam.getId(), notam ) != null ) {
+				continue;
+			}
+			final Notam before = previous.notamsById.get( notam.getId() );
+			if( before == null ) {
+				added.add( notam );
+			}
+			else if( before != notam ) {
+				// The parser only builds a new instance when lastUpdated moved
+				changed.add( notam );
+			}
+			else {
+				unchanged++;
+			}
+
+			final Instant lastUpdated = notam.getLastUpdated().orElse( null );
+			if( lastUpdated != null && (newest == null || lastUpdated.isAfter(
+					newest )) ) {
+				newest = lastUpdated;
+			}
+		}
+
+		final List<Notam> removed = new ArrayList<>();
+		for( final Notam before : previous.notamsById.values() ) {
+			if( !current.containsKey( before.getId() ) ) {
+				removed.add( before );
+			}
+		}
+
+		areas.put( area, new AreaState( Collections.unmodifiableMap( current ),
+				newest ) );
+		return new NotamDelta( added, changed, removed, unchanged, newest );
+	}
+
+	/** Returns the NOTAMs from the area's latest refresh, in response order. */
+	public List<Notam> getCurrentNotams( final NotamQueryKey area )
+	{
+		return List.copyOf( areas.getOrDefault( area,
+				AreaState.EMPTY ).notamsById.values() );
+	}
+
+	/** Returns the newest lastUpdated from the area's latest refresh. */
+	public Optional<Instant> getNewestLastUpdated( final NotamQueryKey area )
+	{
+		return Optional.ofNullable( areas.getOrDefault( area,
+				AreaState.EMPTY ).newestLastUpdated );
+	}
+
+	/** Stops tracking an area; its next refresh reports everything as added. */
+	public void forget( final NotamQueryKey area )
+	{
+		areas.remove( area );
+	}
+
+	private static final class AreaState
+	{
+		private static final AreaState EMPTY = new AreaState( Map.of(), null );
+
+		private final Map<String, Notam> notamsById;
+		private final Instant newestLastUpdated;
+
+		private AreaState( final Map<String, Notam> notamsById,
+						   final Instant newestLastUpdated )
+		{
+			this.notamsById = notamsById;
+			this.newestLastUpdated = newestLastUpdated;
+		}
+	}
+}
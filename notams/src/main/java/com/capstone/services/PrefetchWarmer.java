@@ -0,0 +1,351 @@
+package com.capstone.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import com.capstone.NotamDataFetcher;
+import com.capstone.NotamHttpContext;
+import com.capstone.NotamQueryKey;
+import com.capstone.exceptions.AirportNotFoundException;
+import com.capstone.models.Airport;
+import com.capstone.models.FlightPath;
+import com.capstone.models.LocationQuery;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps the NOTAMs of busy airports and routes cached ahead of demand, so the
+ * first briefing for them is not slowed down by a cold cache.
+ * <p>
+ * Each round refreshes, in order, the configured airports, the corridor
+ * circles of the configured routes (as planned by {@link RouteQueryPlanner}
+ * with {@link RouteNotamService#DEFAULT_CORRIDOR_HALF_WIDTH_NM}), and the
+ * {@code hotQueries} most frequent queries of the {@link QueryHistory}. Queries
+ * go through a refreshing fetcher such as
+ * {@link com.capstone.CachingNotamFetcher#refresher(Duration)}, which only
+ * sends a request for entries close to expiry. Warming only uses spare rate
+ * limit budget: a round stops as soon as {@code spareCapacity} reports that
+ * the limiter is busy, and the rest waits for the next round. One query can
+ * become several upstream requests, so a refresher built with
+ * {@link #capacityGated(NotamDataFetcher, BooleanSupplier)} also checks before
+ * each of them. No round runs while {@code circuitOpen} reports that the API
+ * circuit breaker is open. A failed query is logged and skipped.
+ */
+public class PrefetchWarmer implements Closeable
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final Duration DEFAULT_INTERVAL = Duration.ofMinutes( 1 );
+	// A briefing is a few ICAO queries plus one query per corridor circle
+	public static final int DEFAULT_HOT_QUERIES = 50;
+
+	private final NotamDataFetcher refresher;
+	private final BooleanSupplier spareCapacity;
+	private final BooleanSupplier circuitOpen;
+	private final List<NotamQueryKey> configured;
+	private final QueryHistory history;
+	private final int hotQueries;
+
+	// Guarded by this
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * @param refresher
+	 *     fetcher that refreshes the cache ahead of expiry
+	 * @param spareCapacity
+	 *     true while the rate limiter has room for background requests
+	 * @param circuitOpen
+	 *     true while the API circuit breaker is open
+	 * @param airports
+	 *     ICAO codes always kept warm
+	 * @param routes
+	 *     routes whose corridor is always kept warm
+	 * @param history
+	 *     recent queries to learn hot airports and areas from
+	 * @param hotQueries
+	 *     most frequent recent queries kept warm; 0 disables learning
+	 */
+	public PrefetchWarmer( NotamDataFetcher refresher,
+						   BooleanSupplier spareCapacity,
+						   BooleanSupplier circuitOpen,
+						   Collection<String> airports,
+						   Collection<FlightPath> routes,
+						   QueryHistory history,
+						   int hotQueries )
+	{
+		if( hotQueries < 0 ) {
+			throw new IllegalArgumentException(
+					"hotQueries must be >= 0, currently: " + hotQueries );
+		}
+		final Set<NotamQueryKey> keys = new LinkedHashSet<>();
+		for( final String airport : airports ) {
+			keys.add( NotamQueryKey.forIcao( airport ) );
+		}
+		for( final FlightPath route : routes ) {
+			for( final LocationQuery query : RouteQueryPlanner.plan( route,
+					RouteNotamService.DEFAULT_CORRIDOR_HALF_WIDTH_NM,
+					NotamQueryKey.MAX_COVERED_RADIUS_NM ) ) {
+				keys.add( NotamQueryKey.forLocation( query.getLatitude(), query
+						.getLongitude(), query.getRadiusNm() ) );
+			}
+		}
+		this.refresher = refresher;
+		this.spareCapacity = spareCapacity;
+		this.circuitOpen = circuitOpen;
+		this.configured = List.copyOf( keys );
+		this.history = history;
+		this.hotQueries = hotQueries;
+	}
+
+	/**
+	 * Creates a warmer for a refresher without a circuit breaker.
+	 *
+	 * @see #PrefetchWarmer(NotamDataFetcher, BooleanSupplier, BooleanSupplier,
+	 *     Collection, Collection, QueryHistory, int)
+	 */
+	public PrefetchWarmer( NotamDataFetcher refresher,
+						   BooleanSupplier spareCapacity,
+						   Collection<String> airports,
+						   Collection<FlightPath> routes,
+						   QueryHistory history,
+						   int hotQueries )
+	{
+		this( refresher, spareCapacity, () -> false, airports, routes, history,
+				hotQueries );
+	}
+
+	/**
+	 * Builds a warmer for the default fetcher chain shared by
+	 * {@link RouteNotamService} and {@link BatchIcaoNotamService}, learning
+	 * from the queries made through it. The always-warm lists come from the
+	 * optional .env entries {@code NOTAM_PREFETCH_AIRPORTS}, a comma-separated
+	 * list of ICAO codes, and {@code NOTAM_PREFETCH_ROUTES}, a comma-separated
+	 * list of departure-arrival pairs such as {@code KOKC-KDFW}. Entries that
+	 * cannot be resolved are logged and skipped.
+	 */
+	public static PrefetchWarmer configured( AirportValidator airportValidator )
+	{
+		final NotamHttpContext context = NotamHttpContext.shared();
+		final List<String> airports = new ArrayList<>();
+		for( final String entry : splitList( context.get(
+				"NOTAM_PREFETCH_AIRPORTS" ) ) ) {
+			try {
+				airports.add( airportValidator.validateIcaoInput( entry ) );
+			}
+			catch( final AirportNotFoundException e ) {
+				logger.warn( "Not prefetching airport {}: {}", entry, e
+						.getMessage() );
+			}
+		}
+
+		final List<FlightPath> routes = new ArrayList<>();
+		for( final String entry : splitList( context.get(
+				"NOTAM_PREFETCH_ROUTES" ) ) ) {
+			final String[] pair = entry.split( "-" );
+			if( pair.length != 2 ) {
+				logger.warn( "Not prefetching route {}: expected DEP-ARR",
+						entry );
+				continue;
+			}
+			try {
+				routes.add( new FlightPath( new Airport( airportValidator
+						.validateIcaoInput( pair[0] ), airportValidator ),
+						new Airport( airportValidator.validateIcaoInput(
+								pair[1] ), airportValidator ) ) );
+			}
+			catch( final AirportNotFoundException e ) {
+				logger.warn( "Not prefetching route {}: {}", entry, e
+						.getMessage() );
+			}
+		}
+
+		final DefaultNotamFetchers fetchers = DefaultNotamFetchers.shared();
+		return new PrefetchWarmer( fetchers.getRefresher(), fetchers
+				.getSpareCapacity(), fetchers.getCircuitOpen(), airports, routes,
+				fetchers.getHistory(), DEFAULT_HOT_QUERIES );
+	}
+
+	/**
+	 * Wraps {@code delegate} so that every query first checks
+	 * {@code spareCapacity} and, if the limiter is busy, fails without calling
+	 * the delegate. Place it where each query is one upstream request, for
+	 * example below a {@link com.capstone.TileGridNotamFetcher}, and a round
+	 * then stops between the requests of a single query; the query is retried
+	 * in the next round.
+	 */
+	public static NotamDataFetcher capacityGated( NotamDataFetcher delegate,
+												  BooleanSupplier spareCapacity )
+	{
+		return new NotamDataFetcher()
+		{
+			@Override
+			public String fetchByIcao( String icaoCode )
+					throws IOException, InterruptedException
+			{
+				checkCapacity();
+				return delegate.fetchByIcao( icaoCode );
+			}
+
+			@Override
+			public String fetchByLocation( double latitude,
+										   double longitude,
+										   double radiusNm )
+					throws IOException, InterruptedException
+			{
+				checkCapacity();
+				return delegate.fetchByLocation( latitude, longitude, radiusNm );
+			}
+
+			private void checkCapacity() throws NoSpareCapacityException
+			{
+				if( !spareCapacity.getAsBoolean() ) {
+					throw new NoSpareCapacityException();
+				}
+			}
+		};
+	}
+
+	private static List<String> splitList( String value )
+	{
+		final List<String> entries = new ArrayList<>();
+		if( value == null ) {
+			return entries;
+		}
+		for( final String entry : value.split( "," ) ) {
+			if( !entry.isBlank() ) {
+				entries.add( entry.trim() );
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Returns the queries one round refreshes, in order: the configured ones,
+	 * then the hottest recent queries not already configured.
+	 */
+	public List<NotamQueryKey> plannedQueries()
+	{
+		final Set<NotamQueryKey> planned = new LinkedHashSet<>( configured );
+		if( hotQueries > 0 ) {
+			planned.addAll( history.hottest( hotQueries ) );
+		}
+		return new ArrayList<>( planned );
+	}
+
+	/**
+	 * Runs one warming round on the calling thread.
+	 *
+	 * @return number of queries tried, failed ones included, before the round
+	 *     finished, ran out of spare rate limit budget or found the circuit
+	 *     open
+	 */
+	public int warmOnce() throws InterruptedException
+	{
+		final List<NotamQueryKey> planned = plannedQueries();
+		int warmed = 0;
+		for( final NotamQueryKey key : planned ) {
+			if( circuitOpen.getAsBoolean() ) {
+				logger.debug(
+						"Circuit open, leaving {} of {} prefetch queries for the next round",
+						planned.size() - warmed, planned.size() );
+				break;
+			}
+			if( !spareCapacity.getAsBoolean() ) {
+				logger.debug(
+						"Rate limit busy, leaving {} of {} prefetch queries for the next round",
+						planned.size() - warmed, planned.size() );
+				break;
+			}
+			try {
+				key.fetchFrom( refresher );
+			}
+			catch( final NoSpareCapacityException e ) {
+				logger.debug(
+						"Rate limit busy during {}, leaving {} of {} prefetch queries for the next round",
+						key, planned.size() - warmed, planned.size() );
+				break;
+			}
+			catch( IOException | RuntimeException e ) {
+				logger.warn( "Prefetch of {} failed: {}", key, e.getMessage() );
+			}
+			warmed++;
+		}
+		return warmed;
+	}
+
+	/**
+	 * Starts warming in the background: one round now, then one every
+	 * {@code interval} after the previous round ends. The interval should be
+	 * shorter than how long ahead of expiry the refresher refreshes, so warm
+	 * entries never expire between rounds.
+	 *
+	 * @throws IllegalStateException
+	 *     if the warmer is already running
+	 */
+	public synchronized void start( Duration interval )
+	{
+		if( scheduler != null ) {
+			throw new IllegalStateException( "Prefetch warmer already started" );
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor( Thread
+				.ofPlatform().name( "notam-prefetch" ).daemon().factory() );
+		scheduler.scheduleWithFixedDelay( this::runRound, 0, interval
+				.toMillis(), TimeUnit.MILLISECONDS );
+	}
+
+	private void runRound()
+	{
+		try {
+			final int warmed = warmOnce();
+			logger.debug( "Prefetch round refreshed {} queries", warmed );
+		}
+		catch( final InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Stops background warming; a round in progress is interrupted. */
+	@Override
+	public synchronized void close()
+	{
+		if( scheduler != null ) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * Keeps the configured airports and routes warm until the process is
+	 * stopped. Run it next to the briefing tool: responses it fetches are also
+	 * stored in the shared disk cache.
+	 */
+	public static void main( String[] args ) throws InterruptedException
+	{
+		final PrefetchWarmer warmer = configured( new AirportValidator() );
+		logger.info( "Prefetching {} NOTAM queries every {}", warmer
+				.plannedQueries().size(), DEFAULT_INTERVAL );
+		warmer.start( DEFAULT_INTERVAL );
+		new CountDownLatch( 1 ).await();
+	}
+
+	// Thrown by a capacity gated fetcher instead of sending a request while the limiter is busy
+	private static final class NoSpareCapacityException extends IOException
+	{
+		private NoSpareCapacityException()
+		{
+			super( "No spare rate limit budget for prefetching" );
+		}
+	}
+}
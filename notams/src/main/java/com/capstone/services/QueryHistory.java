@@ -0,0 +1,101 @@
+package com.capstone.services;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.capstone.NotamDataFetcher;
+import com.capstone.NotamQueryKey;
+
+/**
+ * The most recent NOTAM queries, used by {@link PrefetchWarmer} to learn which
+ * airports and route areas are in demand.
+ * <p>
+ * Only the last {@code capacity} queries are kept, so queries nobody has made
+ * for a while drop out on their own. Safe to share between threads.
+ */
+public class QueryHistory
+{
+	public static final int DEFAULT_CAPACITY = 500;
+
+	private final int capacity;
+	// Guarded by this
+	private final ArrayDeque<NotamQueryKey> recent = new ArrayDeque<>();
+	private final Map<NotamQueryKey, Integer> counts = new HashMap<>();
+
+	public QueryHistory()
+	{
+		this( DEFAULT_CAPACITY );
+	}
+
+	public QueryHistory( int capacity )
+	{
+		if( capacity < 1 ) {
+			throw new IllegalArgumentException(
+					"capacity must be >= 1, currently: " + capacity );
+		}
+		this.capacity = capacity;
+	}
+
+	public synchronized void record( NotamQueryKey key )
+	{
+		recent.addLast( key );
+		counts.merge( key, 1, Integer::sum );
+		if( recent.size() > capacity ) {
+			final NotamQueryKey oldest = recent.removeFirst();
+			counts.computeIfPresent( oldest, ( k, count ) -> count == 1 ? null
+					: count - 1 );
+		}
+	}
+
+	/**
+	 * Returns up to {@code limit} distinct queries, most frequent first.
+	 */
+	public synchronized List<NotamQueryKey> hottest( int limit )
+	{
+		final List<Map.Entry<NotamQueryKey, Integer>> entries = new ArrayList<>(
+				counts.entrySet() );
+		entries.sort( Map.Entry.<NotamQueryKey, Integer> comparingByValue(
+				Comparator.reverseOrder() ) );
+
+		final List<NotamQueryKey> hottest = new ArrayList<>();
+		for( int i = 0; i < Math.min( limit, entries.size() ); i++ ) {
+			hottest.add( entries.get( i ).getKey() );
+		}
+		return hottest;
+	}
+
+	/**
+	 * Returns a fetcher that records every query in this history before
+	 * passing it to {@code delegate}.
+	 */
+	public NotamDataFetcher recording( NotamDataFetcher delegate )
+	{
+		return new NotamDataFetcher()
+		{
+			@Override
+			public String fetchByIcao( String icaoCode )
+					throws IOException, InterruptedException
+			{
+				record( NotamQueryKey.forIcao( icaoCode ) );
+				return delegate.fetchByIcao( icaoCode );
+			}
+
+			@Override
+			public String fetchByLocation( double latitude,
+										   double longitude,
+										   double radiusNm )
+					throws IOException, InterruptedException
+			{
+				record( NotamQueryKey.forLocation( latitude, longitude,
+						radiusNm ) );
+				return delegate.fetchByLocation( latitude, longitude,
+						radiusNm );
+			}
+		};
+	}
+}
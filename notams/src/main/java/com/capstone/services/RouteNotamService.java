@@ -1,64 +1,214 @@
 package com.capstone.services;
 
-import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.io.IOException;
+import java.io.InputStream;
 
-import com.capstone.NMSNotamParser;
-import com.capstone.NmsNotamFetcher;
 import com.capstone.NotamDataFetcher;
 import com.capstone.NotamFetcher;
 import com.capstone.NotamParserInterface;
+import com.capstone.NotamQueryKey;
+import com.capstone.StreamingNmsNotamParser;
 import com.capstone.models.FlightPath;
+import com.capstone.models.LocationQuery;
 import com.capstone.models.Notam;
 
 /**
- * Service responsible for fetching NOTAMs along a flight route. Ensures the FAA
- * NOTAM API is called for each interpolated point.
+ * Service responsible for fetching NOTAMs along a flight route. The route
+ * corridor is covered by the query circles planned by
+ * {@link RouteQueryPlanner}, and the NOTAM API is called once per circle.
+ * <p>
+ * Requests run concurrently on virtual threads, at most
+ * {@code maxConcurrentRequests} at a time. Each response body is streamed
+ * into the parser on the thread that fetched it, so NOTAMs are built as the
+ * body arrives and the full response is never held in memory. The results
+ * are combined in route order.
+ * <p>
+ * Neighbouring query circles overlap, so the same NOTAM is usually returned by
+ * several queries. Only the first occurrence is kept, and a NOTAM that has
+ * already been built is reused by the parser instead of being built again.
+ * Routes fetched at the same time that have a query circle in common share
+ * one upstream call through the {@link com.capstone.CoalescingNotamFetcher} of
+ * the default fetcher chain.
  */
 public class RouteNotamService
 {
+	// Keeps a long route from opening dozens of connections to the API at once
+	public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+	// NM = Nautical Miles. Distance either side of the track that is searched for NOTAMs
+	public static final double DEFAULT_CORRIDOR_HALF_WIDTH_NM = 25.0;
+
 	private final NotamDataFetcher fetcher;
+	private final int maxConcurrentRequests;
 
 	public RouteNotamService()
 	{
-		this( new NmsNotamFetcher() );
+		this( defaultFetcher() );
 	}
 
 	public RouteNotamService( final NotamDataFetcher fetcher )
 	{
+		this( fetcher, DEFAULT_MAX_CONCURRENT_REQUESTS );
+	}
+
+	/**
+	 * @param fetcher
+	 *     source of raw NOTAM JSON
+	 * @param maxConcurrentRequests
+	 *     upper bound on area requests in flight at once; 1 fetches the
+	 *     areas one after another
+	 */
+	public RouteNotamService( final NotamDataFetcher fetcher,
+							  final int maxConcurrentRequests )
+	{
+		if( maxConcurrentRequests < 1 ) {
+			throw new IllegalArgumentException(
+					"maxConcurrentRequests must be >= 1, currently: "
+							+ maxConcurrentRequests );
+		}
 		this.fetcher = fetcher;
+		this.maxConcurrentRequests = maxConcurrentRequests;
 	}
 
 	RouteNotamService( NotamFetcher fetcher )
 	{
-		this.fetcher = fetcher;
+		this( (NotamDataFetcher) fetcher );
 	}
 
 	/**
-	 * Fetch NOTAM data along the provided flight path.
+	 * Returns the process-wide default NMS fetcher chain, shared with every
+	 * other service; see {@link DefaultNotamFetchers}.
+	 */
+	static NotamDataFetcher defaultFetcher()
+	{
+		return DefaultNotamFetchers.shared().getFetcher();
+	}
+
+	/**
+	 * Fetch NOTAM data along the provided flight path, covering
+	 * {@link #DEFAULT_CORRIDOR_HALF_WIDTH_NM} either side of the track.
 	 *
 	 * @param flightPath
 	 *     flight path to query for NOTAMs
 	 *
-	 * @return list of all NOTAMs for each point along the flight path
+	 * @return list of all distinct NOTAMs along the flight path, in the order
+	 *     they were first seen
 	 */
 	public List<Notam> fetchNotamsAlongRoute( FlightPath flightPath )   throws IOException,
 																		InterruptedException
 	{
-		final List<Point2D> points = flightPath.getWaypoints();
-		final NotamParserInterface parser = new NMSNotamParser();
-		List<Notam> flightPathNotams = new ArrayList<>();
+		return fetchNotamsAlongRoute( flightPath,
+				DEFAULT_CORRIDOR_HALF_WIDTH_NM );
+	}
 
-		for( final Point2D point : points ) {
-			final double lat = point.getX();
-			final double lon = point.getY();
+	/**
+	 * Fetch NOTAM data within a corridor around the provided flight path.
+	 *
+	 * @param flightPath
+	 *     flight path to query for NOTAMs
+	 * @param corridorHalfWidthNm
+	 *     distance either side of the track to cover, in nautical miles
+	 *
+	 * @return list of all distinct NOTAMs in the corridor, in the order they
+	 *     were first seen
+	 */
+	public List<Notam> fetchNotamsAlongRoute(   FlightPath flightPath,
+												double corridorHalfWidthNm )  throws IOException,
+																			  InterruptedException
+	{
+		final List<LocationQuery> queries = RouteQueryPlanner.plan( flightPath,
+				corridorHalfWidthNm, NotamQueryKey.MAX_COVERED_RADIUS_NM );
+		final NotamParserInterface parser = new StreamingNmsNotamParser();
+		final List<Notam> flightPathNotams = new ArrayList<>();
+		final Map<String, Notam> parsedById = new ConcurrentHashMap<>();
+
+		if( queries.isEmpty() ) {
+			return flightPathNotams;
+		}
+
+		final Semaphore permits = new Semaphore( maxConcurrentRequests );
+		try (final ExecutorService executor = Executors
+				.newVirtualThreadPerTaskExecutor()) {
+			final List<Future<List<Notam>>> results = new ArrayList<>();
+			for( final LocationQuery query : queries ) {
+				results.add( executor.submit( () -> fetchArea( query, parser,
+						permits, parsedById ) ) );
+			}
 
-			final String response = fetcher.fetchByLocation( lat, lon, 50 );
-			flightPathNotams.addAll( parser.parseNotams( response ) );
+			// Futures are joined in submission order, so the combined list keeps route order
+			final Set<Notam> seen = new HashSet<>();
+			for( final Future<List<Notam>> result : results ) {
+				for( final Notam notam : awaitArea( result, results ) ) {
+					if( seen.add( notam ) ) {
+						flightPathNotams.add( notam );
+					}
+				}
+			}
 		}
 
 		return flightPathNotams;
 	}
+
+	private List<Notam> fetchArea(  final LocationQuery query,
+									final NotamParserInterface parser,
+									final Semaphore permits,
+									final Map<String, Notam> parsedById )  throws IOException,
+																		   InterruptedException
+	{
+		final List<Notam> notams = new ArrayList<>();
+		permits.acquire();
+		// The connection stays open while the body is parsed, so the permit covers both
+		try (final InputStream response = fetcher.streamByLocation( query
+				.getLatitude(), query.getLongitude(), query.getRadiusNm() )) {
+			parser.parseNotams( response, parsedById, notam -> {
+				parsedById.putIfAbsent( notam.getId(), notam );
+				notams.add( notam );
+			} );
+		}
+		finally {
+			permits.release();
+		}
+		return notams;
+	}
+
+	/**
+	 * Waits for a single area result. If the area failed, the remaining
+	 * requests are cancelled and the original exception is rethrown.
+	 */
+	private static List<Notam> awaitArea( final Future<List<Notam>> result,
+										  final List<Future<List<Notam>>> all )  throws IOException,
+																				 InterruptedException
+	{
+		try {
+			return result.get();
+		}
+		catch( final ExecutionException e ) {
+			all.forEach( f -> f.cancel( true ) );
+			final Throwable cause = e.getCause();
+			if( cause instanceof IOException ioException ) {
+				throw ioException;
+			}
+			if( cause instanceof InterruptedException interruptedException ) {
+				throw interruptedException;
+			}
+			if( cause instanceof RuntimeException runtimeException ) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException( "Area fetch failed", cause );
+		}
+		catch( final InterruptedException e ) {
+			all.forEach( f -> f.cancel( true ) );
+			throw e;
+		}
+	}
 }
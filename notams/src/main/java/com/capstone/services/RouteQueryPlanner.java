@@ -0,0 +1,153 @@
+package com.capstone.services;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.capstone.models.FlightPath;
+import com.capstone.models.LocationQuery;
+
+/**
+ * Plans the circular area queries needed to cover a flight route corridor.
+ * <p>
+ * The corridor is every point within {@code corridorHalfWidthNm} of the
+ * great-circle track between the departure and arrival airports, including
+ * the half-discs around both airports. The planner returns the fewest circles
+ * of radius at most {@code maxRadiusNm} that cover it, centred on the track.
+ *
+ * <h2>Why the plan covers the corridor</h2>
+ * Let {@code w} be the half-width, {@code r} the query radius, {@code t} the
+ * distance from each airport to the nearest centre and {@code s} the spacing
+ * between neighbouring centres.
+ * <ul>
+ * <li>A point beside the track between two centres is at most {@code s/2}
+ * along-track and {@code w} cross-track from the closer one. On a sphere the
+ * hypotenuse of that right triangle is never longer than the flat
+ * {@code sqrt((s/2)^2 + w^2)}, so {@code r >= sqrt((s/2)^2 + w^2)} covers
+ * it.</li>
+ * <li>A point around an airport is within {@code t + w} of the end centre by
+ * the triangle inequality, so {@code r >= t + w} covers the end caps.</li>
+ * </ul>
+ *
+ * <h2>Why it is the fewest circles</h2>
+ * A circle of radius {@code R} covers a length of at most
+ * {@code 2 * sqrt(R^2 - w^2)} of the full-width strip, and the end circles can
+ * sit no further than {@code R - w} inside the airports. The planner uses
+ * exactly those limits to choose the circle count, then shrinks the radius as
+ * far as that count allows so each response carries as little off-corridor
+ * data as possible.
+ */
+public class RouteQueryPlanner
+{
+    // Radii are rounded up to whole nautical miles to keep query URLs and cache keys stable
+    private static final double RADIUS_GRANULARITY_NM = 1.0;
+    private static final int RADIUS_SEARCH_ITERATIONS = 60;
+
+    private RouteQueryPlanner()
+    {
+
+    }
+
+    /**
+     * Returns the query circles covering the corridor around a flight path,
+     * ordered from departure to arrival.
+     *
+     * @param flightPath
+     *     the route to cover; its first and last waypoints are the airports
+     * @param corridorHalfWidthNm
+     *     how far either side of the track must be covered, in nautical miles
+     * @param maxRadiusNm
+     *     largest radius the NOTAM API accepts, in nautical miles
+     *
+     * @return the planned queries; empty if the flight path has no waypoints
+     *
+     * @throws IllegalArgumentException
+     *     if the half-width is negative or not smaller than the max radius
+     */
+    public static List<LocationQuery> plan( final FlightPath flightPath,
+                                            final double corridorHalfWidthNm,
+                                            final double maxRadiusNm )
+    {
+        if( corridorHalfWidthNm < 0 || corridorHalfWidthNm >= maxRadiusNm ) {
+            throw new IllegalArgumentException(
+                    "Corridor half-width must be at least 0 and less than "
+                            + maxRadiusNm + ", currently: "
+                            + corridorHalfWidthNm );
+        }
+
+        final List<Point2D> waypoints = flightPath.getWaypoints();
+        final List<LocationQuery> queries = new ArrayList<>();
+        if( waypoints.isEmpty() ) {
+            return queries;
+        }
+
+        final Point2D start = waypoints.get( 0 );
+        final Point2D end = waypoints.get( waypoints.size() - 1 );
+        final double w = corridorHalfWidthNm;
+        final double distanceNm = FlightPathCalculator.haversineDistance( start,
+                end );
+
+        // Short routes: one circle on the midpoint reaches both airports' end caps
+        if( distanceNm / 2 + w <= maxRadiusNm ) {
+            final Point2D centre = FlightPathCalculator.interpolatePoint( start,
+                    end, 0.5 );
+            queries.add( query( centre, distanceNm / 2 + w, maxRadiusNm ) );
+            return queries;
+        }
+
+        final double maxInsetNm = maxRadiusNm - w;
+        final double maxSpacingNm = 2 * Math.sqrt( maxRadiusNm * maxRadiusNm
+                - w * w );
+        final int count = (int) Math.ceil( (distanceNm - 2 * maxInsetNm)
+                / maxSpacingNm ) + 1;
+
+        final double radiusNm = smallestRadius( distanceNm, w, count,
+                maxRadiusNm );
+        final double insetNm = radiusNm - w;
+        final double spacingNm = (distanceNm - 2 * insetNm) / (count - 1);
+
+        for( int i = 0; i < count; i++ ) {
+            final double fraction = (insetNm + i * spacingNm) / distanceNm;
+            queries.add( query( FlightPathCalculator.interpolatePoint( start,
+                    end, fraction ), radiusNm, maxRadiusNm ) );
+        }
+        return queries;
+    }
+
+    /**
+     * Finds the smallest radius whose end insets and spacing still span the
+     * route with {@code count} circles. The covered length grows with the
+     * radius, so a bisection converges on it.
+     */
+    private static double smallestRadius( final double distanceNm,
+                                          final double w,
+                                          final int count,
+                                          final double maxRadiusNm )
+    {
+        double low = w;
+        double high = maxRadiusNm;
+        for( int i = 0; i < RADIUS_SEARCH_ITERATIONS; i++ ) {
+            final double mid = (low + high) / 2;
+            final double coveredNm = 2 * (mid - w) + (count - 1) * 2 * Math
+                    .sqrt( mid * mid - w * w );
+            if( coveredNm >= distanceNm ) {
+                high = mid;
+            }
+            else {
+                low = mid;
+            }
+        }
+        return high;
+    }
+
+    private static LocationQuery query( final Point2D centre,
+                                        final double radiusNm,
+                                        final double maxRadiusNm )
+    {
+        final double rounded = Math.ceil( radiusNm / RADIUS_GRANULARITY_NM )
+                * RADIUS_GRANULARITY_NM;
+        final double clamped = Math.min( maxRadiusNm, Math.max(
+                RADIUS_GRANULARITY_NM, rounded ) );
+        return new LocationQuery( centre.getX(), centre.getY(), clamped );
+    }
+}
@@ -0,0 +1,582 @@
+package com.capstone.standin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Local stand-in for the NMS and FAA NOTAM APIs, for load and latency tests
+ * that need a real network stack but no credentials or internet access.
+ * <p>
+ * It serves the three endpoints the fetchers use:
+ * <ul>
+ * <li>{@code POST /v1/auth/token} - NMS client credentials flow, see
+ * {@link #getAuthUrl()}</li>
+ * <li>{@code GET /nmsapi/v1/notams} - NMS NOTAMs by {@code location} or by
+ * {@code latitude}/{@code longitude}/{@code radius}, see
+ * {@link #getNmsBaseUrl()}</li>
+ * <li>{@code GET /notamapi/v1/notams} - FAA NOTAMs by {@code icaoLocation} or
+ * by location, paged, see {@link #getFaaBaseUrl()}</li>
+ * </ul>
+ * Responses are synthetic GeoJSON (see {@link SyntheticNotams}) unless a
+ * recorded list of features is supplied. Every NOTAM request waits for the
+ * configured latency and fails with the configured probability, and bodies
+ * are gzip-compressed when the client accepts it.
+ * <p>
+ * Point the real fetchers at it with the URL getters, or through the
+ * {@code NMS_AUTH_URL}, {@code NMS_NOTAM_BASE_URL} and
+ * {@code FAA_NOTAM_BASE_URL} .env entries. Any non-blank client id and secret
+ * are accepted. {@link #main(String[])} runs it on its own.
+ */
+public class StandInNotamServer implements AutoCloseable
+{
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final String AUTH_PATH = "/v1/auth/token";
+	public static final String NMS_PATH = "/nmsapi/v1/notams";
+	public static final String FAA_PATH = "/notamapi/v1/notams";
+	private static final long TOKEN_TTL_SECONDS = 1800;
+	private static final int DEFAULT_FAA_PAGE_SIZE = 1000;
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private final Builder config;
+	private final SyntheticNotams notams;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	// Tokens handed out by the auth endpoint; NMS requests must carry one of them
+	private final Map<String, Instant> tokens = new ConcurrentHashMap<>();
+	private final AtomicLong notamRequests = new AtomicLong();
+	private final AtomicLong tokenRequests = new AtomicLong();
+	private final AtomicLong injectedErrors = new AtomicLong();
+
+	private StandInNotamServer( Builder config ) throws IOException
+	{
+		this.config = config;
+		this.notams = new SyntheticNotams( mapper, config.notamsPerCell,
+				config.notamsPerAirport, Instant.now() );
+		this.server = HttpServer.create( new InetSocketAddress( InetAddress
+				.getLoopbackAddress(), config.port ), config.backlog );
+		// Latency is simulated by sleeping, which costs nothing on a virtual thread
+		this.executor = Executors.newVirtualThreadPerTaskExecutor();
+		server.setExecutor( executor );
+		server.createContext( AUTH_PATH, exchange -> handle( exchange,
+				this::token ) );
+		server.createContext( NMS_PATH, exchange -> handle( exchange,
+				this::nmsNotams ) );
+		server.createContext( FAA_PATH, exchange -> handle( exchange,
+				this::faaNotams ) );
+	}
+
+	public static Builder builder()
+	{
+		return new Builder();
+	}
+
+	/** Starts a server with the default settings on a free port. */
+	public static StandInNotamServer start() throws IOException
+	{
+		return builder().start();
+	}
+
+	public int getPort()
+	{
+		return server.getAddress().getPort();
+	}
+
+	public String getAuthUrl()
+	{
+		return baseUrl() + AUTH_PATH;
+	}
+
+	public String getNmsBaseUrl()
+	{
+		return baseUrl() + NMS_PATH;
+	}
+
+	public String getFaaBaseUrl()
+	{
+		return baseUrl() + FAA_PATH;
+	}
+
+	/** NOTAM requests received, including rejected ones and injected errors. */
+	public long getNotamRequestCount()
+	{
+		return notamRequests.get();
+	}
+
+	public long getTokenRequestCount()
+	{
+		return tokenRequests.get();
+	}
+
+	public long getInjectedErrorCount()
+	{
+		return injectedErrors.get();
+	}
+
+	@Override
+	public void close()
+	{
+		server.stop( 0 );
+		executor.shutdownNow();
+	}
+
+	private String baseUrl()
+	{
+		return "http://" + server.getAddress().getHostString() + ":"
+				+ getPort();
+	}
+
+	private void handle( HttpExchange exchange, Handler handler )
+			throws IOException
+	{
+		try (exchange) {
+			Response response;
+			try {
+				response = handler.handle( exchange );
+			}
+			catch( BadRequestException e ) {
+				response = Response.error( 400, e.getMessage() );
+			}
+			write( exchange, response );
+		}
+		catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+		catch( IOException | RuntimeException e ) {
+			logger.debug( "Stand-in request {} failed: {}", exchange
+					.getRequestURI(), e.getMessage() );
+		}
+	}
+
+	private Response token( HttpExchange exchange )
+	{
+		tokenRequests.incrementAndGet();
+		if( !"POST".equals( exchange.getRequestMethod() ) ) {
+			return Response.error( 405, "Method not allowed" );
+		}
+		final String authorization = exchange.getRequestHeaders().getFirst(
+				"Authorization" );
+		if( authorization == null || !authorization.startsWith( "Basic " ) ) {
+			return Response.error( 401, "Missing client credentials" );
+		}
+
+		final String token = "stand-in-" + UUID.randomUUID();
+		tokens.put( token, Instant.now().plusSeconds( TOKEN_TTL_SECONDS ) );
+		final ObjectNode body = mapper.createObjectNode();
+		body.put( "access_token", token );
+		body.put( "token_type", "Bearer" );
+		body.put( "expires_in", TOKEN_TTL_SECONDS );
+		return Response.ok( body );
+	}
+
+	private Response nmsNotams( HttpExchange exchange )
+			throws InterruptedException
+	{
+		final Response rejected = beginNotamRequest( exchange );
+		if( rejected != null ) {
+			return rejected;
+		}
+		final String authorization = exchange.getRequestHeaders().getFirst(
+				"Authorization" );
+		final Instant expiry = authorization == null
+				|| !authorization.startsWith( "Bearer " ) ? null
+						: tokens.get( authorization.substring( 7 ) );
+		if( expiry == null || Instant.now().isAfter( expiry ) ) {
+			return Response.error( 401, "Invalid or expired bearer token" );
+		}
+
+		final Map<String, String> query = query( exchange );
+		final ArrayNode features;
+		if( query.containsKey( "location" ) ) {
+			features = config.recordedFeatures != null ? config.recordedFeatures
+					: notams.forIcao( query.get( "location" ) );
+		}
+		else if( query.containsKey( "latitude" ) && query.containsKey(
+				"longitude" ) && query.containsKey( "radius" ) ) {
+			features = config.recordedFeatures != null ? config.recordedFeatures
+					: notams.forLocation( number( query, "latitude" ), number(
+							query, "longitude" ), number( query, "radius" ) );
+		}
+		else {
+			return Response.error( 400,
+					"Expected location, or latitude, longitude and radius" );
+		}
+
+		final ObjectNode body = mapper.createObjectNode();
+		body.put( "status", "Success" );
+		body.putObject( "data" ).set( "geojson", features );
+		return Response.ok( body );
+	}
+
+	private Response faaNotams( HttpExchange exchange )
+			throws InterruptedException
+	{
+		final Response rejected = beginNotamRequest( exchange );
+		if( rejected != null ) {
+			return rejected;
+		}
+		if( isBlank( exchange.getRequestHeaders().getFirst( "client_id" ) )
+				|| isBlank( exchange.getRequestHeaders().getFirst(
+						"client_secret" ) ) ) {
+			return Response.error( 401, "Missing client_id or client_secret" );
+		}
+
+		final Map<String, String> query = query( exchange );
+		final ArrayNode all;
+		if( query.containsKey( "icaoLocation" ) ) {
+			all = config.recordedFeatures != null ? config.recordedFeatures
+					: notams.forIcao( query.get( "icaoLocation" ) );
+		}
+		else if( query.containsKey( "locationLatitude" ) && query.containsKey(
+				"locationLongitude" ) && query.containsKey(
+						"locationRadius" ) ) {
+			all = config.recordedFeatures != null ? config.recordedFeatures
+					: notams.forLocation( number( query, "locationLatitude" ),
+							number( query, "locationLongitude" ), number( query,
+									"locationRadius" ) );
+		}
+		else {
+			return Response.error( 400,
+					"Expected icaoLocation, or locationLatitude, locationLongitude and locationRadius" );
+		}
+
+		final int pageSize = Math.max( 1, (int) number( query, "pageSize",
+				DEFAULT_FAA_PAGE_SIZE ) );
+		final int pageNum = Math.max( 1, (int) number( query, "pageNum", 1 ) );
+		final ArrayNode items = mapper.createArrayNode();
+		for( int i = (pageNum - 1) * pageSize; i < Math.min( all.size(), pageNum
+				* pageSize ); i++ ) {
+			items.add( all.get( i ) );
+		}
+
+		final ObjectNode body = mapper.createObjectNode();
+		body.put( "pageSize", pageSize );
+		body.put( "pageNum", pageNum );
+		body.put( "totalCount", all.size() );
+		body.put( "totalPages", Math.max( 1, (all.size() + pageSize - 1)
+				/ pageSize ) );
+		body.set( "items", items );
+		return Response.ok( body );
+	}
+
+	// Counts the request, waits out the simulated latency and decides whether to inject an error
+	private Response beginNotamRequest( HttpExchange exchange )
+			throws InterruptedException
+	{
+		notamRequests.incrementAndGet();
+		if( !"GET".equals( exchange.getRequestMethod() ) ) {
+			return Response.error( 405, "Method not allowed" );
+		}
+
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		long latencyMillis = config.latency.toMillis();
+		if( !config.latencyJitter.isZero() ) {
+			latencyMillis += random.nextLong( config.latencyJitter.toMillis()
+					+ 1 );
+		}
+		if( latencyMillis > 0 ) {
+			Thread.sleep( latencyMillis );
+		}
+
+		if( config.errorRate > 0 && random.nextDouble() < config.errorRate ) {
+			injectedErrors.incrementAndGet();
+			final Response error = Response.error( config.errorStatus,
+					"Injected error" );
+			if( config.errorStatus == 429 || config.errorStatus == 503 ) {
+				error.headers.put( "Retry-After", Long.toString(
+						config.retryAfter.toSeconds() ) );
+			}
+			return error;
+		}
+		return null;
+	}
+
+	private static void write( HttpExchange exchange, Response response )
+			throws IOException
+	{
+		final byte[] body = mapper.writeValueAsBytes( response.body );
+		exchange.getResponseHeaders().set( "Content-Type",
+				"application/json" );
+		response.headers.forEach( ( name, value ) -> exchange
+				.getResponseHeaders().set( name, value ) );
+
+		final String acceptEncoding = exchange.getRequestHeaders().getFirst(
+				"Accept-Encoding" );
+		if( acceptEncoding != null && acceptEncoding.contains( "gzip" ) ) {
+			exchange.getResponseHeaders().set( "Content-Encoding", "gzip" );
+			// 0 = chunked, the compressed length is not known up front
+			exchange.sendResponseHeaders( response.status, 0 );
+			try (OutputStream out = new GZIPOutputStream( exchange
+					.getResponseBody() )) {
+				out.write( body );
+			}
+		}
+		else {
+			exchange.sendResponseHeaders( response.status, body.length );
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write( body );
+			}
+		}
+	}
+
+	private static Map<String, String> query( HttpExchange exchange )
+	{
+		final Map<String, String> query = new HashMap<>();
+		final String raw = exchange.getRequestURI().getRawQuery();
+		if( raw == null ) {
+			return query;
+		}
+		for( final String pair : raw.split( "&" ) ) {
+			final int equals = pair.indexOf( '=' );
+			if( equals > 0 ) {
+				query.put( URLDecoder.decode( pair.substring( 0, equals ),
+						StandardCharsets.UTF_8 ), URLDecoder.decode( pair
+								.substring( equals + 1 ),
+								StandardCharsets.UTF_8 ) );
+			}
+		}
+		return query;
+	}
+
+	private static double number( Map<String, String> query, String name )
+	{
+		return parse( name, query.get( name ) );
+	}
+
+	private static double number( Map<String, String> query,
+								  String name,
+								  double fallback )
+	{
+		final String value = query.get( name );
+		return value == null ? fallback : parse( name, value );
+	}
+
+	// A malformed number is the client's fault, so it is answered with HTTP 400
+	private static double parse( String name, String value )
+	{
+		try {
+			return Double.parseDouble( value );
+		}
+		catch( NumberFormatException e ) {
+			throw new BadRequestException( "Query parameter " + name
+					+ " is not a number: " + value );
+		}
+	}
+
+	private static boolean isBlank( String value )
+	{
+		return value == null || value.isBlank();
+	}
+
+	/**
+	 * Runs a stand-in server until the process is stopped.
+	 * <p>
+	 * Usage: {@code ... [--port <port>] [--latency-ms <ms>] [--jitter-ms <ms>]
+	 * [--error-rate <0..1>]}
+	 */
+	public static void main( String[] args ) throws IOException
+	{
+		final Map<String, String> options = new HashMap<>();
+		for( int i = 0; i + 1 < args.length; i += 2 ) {
+			options.put( args[i], args[i + 1] );
+		}
+		final StandInNotamServer server = builder()
+				.port( Integer.parseInt( options.getOrDefault( "--port",
+						"8089" ) ) )
+				.latency( Duration.ofMillis( Long.parseLong( options
+						.getOrDefault( "--latency-ms", "0" ) ) ) )
+				.latencyJitter( Duration.ofMillis( Long.parseLong( options
+						.getOrDefault( "--jitter-ms", "0" ) ) ) )
+				.errorRate( Double.parseDouble( options.getOrDefault(
+						"--error-rate", "0" ) ) )
+				.start();
+
+		System.out.println( "Stand-in NOTAM API running" );
+		System.out.println( "NMS_AUTH_URL=" + server.getAuthUrl() );
+		System.out.println( "NMS_NOTAM_BASE_URL=" + server.getNmsBaseUrl() );
+		System.out.println( "FAA_NOTAM_BASE_URL=" + server.getFaaBaseUrl() );
+	}
+
+	@FunctionalInterface
+	private interface Handler
+	{
+		Response handle( HttpExchange exchange ) throws InterruptedException;
+	}
+
+	// Thrown by a handler for a malformed request, answered with HTTP 400
+	private static final class BadRequestException extends RuntimeException
+	{
+		private BadRequestException( String message )
+		{
+			super( message );
+		}
+	}
+
+	private static final class Response
+	{
+		private final int status;
+		private final JsonNode body;
+		private final Map<String, String> headers = new HashMap<>();
+
+		private Response( int status, JsonNode body )
+		{
+			this.status = status;
+			this.body = body;
+		}
+
+		private static Response ok( JsonNode body )
+		{
+			return new Response( 200, body );
+		}
+
+		private static Response error( int status, String message )
+		{
+			final ObjectNode body = mapper.createObjectNode();
+			body.put( "status", "Error" );
+			body.put( "message", message );
+			return new Response( status, body );
+		}
+	}
+
+	/** Settings for a {@link StandInNotamServer}; every setting has a default. */
+	public static final class Builder
+	{
+		private int port = 0;
+		private int backlog = 256;
+		private Duration latency = Duration.ZERO;
+		private Duration latencyJitter = Duration.ZERO;
+		private double errorRate = 0;
+		private int errorStatus = 503;
+		private Duration retryAfter = Duration.ofSeconds( 1 );
+		private int notamsPerCell = 2;
+		private int notamsPerAirport = 10;
+		private ArrayNode recordedFeatures;
+
+		private Builder()
+		{
+
+		}
+
+		/** Port to listen on; 0, the default, picks a free port. */
+		public Builder port( int port )
+		{
+			this.port = port;
+			return this;
+		}
+
+		/** Pending connections the listener queues before refusing more. */
+		public Builder backlog( int backlog )
+		{
+			this.backlog = backlog;
+			return this;
+		}
+
+		/** Fixed delay before every NOTAM response. */
+		public Builder latency( Duration latency )
+		{
+			this.latency = latency;
+			return this;
+		}
+
+		/** Upper bound of a random delay added to {@link #latency(Duration)}. */
+		public Builder latencyJitter( Duration latencyJitter )
+		{
+			this.latencyJitter = latencyJitter;
+			return this;
+		}
+
+		/** Share of NOTAM requests, 0 to 1, answered with the error status. */
+		public Builder errorRate( double errorRate )
+		{
+			if( errorRate < 0 || errorRate > 1 ) {
+				throw new IllegalArgumentException(
+						"errorRate must be in [0, 1], currently: "
+								+ errorRate );
+			}
+			this.errorRate = errorRate;
+			return this;
+		}
+
+		/**
+		 * Status of injected errors, 503 by default. A 429 or 503 carries a
+		 * Retry-After header.
+		 */
+		public Builder errorStatus( int errorStatus, Duration retryAfter )
+		{
+			this.errorStatus = errorStatus;
+			this.retryAfter = retryAfter;
+			return this;
+		}
+
+		/** NOTAMs in each grid cell covered by a location query. */
+		public Builder notamsPerCell( int notamsPerCell )
+		{
+			this.notamsPerCell = notamsPerCell;
+			return this;
+		}
+
+		/** NOTAMs returned for each ICAO query. */
+		public Builder notamsPerAirport( int notamsPerAirport )
+		{
+			this.notamsPerAirport = notamsPerAirport;
+			return this;
+		}
+
+		/**
+		 * Serves these recorded GeoJSON features for every query instead of
+		 * synthetic ones. Accepts an NMS response ({@code data.geojson}), an FAA
+		 * response ({@code items}) or a bare array of features.
+		 *
+		 * @throws IOException
+		 *     if the JSON cannot be read or holds no features
+		 */
+		public Builder recordedResponse( String json ) throws IOException
+		{
+			final JsonNode root = mapper.readTree( json );
+			final JsonNode features = root.isArray() ? root
+					: root.has( "items" ) ? root.path( "items" )
+							: root.path( "data" ).path( "geojson" );
+			if( !features.isArray() ) {
+				throw new IOException(
+						"Recorded response has no array of features" );
+			}
+			this.recordedFeatures = (ArrayNode) features;
+			return this;
+		}
+
+		public StandInNotamServer start() throws IOException
+		{
+			final StandInNotamServer server = new StandInNotamServer( this );
+			server.server.start();
+			logger.info( "Stand-in NOTAM API listening on port {}", server
+					.getPort() );
+			return server;
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package com.capstone.standin;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Generates GeoJSON NOTAM features for the {@link StandInNotamServer}.
+ * <p>
+ * The same query always returns the same NOTAMs. Location queries are
+ * answered from a fixed grid: every grid cell whose centre lies inside the
+ * query circle contributes {@code notamsPerCell} NOTAMs. Overlapping circles
+ * therefore return the same NOTAMs for their shared cells, as the real API
+ * does for neighbouring queries along a route.
+ */
+final class SyntheticNotams
+{
+	// Cell size in degrees, roughly 30 NM north-south
+	private static final double CELL_DEGREES = 0.5;
+	private static final double NM_PER_DEGREE = 60.0;
+
+	private final ObjectMapper mapper;
+	private final int notamsPerCell;
+	private final int notamsPerAirport;
+	// All NOTAMs were issued a day before this and stay in effect a week after it
+	private final Instant reference;
+
+	SyntheticNotams( ObjectMapper mapper,
+					 int notamsPerCell,
+					 int notamsPerAirport,
+					 Instant now )
+	{
+		this.mapper = mapper;
+		this.notamsPerCell = notamsPerCell;
+		this.notamsPerAirport = notamsPerAirport;
+		this.reference = now.truncatedTo( ChronoUnit.HOURS );
+	}
+
+	/** Features for the NOTAMs at an airport. */
+	ArrayNode forIcao( String icaoCode )
+	{
+		final String icao = icaoCode.toUpperCase( Locale.ROOT );
+		// A stable, made-up position so the Q-line has coordinates
+		final int hash = icao.hashCode() & 0x7fffffff;
+		final double latitude = 25 + hash % 2400 / 100.0;
+		final double longitude = -70 - hash / 2400 % 5000 / 100.0;
+
+		final ArrayNode features = mapper.createArrayNode();
+		for( int n = 1; n <= notamsPerAirport; n++ ) {
+			features.add( feature( icao + "-" + n, icao, latitude, longitude,
+					n ) );
+		}
+		return features;
+	}
+
+	/** Features for the NOTAMs of every grid cell inside the circle. */
+	ArrayNode forLocation( double latitude, double longitude, double radiusNm )
+	{
+		final ArrayNode features = mapper.createArrayNode();
+		for( final double[] cell : cellsWithin( latitude, longitude,
+				radiusNm ) ) {
+			final String cellId = String.format( Locale.ROOT, "%+.1f%+.1f",
+					cell[0], cell[1] );
+			for( int n = 1; n <= notamsPerCell; n++ ) {
+				features.add( feature( "CELL" + cellId + "-" + n, "ZZZZ",
+						cell[0], cell[1], n ) );
+			}
+		}
+		return features;
+	}
+
+	private List<double[]> cellsWithin( double latitude,
+										double longitude,
+										double radiusNm )
+	{
+		final List<double[]> cells = new ArrayList<>();
+		final double latitudeSpan = radiusNm / NM_PER_DEGREE;
+		final double longitudeSpan = latitudeSpan / Math.max( 0.01, Math.cos(
+				Math.toRadians( latitude ) ) );
+		final double firstLatitude = cellCentre( latitude - latitudeSpan );
+		final double firstLongitude = cellCentre( longitude - longitudeSpan );
+		for( double lat = firstLatitude; lat <= latitude
+				+ latitudeSpan; lat += CELL_DEGREES ) {
+			for( double lon = firstLongitude; lon <= longitude
+					+ longitudeSpan; lon += CELL_DEGREES ) {
+				if( distanceNm( latitude, longitude, lat, lon ) <= radiusNm ) {
+					cells.add( new double[] { lat, lon } );
+				}
+			}
+		}
+		return cells;
+	}
+
+	private static double cellCentre( double degrees )
+	{
+		return Math.floor( degrees / CELL_DEGREES ) * CELL_DEGREES
+				+ CELL_DEGREES / 2;
+	}
+
+	// Equirectangular approximation, accurate enough at these distances
+	private static double distanceNm( double lat1,
+									  double lon1,
+									  double lat2,
+									  double lon2 )
+	{
+		final double x = (lon2 - lon1) * Math.cos( Math.toRadians( (lat1
+				+ lat2) / 2 ) );
+		final double y = lat2 - lat1;
+		return Math.sqrt( x * x + y * y ) * NM_PER_DEGREE;
+	}
+
+	private ObjectNode feature( String id,
+								String icao,
+								double latitude,
+								double longitude,
+								int sequence )
+	{
+		final String number = String.format( Locale.ROOT, "%02d/%03d",
+				sequence % 12 + 1, Math.abs( id.hashCode() ) % 1000 );
+		final String text = "RWY " + (sequence % 36 + 1) + " CLSD";
+		final String coordinates = coordinates( latitude, longitude );
+		final String formattedText = "!" + icao + " " + number + " " + text
+				+ "\nQ) KZXX/QMRLC/IV/NBO/A/000/" + String.format( Locale.ROOT,
+						"%03d", 100 + sequence % 900 ) + "/" + coordinates
+				+ "005\nA) " + icao + "\nE) " + text;
+
+		final ObjectNode notam = mapper.createObjectNode();
+		notam.put( "id", id );
+		notam.put( "number", number );
+		notam.put( "type", "N" );
+		notam.put( "issued", reference.minus( 1, ChronoUnit.DAYS ).toString() );
+		notam.put( "lastUpdated", reference.minus( 1, ChronoUnit.DAYS )
+				.toString() );
+		notam.put( "effectiveStart", reference.minus( 1, ChronoUnit.HOURS )
+				.toString() );
+		notam.put( "effectiveEnd", reference.plus( 7, ChronoUnit.DAYS )
+				.toString() );
+		notam.put( "text", text );
+		notam.put( "location", icao );
+		notam.put( "icaoLocation", icao );
+		notam.put( "classification", "DOM" );
+		notam.put( "coordinates", coordinates );
+		notam.put( "radius", "005" );
+		notam.put( "series", "A" );
+
+		final ObjectNode translation = mapper.createObjectNode();
+		translation.put( "type", "ICAO" );
+		translation.put( "formattedText", formattedText );
+
+		final ObjectNode coreData = mapper.createObjectNode();
+		coreData.set( "notam", notam );
+		coreData.set( "notamTranslation", mapper.createArrayNode().add(
+				translation ) );
+
+		final ObjectNode feature = mapper.createObjectNode();
+		feature.put( "type", "Feature" );
+		feature.set( "properties", mapper.createObjectNode().set(
+				"coreNOTAMData", coreData ) );
+		final ObjectNode geometry = feature.putObject( "geometry" );
+		geometry.put( "type", "Point" );
+		geometry.putArray( "coordinates" ).add( longitude ).add( latitude );
+		return feature;
+	}
+
+	// Q-line style position, ex: 3523N09736W
+	private static String coordinates( double latitude, double longitude )
+	{
+		final int latMinutes = (int) Math.round( Math.abs( latitude ) * 60 );
+		final int lonMinutes = (int) Math.round( Math.abs( longitude ) * 60 );
+		return String.format( Locale.ROOT, "%02d%02d%s%03d%02d%s", latMinutes
+				/ 60, latMinutes % 60, latitude < 0 ? "S" : "N", lonMinutes / 60,
+				lonMinutes % 60, longitude < 0 ? "W" : "E" );
+	}
+}
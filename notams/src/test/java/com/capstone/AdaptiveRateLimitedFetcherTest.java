@@ -0,0 +1,259 @@
+package com.capstone;
+
+import com.capstone.exceptions.NotamApiException;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdaptiveRateLimitedFetcherTest
+{
+	private static final Duration HEALTHY = Duration.ofSeconds( 5 );
+
+	@Test
+	void testFetch_throttledWithRetryAfter_retriesAndHalvesLimit()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new NotamApiException(
+				429, "Too Many Requests", Duration.ZERO ) ).thenReturn(
+						"{\"items\":[]}" );
+		AdaptiveRateLimitedFetcher fetcher = new AdaptiveRateLimitedFetcher(
+				delegate, 1000, 4, 8, HEALTHY, 3 );
+
+		assertEquals( "{\"items\":[]}", fetcher.fetchByIcao( "KOKC" ) );
+
+		verify( delegate, times( 2 ) ).fetchByIcao( "KOKC" );
+		// Halved to 2, then one healthy response adds 1/2
+		assertEquals( 2.5, fetcher.getConcurrencyLimit(), 1e-9 );
+	}
+
+	@Test
+	void testFetch_healthyResponses_growLimitUpToMax()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( anyString() ) ).thenReturn( "{}" );
+		AdaptiveRateLimitedFetcher fetcher = new AdaptiveRateLimitedFetcher(
+				delegate, 1000, 1, 3, HEALTHY, 3 );
+
+		fetcher.fetchByIcao( "KOKC" );
+		assertEquals( 2.0, fetcher.getConcurrencyLimit(), 1e-9 );
+
+		for( int i = 0; i < 50; i++ ) {
+			fetcher.fetchByIcao( "KOKC" );
+		}
+		assertEquals( 3.0, fetcher.getConcurrencyLimit(), 1e-9 );
+	}
+
+	@Test
+	void testFetch_otherApiError_isNotRetried()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new NotamApiException(
+				500, "Internal Server Error" ) );
+		AdaptiveRateLimitedFetcher fetcher = new AdaptiveRateLimitedFetcher(
+				delegate, 1000, 4, 8, HEALTHY, 3 );
+
+		NotamApiException ex = assertThrows( NotamApiException.class,
+				() -> fetcher.fetchByIcao( "KOKC" ) );
+
+		assertEquals( 500, ex.getStatusCode() );
+		verify( delegate ).fetchByIcao( "KOKC" );
+		assertEquals( 4.0, fetcher.getConcurrencyLimit(), 1e-9 );
+	}
+
+	@Test
+	void testFetch_stillThrottledAfterMaxRetries_rethrows()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new NotamApiException(
+				503, "Service Unavailable", Duration.ZERO ) );
+		AdaptiveRateLimitedFetcher fetcher = new AdaptiveRateLimitedFetcher(
+				delegate, 1000, 8, 8, HEALTHY, 2 );
+
+		NotamApiException ex = assertThrows( NotamApiException.class,
+				() -> fetcher.fetchByIcao( "KOKC" ) );
+
+		assertEquals( 503, ex.getStatusCode() );
+		verify( delegate, times( 3 ) ).fetchByIcao( "KOKC" );
+		assertEquals( 1.0, fetcher.getConcurrencyLimit(), 1e-9 );
+	}
+
+	@Test
+	void testFetch_retryAfterLongerThanMaxPause_rethrowsAndPausesAtMostMax()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new NotamApiException(
+				429, "Too Many Requests", Duration.ofHours( 1 ) ) ).thenReturn(
+						"{}" );
+		AdaptiveRateLimitedFetcher fetcher = new AdaptiveRateLimitedFetcher(
+				delegate, 1000, 4, 8, HEALTHY, 3, Duration.ofMillis( 100 ) );
+
+		long start = System.nanoTime();
+		NotamApiException ex = assertThrows( NotamApiException.class,
+				() -> fetcher.fetchByIcao( "KOKC" ) );
+		assertEquals( 429, ex.getStatusCode() );
+		verify( delegate ).fetchByIcao( "KOKC" );
+
+		// The next request only waits out the capped pause
+		assertEquals( "{}", fetcher.fetchByIcao( "KOKC" ) );
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis( System.nanoTime()
+				- start );
+		assertTrue( elapsedMillis >= 100 && elapsedMillis < 5000, "Took "
+				+ elapsedMillis + " ms" );
+	}
+
+	@Test
+	void testFetch_backoffWithoutRetryAfter_isCappedAtMaxPause()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new NotamApiException(
+				503, "Service Unavailable" ) ).thenReturn( "{}" );
+		AdaptiveRateLimitedFetcher fetcher = new AdaptiveRateLimitedFetcher(
+				delegate, 1000, 4, 8, HEALTHY, 3, Duration.ofMillis( 50 ) );
+
+		long start = System.nanoTime();
+		assertEquals( "{}", fetcher.fetchByIcao( "KOKC" ) );
+
+		// Retried after 50 ms rather than the 1 s default backoff
+		assertTrue( TimeUnit.NANOSECONDS.toMillis( System.nanoTime()
+				- start ) < 900 );
+		verify( delegate, times( 2 ) ).fetchByIcao( "KOKC" );
+	}
+
+	@Test
+	void testFetch_neverExceedsConcurrencyLimit() throws Exception
+	{
+		AtomicInteger active = new AtomicInteger();
+		AtomicInteger maxActive = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch( 1 );
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( anyString() ) ).thenAnswer( invocation -> {
+			maxActive.accumulateAndGet( active.incrementAndGet(), Math::max );
+			release.await( 5, TimeUnit.SECONDS );
+			active.decrementAndGet();
+			return "{}";
+		} );
+		AdaptiveRateLimitedFetcher fetcher = new AdaptiveRateLimitedFetcher(
+				delegate, 1000, 2, 2, HEALTHY, 0 );
+
+		List<Future<String>> results = new ArrayList<>();
+		try (ExecutorService executor = Executors
+				.newVirtualThreadPerTaskExecutor()) {
+			for( int i = 0; i < 6; i++ ) {
+				results.add( executor.submit( () -> fetcher.fetchByIcao(
+						"KOKC" ) ) );
+			}
+			Thread.sleep( 100 );
+			release.countDown();
+			for( Future<String> result : results ) {
+				assertEquals( "{}", result.get( 5, TimeUnit.SECONDS ) );
+			}
+		}
+
+		assertEquals( 2, maxActive.get() );
+	}
+
+	@Test
+	void testFetch_rateLimitPacesRequestsAfterBurst()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( anyString() ) ).thenReturn( "{}" );
+		AdaptiveRateLimitedFetcher fetcher = new AdaptiveRateLimitedFetcher(
+				delegate, 20, 1, 1, HEALTHY, 0 );
+
+		long start = System.nanoTime();
+		for( int i = 0; i < 30; i++ ) {
+			fetcher.fetchByIcao( "KOKC" );
+		}
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis( System.nanoTime()
+				- start );
+
+		// A burst of 20, then 10 more at 20 per second
+		assertTrue( elapsedMillis >= 450, "took " + elapsedMillis + " ms" );
+	}
+
+	@Test
+	void testHasSpareCapacity_falseWhileHalfTheLimitIsInUse() throws Exception
+	{
+		CountDownLatch started = new CountDownLatch( 1 );
+		CountDownLatch release = new CountDownLatch( 1 );
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( anyString() ) ).thenAnswer( invocation -> {
+			started.countDown();
+			release.await( 5, TimeUnit.SECONDS );
+			return "{}";
+		} );
+		AdaptiveRateLimitedFetcher fetcher = new AdaptiveRateLimitedFetcher(
+				delegate, 1000, 2, 2, HEALTHY, 0 );
+
+		assertTrue( fetcher.hasSpareCapacity() );
+		try (ExecutorService executor = Executors
+				.newVirtualThreadPerTaskExecutor()) {
+			Future<String> result = executor.submit( () -> fetcher.fetchByIcao(
+					"KOKC" ) );
+			assertTrue( started.await( 5, TimeUnit.SECONDS ) );
+			assertFalse( fetcher.hasSpareCapacity() );
+			release.countDown();
+			result.get( 5, TimeUnit.SECONDS );
+		}
+		assertTrue( fetcher.hasSpareCapacity() );
+	}
+
+	@Test
+	void testHasSpareCapacity_falseWhenRateBucketIsLow()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( anyString() ) ).thenReturn( "{}" );
+		AdaptiveRateLimitedFetcher fetcher = new AdaptiveRateLimitedFetcher(
+				delegate, 10, 4, 4, HEALTHY, 0 );
+
+		for( int i = 0; i < 8; i++ ) {
+			fetcher.fetchByIcao( "KOKC" );
+		}
+
+		assertFalse( fetcher.hasSpareCapacity() );
+	}
+
+	@Test
+	void testConstructor_invalidArguments_throwIllegalArgumentException()
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+
+		assertThrows( IllegalArgumentException.class,
+				() -> new AdaptiveRateLimitedFetcher( delegate, 0, 1, 1,
+						HEALTHY, 0 ) );
+		assertThrows( IllegalArgumentException.class,
+				() -> new AdaptiveRateLimitedFetcher( delegate, 10, 4, 2,
+						HEALTHY, 0 ) );
+		assertThrows( IllegalArgumentException.class,
+				() -> new AdaptiveRateLimitedFetcher( delegate, 10, 1, 1,
+						HEALTHY, -1 ) );
+		assertThrows( IllegalArgumentException.class,
+				() -> new AdaptiveRateLimitedFetcher( delegate, 10, 1, 1,
+						HEALTHY, 0, Duration.ofSeconds( -1 ) ) );
+	}
+}
@@ -0,0 +1,295 @@
+package com.capstone;
+
+import com.capstone.exceptions.NotamApiException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BearerTokenManagerTest
+{
+	private static final String AUTH_URL = "https://api-staging.cgifederal-aim.com/v1/auth/token";
+	private static final Clock CLOCK = Clock.fixed( Instant.parse(
+			"2026-02-01T00:00:00Z" ), ZoneOffset.UTC );
+
+	@Mock
+	private HttpClient mockHttpClient;
+
+	@Mock
+	private ScheduledExecutorService mockScheduler;
+
+	private BearerTokenManager manager;
+
+	@BeforeEach
+	void setUp()
+	{
+		manager = new BearerTokenManager( "testId", "testSecret", AUTH_URL,
+				mockHttpClient, CLOCK, mockScheduler );
+	}
+
+	@Test
+	void testGetToken_concurrentCallers_sendOneTokenRequest() throws Exception
+	{
+		AtomicInteger requests = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch( 1 );
+		HttpResponse<String> tokenResponse = tokenResponse( "token-1" );
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenAnswer(
+						invocation -> {
+							requests.incrementAndGet();
+							release.await( 5, TimeUnit.SECONDS );
+							return tokenResponse;
+						} );
+
+		List<Future<String>> tokens = new ArrayList<>();
+		try (ExecutorService executor = Executors
+				.newVirtualThreadPerTaskExecutor()) {
+			for( int i = 0; i < 8; i++ ) {
+				tokens.add( executor.submit( manager::getToken ) );
+			}
+			// Give the other callers time to queue up behind the first request
+			Thread.sleep( 100 );
+			release.countDown();
+			for( Future<String> token : tokens ) {
+				assertEquals( "token-1", token.get( 5, TimeUnit.SECONDS ) );
+			}
+		}
+
+		assertEquals( 1, requests.get() );
+	}
+
+	@Test
+	void testGetToken_schedulesRefreshBeforeBufferWindow()
+			throws IOException, InterruptedException
+	{
+		HttpResponse<String> tokenResponse = tokenResponse( "token-1" );
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						tokenResponse );
+
+		manager.getToken();
+
+		// expires_in 1799, minus the 60 s buffer, minus the 60 s lead
+		verify( mockScheduler ).schedule( any( Runnable.class ), eq( 1679L ),
+				eq( TimeUnit.SECONDS ) );
+	}
+
+	@Test
+	void testGetToken_shortLivedToken_doesNotScheduleRefresh()
+			throws IOException, InterruptedException
+	{
+		HttpResponse<String> shortLived = tokenResponse( "token-1", 60 );
+		HttpResponse<String> withinLead = tokenResponse( "token-2", 120 );
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						shortLived ).thenReturn( withinLead );
+
+		assertEquals( "token-1", manager.getToken() );
+		// Not usable past the buffer, so the next caller fetches a new one itself
+		assertEquals( "token-2", manager.getToken() );
+		assertEquals( "token-2", manager.getToken() );
+
+		verify( mockScheduler, never() ).schedule( any( Runnable.class ),
+				anyLong(), any( TimeUnit.class ) );
+	}
+
+	@Test
+	void testGetToken_tokenJustPastLead_refreshesHalfway()
+			throws IOException, InterruptedException
+	{
+		HttpResponse<String> tokenResponse = tokenResponse( "token-1", 160 );
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						tokenResponse );
+
+		manager.getToken();
+
+		// 100 s usable after the buffer, refreshed halfway through
+		verify( mockScheduler ).schedule( any( Runnable.class ), eq( 50L ),
+				eq( TimeUnit.SECONDS ) );
+	}
+
+	@Test
+	void testRefreshInBackground_replacesTokenWithoutCallerRequest()
+			throws IOException, InterruptedException
+	{
+		HttpResponse<String> first = tokenResponse( "token-1" );
+		HttpResponse<String> second = tokenResponse( "token-2" );
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn( first )
+				.thenReturn( second );
+
+		assertEquals( "token-1", manager.getToken() );
+		ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(
+				Runnable.class );
+		verify( mockScheduler ).schedule( refresh.capture(), anyLong(), any(
+				TimeUnit.class ) );
+
+		refresh.getValue().run();
+
+		assertEquals( "token-2", manager.getToken() );
+		verify( mockHttpClient, times( 2 ) ).send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) );
+	}
+
+	@Test
+	void testRefreshInBackground_failureKeepsTokenAndRetries()
+			throws IOException, InterruptedException
+	{
+		HttpResponse<String> first = tokenResponse( "token-1" );
+		HttpResponse<String> failed = mock( HttpResponse.class );
+		when( failed.statusCode() ).thenReturn( 503 );
+		when( failed.body() ).thenReturn( "Service Unavailable" );
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn( first )
+				.thenReturn( failed );
+
+		manager.getToken();
+		manager.refreshInBackground();
+
+		assertEquals( "token-1", manager.getToken() );
+		verify( mockScheduler ).schedule( any( Runnable.class ), eq( 15L ),
+				eq( TimeUnit.SECONDS ) );
+	}
+
+	@Test
+	void testGetToken_requestFailure_throwsApiException()
+			throws IOException, InterruptedException
+	{
+		HttpResponse<String> failed = mock( HttpResponse.class );
+		when( failed.statusCode() ).thenReturn( 401 );
+		when( failed.body() ).thenReturn( "Unauthorized" );
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn( failed );
+
+		NotamApiException ex = assertThrows( NotamApiException.class,
+				() -> manager.getToken() );
+
+		assertEquals( 401, ex.getStatusCode() );
+	}
+
+	@Test
+	void testRefreshInBackground_cancelsPendingRefreshBeforeScheduling()
+			throws IOException, InterruptedException
+	{
+		ScheduledFuture<?> first = mock( ScheduledFuture.class );
+		ScheduledFuture<?> second = mock( ScheduledFuture.class );
+		doReturn( first ).doReturn( second ).when( mockScheduler ).schedule(
+				any( Runnable.class ), anyLong(), any( TimeUnit.class ) );
+		HttpResponse<String> tokenResponse = tokenResponse( "token-1" );
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						tokenResponse );
+
+		manager.getToken();
+		manager.refreshInBackground();
+
+		verify( first ).cancel( false );
+		verify( second, never() ).cancel( false );
+	}
+
+	@Test
+	void testClose_cancelsPendingRefreshAndStopsScheduling()
+			throws IOException, InterruptedException
+	{
+		ScheduledFuture<?> pending = mock( ScheduledFuture.class );
+		doReturn( pending ).when( mockScheduler ).schedule( any(
+				Runnable.class ), anyLong(), any( TimeUnit.class ) );
+		HttpResponse<String> tokenResponse = tokenResponse( "token-1" );
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						tokenResponse );
+
+		manager.getToken();
+		manager.close();
+		manager.refreshInBackground();
+
+		verify( pending ).cancel( false );
+		verify( mockScheduler, times( 1 ) ).schedule( any( Runnable.class ),
+				anyLong(), any( TimeUnit.class ) );
+	}
+
+	@Test
+	void testShared_otherSecret_returnsOtherManager()
+	{
+		HttpClient client = mock( HttpClient.class );
+
+		assertNotSame( BearerTokenManager.shared( "rotated-id", "old-secret",
+				AUTH_URL, client ), BearerTokenManager.shared( "rotated-id",
+						"new-secret", AUTH_URL, client ) );
+	}
+
+	@Test
+	void testShared_closed_returnsNewManager()
+	{
+		HttpClient client = mock( HttpClient.class );
+		BearerTokenManager closed = BearerTokenManager.shared( "closed-id",
+				"secret", AUTH_URL, client );
+
+		closed.close();
+
+		assertNotSame( closed, BearerTokenManager.shared( "closed-id",
+				"secret", AUTH_URL, client ) );
+	}
+
+	@Test
+	void testShared_sameCredentials_returnSameManager()
+	{
+		HttpClient client = mock( HttpClient.class );
+
+		assertSame( BearerTokenManager.shared( "shared-id", "secret", AUTH_URL,
+				client ), BearerTokenManager.shared( "shared-id", "secret",
+						AUTH_URL, client ) );
+		assertNotSame( BearerTokenManager.shared( "shared-id", "secret",
+				AUTH_URL, client ), BearerTokenManager.shared( "other-id",
+						"secret", AUTH_URL, client ) );
+	}
+
+	private static HttpResponse<String> tokenResponse( String token )
+	{
+		return tokenResponse( token, 1799 );
+	}
+
+	private static HttpResponse<String> tokenResponse( String token,
+													   long expiresInSeconds )
+	{
+		HttpResponse<String> response = mock( HttpResponse.class );
+		when( response.statusCode() ).thenReturn( 200 );
+		when( response.body() ).thenReturn( "{\"access_token\":\"" + token
+				+ "\",\"expires_in\":\"" + expiresInSeconds + "\"}" );
+		return response;
+	}
+}
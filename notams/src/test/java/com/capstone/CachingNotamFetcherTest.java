@@ -0,0 +1,224 @@
+package com.capstone;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingNotamFetcherTest
+{
+	private static final Duration TTL = Duration.ofMinutes( 5 );
+
+	@Mock
+	private NotamDataFetcher delegate;
+
+	private MutableClock clock;
+	private CachingNotamFetcher fetcher;
+
+	@BeforeEach
+	void setUp()
+	{
+		clock = new MutableClock( Instant.parse( "2026-02-01T00:00:00Z" ) );
+		fetcher = new CachingNotamFetcher( delegate, 2, TTL, clock );
+	}
+
+	@Test
+	void testFetchByIcao_repeatedCallServedFromCache()
+			throws IOException, InterruptedException
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenReturn( "{\"items\":[]}" );
+
+		assertEquals( "{\"items\":[]}", fetcher.fetchByIcao( "KOKC" ) );
+		assertEquals( "{\"items\":[]}", fetcher.fetchByIcao( "kokc" ) );
+
+		verify( delegate, times( 1 ) ).fetchByIcao( "KOKC" );
+		assertEquals( 1, fetcher.getHitCount() );
+		assertEquals( 1, fetcher.getMissCount() );
+	}
+
+	@Test
+	void testFetchByLocation_nearbyPointsShareQuantizedEntry()
+			throws IOException, InterruptedException
+	{
+		when( delegate.fetchByLocation( 35.39, -97.6, 50.0 ) ).thenReturn(
+				"{\"items\":[]}" );
+
+		fetcher.fetchByLocation( 35.3912, -97.6004, 49.2 );
+		fetcher.fetchByLocation( 35.3898, -97.5996, 49.5 );
+
+		verify( delegate, times( 1 ) ).fetchByLocation( 35.39, -97.6, 50.0 );
+		assertEquals( 1, fetcher.getHitCount() );
+	}
+
+	@Test
+	void testFetchByLocation_roundedCentre_radiusWidenedToCoverCircle()
+			throws IOException, InterruptedException
+	{
+		when( delegate.fetchByLocation( 35.39, -97.6, 51.0 ) ).thenReturn(
+				"{\"items\":[]}" );
+
+		fetcher.fetchByLocation( 35.3949, -97.6049, 50 );
+
+		verify( delegate ).fetchByLocation( 35.39, -97.6, 51.0 );
+	}
+
+	@Test
+	void testFetchByLocation_centreOnGrid_radiusKept()
+			throws IOException, InterruptedException
+	{
+		when( delegate.fetchByLocation( 35.39, -97.6, 50.0 ) ).thenReturn(
+				"{\"items\":[]}" );
+
+		fetcher.fetchByLocation( 35.39, -97.6, 50 );
+
+		verify( delegate ).fetchByLocation( 35.39, -97.6, 50.0 );
+	}
+
+	@Test
+	void testFetchByLocation_nonFiniteCoordinates_throws()
+	{
+		assertThrows( IllegalArgumentException.class, () -> fetcher
+				.fetchByLocation( Double.NaN, -97.6, 50 ) );
+		assertThrows( IllegalArgumentException.class, () -> fetcher
+				.fetchByLocation( 35.39, Double.POSITIVE_INFINITY, 50 ) );
+	}
+
+	@Test
+	void testFetch_expiredEntryFetchedAgain()
+			throws IOException, InterruptedException
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenReturn( "first" )
+				.thenReturn( "second" );
+
+		assertEquals( "first", fetcher.fetchByIcao( "KOKC" ) );
+		clock.advance( TTL );
+		assertEquals( "second", fetcher.fetchByIcao( "KOKC" ) );
+
+		verify( delegate, times( 2 ) ).fetchByIcao( "KOKC" );
+	}
+
+	@Test
+	void testFetch_evictsLeastRecentlyUsedWhenFull()
+			throws IOException, InterruptedException
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenReturn( "okc" );
+		when( delegate.fetchByIcao( "KDFW" ) ).thenReturn( "dfw" );
+		when( delegate.fetchByIcao( "KJFK" ) ).thenReturn( "jfk" );
+
+		fetcher.fetchByIcao( "KOKC" );
+		fetcher.fetchByIcao( "KDFW" );
+		fetcher.fetchByIcao( "KOKC" ); // KDFW is now least recently used
+		fetcher.fetchByIcao( "KJFK" );
+		fetcher.fetchByIcao( "KOKC" );
+		fetcher.fetchByIcao( "KDFW" );
+
+		assertEquals( 2, fetcher.size() );
+		verify( delegate, times( 1 ) ).fetchByIcao( "KOKC" );
+		verify( delegate, times( 2 ) ).fetchByIcao( "KDFW" );
+	}
+
+	@Test
+	void testFetch_delegateFailureNotCached()
+			throws IOException, InterruptedException
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow(
+				new IOException( "Connection refused" ) ).thenReturn( "okc" );
+
+		assertThrows( IOException.class, () -> fetcher.fetchByIcao( "KOKC" ) );
+		assertEquals( "okc", fetcher.fetchByIcao( "KOKC" ) );
+	}
+
+	@Test
+	void testRefresher_refetchesOnlyEntriesCloseToExpiry()
+			throws IOException, InterruptedException
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenReturn( "first" )
+				.thenReturn( "second" );
+		NotamDataFetcher refresher = fetcher.refresher( Duration.ofMinutes(
+				2 ) );
+
+		assertEquals( "first", fetcher.fetchByIcao( "KOKC" ) );
+		clock.advance( Duration.ofMinutes( 2 ) );
+		assertEquals( "first", refresher.fetchByIcao( "KOKC" ) );
+		clock.advance( Duration.ofMinutes( 2 ) );
+		assertEquals( "second", refresher.fetchByIcao( "KOKC" ) );
+
+		// The refreshed entry lives a full time to live from the refresh
+		clock.advance( Duration.ofMinutes( 4 ) );
+		assertEquals( "second", fetcher.fetchByIcao( "KOKC" ) );
+		verify( delegate, times( 2 ) ).fetchByIcao( "KOKC" );
+		assertEquals( 1, fetcher.getHitCount() );
+		assertEquals( 1, fetcher.getMissCount() );
+	}
+
+	@Test
+	void testRefresher_withSource_fetchesFromSourceInsteadOfDelegate()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher source = mock( NotamDataFetcher.class );
+		when( source.fetchByIcao( "KOKC" ) ).thenReturn( "refreshed" );
+		NotamDataFetcher refresher = fetcher.refresher( Duration.ofMinutes( 2 ),
+				source );
+
+		assertEquals( "refreshed", refresher.fetchByIcao( "KOKC" ) );
+		assertEquals( "refreshed", fetcher.fetchByIcao( "KOKC" ) );
+		verify( delegate, never() ).fetchByIcao( "KOKC" );
+	}
+
+	@Test
+	void testFetchByIcao_nullCode()
+	{
+		assertThrows( IllegalArgumentException.class,
+				() -> fetcher.fetchByIcao( null ) );
+	}
+
+	// Clock whose time only moves when the test advances it
+	static final class MutableClock extends Clock
+	{
+		private Instant now;
+
+		MutableClock( Instant start )
+		{
+			this.now = start;
+		}
+
+		void advance( Duration duration )
+		{
+			now = now.plus( duration );
+		}
+
+		@Override
+		public ZoneId getZone()
+		{
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone( ZoneId zone )
+		{
+			return this;
+		}
+
+		@Override
+		public Instant instant()
+		{
+			return now;
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package com.capstone;
+
+import com.capstone.exceptions.CircuitOpenException;
+import com.capstone.exceptions.NotamApiException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakerNotamFetcherTest
+{
+	private static final Duration OPEN_DURATION = Duration.ofSeconds( 30 );
+
+	@Mock
+	private NotamDataFetcher delegate;
+
+	private CachingNotamFetcherTest.MutableClock clock;
+	private final List<Instant> staleFetchTimes = new ArrayList<>();
+	private CircuitBreakerNotamFetcher breaker;
+
+	@BeforeEach
+	void setUp()
+	{
+		clock = new CachingNotamFetcherTest.MutableClock( Instant.parse(
+				"2026-02-01T00:00:00Z" ) );
+		breaker = new CircuitBreakerNotamFetcher( delegate, 2, Duration
+				.ofSeconds( 10 ), OPEN_DURATION, Duration.ofHours( 1 ), ( key,
+						fetchedAt, cause ) -> staleFetchTimes.add( fetchedAt ),
+				clock );
+	}
+
+	@Test
+	void failures_openBreakerAndServeLastGoodWithoutCalling() throws Exception
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenReturn( "good" ).thenThrow(
+				new HttpTimeoutException( "timed out" ) );
+		when( delegate.fetchByIcao( "KTUL" ) ).thenThrow( new NotamApiException(
+				503, "down" ) );
+
+		assertEquals( "good", breaker.fetchByIcao( "KOKC" ) );
+		Instant fetchedAt = clock.instant();
+		clock.advance( Duration.ofMinutes( 5 ) );
+		// Fails, but falls back to the last good response
+		assertEquals( "good", breaker.fetchByIcao( "KOKC" ) );
+		assertThrows( NotamApiException.class,
+				() -> breaker.fetchByIcao( "KTUL" ) );
+		assertEquals( CircuitBreakerNotamFetcher.State.OPEN, breaker
+				.getState() );
+
+		// Open: answered without calling the API
+		assertEquals( "good", breaker.fetchByIcao( "KOKC" ) );
+		assertThrows( CircuitOpenException.class,
+				() -> breaker.fetchByIcao( "KTUL" ) );
+
+		verify( delegate, times( 2 ) ).fetchByIcao( "KOKC" );
+		verify( delegate, times( 1 ) ).fetchByIcao( "KTUL" );
+		assertEquals( List.of( fetchedAt, fetchedAt ), staleFetchTimes );
+	}
+
+	@Test
+	void halfOpenProbe_success_closesBreaker() throws Exception
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new IOException(
+				"reset" ), new IOException( "reset" ) ).thenReturn( "back" );
+		assertThrows( IOException.class, () -> breaker.fetchByIcao( "KOKC" ) );
+		assertThrows( IOException.class, () -> breaker.fetchByIcao( "KOKC" ) );
+		assertThrows( CircuitOpenException.class,
+				() -> breaker.fetchByIcao( "KOKC" ) );
+
+		clock.advance( OPEN_DURATION );
+		assertEquals( CircuitBreakerNotamFetcher.State.HALF_OPEN, breaker
+				.getState() );
+
+		assertEquals( "back", breaker.fetchByIcao( "KOKC" ) );
+		assertEquals( CircuitBreakerNotamFetcher.State.CLOSED, breaker
+				.getState() );
+	}
+
+	@Test
+	void halfOpenProbe_failure_reopensBreaker() throws Exception
+	{
+		when( delegate.fetchByLocation( 35.0, -97.0, 50.0 ) ).thenThrow(
+				new NotamApiException( 500, "error" ) );
+		for( int i = 0; i < 2; i++ ) {
+			assertThrows( NotamApiException.class,
+					() -> breaker.fetchByLocation( 35.0, -97.0, 50 ) );
+		}
+
+		clock.advance( OPEN_DURATION );
+		assertThrows( NotamApiException.class,
+				() -> breaker.fetchByLocation( 35.0, -97.0, 50 ) );
+
+		assertEquals( CircuitBreakerNotamFetcher.State.OPEN, breaker
+				.getState() );
+		verify( delegate, times( 3 ) ).fetchByLocation( 35.0, -97.0, 50.0 );
+	}
+
+	@Test
+	void slowCalls_countAsFailures() throws Exception
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenAnswer( invocation -> {
+			clock.advance( Duration.ofSeconds( 20 ) );
+			return "slow";
+		} );
+
+		assertEquals( "slow", breaker.fetchByIcao( "KOKC" ) );
+		assertEquals( "slow", breaker.fetchByIcao( "KOKC" ) );
+
+		assertEquals( CircuitBreakerNotamFetcher.State.OPEN, breaker
+				.getState() );
+		assertEquals( "slow", breaker.fetchByIcao( "KOKC" ) );
+		verify( delegate, times( 2 ) ).fetchByIcao( "KOKC" );
+	}
+
+	@Test
+	void clientErrors_doNotOpenBreaker() throws Exception
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new NotamApiException(
+				400, "bad request" ) );
+
+		for( int i = 0; i < 3; i++ ) {
+			assertThrows( NotamApiException.class,
+					() -> breaker.fetchByIcao( "KOKC" ) );
+		}
+
+		assertEquals( CircuitBreakerNotamFetcher.State.CLOSED, breaker
+				.getState() );
+	}
+
+	@Test
+	void servingStale_staleResponse_isServedAboveCacheWithoutBeingCached()
+			throws Exception
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenReturn( "good" ).thenThrow(
+				new IOException( "reset" ) ).thenReturn( "fresh" );
+		CachingNotamFetcher cache = new CachingNotamFetcher( breaker, 10,
+				Duration.ofMinutes( 1 ), clock );
+		NotamDataFetcher fetcher = breaker.servingStale( cache );
+
+		assertEquals( "good", fetcher.fetchByIcao( "KOKC" ) );
+		clock.advance( Duration.ofMinutes( 2 ) );
+		assertEquals( "good", fetcher.fetchByIcao( "KOKC" ) );
+		assertEquals( 1, staleFetchTimes.size() );
+
+		// The stale answer was not cached, so the next query reaches the API again
+		assertEquals( "fresh", fetcher.fetchByIcao( "KOKC" ) );
+		verify( delegate, times( 3 ) ).fetchByIcao( "KOKC" );
+	}
+
+	@Test
+	void servingStale_noLastGood_failsWithCause() throws Exception
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new NotamApiException(
+				503, "down" ) );
+		NotamDataFetcher fetcher = breaker.servingStale( new CachingNotamFetcher(
+				breaker, 10, Duration.ofMinutes( 1 ), clock ) );
+
+		NotamApiException ex = assertThrows( NotamApiException.class,
+				() -> fetcher.fetchByIcao( "KOKC" ) );
+
+		assertEquals( 503, ex.getStatusCode() );
+		assertTrue( staleFetchTimes.isEmpty() );
+	}
+
+	@Test
+	void lastGood_olderThanMaxStaleAge_isNotServed() throws Exception
+	{
+		when( delegate.fetchByIcao( "KOKC" ) ).thenReturn( "good" ).thenThrow(
+				new IOException( "reset" ) );
+		breaker.fetchByIcao( "KOKC" );
+
+		clock.advance( Duration.ofHours( 2 ) );
+
+		assertThrows( IOException.class, () -> breaker.fetchByIcao( "KOKC" ) );
+		assertTrue( staleFetchTimes.isEmpty() );
+	}
+}
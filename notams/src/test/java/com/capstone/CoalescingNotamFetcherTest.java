@@ -0,0 +1,146 @@
+package com.capstone;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CoalescingNotamFetcherTest
+{
+	@Test
+	void testFetch_concurrentIdenticalQueries_shareOneCall() throws Exception
+	{
+		CountDownLatch release = new CountDownLatch( 1 );
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( anyString() ) ).thenAnswer( invocation -> {
+			release.await( 5, TimeUnit.SECONDS );
+			return "{\"items\":[]}";
+		} );
+		CoalescingNotamFetcher fetcher = new CoalescingNotamFetcher( delegate );
+
+		List<Future<String>> results = new ArrayList<>();
+		try (ExecutorService executor = Executors
+				.newVirtualThreadPerTaskExecutor()) {
+			// Mixed case maps to the same key
+			for( int i = 0; i < 8; i++ ) {
+				String icao = i % 2 == 0 ? "KOKC" : "kokc";
+				results.add( executor.submit( () -> fetcher.fetchByIcao(
+						icao ) ) );
+			}
+			awaitCoalesced( fetcher, 7 );
+			release.countDown();
+			for( Future<String> result : results ) {
+				assertEquals( "{\"items\":[]}", result.get( 5,
+						TimeUnit.SECONDS ) );
+			}
+		}
+
+		verify( delegate ).fetchByIcao( anyString() );
+		assertEquals( 1, fetcher.getUpstreamCallCount() );
+		assertEquals( 7, fetcher.getCoalescedCount() );
+	}
+
+	@Test
+	void testFetch_sharedFailure_reachesEveryCaller() throws Exception
+	{
+		CountDownLatch release = new CountDownLatch( 1 );
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByLocation( 35.39, -97.6, 50 ) ).thenAnswer(
+				invocation -> {
+					release.await( 5, TimeUnit.SECONDS );
+					throw new IOException( "Connection reset" );
+				} );
+		CoalescingNotamFetcher fetcher = new CoalescingNotamFetcher( delegate );
+
+		List<Future<String>> results = new ArrayList<>();
+		try (ExecutorService executor = Executors
+				.newVirtualThreadPerTaskExecutor()) {
+			for( int i = 0; i < 3; i++ ) {
+				results.add( executor.submit( () -> fetcher.fetchByLocation(
+						35.39, -97.6, 50 ) ) );
+			}
+			awaitCoalesced( fetcher, 2 );
+			release.countDown();
+			for( Future<String> result : results ) {
+				ExecutionException ex = assertThrows( ExecutionException.class,
+						() -> result.get( 5, TimeUnit.SECONDS ) );
+				assertInstanceOf( IOException.class, ex.getCause() );
+			}
+		}
+
+		verify( delegate ).fetchByLocation( 35.39, -97.6, 50 );
+	}
+
+	@Test
+	void testFetch_sharingCallerCancelled_otherCallerLoadsAgain()
+			throws Exception
+	{
+		CountDownLatch started = new CountDownLatch( 1 );
+		AtomicInteger calls = new AtomicInteger();
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByLocation( 35.39, -97.6, 50 ) ).thenAnswer(
+				invocation -> {
+					if( calls.incrementAndGet() == 1 ) {
+						started.countDown();
+						Thread.sleep( 10_000 );
+					}
+					return "second";
+				} );
+		CoalescingNotamFetcher fetcher = new CoalescingNotamFetcher( delegate );
+
+		try (ExecutorService executor = Executors
+				.newVirtualThreadPerTaskExecutor()) {
+			Future<String> cancelled = executor.submit( () -> fetcher
+					.fetchByLocation( 35.39, -97.6, 50 ) );
+			assertTrue( started.await( 5, TimeUnit.SECONDS ) );
+			Future<String> waiting = executor.submit( () -> fetcher
+					.fetchByLocation( 35.39, -97.6, 50 ) );
+			awaitCoalesced( fetcher, 1 );
+
+			cancelled.cancel( true );
+
+			assertEquals( "second", waiting.get( 5, TimeUnit.SECONDS ) );
+		}
+		assertEquals( 2, calls.get() );
+	}
+
+	@Test
+	void testFetch_sequentialQueries_eachCallUpstream()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( "KOKC" ) ).thenReturn( "first" ).thenReturn(
+				"second" );
+		CoalescingNotamFetcher fetcher = new CoalescingNotamFetcher( delegate );
+
+		assertEquals( "first", fetcher.fetchByIcao( "KOKC" ) );
+		assertEquals( "second", fetcher.fetchByIcao( "KOKC" ) );
+		verify( delegate, times( 2 ) ).fetchByIcao( "KOKC" );
+	}
+
+	private static void awaitCoalesced( CoalescingNotamFetcher fetcher,
+										long expected )
+			throws InterruptedException
+	{
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 5 );
+		while( fetcher.getCoalescedCount() < expected && System
+				.nanoTime() < deadline ) {
+			Thread.sleep( 5 );
+		}
+	}
+}
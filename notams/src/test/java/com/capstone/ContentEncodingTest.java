@@ -0,0 +1,215 @@
+package com.capstone;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentEncodingTest
+{
+	private static final String BODY = "{\"items\":[" + "{\"type\":\"Feature\"},"
+			.repeat( 200 ) + "{}]}";
+
+	@Test
+	void decode_gzip_inflatesAsRead() throws IOException
+	{
+		byte[] compressed = gzip( BODY );
+		assertTrue( compressed.length < BODY.length() / 5 );
+
+		assertEquals( BODY, read( ContentEncoding.decode(
+				new ByteArrayInputStream( compressed ), "gzip" ) ) );
+	}
+
+	@Test
+	void decode_zlibDeflate_inflates() throws IOException
+	{
+		assertEquals( BODY, read( ContentEncoding.decode(
+				new ByteArrayInputStream( deflate( BODY, false ) ),
+				"deflate" ) ) );
+	}
+
+	@Test
+	void decode_rawDeflate_inflates() throws IOException
+	{
+		assertEquals( BODY, read( ContentEncoding.decode(
+				new ByteArrayInputStream( deflate( BODY, true ) ),
+				"deflate" ) ) );
+	}
+
+	@Test
+	void decode_identity_returnsSameStream()
+	{
+		InputStream in = new ByteArrayInputStream( new byte[0] );
+
+		assertSame( in, ContentEncoding.decode( in, null ) );
+		assertSame( in, ContentEncoding.decode( in, "identity" ) );
+	}
+
+	@Test
+	void decode_unsupportedEncoding_failsOnRead()
+	{
+		InputStream in = ContentEncoding.decode( new ByteArrayInputStream(
+				new byte[] { 1, 2, 3 } ), "br" );
+
+		assertThrows( IOException.class, in::read );
+	}
+
+	@Test
+	void ofString_gzipResponse_returnsInflatedBody() throws Exception
+	{
+		HttpResponse.BodySubscriber<String> subscriber = ContentEncoding
+				.ofString().apply( responseInfo( "GZIP" ) );
+
+		assertEquals( BODY, deliver( subscriber, gzip( BODY ) ) );
+	}
+
+	@Test
+	void ofString_uncompressedResponse_returnsBody() throws Exception
+	{
+		HttpResponse.BodySubscriber<String> subscriber = ContentEncoding
+				.ofString().apply( responseInfo( null ) );
+
+		assertEquals( BODY, deliver( subscriber, BODY.getBytes(
+				StandardCharsets.UTF_8 ) ) );
+	}
+
+	@Test
+	void ofString_contentTypeCharset_decodesWithIt() throws Exception
+	{
+		String body = "{\"text\":\"CAF\u00c9 CLSD\"}";
+		byte[] latin1 = body.getBytes( StandardCharsets.ISO_8859_1 );
+
+		assertEquals( body, deliver( ContentEncoding.ofString().apply(
+				responseInfoWith( Map.of( "Content-Encoding", List.of( "gzip" ),
+						"Content-Type", List.of(
+								"application/json; charset=\"ISO-8859-1\"" ) ) ) ),
+				gzip( latin1 ) ) );
+		assertEquals( body, deliver( ContentEncoding.ofString().apply(
+				responseInfoWith( Map.of( "Content-Type", List.of(
+						"application/json;charset=iso-8859-1" ) ) ) ), latin1 ) );
+	}
+
+	@Test
+	void charsetOf_missingOrUnknownCharset_usesUtf8()
+	{
+		for( Map<String, List<String>> headers : List.of(
+				Map.<String, List<String>> of(), Map.of( "Content-Type", List.of(
+						"application/json" ) ), Map.of( "Content-Type", List.of(
+								"application/json; charset=no-such-charset" ) ) ) ) {
+			assertEquals( StandardCharsets.UTF_8, ContentEncoding.charsetOf(
+					HttpHeaders.of( headers, ( name, value ) -> true ) ),
+					headers.toString() );
+		}
+	}
+
+	@Test
+	void ofInputStream_gzipResponse_streamsInflatedBody() throws Exception
+	{
+		HttpResponse.BodySubscriber<InputStream> subscriber = ContentEncoding
+				.ofInputStream().apply( responseInfo( "gzip" ) );
+
+		try (InputStream in = deliver( subscriber, gzip( BODY ) )) {
+			assertEquals( BODY, read( in ) );
+		}
+	}
+
+	private static <T> T deliver( HttpResponse.BodySubscriber<T> subscriber,
+								  byte[] body ) throws Exception
+	{
+		subscriber.onSubscribe( new Flow.Subscription()
+		{
+			@Override
+			public void request( long n )
+			{
+
+			}
+
+			@Override
+			public void cancel()
+			{
+
+			}
+		} );
+		subscriber.onNext( List.of( ByteBuffer.wrap( body ) ) );
+		subscriber.onComplete();
+		return subscriber.getBody().toCompletableFuture().get( 5,
+				TimeUnit.SECONDS );
+	}
+
+	private static HttpResponse.ResponseInfo responseInfo( String encoding )
+	{
+		return responseInfoWith( encoding == null ? Map.of() : Map.of(
+				"Content-Encoding", List.of( encoding ) ) );
+	}
+
+	private static HttpResponse.ResponseInfo responseInfoWith( Map<String, List<String>> headerValues )
+	{
+		HttpHeaders headers = HttpHeaders.of( headerValues,
+				( name, value ) -> true );
+		return new HttpResponse.ResponseInfo()
+		{
+			@Override
+			public int statusCode()
+			{
+				return 200;
+			}
+
+			@Override
+			public HttpHeaders headers()
+			{
+				return headers;
+			}
+
+			@Override
+			public HttpClient.Version version()
+			{
+				return HttpClient.Version.HTTP_2;
+			}
+		};
+	}
+
+	private static String read( InputStream in ) throws IOException
+	{
+		return new String( in.readAllBytes(), StandardCharsets.UTF_8 );
+	}
+
+	private static byte[] gzip( String text ) throws IOException
+	{
+		return gzip( text.getBytes( StandardCharsets.UTF_8 ) );
+	}
+
+	private static byte[] gzip( byte[] bytes ) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream( out )) {
+			gzip.write( bytes );
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] deflate( String text, boolean raw ) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (DeflaterOutputStream deflate = new DeflaterOutputStream( out,
+				new Deflater( Deflater.DEFAULT_COMPRESSION, raw ) )) {
+			deflate.write( text.getBytes( StandardCharsets.UTF_8 ) );
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,189 @@
+package com.capstone;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DiskResponseCacheTest
+{
+	private static final Duration MAX_AGE = Duration.ofMinutes( 30 );
+	private static final long MAX_BYTES = 1024 * 1024;
+	private static final Instant NOW = Instant.now();
+	private static final NotamQueryKey OKC = NotamQueryKey.forIcao( "KOKC" );
+	private static final NotamQueryKey DFW = NotamQueryKey.forIcao( "KDFW" );
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void testRead_entrySurvivesReopen() throws IOException
+	{
+		DiskResponseCache first = new DiskResponseCache( directory, MAX_AGE,
+				MAX_BYTES );
+		first.write( OKC, "{\"items\":[]}", NOW );
+
+		DiskResponseCache reopened = new DiskResponseCache( directory, MAX_AGE,
+				MAX_BYTES );
+		DiskResponseCache.CachedResponse cached = reopened.read( OKC, NOW )
+				.orElseThrow();
+
+		assertEquals( "{\"items\":[]}", cached.getBody() );
+		assertEquals( NOW.toEpochMilli(), cached.getFetchedAt()
+				.toEpochMilli() );
+		assertTrue( reopened.read( DFW, NOW ).isEmpty() );
+	}
+
+	@Test
+	void testRead_expiredEntryIsMissAndRemoved() throws IOException
+	{
+		DiskResponseCache cache = new DiskResponseCache( directory, MAX_AGE,
+				MAX_BYTES );
+		cache.write( OKC, "okc", NOW );
+
+		assertTrue( cache.read( OKC, NOW.plus( MAX_AGE ) ).isEmpty() );
+		assertEquals( 0, cache.size() );
+		assertEquals( 0, new DiskResponseCache( directory, MAX_AGE, MAX_BYTES )
+				.size() );
+	}
+
+	@Test
+	void testOpen_usesClockToDropExpiredEntries() throws IOException
+	{
+		new DiskResponseCache( directory, MAX_AGE, MAX_BYTES ).write( OKC,
+				"okc", NOW );
+
+		assertEquals( 1, new DiskResponseCache( directory, MAX_AGE, MAX_BYTES,
+				Clock.fixed( NOW.plus( MAX_AGE ).minusSeconds( 1 ),
+						ZoneOffset.UTC ) ).size() );
+		assertEquals( 0, new DiskResponseCache( directory, MAX_AGE, MAX_BYTES,
+				Clock.fixed( NOW.plus( MAX_AGE ), ZoneOffset.UTC ) ).size() );
+	}
+
+	@Test
+	void testWrite_overSizeLimitEvictsOldestFirst() throws IOException
+	{
+		DiskResponseCache cache = new DiskResponseCache( directory, MAX_AGE,
+				MAX_BYTES );
+		cache.write( OKC, "okc", NOW.minusSeconds( 10 ) );
+		long oneEntryBytes = cache.getTotalBytes();
+
+		DiskResponseCache small = new DiskResponseCache( directory, MAX_AGE,
+				oneEntryBytes + 10 );
+		small.write( DFW, "dfw", NOW );
+
+		assertTrue( small.read( OKC, NOW ).isEmpty() );
+		assertEquals( "dfw", small.read( DFW, NOW ).orElseThrow().getBody() );
+	}
+
+	@Test
+	void testWrite_replacesEarlierEntry() throws IOException
+	{
+		DiskResponseCache cache = new DiskResponseCache( directory, MAX_AGE,
+				MAX_BYTES );
+		cache.write( OKC, "old", NOW.minusSeconds( 60 ) );
+		cache.write( OKC, "new", NOW );
+
+		DiskResponseCache reopened = new DiskResponseCache( directory, MAX_AGE,
+				MAX_BYTES );
+		assertEquals( 1, reopened.size() );
+		assertEquals( "new", reopened.read( OKC, NOW ).orElseThrow()
+				.getBody() );
+	}
+
+	@Test
+	void testFetcher_warmCacheAvoidsDelegate()
+			throws IOException, InterruptedException
+	{
+		Clock clock = Clock.fixed( NOW, ZoneOffset.UTC );
+		NotamDataFetcher network = mock( NotamDataFetcher.class );
+		when( network.fetchByLocation( 35.39, -97.6, 50.0 ) ).thenReturn(
+				"{\"data\":{\"geojson\":[]}}" );
+		new DiskCachingNotamFetcher( network, new DiskResponseCache( directory,
+				MAX_AGE, MAX_BYTES ), clock ).fetchByLocation( 35.39, -97.6,
+						50 );
+
+		// A new process: fresh cache instance over the same directory, no network
+		NotamDataFetcher offline = mock( NotamDataFetcher.class );
+		DiskCachingNotamFetcher fetcher = new DiskCachingNotamFetcher( offline,
+				new DiskResponseCache( directory, MAX_AGE, MAX_BYTES ), clock );
+
+		assertEquals( "{\"data\":{\"geojson\":[]}}", fetcher.fetchByLocation(
+				35.39, -97.6, 50 ) );
+		verifyNoInteractions( offline );
+	}
+
+	@Test
+	void testFetcher_refresherRewritesEntriesCloseToMaxAge()
+			throws IOException, InterruptedException
+	{
+		Clock clock = Clock.fixed( NOW, ZoneOffset.UTC );
+		DiskResponseCache cache = new DiskResponseCache( directory, MAX_AGE,
+				MAX_BYTES );
+		cache.write( OKC, "old", NOW.minus( Duration.ofMinutes( 25 ) ) );
+		NotamDataFetcher network = mock( NotamDataFetcher.class );
+		when( network.fetchByIcao( "KOKC" ) ).thenReturn( "new" );
+		DiskCachingNotamFetcher fetcher = new DiskCachingNotamFetcher( network,
+				cache, clock );
+
+		// Five minutes left: served from disk when refreshing two minutes ahead
+		assertEquals( "old", fetcher.refresher( Duration.ofMinutes( 2 ) )
+				.fetchByIcao( "KOKC" ) );
+		verifyNoInteractions( network );
+
+		assertEquals( "new", fetcher.refresher( Duration.ofMinutes( 7 ) )
+				.fetchByIcao( "KOKC" ) );
+		DiskResponseCache.CachedResponse stored = new DiskResponseCache(
+				directory, MAX_AGE, MAX_BYTES ).read( OKC, NOW ).orElseThrow();
+		assertEquals( "new", stored.getBody() );
+		assertEquals( NOW.toEpochMilli(), stored.getFetchedAt().toEpochMilli() );
+	}
+
+	@Test
+	void testOpen_whileAnotherInstanceWrites_losesNoIndexRecords()
+			throws Exception
+	{
+		// Stand-ins for the warmer and the briefing tool sharing one directory
+		DiskResponseCache writer = new DiskResponseCache( directory, MAX_AGE,
+				MAX_BYTES );
+		Future<?> writes;
+		try (ExecutorService executor = Executors
+				.newVirtualThreadPerTaskExecutor()) {
+			writes = executor.submit( () -> {
+				for( int i = 0; i < 300; i++ ) {
+					writer.write( NotamQueryKey.forIcao( "K" + i ), "body "
+							+ i, NOW );
+				}
+				return null;
+			} );
+			while( !writes.isDone() ) {
+				// Evicts everything it finds, so every open rewrites the index
+				new DiskResponseCache( directory, MAX_AGE, 1 );
+			}
+		}
+		writes.get();
+
+		// Every body left on disk is still listed in the index
+		DiskResponseCache reopened = new DiskResponseCache( directory, MAX_AGE,
+				MAX_BYTES );
+		try (Stream<Path> files = Files.list( directory )) {
+			assertEquals( files.filter( file -> file.toString().endsWith(
+					".json.gz" ) ).count(), reopened.size() );
+		}
+	}
+}
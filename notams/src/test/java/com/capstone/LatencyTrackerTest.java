@@ -0,0 +1,44 @@
+package com.capstone;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyTrackerTest
+{
+	@Test
+	void testPercentile_nearestRank()
+	{
+		LatencyTracker tracker = new LatencyTracker( 100 );
+		for( int millis = 1; millis <= 100; millis++ ) {
+			tracker.record( Duration.ofMillis( millis ) );
+		}
+
+		assertEquals( Duration.ofMillis( 50 ), tracker.percentile( 0.5 ) );
+		assertEquals( Duration.ofMillis( 95 ), tracker.percentile( 0.95 ) );
+		assertEquals( Duration.ofMillis( 100 ), tracker.percentile( 1.0 ) );
+	}
+
+	@Test
+	void testRecord_fullWindow_dropsOldestSamples()
+	{
+		LatencyTracker tracker = new LatencyTracker( 3 );
+		tracker.record( Duration.ofSeconds( 30 ) );
+		tracker.record( Duration.ofMillis( 1 ) );
+		tracker.record( Duration.ofMillis( 2 ) );
+		tracker.record( Duration.ofMillis( 3 ) );
+
+		assertEquals( 3, tracker.size() );
+		assertEquals( Duration.ofMillis( 3 ), tracker.percentile( 1.0 ) );
+	}
+
+	@Test
+	void testPercentile_empty_returnsNull()
+	{
+		assertNull( new LatencyTracker( 10 ).percentile( 0.99 ) );
+		assertThrows( IllegalArgumentException.class,
+				() -> new LatencyTracker( 10 ).percentile( 0 ) );
+	}
+}
@@ -11,12 +11,20 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -95,6 +103,9 @@ class NmsNotamFetcherTest
 						.orElseThrow() );
 		assertEquals( "application/json",
 				dataRequest.headers().firstValue( "Accept" ).orElseThrow() );
+		assertEquals( "gzip, deflate",
+				dataRequest.headers().firstValue( "Accept-Encoding" )
+						.orElseThrow() );
 		assertEquals( "GEOJSON",
 				dataRequest.headers().firstValue( "nmsResponseFormat" )
 						.orElseThrow() );
@@ -335,4 +346,101 @@ class NmsNotamFetcherTest
 		assertEquals( URI.create( BASE_URL + "?location=KOKC" ),
 				requests.get( 2 ).uri() );
 	}
+
+	// streamByLocation
+
+	@Test
+	void testStreamByLocation_returnsUnreadBody()
+			throws IOException, InterruptedException
+	{
+		HttpResponse<String> mockTokenResponse = mock( HttpResponse.class );
+		when( mockTokenResponse.statusCode() ).thenReturn( 200 );
+		when( mockTokenResponse.body() ).thenReturn( TOKEN_RESPONSE );
+
+		HttpResponse<InputStream> mockStreamResponse = mock(
+				HttpResponse.class );
+		when( mockStreamResponse.statusCode() ).thenReturn( 200 );
+		when( mockStreamResponse.body() ).thenReturn( new ByteArrayInputStream(
+				"{\"items\":[]}".getBytes( StandardCharsets.UTF_8 ) ) );
+
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						mockTokenResponse ).thenReturn( mockStreamResponse );
+
+		try (InputStream body = fetcher.streamByLocation( 35.39, -97.6,
+				50 )) {
+			assertEquals( "{\"items\":[]}", new String( body.readAllBytes(),
+					StandardCharsets.UTF_8 ) );
+		}
+
+		ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(
+				HttpRequest.class );
+		verify( mockHttpClient, org.mockito.Mockito.times( 2 ) ).send(
+				captor.capture(), any( HttpResponse.BodyHandler.class ) );
+		assertEquals( URI.create( BASE_URL
+				+ "?latitude=35.39&longitude=-97.6&radius=50.0" ), captor
+						.getAllValues().get( 1 ).uri() );
+	}
+
+	@Test
+	void testStreamByLocation_serverError()
+			throws IOException, InterruptedException
+	{
+		HttpResponse<String> mockTokenResponse = mock( HttpResponse.class );
+		when( mockTokenResponse.statusCode() ).thenReturn( 200 );
+		when( mockTokenResponse.body() ).thenReturn( TOKEN_RESPONSE );
+
+		HttpResponse<InputStream> mockStreamResponse = mock(
+				HttpResponse.class );
+		when( mockStreamResponse.statusCode() ).thenReturn( 503 );
+		when( mockStreamResponse.headers() ).thenReturn( HttpHeaders.of( Map
+				.of( "Retry-After", List.of( "30" ) ), ( name,
+						value ) -> true ) );
+		when( mockStreamResponse.body() ).thenReturn( new ByteArrayInputStream(
+				"Service Unavailable".getBytes( StandardCharsets.UTF_8 ) ) );
+
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						mockTokenResponse ).thenReturn( mockStreamResponse );
+
+		NotamApiException ex = assertThrows( NotamApiException.class,
+				() -> fetcher.streamByLocation( 35.39, -97.6, 50 ) );
+
+		assertEquals( 503, ex.getStatusCode() );
+		assertTrue( ex.getMessage().contains( "Service Unavailable" ) );
+		assertEquals( Duration.ofSeconds( 30 ), ex.getRetryAfter()
+				.orElseThrow() );
+	}
+
+	// fetchByLocationAsync
+
+	@Test
+	void testFetchByLocationAsync_sendsWithBearerToken() throws Exception
+	{
+		HttpResponse<String> mockTokenResponse = mock( HttpResponse.class );
+		when( mockTokenResponse.statusCode() ).thenReturn( 200 );
+		when( mockTokenResponse.body() ).thenReturn( TOKEN_RESPONSE );
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						mockTokenResponse );
+
+		when( mockResponse.statusCode() ).thenReturn( 200 );
+		when( mockResponse.body() ).thenReturn( "{\"items\":[]}" );
+		when( mockHttpClient.sendAsync( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						CompletableFuture.completedFuture( mockResponse ) );
+
+		assertEquals( "{\"items\":[]}", fetcher.fetchByLocationAsync( 35.39,
+				-97.6, 50, Duration.ofSeconds( 5 ) ).get( 5,
+						TimeUnit.SECONDS ) );
+
+		ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(
+				HttpRequest.class );
+		verify( mockHttpClient ).sendAsync( captor.capture(),
+				any( HttpResponse.BodyHandler.class ) );
+		assertEquals( "Bearer test-token", captor.getValue().headers()
+				.firstValue( "Authorization" ).orElseThrow() );
+		assertEquals( Duration.ofSeconds( 5 ), captor.getValue().timeout()
+				.orElseThrow() );
+	}
 }
@@ -0,0 +1,57 @@
+package com.capstone;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotamDataFetcherTest
+{
+	@Test
+	void testFetchByIcaoAsync_default_runsBlockingCall() throws Exception
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+		when( fetcher.fetchByIcao( "KOKC" ) ).thenReturn( "{\"items\":[]}" );
+
+		assertEquals( "{\"items\":[]}", fetcher.fetchByIcaoAsync( "KOKC" ).get(
+				5, TimeUnit.SECONDS ) );
+	}
+
+	@Test
+	void testFetchByIcaoAsync_defaultDeadline_interruptsBlockingCall()
+			throws Exception
+	{
+		CountDownLatch interrupted = new CountDownLatch( 1 );
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+		when( fetcher.fetchByIcao( anyString() ) ).thenAnswer( invocation -> {
+			try {
+				Thread.sleep( 10_000 );
+			}
+			catch( InterruptedException e ) {
+				interrupted.countDown();
+				throw e;
+			}
+			return "late";
+		} );
+
+		CompletableFuture<String> result = fetcher.fetchByIcaoAsync( "KOKC",
+				Duration.ofMillis( 50 ) );
+
+		ExecutionException ex = assertThrows( ExecutionException.class,
+				() -> result.get( 5, TimeUnit.SECONDS ) );
+		assertInstanceOf( TimeoutException.class, ex.getCause() );
+		assertTrue( interrupted.await( 5, TimeUnit.SECONDS ) );
+	}
+}
@@ -17,9 +17,16 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -78,6 +85,8 @@ class NotamFetcherTest
 				request.headers().firstValue( "client_secret" ).orElseThrow() );
 		assertEquals( "application/json",
 				request.headers().firstValue( "Accept" ).orElseThrow() );
+		assertEquals( "gzip, deflate",
+				request.headers().firstValue( "Accept-Encoding" ).orElseThrow() );
 		assertEquals( TIMEOUT, request.timeout().orElseThrow() );
 	}
 
@@ -289,4 +298,259 @@ class NotamFetcherTest
 		String result2 = fetcher.fetchByLocation( -90.0, -180.0, 0.5 );
 		assertEquals( "{\"items\":[]}", result2 );
 	}
+
+	// fetchAllPages
+
+	@Test
+	void testFetchAllPagesByIcao_fetchesRemainingPagesInOrder()
+			throws IOException, InterruptedException
+	{
+		stubPages( 3 );
+
+		List<String> pages = fetcher.fetchAllPagesByIcao( "KOKC" );
+
+		assertEquals( List.of( pageBody( 1, 3 ), pageBody( 2, 3 ), pageBody(
+				3, 3 ) ), pages );
+		verify( mockHttpClient, times( 3 ) ).send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) );
+	}
+
+	@Test
+	void testFetchAllPagesByLocation_singlePage_sendsOneRequest()
+			throws IOException, InterruptedException
+	{
+		stubPages( 1 );
+
+		List<String> pages = fetcher.fetchAllPagesByLocation( 35.0, -97.0,
+				50 );
+
+		assertEquals( List.of( pageBody( 1, 1 ) ), pages );
+		verify( mockHttpClient ).send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) );
+	}
+
+	@Test
+	void testFetchAllPagesByIcao_stopsAtMaxPages()
+			throws IOException, InterruptedException
+	{
+		stubPages( NotamFetcher.DEFAULT_MAX_PAGES + 5 );
+
+		List<String> pages = fetcher.fetchAllPagesByIcao( "KOKC" );
+
+		assertEquals( NotamFetcher.DEFAULT_MAX_PAGES, pages.size() );
+		verify( mockHttpClient, times( NotamFetcher.DEFAULT_MAX_PAGES ) ).send(
+				any( HttpRequest.class ), any( HttpResponse.BodyHandler.class ) );
+	}
+
+	@Test
+	void testFetchAllPagesByIcao_laterPageFails_throwsApiException()
+			throws IOException, InterruptedException
+	{
+		HttpResponse<String> failed = mock( HttpResponse.class );
+		when( failed.statusCode() ).thenReturn( 500 );
+		when( failed.body() ).thenReturn( "Internal Server Error" );
+		when( mockResponse.statusCode() ).thenReturn( 200 );
+		when( mockResponse.body() ).thenReturn( pageBody( 1, 2 ) );
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						mockResponse ).thenReturn( failed );
+
+		NotamApiException ex = assertThrows( NotamApiException.class,
+				() -> fetcher.fetchAllPagesByIcao( "KOKC" ) );
+
+		assertEquals( 500, ex.getStatusCode() );
+	}
+
+	@Test
+	void testFetchByIcao_severalPages_mergesItemsOfEveryPage()
+			throws IOException, InterruptedException
+	{
+		stubPages( 3 );
+
+		String result = fetcher.fetchByIcao( "KOKC" );
+
+		assertEquals( "{\"pageNum\":1,\"totalPages\":3,\"items\":[{\"page\":1},{\"page\":2},{\"page\":3}]}",
+				result );
+		verify( mockHttpClient, times( 3 ) ).send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) );
+	}
+
+	@Test
+	void testFetchByLocation_maxPagesSet_stopsAtMaxPages()
+			throws IOException, InterruptedException
+	{
+		fetcher = new NotamFetcher( CLIENT_ID, CLIENT_SECRET, BASE_URL,
+				mockHttpClient, 2 );
+		stubPages( 5 );
+
+		String result = fetcher.fetchByLocation( 35.0, -97.0, 50 );
+
+		assertEquals( "{\"pageNum\":1,\"totalPages\":5,\"items\":[{\"page\":1},{\"page\":2}]}",
+				result );
+		verify( mockHttpClient, times( 2 ) ).send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) );
+	}
+
+	@Test
+	void testConstructor_maxPagesBelowOne_throws()
+	{
+		assertThrows( IllegalArgumentException.class, () -> new NotamFetcher(
+				CLIENT_ID, CLIENT_SECRET, BASE_URL, mockHttpClient, 0 ) );
+	}
+
+	@Test
+	void testMergePages_pageWithoutItems_keepsOtherItems() throws IOException
+	{
+		assertEquals( "{\"totalCount\":3,\"items\":[{\"a\":[1]},{\"b\":2}]}",
+				NotamFetcher.mergePages( List.of(
+						"{\"totalCount\":3,\"items\":[{\"a\":[1]}]}",
+						"{\"totalCount\":3}", "{\"items\":[{\"b\":2}]}" ) ) );
+		assertEquals( "{\"items\":[]}", NotamFetcher.mergePages( List.of(
+				"{\"items\":[]}" ) ) );
+	}
+
+	@Test
+	void testReadTotalPages_fallsBackToTotalCount() throws IOException
+	{
+		assertEquals( 3, NotamFetcher.readTotalPages(
+				"{\"items\":[{\"totalPages\":9}],\"totalCount\":2001}" ) );
+		assertEquals( 1, NotamFetcher.readTotalPages( "{\"items\":[]}" ) );
+	}
+
+	// Answers each request with the page named by its pageNum parameter
+	private void stubPages( int totalPages )
+			throws IOException, InterruptedException
+	{
+		when( mockHttpClient.send( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenAnswer(
+						invocation -> {
+							HttpRequest request = invocation.getArgument( 0 );
+							String query = request.uri().getQuery();
+							int pageNum = Integer.parseInt( query.substring(
+									query.indexOf( "pageNum=" ) + 8 ) );
+							HttpResponse<String> response = mock(
+									HttpResponse.class );
+							when( response.statusCode() ).thenReturn( 200 );
+							when( response.body() ).thenReturn( pageBody(
+									pageNum, totalPages ) );
+							return response;
+						} );
+	}
+
+	private static String pageBody( int pageNum, int totalPages )
+	{
+		return "{\"pageNum\":" + pageNum + ",\"totalPages\":" + totalPages
+				+ ",\"items\":[{\"page\":" + pageNum + "}]}";
+	}
+
+	// async
+
+	@Test
+	void testFetchByIcaoAsync_returnsBody() throws Exception
+	{
+		when( mockResponse.statusCode() ).thenReturn( 200 );
+		when( mockResponse.body() ).thenReturn( "{\"items\":[]}" );
+		when( mockHttpClient.sendAsync( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						CompletableFuture.completedFuture( mockResponse ) );
+
+		assertEquals( "{\"items\":[]}", fetcher.fetchByIcaoAsync( "kokc" )
+				.get( 5, TimeUnit.SECONDS ) );
+
+		ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(
+				HttpRequest.class );
+		verify( mockHttpClient ).sendAsync( captor.capture(),
+				any( HttpResponse.BodyHandler.class ) );
+		assertEquals( URI.create( BASE_URL
+				+ "?responseFormat=geoJson&icaoLocation=KOKC&pageSize=1000&pageNum=1" ),
+				captor.getValue().uri() );
+		assertEquals( TIMEOUT, captor.getValue().timeout().orElseThrow() );
+	}
+
+	@Test
+	void testFetchByIcaoAsync_severalPages_mergesItemsOfEveryPage()
+			throws Exception
+	{
+		when( mockHttpClient.sendAsync( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenAnswer(
+						invocation -> {
+							HttpRequest request = invocation.getArgument( 0 );
+							String query = request.uri().getQuery();
+							int pageNum = Integer.parseInt( query.substring(
+									query.indexOf( "pageNum=" ) + 8 ) );
+							HttpResponse<String> response = mock(
+									HttpResponse.class );
+							when( response.statusCode() ).thenReturn( 200 );
+							when( response.body() ).thenReturn( pageBody(
+									pageNum, 2 ) );
+							return CompletableFuture.completedFuture( response );
+						} );
+
+		assertEquals( "{\"pageNum\":1,\"totalPages\":2,\"items\":[{\"page\":1},{\"page\":2}]}",
+				fetcher.fetchByIcaoAsync( "KOKC" ).get( 5, TimeUnit.SECONDS ) );
+		verify( mockHttpClient, times( 2 ) ).sendAsync( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) );
+	}
+
+	@Test
+	void testFetchByLocationAsync_serverError_failsWithApiException()
+	{
+		when( mockResponse.statusCode() ).thenReturn( 500 );
+		when( mockResponse.body() ).thenReturn( "Internal Server Error" );
+		when( mockHttpClient.sendAsync( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						CompletableFuture.completedFuture( mockResponse ) );
+
+		ExecutionException ex = assertThrows( ExecutionException.class,
+				() -> fetcher.fetchByLocationAsync( 35.0, -97.0, 50 ).get( 5,
+						TimeUnit.SECONDS ) );
+
+		NotamApiException cause = assertInstanceOf( NotamApiException.class,
+				ex.getCause() );
+		assertEquals( 500, cause.getStatusCode() );
+	}
+
+	@Test
+	void testFetchByIcaoAsync_deadlinePassed_timesOutAndCancelsExchange()
+	{
+		CompletableFuture<HttpResponse<String>> exchange = new CompletableFuture<>();
+		when( mockHttpClient.sendAsync( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn( exchange );
+
+		CompletableFuture<String> result = fetcher.fetchByIcaoAsync( "KOKC",
+				Duration.ofMillis( 50 ) );
+
+		ExecutionException ex = assertThrows( ExecutionException.class,
+				() -> result.get( 5, TimeUnit.SECONDS ) );
+		assertInstanceOf( TimeoutException.class, ex.getCause() );
+		assertTrue( exchange.isCancelled() );
+
+		ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(
+				HttpRequest.class );
+		verify( mockHttpClient ).sendAsync( captor.capture(),
+				any( HttpResponse.BodyHandler.class ) );
+		assertEquals( Duration.ofMillis( 50 ), captor.getValue().timeout()
+				.orElseThrow() );
+	}
+
+	@Test
+	void testFetchByIcaoAsync_cancelled_cancelsExchange()
+	{
+		CompletableFuture<HttpResponse<String>> exchange = new CompletableFuture<>();
+		when( mockHttpClient.sendAsync( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn( exchange );
+
+		fetcher.fetchByIcaoAsync( "KOKC" ).cancel( true );
+
+		assertTrue( exchange.isCancelled() );
+	}
+
+	@Test
+	void testFetchByIcaoAsync_invalidCode_failsWithoutRequest()
+	{
+		ExecutionException ex = assertThrows( ExecutionException.class,
+				() -> fetcher.fetchByIcaoAsync( "K!" ).get() );
+
+		assertInstanceOf( IllegalArgumentException.class, ex.getCause() );
+	}
 }
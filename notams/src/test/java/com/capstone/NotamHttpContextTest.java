@@ -0,0 +1,90 @@
+package com.capstone;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NotamHttpContextTest
+{
+	@Mock
+	private HttpClient mockHttpClient;
+
+	@Mock
+	private HttpResponse<Void> mockResponse;
+
+	private NotamHttpContext context( Map<String, String> env )
+	{
+		return new NotamHttpContext( env::get, mockHttpClient );
+	}
+
+	@Test
+	void testRequire_missingKey_throws()
+	{
+		NotamHttpContext context = context( Map.of( "CLIENT_ID", " " ) );
+
+		assertThrows( IllegalArgumentException.class,
+				() -> context.require( "CLIENT_ID" ) );
+		assertThrows( IllegalArgumentException.class,
+				() -> context.require( "CLIENT_SECRET" ) );
+		assertNull( context.get( "CLIENT_SECRET" ) );
+	}
+
+	@Test
+	void testWarmUpNms_sendsOneHeadPerOrigin() throws Exception
+	{
+		when( mockHttpClient.sendAsync( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						CompletableFuture.completedFuture( mockResponse ) );
+		NotamHttpContext context = context( Map.of( "NMS_NOTAM_BASE_URL",
+				"https://api.example.com:8443/nmsapi/v1/notams",
+				"NMS_AUTH_URL", "https://auth.example.com/v1/auth/token" ) );
+
+		context.warmUpNms().get( 5, TimeUnit.SECONDS );
+		// Already warmed, nothing is sent again
+		context.warmUp( "https://api.example.com:8443/other" ).get( 5,
+				TimeUnit.SECONDS );
+
+		ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(
+				HttpRequest.class );
+		verify( mockHttpClient, times( 2 ) ).sendAsync( captor.capture(),
+				any( HttpResponse.BodyHandler.class ) );
+		List<HttpRequest> requests = captor.getAllValues();
+		assertEquals( URI.create( "https://api.example.com:8443/" ), requests
+				.get( 0 ).uri() );
+		assertEquals( URI.create( "https://auth.example.com/" ), requests.get(
+				1 ).uri() );
+		assertEquals( "HEAD", requests.get( 0 ).method() );
+	}
+
+	@Test
+	void testWarmUp_failure_completesNormally() throws Exception
+	{
+		when( mockHttpClient.sendAsync( any( HttpRequest.class ),
+				any( HttpResponse.BodyHandler.class ) ) ).thenReturn(
+						CompletableFuture.failedFuture( new HttpTimeoutException(
+								"timed out" ) ) );
+		NotamHttpContext context = context( Map.of() );
+
+		assertNull( context.warmUp( "https://api.example.com/notams",
+				"not a url" ).get( 5, TimeUnit.SECONDS ) );
+	}
+}
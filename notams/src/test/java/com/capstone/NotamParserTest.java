@@ -4,8 +4,13 @@ import com.capstone.models.Notam;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -93,6 +98,15 @@ class NotamParserTest
         assertTrue( n.getPurpose().isEmpty() );
         assertTrue( n.getScope().isEmpty() );
 
+        // The rest of the Q-line is decoded into numbers
+        assertEquals( "000", n.getMinimumFL().orElseThrow() );
+        assertEquals( "999", n.getMaximumFL().orElseThrow() );
+        assertEquals( 0, n.getMinimumFlightLevel().orElseThrow() );
+        assertEquals( 999, n.getMaximumFlightLevel().orElseThrow() );
+        assertEquals( 35.4, n.getLatitude().orElseThrow(), 1e-9 );
+        assertEquals( -97.6, n.getLongitude().orElseThrow(), 1e-9 );
+        assertEquals( 5, n.getRadiusNm().orElseThrow() );
+
         assertTrue( n.getFormattedText().isPresent() );
     }
 
@@ -614,4 +628,123 @@ class NotamParserTest
         List<Notam> result = parser.parseNotams( json );
         assertTrue( result.isEmpty() ); // effectiveStart is a required field. If it cannot be parsed as a valid Instant, the Notam is skipped.
     }
-}
\ No newline at end of file
+
+    @Test
+    void reusesKnownNotamInsteadOfBuildingAgain()
+    {
+        String json = """
+                {
+                  "items": [
+                    {
+                      "properties": {
+                        "coreNOTAMData": {
+                          "notam": {
+                            "id": "NOTAM_1_77677009",
+                            "number": "A1441/25",
+                            "type": "N",
+                            "issued": "2025-08-19T17:55:00.000Z",
+                            "effectiveStart": "2025-08-19T17:47:00.000Z",
+                            "effectiveEnd": "2026-04-30T22:00:00.000Z",
+                            "text": "OKC APRON FIXED BASE OPR WEST RAMP CLSD"
+                          }
+                        }
+                      }
+                    }
+                  ]
+                }
+                """;
+
+        Notam known = parser.parseNotams( json ).get( 0 );
+        List<Notam> result = parser.parseNotams( json, Map.of(
+                "NOTAM_1_77677009", known ) );
+
+        assertEquals( 1, result.size() );
+        assertSame( known, result.get( 0 ) );
+    }
+
+    @Test
+    void rebuildsKnownNotamWhenLastUpdatedChanged()
+    {
+        String template = """
+                {
+                  "items": [
+                    {
+                      "properties": {
+                        "coreNOTAMData": {
+                          "notam": {
+                            "id": "NOTAM_1_77677009",
+                            "number": "A1441/25",
+                            "type": "N",
+                            "issued": "2025-08-19T17:55:00.000Z",
+                            "effectiveStart": "2025-08-19T17:47:00.000Z",
+                            "effectiveEnd": "2026-04-30T22:00:00.000Z",
+                            "lastUpdated": "%s",
+                            "text": "%s"
+                          }
+                        }
+                      }
+                    }
+                  ]
+                }
+                """;
+
+        Notam known = parser.parseNotams( template.formatted(
+                "2025-08-19T17:56:00.000Z", "WEST RAMP CLSD" ) ).get( 0 );
+        List<Notam> result = parser.parseNotams( template.formatted(
+                "2025-08-20T09:00:00.000Z", "WEST RAMP OPEN" ), Map.of(
+                        "NOTAM_1_77677009", known ) );
+
+        assertEquals( 1, result.size() );
+        assertNotSame( known, result.get( 0 ) );
+        assertEquals( "WEST RAMP OPEN", result.get( 0 ).getText() );
+        assertEquals( Instant.parse( "2025-08-20T09:00:00.000Z" ), result.get(
+                0 ).getLastUpdated().orElseThrow() );
+    }
+
+    @Test
+    void streamingParseMatchesStringParse() throws IOException
+    {
+        String feature = """
+                    {
+                      "type": "Feature",
+                      "geometry": { "type": "Point", "coordinates": [ -97.6, 35.4 ] },
+                      "properties": {
+                        "coreNOTAMData": {
+                          "notam": {
+                            "id": "%s",
+                            "number": "A1441/25",
+                            "type": "N",
+                            "issued": "2025-08-19T17:55:00.000Z",
+                            "effectiveStart": "2025-08-19T17:47:00.000Z",
+                            "effectiveEnd": "2026-04-30T22:00:00.000Z",
+                            "text": "OKC APRON FIXED BASE OPR WEST RAMP CLSD"
+                          }
+                        }
+                      }
+                    }
+                """;
+        // Fields before and after the items array must be skipped, not parsed
+        String json = "{ \"pageSize\": 2, \"meta\": { \"items\": [ 1 ] }, \"items\": [ "
+                + feature.formatted( "NOTAM_1" ) + ", 42, " + feature.formatted(
+                        "NOTAM_2" ) + " ], \"totalCount\": 2 }";
+
+        List<Notam> streamed = new ArrayList<>();
+        parser.parseNotams( new ByteArrayInputStream( json.getBytes(
+                StandardCharsets.UTF_8 ) ), Map.of(), streamed::add );
+
+        assertEquals( List.of( "NOTAM_1", "NOTAM_2" ), streamed.stream().map(
+                Notam::getId ).toList() );
+        assertEquals( parser.parseNotams( json ), streamed );
+    }
+
+    @Test
+    void streamingParseMissingItemsYieldsNothing() throws IOException
+    {
+        List<Notam> streamed = new ArrayList<>();
+        parser.parseNotams( new ByteArrayInputStream( "{\"totalCount\":0}"
+                .getBytes( StandardCharsets.UTF_8 ) ), Map.of(),
+                streamed::add );
+
+        assertTrue( streamed.isEmpty() );
+    }
+}
@@ -0,0 +1,179 @@
+package com.capstone;
+
+import com.capstone.models.Notam;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotamSnapshotLoaderTest
+{
+	@TempDir
+	Path directory;
+
+	@Test
+	void testLoad_nmsSnapshot_matchesStringParser()
+			throws IOException, InterruptedException
+	{
+		String json = buildNmsSnapshot( 500 );
+		Path snapshot = write( json );
+		Map<String, Notam> loaded = new ConcurrentHashMap<>();
+
+		long count = new NotamSnapshotLoader( new NMSNotamParser(), 4 ).load(
+				snapshot, notam -> loaded.put( notam.getId(), notam ) );
+
+		List<Notam> expected = new NMSNotamParser().parseNotams( json );
+		assertEquals( 500, expected.size() );
+		assertEquals( expected.size(), count );
+		assertEquals( expected.size(), loaded.size() );
+		for( Notam notam : expected ) {
+			Notam actual = loaded.get( notam.getId() );
+			assertNotNull( actual, notam.getId() );
+			assertEquals( notam.getText(), actual.getText() );
+			assertEquals( notam.getSelectionCode(), actual.getSelectionCode() );
+		}
+	}
+
+	@Test
+	void testLoad_faaSnapshot_readsItemsArray()
+			throws IOException, InterruptedException
+	{
+		Path snapshot = write( "{\"totalCount\":2,\"items\":[" + feature( 1 )
+				+ "," + feature( 2 ) + "]}" );
+		Map<String, Notam> loaded = new ConcurrentHashMap<>();
+
+		long count = new NotamSnapshotLoader( new NotamParser(), 2 ).load(
+				snapshot, notam -> loaded.put( notam.getId(), notam ) );
+
+		assertEquals( 2, count );
+		assertEquals( "RWY 17/35 CLSD {WIP} \"2\"", loaded.get( "id-2" )
+				.getText() );
+	}
+
+	@Test
+	void testLoad_knownUnchangedNotam_isReused()
+			throws IOException, InterruptedException
+	{
+		String json = buildNmsSnapshot( 3 );
+		Notam known = new NMSNotamParser().parseNotams( json ).get( 1 );
+		Map<String, Notam> loaded = new ConcurrentHashMap<>();
+
+		new NotamSnapshotLoader( new NMSNotamParser(), 2 ).load( write( json ),
+				Map.of( known.getId(), known ), notam -> loaded.put( notam
+						.getId(), notam ) );
+
+		assertSame( known, loaded.get( known.getId() ) );
+	}
+
+	@Test
+	void testLoad_skippedItemsAndNonObjects_notCounted()
+			throws IOException, InterruptedException
+	{
+		Path snapshot = write( "{\"data\":{\"geojson\":[" + feature( 1 )
+				+ ",null,42,{\"properties\":{}}," + feature( 2 ) + "]}}" );
+
+		long count = new NotamSnapshotLoader( new NMSNotamParser(), 2 ).load(
+				snapshot, notam -> {
+				} );
+
+		assertEquals( 2, count );
+	}
+
+	@Test
+	void testLoad_missingItemsArray_loadsNothing()
+			throws IOException, InterruptedException
+	{
+		long count = new NotamSnapshotLoader( new NMSNotamParser() ).load(
+				write( "{\"data\":{}}" ), notam -> fail( "unexpected NOTAM" ) );
+
+		assertEquals( 0, count );
+	}
+
+	@Test
+	void testLoad_invalidJson_throwsIOException()
+	{
+		Path snapshot = assertDoesNotThrow( () -> write(
+				"{\"data\":{\"geojson\":[" + feature( 1 ) + ",{\"properties\":" ) );
+
+		assertThrows( IOException.class, () -> new NotamSnapshotLoader(
+				new NMSNotamParser(), 2 ).load( snapshot, notam -> {
+				} ) );
+	}
+
+	@Test
+	void testLoad_consumerFailure_isRethrown()
+	{
+		Path snapshot = assertDoesNotThrow( () -> write( buildNmsSnapshot(
+				2000 ) ) );
+
+		IllegalStateException e = assertThrows( IllegalStateException.class,
+				() -> new NotamSnapshotLoader( new NMSNotamParser(), 2 ).load(
+						snapshot, notam -> {
+							throw new IllegalStateException( "store full" );
+						} ) );
+		assertEquals( "store full", e.getMessage() );
+	}
+
+	@Test
+	void testMappedFile_readsAcrossWindows() throws IOException
+	{
+		String text = "0123456789abcdefghijklmnopqrstuvwxyz";
+		MappedFile file = MappedFile.open( write( text ), 7 );
+
+		assertEquals( text.length(), file.size() );
+		assertEquals( "56789ab", new String( file.read( 5, 7 ),
+				StandardCharsets.UTF_8 ) );
+		assertEquals( "xyz", new String( file.read( 33, 3 ),
+				StandardCharsets.UTF_8 ) );
+		assertThrows( IndexOutOfBoundsException.class, () -> file.read( 34,
+				3 ) );
+		try (InputStream in = file.newInputStream()) {
+			assertEquals( text, new String( in.readAllBytes(),
+					StandardCharsets.UTF_8 ) );
+		}
+	}
+
+	private Path write( String json ) throws IOException
+	{
+		Path snapshot = Files.createTempFile( directory, "snapshot", ".json" );
+		Files.writeString( snapshot, json, StandardCharsets.UTF_8 );
+		return snapshot;
+	}
+
+	private static String buildNmsSnapshot( int size )
+	{
+		StringBuilder json = new StringBuilder(
+				"{\"status\":\"Success\",\"data\":{\"geojson\":[" );
+		for( int i = 1; i <= size; i++ ) {
+			if( i > 1 ) {
+				json.append( ",\n" );
+			}
+			json.append( feature( i ) );
+		}
+		return json.append( "]},\"trailer\":[1,2,3]}" ).toString();
+	}
+
+	// Braces, quotes and non-ASCII text inside strings must not confuse the item ranges
+	private static String feature( int n )
+	{
+		return "{\"type\":\"Feature\",\"properties\":{\"coreNOTAMData\":{"
+				+ "\"notam\":{\"id\":\"id-" + n + "\",\"number\":\"A" + n
+				+ "/26\",\"type\":\"N\",\"issued\":\"2026-02-01T00:00:00Z\","
+				+ "\"effectiveStart\":\"2026-02-01T01:00:00Z\","
+				+ "\"effectiveEnd\":\"PERM\",\"text\":\"RWY 17/35 CLSD {WIP} \\\""
+				+ n + "\\\"\"},\"notamTranslation\":[{\"type\":\"ICAO\","
+				+ "\"formattedText\":\"A" + n + "/26 NOTAMN\\nQ) KZFW/QMRLC/IV/NBO/A/000/999/3524N09736W005\\n"
+				+ "E) PISTE FERMÉE ✈\"}]}},\"geometry\":{\"type\":\"Point\","
+				+ "\"coordinates\":[-97.6,35.4]}}";
+	}
+}
@@ -0,0 +1,239 @@
+package com.capstone;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QLineDecoderTest
+{
+	@Test
+	void testDecode_fullQLine_allFields()
+	{
+		QLineDecoder decoder = new QLineDecoder();
+
+		assertTrue( decoder.decode(
+				"A0001/26 NOTAMN\nQ) KZFW/QMRLC/IV/NBO/A/000/999/3524N09736W005\nE) RWY CLSD" ) );
+
+		assertEquals( "KZFW", decoder.getAffectedFIR() );
+		assertEquals( "QMRLC", decoder.getSelectionCode() );
+		assertEquals( "IV", decoder.getTraffic() );
+		assertEquals( "NBO", decoder.getPurpose() );
+		assertEquals( "A", decoder.getScope() );
+		assertEquals( "Q) KZFW/QMRLC/IV/NBO/A/000/999/3524N09736W005", decoder
+				.getQLine() );
+	}
+
+	@Test
+	void testDecode_fullQLine_numericTail()
+	{
+		QLineDecoder decoder = new QLineDecoder();
+
+		decoder.decode( "Q) KZNY/QWULW/IV/BO/W/050/180/4038N07346W005" );
+
+		assertEquals( "050", decoder.getMinimumFL() );
+		assertEquals( "180", decoder.getMaximumFL() );
+		assertEquals( 50, decoder.getMinimumFlightLevel() );
+		assertEquals( 180, decoder.getMaximumFlightLevel() );
+		assertEquals( 40 + 38 / 60.0, decoder.getLatitude(), 1e-9 );
+		assertEquals( -(73 + 46 / 60.0), decoder.getLongitude(), 1e-9 );
+		assertEquals( 5, decoder.getRadiusNm() );
+	}
+
+	@Test
+	void testDecode_positionWithSeconds_southEast()
+	{
+		QLineDecoder decoder = new QLineDecoder();
+
+		decoder.decode( "Q) YMMM/QMRLC/IV/NBO/A/000/999/334648S1510E005" );
+		assertFalse( decoder.hasPosition() );
+
+		decoder.decode( "Q) YMMM/QMRLC/IV/NBO/A/000/999/334630S1511030E999" );
+
+		assertEquals( -(33 + 46 / 60.0 + 30 / 3600.0), decoder.getLatitude(),
+				1e-9 );
+		assertEquals( 151 + 10 / 60.0 + 30 / 3600.0, decoder.getLongitude(),
+				1e-9 );
+		assertEquals( 999, decoder.getRadiusNm() );
+	}
+
+	@Test
+	void testDecode_malformedTail_unknown()
+	{
+		for( String qLine : List.of( "Q) KZFW/QMRLC/IV/NBO/A/FL1/ABC/9999N09736W005",
+				"Q) KZFW/QMRLC/IV/NBO/A/0001/ /3560N09736W005",
+				"Q) KZFW/QMRLC/IV/NBO/A///3524N18136W005",
+				"Q) KZFW/QMRLC/IV/NBO/A///3524N09736W0050",
+				"Q) KZFW/QMRLC/IV/NBO/A///3524X09736W005",
+				"Q) KZFW/QMRLC/IV/NBO/A///352N09736W005",
+				"Q) KZFW/QMRLC/IV/NBO/A///3524N09736" ) ) {
+			QLineDecoder decoder = new QLineDecoder();
+
+			decoder.decode( qLine );
+
+			assertEquals( QLineDecoder.UNKNOWN, decoder.getMinimumFlightLevel(),
+					qLine );
+			assertEquals( QLineDecoder.UNKNOWN, decoder.getMaximumFlightLevel(),
+					qLine );
+			assertFalse( decoder.hasPosition(), qLine );
+			assertTrue( Double.isNaN( decoder.getLongitude() ), qLine );
+			assertEquals( QLineDecoder.UNKNOWN, decoder.getRadiusNm(), qLine );
+		}
+	}
+
+	@Test
+	void testDecode_laterMalformedPosition_keepsEarlierPosition()
+	{
+		QLineDecoder decoder = new QLineDecoder();
+
+		decoder.decode( "Q) KZFW/QMRLC/IV/NBO/A/000/999/3524N09736W005" );
+		decoder.decode( "Q) KZFW/QMRLC/IV/NBO/A/000/999/9924N09736W005" );
+
+		assertTrue( decoder.hasPosition() );
+		assertEquals( 35.4, decoder.getLatitude(), 1e-9 );
+		assertEquals( -97.6, decoder.getLongitude(), 1e-9 );
+		assertEquals( 5, decoder.getRadiusNm() );
+	}
+
+	@Test
+	void testDecodePositionIfMissing_noQLinePosition_usesCoordinates()
+	{
+		QLineDecoder decoder = new QLineDecoder();
+
+		decoder.decode( "Q) KZFW/QMRLC/IV/NBO/A/000/999" );
+		decoder.decodePositionIfMissing( " 3524N09736W ", "005" );
+
+		assertEquals( 35.4, decoder.getLatitude(), 1e-9 );
+		assertEquals( -97.6, decoder.getLongitude(), 1e-9 );
+		assertEquals( 5, decoder.getRadiusNm() );
+	}
+
+	@Test
+	void testDecodePositionIfMissing_qLinePosition_isKept()
+	{
+		QLineDecoder decoder = new QLineDecoder();
+
+		decoder.decode( "Q) KZFW/QMRLC/IV/NBO/A/000/999/3524N09736W005" );
+		decoder.decodePositionIfMissing( "0000N00000E", "999" );
+
+		assertEquals( 35.4, decoder.getLatitude(), 1e-9 );
+		assertEquals( 5, decoder.getRadiusNm() );
+	}
+
+	@Test
+	void testReset_forgetsEarlierFields()
+	{
+		QLineDecoder decoder = new QLineDecoder();
+		decoder.decode( "Q) KZFW/QMRLC/IV/NBO/A/000/999/3524N09736W005" );
+
+		decoder.reset();
+		decoder.decode( "Q) KZAB/QOBCE" );
+
+		assertEquals( "KZAB", decoder.getAffectedFIR() );
+		assertEquals( "QOBCE", decoder.getSelectionCode() );
+		assertNull( decoder.getTraffic() );
+		assertNull( decoder.getScope() );
+		assertNull( decoder.getMinimumFL() );
+		assertEquals( QLineDecoder.UNKNOWN, decoder.getMaximumFlightLevel() );
+		assertFalse( decoder.hasPosition() );
+		assertEquals( QLineDecoder.UNKNOWN, decoder.getRadiusNm() );
+
+		decoder.reset();
+		assertNull( decoder.getQLine() );
+		assertNull( decoder.getAffectedFIR() );
+	}
+
+	@Test
+	void testDecode_noQLine_keepsEarlierFields()
+	{
+		QLineDecoder decoder = new QLineDecoder();
+
+		assertTrue( decoder.decode( "Q) KZAB/QOBCE/IV/M/AE" ) );
+		assertFalse( decoder.decode( "E) NO Q LINE" ) );
+
+		assertEquals( "KZAB", decoder.getAffectedFIR() );
+		assertEquals( "AE", decoder.getScope() );
+	}
+
+	@Test
+	void testDecode_shortQLine_onlyReplacesPresentFields()
+	{
+		QLineDecoder decoder = new QLineDecoder();
+
+		decoder.decode( "Q) KZAB/QOBCE/IV/M/AE" );
+		decoder.decode( "Q) KZFW/QMRLC//" );
+
+		assertEquals( "KZFW", decoder.getAffectedFIR() );
+		assertEquals( "QMRLC", decoder.getSelectionCode() );
+		assertEquals( "IV", decoder.getTraffic() );
+		assertEquals( "AE", decoder.getScope() );
+	}
+
+	@Test
+	void testDecode_emptyAndUnusualTexts_matchSplit()
+	{
+		for( String text : List.of( "", "\n", "Q)", " Q) ", "Q)/", "Q)//A",
+				"Q) KZFW / QMRLC /IV/NBO/A", "\tQ)KZFW/QMRLC/IV/NBO/A\r\nE) X",
+				"E) FIRST\n  Q) KZFW/QMRLC/IV\nQ) KZAB/QOBCE/IV/M/AE",
+				"Q) KZFW/QMRLC//NBO/", "XQ) KZFW/QMRLC", "Q) /// /" ) ) {
+			assertDecodesLikeSplit( List.of( text ) );
+		}
+	}
+
+	@Test
+	void testDecode_randomTexts_matchSplit()
+	{
+		Random random = new Random( 24 );
+		char[] alphabet = { 'Q', ')', '/', ' ', '\n', '\r', '\t', 'A', 'Z' };
+		for( int i = 0; i < 20000; i++ ) {
+			String[] texts = new String[1 + random.nextInt( 3 )];
+			for( int t = 0; t < texts.length; t++ ) {
+				StringBuilder text = new StringBuilder();
+				int length = random.nextInt( 24 );
+				for( int c = 0; c < length; c++ ) {
+					text.append( alphabet[random.nextInt( alphabet.length )] );
+				}
+				texts[t] = text.toString();
+			}
+			assertDecodesLikeSplit( Arrays.asList( texts ) );
+		}
+	}
+
+	// Decodes the texts in order, as the parsers do for several ICAO translations
+	private static void assertDecodesLikeSplit( List<String> texts )
+	{
+		QLineDecoder decoder = new QLineDecoder();
+		String[] expected = new String[5];
+		for( String text : texts ) {
+			assertEquals( splitDecode( text, expected ), decoder.decode( text ),
+					text );
+		}
+		assertArrayEquals( expected, new String[] { decoder.getAffectedFIR(),
+				decoder.getSelectionCode(), decoder.getTraffic(), decoder
+						.getPurpose(), decoder.getScope() }, texts.toString() );
+	}
+
+	// The split based decoding the parsers used before QLineDecoder
+	private static boolean splitDecode( String formattedText, String[] fields )
+	{
+		String qLine = null;
+		for( String line : formattedText.split( "\n" ) ) {
+			if( line.trim().startsWith( "Q)" ) ) {
+				qLine = line.trim();
+				break;
+			}
+		}
+		if( qLine == null ) {
+			return false;
+		}
+		String[] qParts = qLine.split( "/" );
+		fields[0] = qParts[0].trim().substring( 2 ).trim();
+		for( int i = 1; i < 5 && i < qParts.length; i++ ) {
+			fields[i] = qParts[i];
+		}
+		return true;
+	}
+}
@@ -0,0 +1,136 @@
+package com.capstone;
+
+import com.capstone.exceptions.NotamApiException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecordReplayNotamFetcherTest
+{
+	@TempDir
+	Path tempDir;
+
+	private Path record( NotamDataFetcher network, FetchCalls calls )
+			throws Exception
+	{
+		Path archive = tempDir.resolve( "run.rec" );
+		try (RecordingNotamFetcher recorder = new RecordingNotamFetcher(
+				network, archive )) {
+			calls.run( recorder );
+		}
+		return archive;
+	}
+
+	@Test
+	void replay_servesRecordedBodiesByQuery() throws Exception
+	{
+		String large = "{\"items\":[\"" + "x".repeat( 100_000 ) + "\"]}";
+		NotamDataFetcher network = mock( NotamDataFetcher.class );
+		when( network.fetchByIcao( "KOKC" ) ).thenReturn( "kokc-1", "kokc-2" );
+		when( network.fetchByLocation( anyDouble(), anyDouble(), anyDouble() ) )
+				.thenReturn( large );
+
+		Path archive = record( network, fetcher -> {
+			fetcher.fetchByIcao( "KOKC" );
+			fetcher.fetchByIcao( "KOKC" );
+			fetcher.fetchByLocation( 35.3912, -97.6007, 49.2 );
+		} );
+		ReplayNotamFetcher replay = new ReplayNotamFetcher( archive,
+				ReplayNotamFetcher.Timing.NONE );
+
+		assertEquals( 2, replay.getQueryCount() );
+		assertEquals( "kokc-1", replay.fetchByIcao( "kokc" ) );
+		assertEquals( "kokc-2", replay.fetchByIcao( "KOKC" ) );
+		// Recordings of a query are served again from the start once used up
+		assertEquals( "kokc-1", replay.fetchByIcao( "KOKC" ) );
+		assertEquals( large, replay.fetchByLocation( 35.39, -97.60, 50 ) );
+		try (InputStream in = replay.streamByLocation( 35.39, -97.60, 50 )) {
+			assertEquals( large, new String( in.readAllBytes(),
+					StandardCharsets.UTF_8 ) );
+		}
+	}
+
+	@Test
+	void replay_rethrowsRecordedApiErrors() throws Exception
+	{
+		NotamDataFetcher network = mock( NotamDataFetcher.class );
+		when( network.fetchByIcao( "KOKC" ) ).thenThrow( new NotamApiException(
+				503, "busy", Duration.ofSeconds( 3 ) ) );
+
+		Path archive = record( network, fetcher -> assertThrows(
+				NotamApiException.class, () -> fetcher.fetchByIcao( "KOKC" ) ) );
+		ReplayNotamFetcher replay = new ReplayNotamFetcher( archive,
+				ReplayNotamFetcher.Timing.NONE );
+
+		NotamApiException ex = assertThrows( NotamApiException.class,
+				() -> replay.fetchByIcao( "KOKC" ) );
+		assertEquals( 503, ex.getStatusCode() );
+		assertEquals( "busy", ex.getMessage() );
+		assertEquals( Duration.ofSeconds( 3 ), ex.getRetryAfter()
+				.orElseThrow() );
+	}
+
+	@Test
+	void replay_originalTiming_waitsRecordedLatency() throws Exception
+	{
+		NotamDataFetcher network = mock( NotamDataFetcher.class );
+		when( network.fetchByIcao( "KOKC" ) ).thenAnswer( invocation -> {
+			Thread.sleep( 100 );
+			return "slow";
+		} );
+		Path archive = record( network, fetcher -> fetcher.fetchByIcao(
+				"KOKC" ) );
+
+		ReplayNotamFetcher original = new ReplayNotamFetcher( archive,
+				ReplayNotamFetcher.Timing.ORIGINAL );
+		long startNanos = System.nanoTime();
+		assertEquals( "slow", original.fetchByIcao( "KOKC" ) );
+
+		assertTrue( System.nanoTime() - startNanos >= Duration.ofMillis( 100 )
+				.toNanos() );
+	}
+
+	@Test
+	void replay_unrecordedQuery_throws() throws Exception
+	{
+		Path archive = record( mock( NotamDataFetcher.class ), fetcher -> {
+		} );
+		ReplayNotamFetcher replay = new ReplayNotamFetcher( archive,
+				ReplayNotamFetcher.Timing.NONE );
+
+		assertThrows( IOException.class, () -> replay.fetchByIcao( "KOKC" ) );
+	}
+
+	@Test
+	void replay_notARecording_throws() throws Exception
+	{
+		Path archive = tempDir.resolve( "other.gz" );
+		try (OutputStream out = new GZIPOutputStream( Files
+				.newOutputStream( archive ) )) {
+			out.write( "not a recording".getBytes( StandardCharsets.UTF_8 ) );
+		}
+
+		assertThrows( IOException.class, () -> new ReplayNotamFetcher( archive,
+				ReplayNotamFetcher.Timing.NONE ) );
+	}
+
+	@FunctionalInterface
+	private interface FetchCalls
+	{
+		void run( NotamDataFetcher fetcher ) throws Exception;
+	}
+}
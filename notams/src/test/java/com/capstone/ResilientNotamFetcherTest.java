@@ -0,0 +1,165 @@
+package com.capstone;
+
+import com.capstone.exceptions.NotamApiException;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResilientNotamFetcherTest
+{
+	private static final Duration BACKOFF = Duration.ofMillis( 1 );
+	private static final Duration NO_HEDGE = Duration.ofSeconds( 30 );
+
+	@Test
+	void testFetch_transientFailure_isRetried()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new IOException(
+				"Connection reset" ) ).thenThrow( new NotamApiException( 502,
+						"Bad Gateway" ) ).thenReturn( "{\"items\":[]}" );
+		ResilientNotamFetcher fetcher = new ResilientNotamFetcher( delegate, 3,
+				BACKOFF, BACKOFF, 0.95, NO_HEDGE );
+
+		assertEquals( "{\"items\":[]}", fetcher.fetchByIcao( "KOKC" ) );
+		verify( delegate, times( 3 ) ).fetchByIcao( "KOKC" );
+	}
+
+	@Test
+	void testFetch_clientError_isNotRetried()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new NotamApiException(
+				404, "Not Found" ) );
+		ResilientNotamFetcher fetcher = new ResilientNotamFetcher( delegate, 3,
+				BACKOFF, BACKOFF, 0.95, NO_HEDGE );
+
+		NotamApiException ex = assertThrows( NotamApiException.class,
+				() -> fetcher.fetchByIcao( "KOKC" ) );
+
+		assertEquals( 404, ex.getStatusCode() );
+		verify( delegate ).fetchByIcao( "KOKC" );
+	}
+
+	@Test
+	void testFetch_throttledWithoutRetryThrottled_isNotRetried()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new NotamApiException(
+				503, "Service Unavailable" ) );
+		ResilientNotamFetcher fetcher = new ResilientNotamFetcher( delegate, 3,
+				BACKOFF, BACKOFF, 0.95, NO_HEDGE, false );
+
+		NotamApiException ex = assertThrows( NotamApiException.class,
+				() -> fetcher.fetchByIcao( "KOKC" ) );
+
+		assertEquals( 503, ex.getStatusCode() );
+		verify( delegate ).fetchByIcao( "KOKC" );
+	}
+
+	@Test
+	void testFetch_serverErrorWithoutRetryThrottled_isRetried()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( "KOKC" ) ).thenThrow( new NotamApiException(
+				500, "Internal Server Error" ) ).thenReturn( "{\"items\":[]}" );
+		ResilientNotamFetcher fetcher = new ResilientNotamFetcher( delegate, 3,
+				BACKOFF, BACKOFF, 0.95, NO_HEDGE, false );
+
+		assertEquals( "{\"items\":[]}", fetcher.fetchByIcao( "KOKC" ) );
+		verify( delegate, times( 2 ) ).fetchByIcao( "KOKC" );
+	}
+
+	@Test
+	void testFetch_allAttemptsFail_rethrowsLastFailure()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByLocation( 35.0, -97.0, 50 ) ).thenThrow(
+				new IOException( "Connection refused" ) );
+		ResilientNotamFetcher fetcher = new ResilientNotamFetcher( delegate, 2,
+				BACKOFF, BACKOFF, 0.95, NO_HEDGE );
+
+		assertThrows( IOException.class, () -> fetcher.fetchByLocation( 35.0,
+				-97.0, 50 ) );
+		verify( delegate, times( 2 ) ).fetchByLocation( 35.0, -97.0, 50 );
+	}
+
+	@Test
+	void testFetch_slowAttempt_isHedgedAndCancelled() throws Exception
+	{
+		AtomicInteger calls = new AtomicInteger();
+		CountDownLatch slowCancelled = new CountDownLatch( 1 );
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( anyString() ) ).thenAnswer( invocation -> {
+			if( calls.incrementAndGet() == 1 ) {
+				try {
+					Thread.sleep( 10_000 );
+				}
+				catch( InterruptedException e ) {
+					slowCancelled.countDown();
+					throw e;
+				}
+				return "slow";
+			}
+			return "fast";
+		} );
+		ResilientNotamFetcher fetcher = new ResilientNotamFetcher( delegate, 1,
+				BACKOFF, BACKOFF, 0.95, Duration.ofMillis( 50 ) );
+
+		assertEquals( "fast", fetcher.fetchByIcao( "KOKC" ) );
+		assertEquals( 2, calls.get() );
+		assertTrue( slowCancelled.await( 5, TimeUnit.SECONDS ) );
+	}
+
+	@Test
+	void testFetch_hedgeFailsButPrimaryAnswers_returnsPrimary()
+			throws Exception
+	{
+		AtomicInteger calls = new AtomicInteger();
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( anyString() ) ).thenAnswer( invocation -> {
+			if( calls.incrementAndGet() == 1 ) {
+				Thread.sleep( 200 );
+				return "primary";
+			}
+			throw new IOException( "Connection reset" );
+		} );
+		ResilientNotamFetcher fetcher = new ResilientNotamFetcher( delegate, 1,
+				BACKOFF, BACKOFF, 0.95, Duration.ofMillis( 20 ) );
+
+		assertEquals( "primary", fetcher.fetchByIcao( "KOKC" ) );
+	}
+
+	@Test
+	void testGetHedgeDelay_followsRecentLatencies()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByIcao( anyString() ) ).thenReturn( "{}" );
+		ResilientNotamFetcher fetcher = new ResilientNotamFetcher( delegate, 1,
+				BACKOFF, BACKOFF, 0.95, NO_HEDGE );
+
+		assertEquals( NO_HEDGE, fetcher.getHedgeDelay() );
+		for( int i = 0; i < 20; i++ ) {
+			fetcher.fetchByIcao( "KOKC" );
+		}
+
+		assertTrue( fetcher.getHedgeDelay().compareTo( NO_HEDGE ) < 0 );
+	}
+}
@@ -0,0 +1,208 @@
+package com.capstone;
+
+import com.capstone.models.Notam;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingNmsNotamParserTest
+{
+    private final NMSNotamParser treeParser = new NMSNotamParser();
+    private final StreamingNmsNotamParser streamingParser = new StreamingNmsNotamParser();
+
+    // Each case is parsed by both parsers and must give the same NOTAMs
+    private static final List<String> ITEMS = List.of(
+            // Complete item with an ICAO translation
+            item( notam( "\"id\":\"id-1\",\"number\":\"A0001/26\",\"type\":\"N\","
+                    + "\"issued\":\"2026-02-01T00:00:00Z\",\"effectiveStart\":\"2026-02-01T01:00:00Z\","
+                    + "\"effectiveEnd\":\"2026-02-02T01:00:00Z\",\"text\":\"RWY 17/35 CLSD\","
+                    + "\"lastUpdated\":\"2026-02-01T00:00:00Z\",\"location\":\"OKC\","
+                    + "\"classification\":\"DOM\",\"icaoLocation\":\"KOKC\",\"coordinates\":\"3524N09736W\","
+                    + "\"radius\":\"005\",\"series\":\"A\",\"extra\":{\"nested\":[1,2,{\"a\":null}]}" ),
+                    "[{\"type\":\"LOCAL_FORMAT\",\"simpleText\":\"!OKC 02/001\"},"
+                            + "{\"type\":\"ICAO\",\"formattedText\":\"A0001/26 NOTAMN\\nQ) KZFW/QMRLC/IV/NBO/A/000/999/3524N09736W005\\nE) RWY CLSD\"}]" ),
+            // Type after formattedText, and PERM end
+            item( notam( "\"id\":\"id-2\",\"number\":\"A0002/26\",\"type\":\"N\","
+                    + "\"issued\":\"2026-02-01T00:00:00Z\",\"effectiveStart\":\"2026-02-01T01:00:00Z\","
+                    + "\"effectiveEnd\":\"PERM\",\"text\":\"TWY A CLSD\"" ),
+                    "[{\"formattedText\":\"Q) KZFW/QMXLC/IV/M/A\\nE) TWY\",\"type\":\"ICAO\"}]" ),
+            // Two ICAO translations, the second without a Q-line
+            item( notam( "\"id\":\"id-3\",\"number\":\"A0003/26\",\"type\":\"N\","
+                    + "\"issued\":\"2026-02-01T00:00:00Z\",\"effectiveStart\":\"2026-02-01T01:00:00Z\","
+                    + "\"effectiveEnd\":\"2026-02-02T01:00:00Z\",\"text\":\"OBST\"" ),
+                    "[{\"type\":\"ICAO\",\"formattedText\":\"Q) KZAB/QOBCE/IV/M/AE/000/005\"},"
+                            + "{\"type\":\"ICAO\",\"formattedText\":\"E) NO Q LINE\"}]" ),
+            // Short Q-line
+            item( notam( "\"id\":\"id-4\",\"number\":\"A0004/26\",\"type\":\"N\","
+                    + "\"issued\":\"2026-02-01T00:00:00Z\",\"effectiveStart\":\"2026-02-01T01:00:00Z\","
+                    + "\"effectiveEnd\":\"2026-02-02T01:00:00Z\",\"text\":\"SHORT\"" ),
+                    "[{\"type\":\"ICAO\",\"formattedText\":\"Q) KZFW/QMRLC\"}]" ),
+            // Numbers, booleans and nulls where text is expected
+            item( notam( "\"id\":12345678901,\"number\":1.5e2,\"type\":true,"
+                    + "\"issued\":\"2026-02-01T00:00:00Z\",\"effectiveStart\":\"2026-02-01T01:00:00Z\","
+                    + "\"effectiveEnd\":\"2026-02-02T01:00:00Z\",\"text\":null,"
+                    + "\"radius\":5,\"coordinates\":{\"lat\":1},\"series\":[\"A\"]" ),
+                    "{\"first\":{\"type\":\"ICAO\",\"formattedText\":\"Q) KZFW/QFALC/IV/NBO/A\"}}" ),
+            // Missing required fields and a bad timestamp
+            item( notam( "\"number\":\"A0006/26\",\"type\":\"N\",\"issued\":\"not a date\","
+                    + "\"effectiveStart\":\"2026-02-01T01:00:00Z\",\"text\":\"NO ID\"" ), "[]" ),
+            // Not objects at all
+            "null", "42", "\"text\"", "[]", "{}",
+            "{\"properties\":[]}",
+            "{\"properties\":{\"coreNOTAMData\":\"none\"}}",
+            // Translations that are not objects
+            item( notam( "\"id\":\"id-7\",\"number\":\"A0007/26\",\"type\":\"N\","
+                    + "\"issued\":\"2026-02-01T00:00:00Z\",\"effectiveStart\":\"2026-02-01T01:00:00Z\","
+                    + "\"effectiveEnd\":\"2026-02-02T01:00:00Z\",\"text\":\"X\"" ),
+                    "[null,\"ICAO\",[{\"type\":\"ICAO\"}],{\"type\":\"ICAO\"}]" ) );
+
+    @Test
+    void parseNotams_string_matchesTreeParser()
+    {
+        String json = response( String.join( ",", ITEMS ) );
+
+        assertEquals( describe( treeParser.parseNotams( json ) ), describe(
+                streamingParser.parseNotams( json ) ) );
+        assertEquals( 6, streamingParser.parseNotams( json ).size() );
+    }
+
+    @Test
+    void parseNotams_eachItemAlone_matchesTreeParser()
+    {
+        for( String item : ITEMS ) {
+            String json = response( item );
+            assertEquals( describe( treeParser.parseNotams( json ) ), describe(
+                    streamingParser.parseNotams( json ) ), item );
+        }
+    }
+
+    @Test
+    void parseNotams_stream_matchesTreeParser() throws IOException
+    {
+        String json = response( String.join( ",", ITEMS ) );
+        List<Notam> streamed = new ArrayList<>();
+
+        streamingParser.parseNotams( new ByteArrayInputStream( json.getBytes(
+                StandardCharsets.UTF_8 ) ), Map.of(), streamed::add );
+
+        assertEquals( describe( treeParser.parseNotams( json ) ), describe(
+                streamed ) );
+    }
+
+    @Test
+    void parseNotams_sharedQLineDecoder_keepsItemsApart()
+    {
+        // Item id-4 has a short Q-line, so it must not keep fields of id-3 before it
+        List<String> alone = new ArrayList<>();
+        for( String item : ITEMS ) {
+            alone.addAll( describe( treeParser.parseNotams( response( item ) ) ) );
+        }
+        String json = response( String.join( ",", ITEMS ) );
+
+        assertEquals( alone, describe( treeParser.parseNotams( json ) ) );
+        assertEquals( alone, describe( streamingParser.parseNotams( json ) ) );
+    }
+
+    @Test
+    void parseItem_jsonNode_matchesTreeParser() throws IOException
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        for( String item : ITEMS ) {
+            assertEquals( describe( treeParser.parseItem( mapper.readTree( item ),
+                    Map.of() ) ), describe( streamingParser.parseItem( mapper
+                            .readTree( item ), Map.of() ) ), item );
+        }
+    }
+
+    @Test
+    void parseNotams_knownUnchangedNotam_reusesInstance()
+    {
+        String json = response( String.join( ",", ITEMS ) );
+        Notam known = treeParser.parseNotams( json ).get( 0 );
+
+        List<Notam> result = streamingParser.parseNotams( json, Map.of( known
+                .getId(), known ) );
+
+        assertSame( known, result.get( 0 ) );
+    }
+
+    @Test
+    void parseNotams_unusualShapes_matchTreeParser()
+    {
+        String item = ITEMS.get( 0 );
+        for( String json : List.of( "", "[]", "{}", "{\"data\":[]}",
+                "{\"data\":{\"geojson\":\"none\"}}",
+                "{\"data\":{\"geojson\":{\"a\":" + item + ",\"b\":" + item + "}}}",
+                "{\"status\":\"Success\",\"data\":{\"other\":[{}],\"geojson\":[" + item
+                        + "]},\"after\":{\"x\":[1,2]}}" ) ) {
+            assertEquals( describe( treeParser.parseNotams( json ) ), describe(
+                    streamingParser.parseNotams( json ) ), json );
+        }
+    }
+
+    @Test
+    void parseNotams_malformedJson_throwsRuntimeException()
+    {
+        for( String json : List.of( "{\"data\":{\"geojson\":[" + ITEMS.get( 0 ),
+                "{\"data\":{\"geojson\":[]},\"after\":[1,}" ) ) {
+            assertThrows( RuntimeException.class, () -> treeParser.parseNotams(
+                    json ), json );
+            RuntimeException e = assertThrows( RuntimeException.class,
+                    () -> streamingParser.parseNotams( json ), json );
+            assertTrue( e.getMessage().startsWith( "Failed to parse NOTAM JSON" ) );
+        }
+    }
+
+    private static String notam( String fields )
+    {
+        return "{" + fields + "}";
+    }
+
+    private static String item( String notam, String translations )
+    {
+        return "{\"type\":\"Feature\",\"properties\":{\"coreNOTAMData\":{\"notamEvent\":{\"scenario\":\"6000\"},"
+                + "\"notam\":" + notam + ",\"notamTranslation\":" + translations
+                + "}},\"geometry\":{\"type\":\"Point\",\"coordinates\":[-97.6,35.4]}}";
+    }
+
+    private static String response( String items )
+    {
+        return "{\"status\":\"Success\",\"data\":{\"geojson\":[" + items + "]}}";
+    }
+
+    // Every value a NOTAM exposes, so two lists compare equal only if all fields match
+    private static List<String> describe( List<Notam> notams )
+    {
+        List<String> described = new ArrayList<>();
+        for( Notam notam : notams ) {
+            described.add( describe( notam ) );
+        }
+        return described;
+    }
+
+    private static String describe( Notam notam )
+    {
+        if( notam == null ) {
+            return "null";
+        }
+        return List.of( notam.getId(), notam.getNumber(), notam.getType(),
+                notam.getIssued(), notam.getEffectiveStart(), notam
+                        .getEffectiveEnd(), notam.getText(), notam.getLastUpdated(),
+                notam.getSeries(), notam.getLocation(), notam.getClassification(),
+                notam.getIcaoLocation(), notam.getCoordinates(), notam.getRadius(),
+                notam.getAffectedFIR(), notam.getSelectionCode(), notam
+                        .getTraffic(), notam.getPurpose(), notam.getScope(), notam
+                                .getFormattedText(), notam.getMinimumFL(), notam
+                                        .getMaximumFL(), notam.getMinimumFlightLevel(),
+                notam.getMaximumFlightLevel(), notam.getLatitude(), notam
+                        .getLongitude(), notam.getRadiusNm() ).toString();
+    }
+}
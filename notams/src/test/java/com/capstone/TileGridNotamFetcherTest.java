@@ -0,0 +1,196 @@
+package com.capstone;
+
+import com.capstone.models.Notam;
+import com.capstone.standin.StandInNotamServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TileGridNotamFetcherTest
+{
+	private StandInNotamServer server;
+	private NotamDataFetcher network;
+
+	@BeforeEach
+	void setUp() throws Exception
+	{
+		server = StandInNotamServer.start();
+		HttpClient httpClient = HttpClient.newHttpClient();
+		network = new NmsNotamFetcher( new BearerTokenManager( "id", "secret",
+				server.getAuthUrl(), httpClient ), server.getNmsBaseUrl(),
+				httpClient );
+	}
+
+	@AfterEach
+	void tearDown()
+	{
+		server.close();
+	}
+
+	@Test
+	void nearbyQueries_areAnsweredFromCachedTiles() throws Exception
+	{
+		TileGridNotamFetcher fetcher = new TileGridNotamFetcher(
+				new CachingNotamFetcher( network ) );
+
+		fetcher.fetchByLocation( 35.39, -97.60, 40 );
+		long requestsAfterFirst = server.getNotamRequestCount();
+		// About a mile away: a different query, but the same tiles
+		fetcher.fetchByLocation( 35.40, -97.62, 40 );
+
+		assertTrue( requestsAfterFirst > 0 );
+		assertEquals( requestsAfterFirst, server.getNotamRequestCount() );
+	}
+
+	@Test
+	void fetchByLocation_returnsSameNotamsAsDirectQuery() throws Exception
+	{
+		TileGridNotamFetcher fetcher = new TileGridNotamFetcher( network );
+		NMSNotamParser parser = new NMSNotamParser();
+
+		List<Notam> tiled = parser.parseNotams( fetcher.fetchByLocation( 35.39,
+				-97.60, 60 ) );
+		List<Notam> direct = parser.parseNotams( network.fetchByLocation( 35.39,
+				-97.60, 60 ) );
+
+		Set<String> tiledIds = ids( tiled );
+		assertEquals( tiled.size(), tiledIds.size() );
+		// Tiles only add NOTAMs close to the circle edge, never lose one inside it
+		assertTrue( tiledIds.containsAll( ids( direct ) ) );
+		assertTrue( tiled.size() <= direct.size() * 2 );
+	}
+
+	@Test
+	void fetchByLocation_dropsNotamsOutsideCircle() throws Exception
+	{
+		NotamDataFetcher tiles = mock( NotamDataFetcher.class );
+		when( tiles.fetchByLocation( anyDouble(), anyDouble(), anyDouble() ) )
+				.thenReturn( "{\"items\":[" + feature( "near", "3524N09736W",
+						"005" ) + "," + feature( "far", "3700N09000W", "005" )
+						+ "," + feature( "wide", "3700N09000W", "999" ) + ","
+						+ feature( "unknown", "", "" ) + "],\"totalCount\":4}" );
+		TileGridNotamFetcher fetcher = new TileGridNotamFetcher( tiles,
+				new TileGrid( 2 ), 2 );
+
+		String merged = fetcher.fetchByLocation( 35.39, -97.60, 10 );
+
+		assertTrue( merged.contains( "\"near\"" ) );
+		assertFalse( merged.contains( "\"far\"" ) );
+		assertTrue( merged.contains( "\"wide\"" ) );
+		assertTrue( merged.contains( "\"unknown\"" ) );
+		assertTrue( merged.contains( "\"totalCount\":3" ) );
+	}
+
+	@Test
+	void fetchByLocation_nmsShape_keepsEnvelopeAndMergesTiles() throws Exception
+	{
+		NotamDataFetcher tiles = mock( NotamDataFetcher.class );
+		when( tiles.fetchByLocation( anyDouble(), anyDouble(), anyDouble() ) )
+				.thenReturn( "{\"status\":\"Success\",\"data\":{\"geojson\":["
+						+ feature( "near", "3524N09736W", "005" )
+						+ "],\"source\":\"NMS\"}}" );
+		TileGridNotamFetcher fetcher = new TileGridNotamFetcher( tiles );
+
+		String merged = fetcher.fetchByLocation( 35.5, -97.5, 60 );
+
+		assertEquals( "{\"status\":\"Success\",\"data\":{\"geojson\":["
+				+ feature( "near", "3524N09736W", "005" )
+				+ "],\"source\":\"NMS\"}}", merged );
+	}
+
+	@Test
+	void fetchByLocation_geometryPoint_isUsedWithoutCoordinates()
+			throws Exception
+	{
+		NotamDataFetcher tiles = mock( NotamDataFetcher.class );
+		when( tiles.fetchByLocation( anyDouble(), anyDouble(), anyDouble() ) )
+				.thenReturn( "{\"data\":{\"geojson\":[" + point( "near", -97.6,
+						35.4 ) + "," + point( "far", -90.0, 37.0 ) + "]}}" );
+		TileGridNotamFetcher fetcher = new TileGridNotamFetcher( tiles,
+				new TileGrid( 2 ), 2 );
+
+		String merged = fetcher.fetchByLocation( 35.39, -97.60, 10 );
+
+		assertTrue( merged.contains( "\"near\"" ) );
+		assertFalse( merged.contains( "\"far\"" ) );
+	}
+
+	@Test
+	void fetchByLocation_failedTile_cancelsOtherTiles() throws Exception
+	{
+		TileGrid grid = new TileGrid( TileGrid.DEFAULT_TILE_DEGREES );
+		List<TileGrid.Tile> tiles = grid.tilesCovering( 35.39, -97.60, 60 );
+		assertTrue( tiles.size() > 1 );
+		TileGrid.Tile first = tiles.get( 0 );
+		NotamDataFetcher delegate = mock( NotamDataFetcher.class );
+		when( delegate.fetchByLocation( anyDouble(), anyDouble(), anyDouble() ) )
+				.thenAnswer( invocation -> {
+					if( (double) invocation.getArgument( 0 ) == first
+							.getLatitude() && (double) invocation.getArgument(
+									1 ) == first.getLongitude() ) {
+						throw new IOException( "reset" );
+					}
+					Thread.sleep( TimeUnit.MINUTES.toMillis( 1 ) );
+					return "{}";
+				} );
+		TileGridNotamFetcher fetcher = new TileGridNotamFetcher( delegate, grid,
+				tiles.size() );
+
+		long start = System.nanoTime();
+		assertThrows( IOException.class, () -> fetcher.fetchByLocation( 35.39,
+				-97.60, 60 ) );
+
+		// The sleeping tiles were interrupted rather than waited out
+		assertTrue( TimeUnit.NANOSECONDS.toSeconds( System.nanoTime()
+				- start ) < 10 );
+	}
+
+	@Test
+	void fetchByIcao_isPassedThrough() throws Exception
+	{
+		NotamDataFetcher tiles = mock( NotamDataFetcher.class );
+		when( tiles.fetchByIcao( "KOKC" ) ).thenReturn( "{}" );
+
+		assertEquals( "{}", new TileGridNotamFetcher( tiles ).fetchByIcao(
+				"KOKC" ) );
+		verify( tiles, never() ).fetchByLocation( anyDouble(), anyDouble(),
+				anyDouble() );
+	}
+
+	private static String feature( String id, String coordinates, String radius )
+	{
+		return "{\"properties\":{\"coreNOTAMData\":{\"notam\":{\"id\":\"" + id
+				+ "\",\"coordinates\":\"" + coordinates + "\",\"radius\":\""
+				+ radius + "\"}}}}";
+	}
+
+	private static String point( String id, double longitude, double latitude )
+	{
+		return "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":["
+				+ longitude + "," + latitude
+				+ "]},\"properties\":{\"coreNOTAMData\":{\"notam\":{\"id\":\""
+				+ id + "\"}}}}";
+	}
+
+	private static Set<String> ids( List<Notam> notams )
+	{
+		Set<String> ids = new HashSet<>();
+		notams.forEach( notam -> ids.add( notam.getId() ) );
+		return ids;
+	}
+}
@@ -0,0 +1,117 @@
+package com.capstone;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+
+import com.capstone.services.FlightPathCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileGridTest
+{
+	private final TileGrid grid = new TileGrid( TileGrid.DEFAULT_TILE_DEGREES );
+
+	@Test
+	void tilesCovering_nearbyQueries_shareTiles()
+	{
+		List<String> first = describe( grid.tilesCovering( 35.39, -97.60,
+				25 ) );
+		List<String> second = describe( grid.tilesCovering( 35.40, -97.61,
+				25 ) );
+
+		assertEquals( first, second );
+		assertTrue( first.size() <= 4 );
+	}
+
+	@Test
+	void tilesCovering_everyPointOfCircle_isInsideSomeTileCircle()
+	{
+		double latitude = 47.3;
+		double longitude = -122.2;
+		double radiusNm = 100;
+		List<TileGrid.Tile> tiles = grid.tilesCovering( latitude, longitude,
+				radiusNm );
+
+		for( int bearing = 0; bearing < 360; bearing += 15 ) {
+			for( double fraction : new double[] { 0, 0.5, 1 } ) {
+				Point2D point = offset( latitude, longitude, bearing, radiusNm
+						* fraction );
+				assertTrue( tiles.stream().anyMatch( tile -> FlightPathCalculator
+						.haversineDistance( point, new Point2D.Double( tile
+								.getLatitude(), tile.getLongitude() ) ) <= tile
+										.getRadiusNm() ), "Uncovered: "
+												+ point );
+			}
+		}
+		assertTrue( tiles.stream().allMatch(
+				tile -> tile.getRadiusNm() <= NotamDataFetcher.MAX_RADIUS_NM ) );
+	}
+
+	@Test
+	void tilesCovering_nearPole_splitsTilesInsteadOfCapping()
+	{
+		// With 2 degree tiles the top rows would need circles of about 104 NM
+		TileGrid wideGrid = new TileGrid( 2 );
+		for( double latitude : new double[] { 88.6, -89.9 } ) {
+			double longitude = 10;
+			double radiusNm = 50;
+			List<TileGrid.Tile> tiles = wideGrid.tilesCovering( latitude,
+					longitude, radiusNm );
+
+			for( int bearing = 0; bearing < 360; bearing += 10 ) {
+				for( double fraction : new double[] { 0, 0.5, 1 } ) {
+					Point2D point = offset( latitude, longitude, bearing,
+							radiusNm * fraction );
+					assertTrue( tiles.stream().anyMatch(
+							tile -> FlightPathCalculator.haversineDistance( point,
+									new Point2D.Double( tile.getLatitude(), tile
+											.getLongitude() ) ) <= tile
+													.getRadiusNm() ),
+							"Uncovered: " + point );
+				}
+			}
+			assertTrue( tiles.stream().allMatch(
+					tile -> tile.getRadiusNm() <= NotamQueryKey.MAX_COVERED_RADIUS_NM ) );
+		}
+	}
+
+	@Test
+	void tilesCovering_antimeridian_wrapsAround()
+	{
+		List<TileGrid.Tile> tiles = grid.tilesCovering( 51.9, 179.9, 30 );
+
+		assertTrue( tiles.stream().anyMatch( tile -> tile.getLongitude() > 0 ) );
+		assertTrue( tiles.stream().anyMatch( tile -> tile.getLongitude() < 0 ) );
+	}
+
+	@Test
+	void constructor_tooLargeTiles_throws()
+	{
+		assertThrows( IllegalArgumentException.class, () -> new TileGrid( 5 ) );
+	}
+
+	private static List<String> describe( List<TileGrid.Tile> tiles )
+	{
+		return tiles.stream().map( TileGrid.Tile::toString ).toList();
+	}
+
+	// Point reached by travelling distanceNm from the start on the given bearing
+	private static Point2D offset( double latitude,
+								   double longitude,
+								   double bearingDegrees,
+								   double distanceNm )
+	{
+		double angular = distanceNm / 3440.065;
+		double lat1 = Math.toRadians( latitude );
+		double bearing = Math.toRadians( bearingDegrees );
+		double lat2 = Math.asin( Math.sin( lat1 ) * Math.cos( angular ) + Math
+				.cos( lat1 ) * Math.sin( angular ) * Math.cos( bearing ) );
+		double lon2 = Math.toRadians( longitude ) + Math.atan2( Math.sin(
+				bearing ) * Math.sin( angular ) * Math.cos( lat1 ), Math.cos(
+						angular ) - Math.sin( lat1 ) * Math.sin( lat2 ) );
+		return new Point2D.Double( Math.toDegrees( lat2 ), Math.toDegrees(
+				lon2 ) );
+	}
+}
@@ -0,0 +1,168 @@
+package com.capstone.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.capstone.NMSNotamParser;
+import com.capstone.NotamDataFetcher;
+import com.capstone.exceptions.NotamApiException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchIcaoNotamServiceTest
+{
+	@Test
+	public void fetchByIcaos_duplicateCodes_fetchedOnceInOrder() throws IOException,
+																  InterruptedException
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+		when( fetcher.fetchByIcao( "KOKC" ) ).thenReturn( buildResponse(
+				"id-1", "id-shared" ) );
+		when( fetcher.fetchByIcao( "KTUL" ) ).thenReturn( buildResponse(
+				"id-2", "id-shared" ) );
+
+		Map<String, BatchIcaoNotamService.Result> results = new BatchIcaoNotamService(
+				fetcher ).fetchByIcaos( List.of( "kokc", "KTUL", " KOKC " ) );
+
+		assertEquals( List.of( "KOKC", "KTUL" ), List.copyOf( results
+				.keySet() ) );
+		assertEquals( "id-1", results.get( "KOKC" ).getNotams().get( 0 )
+				.getId() );
+		assertEquals( "id-2", results.get( "KTUL" ).getNotams().get( 0 )
+				.getId() );
+		// A NOTAM listed at both airports is parsed once
+		assertSame( results.get( "KOKC" ).getNotams().get( 1 ), results.get(
+				"KTUL" ).getNotams().get( 1 ) );
+		verify( fetcher, times( 1 ) ).fetchByIcao( "KOKC" );
+	}
+
+	@Test
+	public void fetchByIcaos_oneAirportFails_othersStillReturned() throws IOException,
+																   InterruptedException
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+		when( fetcher.fetchByIcao( "KOKC" ) ).thenReturn( buildResponse(
+				"id-1" ) );
+		when( fetcher.fetchByIcao( "KTUL" ) ).thenThrow( new NotamApiException(
+				503, "unavailable" ) );
+
+		Map<String, BatchIcaoNotamService.Result> results = new BatchIcaoNotamService(
+				fetcher ).fetchByIcaos( List.of( "KOKC", "KTUL", "K!" ) );
+
+		assertTrue( results.get( "KOKC" ).isSuccess() );
+		assertFalse( results.get( "KTUL" ).isSuccess() );
+		assertTrue( results.get( "KTUL" ).getNotams().isEmpty() );
+		assertInstanceOf( NotamApiException.class, results.get( "KTUL" )
+				.getError().orElseThrow() );
+		assertFalse( results.get( "K!" ).isSuccess() );
+	}
+
+	@Test
+	public void fetchByIcaos_manyAirports_boundedConcurrency() throws IOException,
+																InterruptedException
+	{
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		CountDownLatch bothStarted = new CountDownLatch( 2 );
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+		when( fetcher.fetchByIcao( anyString() ) ).thenAnswer( invocation -> {
+			maxInFlight.accumulateAndGet( inFlight.incrementAndGet(),
+					Math::max );
+			bothStarted.countDown();
+			bothStarted.await( 5, TimeUnit.SECONDS );
+			inFlight.decrementAndGet();
+			return buildResponse( "id-" + invocation.getArgument( 0 ) );
+		} );
+
+		Map<String, BatchIcaoNotamService.Result> results = new BatchIcaoNotamService(
+				fetcher, new NMSNotamParser(), 2 ).fetchByIcaos( List.of( "KAAA",
+						"KBBB", "KCCC", "KDDD", "KEEE" ) );
+
+		assertEquals( 5, results.size() );
+		assertTrue( results.values().stream().allMatch(
+				BatchIcaoNotamService.Result::isSuccess ) );
+		assertEquals( 2, maxInFlight.get() );
+	}
+
+	@Test
+	public void fetchByIcaos_interrupted_cancelsRunningRequests()
+			throws IOException, InterruptedException
+	{
+		CountDownLatch started = new CountDownLatch( 2 );
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+		when( fetcher.fetchByIcao( anyString() ) ).thenAnswer( invocation -> {
+			started.countDown();
+			Thread.sleep( TimeUnit.MINUTES.toMillis( 1 ) );
+			return buildResponse( "id-1" );
+		} );
+		AtomicReference<Throwable> thrown = new AtomicReference<>();
+		Thread caller = Thread.ofVirtual().start( () -> {
+			try {
+				new BatchIcaoNotamService( fetcher ).fetchByIcaos( List.of(
+						"KOKC", "KTUL" ) );
+			}
+			catch( Throwable t ) {
+				thrown.set( t );
+			}
+		} );
+		assertTrue( started.await( 5, TimeUnit.SECONDS ) );
+
+		caller.interrupt();
+
+		// Without cancelling, closing the executor would wait out the sleeping requests
+		assertTrue( caller.join( Duration.ofSeconds( 5 ) ) );
+		assertInstanceOf( InterruptedException.class, thrown.get() );
+	}
+
+	@Test
+	public void fetchByIcaos_nullCode_throwsIllegalArgumentException()
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+
+		assertThrows( IllegalArgumentException.class,
+				() -> new BatchIcaoNotamService( fetcher ).fetchByIcaos(
+						Arrays.asList( "KOKC", null ) ) );
+	}
+
+	private static String buildResponse( String... ids )
+	{
+		StringBuilder features = new StringBuilder();
+		for( String id : ids ) {
+			if( features.length() > 0 ) {
+				features.append( "," );
+			}
+			features.append( "{\"properties\":{\"coreNOTAMData\":{\"notam\":{"
+					+ "\"id\":\"" + id + "\",\"number\":\"A0001/26\","
+					+ "\"type\":\"N\",\"issued\":\"2026-02-01T00:00:00Z\","
+					+ "\"effectiveStart\":\"2026-02-01T01:00:00Z\","
+					+ "\"effectiveEnd\":\"2026-02-02T01:00:00Z\","
+					+ "\"text\":\"RWY CLSD\"},\"notamTranslation\":[]}}}" );
+		}
+		return "{\"data\":{\"geojson\":[" + features + "]}}";
+	}
+}
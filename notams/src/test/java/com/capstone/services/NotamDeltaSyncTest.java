@@ -0,0 +1,124 @@
+package com.capstone.services;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import com.capstone.NotamDataFetcher;
+import com.capstone.NotamQueryKey;
+import com.capstone.models.Notam;
+import com.capstone.models.NotamDelta;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NotamDeltaSyncTest
+{
+	private static final String T1 = "2026-02-01T00:00:00Z";
+	private static final String T2 = "2026-02-01T06:00:00Z";
+
+	@Test
+	public void refreshIcao_firstRefresh_reportsEverythingAdded()   throws IOException,
+																	InterruptedException
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class );
+		when( fetcher.fetchByIcao( "KOKC" ) ).thenReturn( buildResponse(
+				buildFeature( "id-1", T1 ), buildFeature( "id-2", T2 ) ) );
+
+		NotamDelta delta = new NotamDeltaSync( fetcher ).refreshIcao( "KOKC" );
+
+		assertEquals( 2, delta.getAdded().size() );
+		assertTrue( delta.getChanged().isEmpty() );
+		assertTrue( delta.getRemoved().isEmpty() );
+		assertEquals( 0, delta.getUnchangedCount() );
+		assertEquals( Instant.parse( T2 ), delta.getNewestLastUpdated()
+				.orElseThrow() );
+	}
+
+	@Test
+	public void refreshIcao_sameResponse_reusesNotamsAndReportsNoChange()   throws IOException,
+																			InterruptedException
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class );
+		when( fetcher.fetchByIcao( "KOKC" ) ).thenReturn( buildResponse(
+				buildFeature( "id-1", T1 ) ) );
+		NotamDeltaSync sync = new NotamDeltaSync( fetcher );
+
+		Notam first = sync.refreshIcao( "KOKC" ).getAdded().get( 0 );
+		NotamDelta delta = sync.refreshIcao( "KOKC" );
+
+		assertTrue( delta.isEmpty() );
+		assertEquals( 1, delta.getUnchangedCount() );
+		assertSame( first, sync.getCurrentNotams( NotamQueryKey.forIcao(
+				"KOKC" ) ).get( 0 ) );
+	}
+
+	@Test
+	public void refreshIcao_updatedAddedAndDropped_reportsEachKind()    throws IOException,
+																		InterruptedException
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class );
+		when( fetcher.fetchByIcao( "KOKC" ) ).thenReturn( buildResponse(
+				buildFeature( "id-1", T1 ), buildFeature( "id-2", T1 ),
+				buildFeature( "id-3", T1 ) ), buildResponse( buildFeature(
+						"id-1", T1 ), buildFeature( "id-2", T2 ), buildFeature(
+								"id-4", T1 ) ) );
+		NotamDeltaSync sync = new NotamDeltaSync( fetcher );
+
+		sync.refreshIcao( "KOKC" );
+		NotamDelta delta = sync.refreshIcao( "KOKC" );
+
+		assertEquals( List.of( "id-4" ), ids( delta.getAdded() ) );
+		assertEquals( List.of( "id-2" ), ids( delta.getChanged() ) );
+		assertEquals( List.of( "id-3" ), ids( delta.getRemoved() ) );
+		assertEquals( 1, delta.getUnchangedCount() );
+		assertEquals( Instant.parse( T2 ), sync.getNewestLastUpdated(
+				NotamQueryKey.forIcao( "KOKC" ) ).orElseThrow() );
+	}
+
+	@Test
+	public void forget_nextRefreshReportsEverythingAdded()  throws IOException,
+															InterruptedException
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class );
+		when( fetcher.fetchByIcao( "KOKC" ) ).thenReturn( buildResponse(
+				buildFeature( "id-1", T1 ) ) );
+		NotamDeltaSync sync = new NotamDeltaSync( fetcher );
+
+		sync.refreshIcao( "KOKC" );
+		sync.forget( NotamQueryKey.forIcao( "KOKC" ) );
+		NotamDelta delta = sync.refreshIcao( "KOKC" );
+
+		assertEquals( 1, delta.getAdded().size() );
+		assertEquals( 0, delta.getUnchangedCount() );
+	}
+
+	private static List<String> ids( List<Notam> notams )
+	{
+		return notams.stream().map( Notam::getId ).toList();
+	}
+
+	private static String buildResponse( String... features )
+	{
+		return "{\"data\":{\"geojson\":[" + String.join( ",", features )
+				+ "]}}";
+	}
+
+	private static String buildFeature( String id, String lastUpdated )
+	{
+		return "{" + "\"properties\":{"
+				+ "\"coreNOTAMData\":{" + "\"notam\":{" + "\"id\":\"" + id
+				+ "\"," + "\"number\":\"A0001/26\"," + "\"type\":\"N\","
+				+ "\"issued\":\"2026-02-01T00:00:00Z\","
+				+ "\"effectiveStart\":\"2026-02-01T01:00:00Z\","
+				+ "\"effectiveEnd\":\"2026-02-02T01:00:00Z\","
+				+ "\"lastUpdated\":\"" + lastUpdated + "\","
+				+ "\"text\":\"RWY CLSD\"" + "}," + "\"notamTranslation\":[]"
+				+ "}" + "}" + "}";
+	}
+}
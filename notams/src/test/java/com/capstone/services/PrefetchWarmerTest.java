@@ -0,0 +1,189 @@
+package com.capstone.services;
+
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.capstone.NotamDataFetcher;
+import com.capstone.NotamQueryKey;
+import com.capstone.models.FlightPath;
+import com.capstone.models.LocationQuery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PrefetchWarmerTest
+{
+	private static final List<Point2D> ROUTE = List.of( new Point2D.Double(
+			35.0, -97.0 ), new Point2D.Double( 37.0, -97.0 ) );
+
+	@Test
+	public void warmOnce_refreshesConfiguredAirportsAndRouteCorridor()   throws IOException,
+																		 InterruptedException
+	{
+		NotamDataFetcher refresher = mock( NotamDataFetcher.class );
+		FlightPath route = mock( FlightPath.class );
+		when( route.getWaypoints() ).thenReturn( ROUTE );
+		PrefetchWarmer warmer = new PrefetchWarmer( refresher, () -> true, List
+				.of( "kokc" ), List.of( route ), new QueryHistory(), 0 );
+
+		List<LocationQuery> corridor = RouteQueryPlanner.plan( route,
+				RouteNotamService.DEFAULT_CORRIDOR_HALF_WIDTH_NM,
+				NotamQueryKey.MAX_COVERED_RADIUS_NM );
+		assertEquals( 1 + corridor.size(), warmer.warmOnce() );
+
+		verify( refresher ).fetchByIcao( "KOKC" );
+		for( LocationQuery query : corridor ) {
+			NotamQueryKey key = NotamQueryKey.forLocation( query.getLatitude(),
+					query.getLongitude(), query.getRadiusNm() );
+			verify( refresher ).fetchByLocation( key.getLatitude(), key
+					.getLongitude(), key.getRadiusNm() );
+		}
+	}
+
+	@Test
+	public void warmOnce_learnsHottestQueriesFromHistory()  throws IOException,
+															InterruptedException
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class );
+		NotamDataFetcher refresher = mock( NotamDataFetcher.class );
+		QueryHistory history = new QueryHistory();
+		NotamDataFetcher recording = history.recording( fetcher );
+		recording.fetchByIcao( "KTUL" );
+		recording.fetchByIcao( "KDFW" );
+		recording.fetchByIcao( "ktul" );
+		PrefetchWarmer warmer = new PrefetchWarmer( refresher, () -> true, List
+				.of( "KOKC" ), List.of(), history, 2 );
+
+		assertEquals( List.of( NotamQueryKey.forIcao( "KOKC" ), NotamQueryKey
+				.forIcao( "KTUL" ), NotamQueryKey.forIcao( "KDFW" ) ), warmer
+						.plannedQueries() );
+		assertEquals( 3, warmer.warmOnce() );
+		verify( refresher ).fetchByIcao( "KTUL" );
+		verify( fetcher ).fetchByIcao( "ktul" );
+	}
+
+	@Test
+	public void queryHistory_forgetsQueriesOlderThanCapacity()
+	{
+		QueryHistory history = new QueryHistory( 3 );
+		history.record( NotamQueryKey.forIcao( "KOKC" ) );
+		history.record( NotamQueryKey.forIcao( "KOKC" ) );
+		history.record( NotamQueryKey.forIcao( "KTUL" ) );
+		history.record( NotamQueryKey.forIcao( "KDFW" ) );
+		history.record( NotamQueryKey.forIcao( "KDFW" ) );
+
+		assertEquals( List.of( NotamQueryKey.forIcao( "KDFW" ), NotamQueryKey
+				.forIcao( "KTUL" ) ), history.hottest( 5 ) );
+	}
+
+	@Test
+	public void warmOnce_noSpareCapacity_leavesRestForNextRound()   throws IOException,
+																	InterruptedException
+	{
+		NotamDataFetcher refresher = mock( NotamDataFetcher.class );
+		AtomicInteger checks = new AtomicInteger();
+		PrefetchWarmer warmer = new PrefetchWarmer( refresher, () -> checks
+				.getAndIncrement() == 0, List.of( "KOKC", "KTUL" ), List.of(),
+				new QueryHistory(), 0 );
+
+		assertEquals( 1, warmer.warmOnce() );
+		verify( refresher ).fetchByIcao( "KOKC" );
+		verify( refresher, never() ).fetchByIcao( "KTUL" );
+	}
+
+	@Test
+	public void warmOnce_capacityGated_checksEveryUpstreamRequest()
+			throws IOException, InterruptedException
+	{
+		NotamDataFetcher upstream = mock( NotamDataFetcher.class );
+		AtomicInteger checks = new AtomicInteger();
+		// The first query is answered by three upstream requests, as a tiled query is
+		NotamDataFetcher gated = PrefetchWarmer.capacityGated( upstream,
+				() -> checks.getAndIncrement() < 2 );
+		NotamDataFetcher refresher = mock( NotamDataFetcher.class );
+		when( refresher.fetchByIcao( anyString() ) ).thenAnswer( invocation -> {
+			for( String tile : List.of( "KOKC", "KTUL", "KDFW" ) ) {
+				gated.fetchByIcao( tile );
+			}
+			return "{}";
+		} );
+		PrefetchWarmer warmer = new PrefetchWarmer( refresher, () -> true, List
+				.of( "KOKC", "KTUL" ), List.of(), new QueryHistory(), 0 );
+
+		// The gate stops the round inside the first query
+		assertEquals( 0, warmer.warmOnce() );
+		verify( upstream ).fetchByIcao( "KOKC" );
+		verify( upstream ).fetchByIcao( "KTUL" );
+		verify( upstream, never() ).fetchByIcao( "KDFW" );
+		verify( refresher, never() ).fetchByIcao( "KTUL" );
+	}
+
+	@Test
+	public void warmOnce_circuitOpen_skipsRound() throws IOException,
+												 InterruptedException
+	{
+		NotamDataFetcher refresher = mock( NotamDataFetcher.class );
+		AtomicBoolean circuitOpen = new AtomicBoolean( true );
+		PrefetchWarmer warmer = new PrefetchWarmer( refresher, () -> true,
+				circuitOpen::get, List.of( "KOKC" ), List.of(),
+				new QueryHistory(), 0 );
+
+		assertEquals( 0, warmer.warmOnce() );
+		verify( refresher, never() ).fetchByIcao( anyString() );
+
+		circuitOpen.set( false );
+		assertEquals( 1, warmer.warmOnce() );
+		verify( refresher ).fetchByIcao( "KOKC" );
+	}
+
+	@Test
+	public void warmOnce_failedQuery_roundContinues() throws IOException,
+													  InterruptedException
+	{
+		NotamDataFetcher refresher = mock( NotamDataFetcher.class );
+		when( refresher.fetchByIcao( "KOKC" ) ).thenThrow( new IOException(
+				"Connection refused" ) );
+		PrefetchWarmer warmer = new PrefetchWarmer( refresher, () -> true, List
+				.of( "KOKC", "KTUL" ), List.of(), new QueryHistory(), 0 );
+
+		assertEquals( 2, warmer.warmOnce() );
+		verify( refresher ).fetchByIcao( "KTUL" );
+	}
+
+	@Test
+	public void start_warmsInBackgroundUntilClosed() throws IOException,
+													 InterruptedException
+	{
+		CountDownLatch rounds = new CountDownLatch( 2 );
+		NotamDataFetcher refresher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+		when( refresher.fetchByIcao( anyString() ) ).thenAnswer(
+				invocation -> {
+					rounds.countDown();
+					return "{}";
+				} );
+
+		try (PrefetchWarmer warmer = new PrefetchWarmer( refresher, () -> true,
+				List.of( "KOKC" ), List.of(), new QueryHistory(), 0 )) {
+			warmer.start( Duration.ofMillis( 10 ) );
+			assertThrows( IllegalStateException.class, () -> warmer.start(
+					Duration.ofMillis( 10 ) ) );
+			assertTrue( rounds.await( 5, TimeUnit.SECONDS ) );
+		}
+	}
+}
@@ -3,8 +3,13 @@ package com.capstone.services;
 import java.awt.geom.Point2D;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.capstone.NotamDataFetcher;
+import com.capstone.NotamQueryKey;
+import com.capstone.models.LocationQuery;
 import com.capstone.models.Notam;
 import com.capstone.models.FlightPath;
 
@@ -12,44 +17,78 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RouteNotamServiceTest
 {
+	// 600 nm apart, far enough that the planner needs several query circles
+	private static final List<Point2D> LONG_ROUTE = List.of(
+			new Point2D.Double( 30.0, -90.0 ), new Point2D.Double( 35.0, -90.0 ),
+			new Point2D.Double( 40.0, -90.0 ) );
+
 	@Test
-	public void fetchNotamsAlongRoute_multipleWaypoints_returnsCombinedParsedNotams()   throws IOException,
-																						InterruptedException
+	public void fetchNotamsAlongRoute_multipleQueries_returnsCombinedParsedNotams() throws IOException,
+																					InterruptedException
 	{
-		NotamDataFetcher fetcher = mock( NotamDataFetcher.class );
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
 		FlightPath flightPath = mock( FlightPath.class );
+		when( flightPath.getWaypoints() ).thenReturn( LONG_ROUTE );
 
-		List<Point2D> waypoints = List.of( new Point2D.Double( 45.0, -90.0 ),
-				new Point2D.Double( 46.0, -91.0 ) );
-
-		when( flightPath.getWaypoints() ).thenReturn( waypoints );
-		when( fetcher.fetchByLocation( 45.0, -90.0, 50 ) ).thenReturn(
-				buildResponse( "id-1", "A0001/26" ) );
-		when( fetcher.fetchByLocation( 46.0, -91.0, 50 ) ).thenReturn(
-				buildResponse( "id-2", "A0002/26" ) );
+		List<LocationQuery> plan = planFor( flightPath );
+		for( int i = 0; i < plan.size(); i++ ) {
+			LocationQuery query = plan.get( i );
+			when( fetcher.fetchByLocation( query.getLatitude(), query
+					.getLongitude(), query.getRadiusNm() ) ).thenReturn(
+							buildResponse( "id-" + i, "A000" + i + "/26" ) );
+		}
 
 		RouteNotamService service = new RouteNotamService( fetcher );
 		List<Notam> result = service.fetchNotamsAlongRoute( flightPath );
 
-		assertEquals( 2, result.size() );
-		assertEquals( "id-1", result.get( 0 ).getId() );
-		assertEquals( "id-2", result.get( 1 ).getId() );
-		verify( fetcher ).fetchByLocation( 45.0, -90.0, 50 );
-		verify( fetcher ).fetchByLocation( 46.0, -91.0, 50 );
+		assertTrue( plan.size() > 1 );
+		assertEquals( plan.size(), result.size() );
+		for( int i = 0; i < plan.size(); i++ ) {
+			LocationQuery query = plan.get( i );
+			assertEquals( "id-" + i, result.get( i ).getId() );
+			verify( fetcher ).fetchByLocation( query.getLatitude(), query
+					.getLongitude(), query.getRadiusNm() );
+		}
+	}
+
+	@Test
+	public void fetchNotamsAlongRoute_queriesPlannedCirclesNotWaypoints()   throws IOException,
+																			InterruptedException
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+		FlightPath flightPath = mock( FlightPath.class );
+		when( flightPath.getWaypoints() ).thenReturn( LONG_ROUTE );
+		when( fetcher.fetchByLocation( anyDouble(), anyDouble(), anyDouble() ) )
+				.thenReturn( "{\"data\":{\"geojson\":[]}}" );
+
+		RouteNotamService service = new RouteNotamService( fetcher );
+		service.fetchNotamsAlongRoute( flightPath );
+
+		verify( fetcher, times( planFor( flightPath ).size() ) )
+				.fetchByLocation( anyDouble(), anyDouble(), anyDouble() );
+		verify( fetcher, never() ).fetchByLocation( 35.0, -90.0, 50 );
 	}
 
 	@Test
 	public void fetchNotamsAlongRoute_noWaypoints_returnsEmptyNotamList()   throws IOException,
 																			InterruptedException
 	{
-		NotamDataFetcher fetcher = mock( NotamDataFetcher.class );
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
 		FlightPath flightPath = mock( FlightPath.class );
 		when( flightPath.getWaypoints() ).thenReturn( List.of() );
 
@@ -64,12 +103,13 @@ public class RouteNotamServiceTest
 	public void fetchNotamsAlongRoute_fetcherThrowsIOException_propagatesException()    throws IOException,
 																						InterruptedException
 	{
-		NotamDataFetcher fetcher = mock( NotamDataFetcher.class );
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
 		FlightPath flightPath = mock( FlightPath.class );
 		when( flightPath.getWaypoints() ).thenReturn( List.of(
 				new Point2D.Double( 45.0, -90.0 ) ) );
-		when( fetcher.fetchByLocation( 45.0, -90.0, 50 ) ).thenThrow(
-				new IOException( "network failure" ) );
+		when( fetcher.fetchByLocation( anyDouble(), anyDouble(), anyDouble() ) )
+				.thenThrow( new IOException( "network failure" ) );
 
 		RouteNotamService service = new RouteNotamService( fetcher );
 
@@ -77,15 +117,139 @@ public class RouteNotamServiceTest
 				flightPath ) );
 	}
 
+	@Test
+	public void fetchNotamsAlongRoute_slowFirstQuery_keepsRouteOrder()  throws IOException,
+																		InterruptedException
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+		FlightPath flightPath = mock( FlightPath.class );
+		when( flightPath.getWaypoints() ).thenReturn( LONG_ROUTE );
+
+		List<LocationQuery> plan = planFor( flightPath );
+		LocationQuery first = plan.get( 0 );
+		LocationQuery last = plan.get( plan.size() - 1 );
+
+		// The first query only answers once the last one has been fetched
+		CountDownLatch lastFetched = new CountDownLatch( 1 );
+		when( fetcher.fetchByLocation( anyDouble(), anyDouble(), anyDouble() ) )
+				.thenReturn( "{\"data\":{\"geojson\":[]}}" );
+		when( fetcher.fetchByLocation( first.getLatitude(), first
+				.getLongitude(), first.getRadiusNm() ) ).thenAnswer(
+						invocation -> {
+							assertTrue( lastFetched.await( 5,
+									TimeUnit.SECONDS ) );
+							return buildResponse( "id-1", "A0001/26" );
+						} );
+		when( fetcher.fetchByLocation( last.getLatitude(), last.getLongitude(),
+				last.getRadiusNm() ) ).thenAnswer( invocation -> {
+					lastFetched.countDown();
+					return buildResponse( "id-2", "A0002/26" );
+				} );
+
+		RouteNotamService service = new RouteNotamService( fetcher,
+				plan.size() );
+		List<Notam> result = service.fetchNotamsAlongRoute( flightPath );
+
+		assertEquals( 2, result.size() );
+		assertEquals( "id-1", result.get( 0 ).getId() );
+		assertEquals( "id-2", result.get( 1 ).getId() );
+	}
+
+	@Test
+	public void fetchNotamsAlongRoute_neverExceedsConcurrencyCap()  throws IOException,
+																	InterruptedException
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+		FlightPath flightPath = mock( FlightPath.class );
+		when( flightPath.getWaypoints() ).thenReturn( List.of(
+				new Point2D.Double( 20.0, -90.0 ),
+				new Point2D.Double( 50.0, -90.0 ) ) );
+
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		AtomicInteger counter = new AtomicInteger();
+		when( fetcher.fetchByLocation( anyDouble(), anyDouble(), anyDouble() ) )
+				.thenAnswer( invocation -> {
+					int current = inFlight.incrementAndGet();
+					maxInFlight.accumulateAndGet( current, Math::max );
+					Thread.sleep( 20 );
+					inFlight.decrementAndGet();
+					int n = counter.incrementAndGet();
+					return buildResponse( "id-" + n, "A000" + n + "/26" );
+				} );
+
+		RouteNotamService service = new RouteNotamService( fetcher, 2 );
+		List<Notam> result = service.fetchNotamsAlongRoute( flightPath );
+
+		assertEquals( planFor( flightPath ).size(), result.size() );
+		assertTrue( maxInFlight.get() <= 2 );
+	}
+
+	@Test
+	public void fetchNotamsAlongRoute_overlappingQueries_returnsEachNotamOnce() throws IOException,
+																				InterruptedException
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+		FlightPath flightPath = mock( FlightPath.class );
+		when( flightPath.getWaypoints() ).thenReturn( LONG_ROUTE );
+
+		List<LocationQuery> plan = planFor( flightPath );
+		LocationQuery first = plan.get( 0 );
+		LocationQuery second = plan.get( 1 );
+		when( fetcher.fetchByLocation( anyDouble(), anyDouble(), anyDouble() ) )
+				.thenReturn( "{\"data\":{\"geojson\":[]}}" );
+		when( fetcher.fetchByLocation( first.getLatitude(), first
+				.getLongitude(), first.getRadiusNm() ) ).thenReturn(
+						buildResponse( "id-1", "A0001/26" ) );
+		when( fetcher.fetchByLocation( second.getLatitude(), second
+				.getLongitude(), second.getRadiusNm() ) ).thenReturn(
+						"{\"data\":{\"geojson\":[" + buildFeature( "id-2",
+								"A0002/26" ) + "," + buildFeature( "id-1",
+										"A0001/26" ) + "]}}" );
+
+		RouteNotamService service = new RouteNotamService( fetcher, 1 );
+		List<Notam> result = service.fetchNotamsAlongRoute( flightPath );
+
+		assertEquals( 2, result.size() );
+		assertEquals( "id-1", result.get( 0 ).getId() );
+		assertEquals( "id-2", result.get( 1 ).getId() );
+	}
+
+	@Test
+	public void constructor_zeroConcurrency_throwsIllegalArgumentException()
+	{
+		NotamDataFetcher fetcher = mock( NotamDataFetcher.class,
+				CALLS_REAL_METHODS );
+
+		assertThrows( IllegalArgumentException.class,
+				() -> new RouteNotamService( fetcher, 0 ) );
+	}
+
+	private static List<LocationQuery> planFor( FlightPath flightPath )
+	{
+		return RouteQueryPlanner.plan( flightPath,
+				RouteNotamService.DEFAULT_CORRIDOR_HALF_WIDTH_NM,
+				NotamQueryKey.MAX_COVERED_RADIUS_NM );
+	}
+
 	private static String buildResponse( String id, String number )
 	{
-		return "{" + "\"data\":{" + "\"geojson\":[" + "{" + "\"properties\":{"
+		return "{" + "\"data\":{" + "\"geojson\":[" + buildFeature( id, number )
+				+ "]" + "}" + "}";
+	}
+
+	private static String buildFeature( String id, String number )
+	{
+		return "{" + "\"properties\":{"
 				+ "\"coreNOTAMData\":{" + "\"notam\":{" + "\"id\":\"" + id
 				+ "\"," + "\"number\":\"" + number + "\"," + "\"type\":\"N\","
 				+ "\"issued\":\"2026-02-01T00:00:00Z\","
 				+ "\"effectiveStart\":\"2026-02-01T01:00:00Z\","
 				+ "\"effectiveEnd\":\"2026-02-02T01:00:00Z\","
 				+ "\"text\":\"RWY CLSD\"" + "}," + "\"notamTranslation\":[]"
-				+ "}" + "}" + "}" + "]" + "}" + "}";
+				+ "}" + "}" + "}";
 	}
 }
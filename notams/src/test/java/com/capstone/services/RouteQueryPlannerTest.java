@@ -0,0 +1,160 @@
+package com.capstone.services;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+
+import com.capstone.models.FlightPath;
+import com.capstone.models.LocationQuery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RouteQueryPlannerTest
+{
+    private static final Point2D JFK = new Point2D.Double( 40.6397, -73.7789 );
+    private static final Point2D LAX = new Point2D.Double( 33.9425,
+            -118.4081 );
+    private static final double MAX_RADIUS_NM = 100;
+    private static final double HALF_WIDTH_NM = 25;
+    private static final double EARTH_RADIUS_NM = 3440.065;
+
+    @Test
+    public void plan_noWaypoints_returnsEmptyPlan()
+    {
+        FlightPath flightPath = mock( FlightPath.class );
+        when( flightPath.getWaypoints() ).thenReturn( List.of() );
+
+        assertTrue( RouteQueryPlanner.plan( flightPath, HALF_WIDTH_NM,
+                MAX_RADIUS_NM ).isEmpty() );
+    }
+
+    @Test
+    public void plan_shortRoute_usesSingleQuery()
+    {
+        FlightPath flightPath = pathOf( new Point2D.Double( 35.0, -97.0 ),
+                new Point2D.Double( 35.5, -97.0 ) );
+
+        List<LocationQuery> plan = RouteQueryPlanner.plan( flightPath,
+                HALF_WIDTH_NM, MAX_RADIUS_NM );
+
+        assertEquals( 1, plan.size() );
+        assertEquals( 35.25, plan.get( 0 ).getLatitude(), 0.001 );
+    }
+
+    @Test
+    public void plan_longRoute_usesFewerQueriesThanWaypoints()
+    {
+        FlightPath flightPath = pathOf( JFK, LAX );
+
+        List<LocationQuery> plan = RouteQueryPlanner.plan( flightPath,
+                HALF_WIDTH_NM, MAX_RADIUS_NM );
+
+        // ~2145 nm: 23 waypoints at the 100 nm interval, 12 circles of at most 100 nm
+        assertEquals( 12, plan.size() );
+        assertTrue( plan.size() < FlightPathCalculator.interpolate( JFK, LAX )
+                .size() );
+    }
+
+    @Test
+    public void plan_radiiNeverExceedMaxRadius()
+    {
+        List<LocationQuery> plan = RouteQueryPlanner.plan( pathOf( JFK, LAX ),
+                HALF_WIDTH_NM, MAX_RADIUS_NM );
+
+        for( LocationQuery query : plan ) {
+            assertTrue( query.getRadiusNm() > 0 );
+            assertTrue( query.getRadiusNm() <= MAX_RADIUS_NM );
+        }
+    }
+
+    @Test
+    public void plan_coversEveryCorridorPoint()
+    {
+        List<LocationQuery> plan = RouteQueryPlanner.plan( pathOf( JFK, LAX ),
+                HALF_WIDTH_NM, MAX_RADIUS_NM );
+
+        // Walk the track and check both corridor edges and the centreline
+        for( int i = 0; i <= 500; i++ ) {
+            Point2D onTrack = FlightPathCalculator.interpolatePoint( JFK, LAX,
+                    i / 500.0 );
+            double bearing = i < 500 ?
+                    initialBearing( onTrack, LAX ) :
+                    initialBearing( JFK, LAX );
+            assertCovered( plan, onTrack );
+            assertCovered( plan, destination( onTrack, bearing + 90,
+                    HALF_WIDTH_NM ) );
+            assertCovered( plan, destination( onTrack, bearing - 90,
+                    HALF_WIDTH_NM ) );
+        }
+
+        // The end caps around both airports
+        for( int degrees = 0; degrees < 360; degrees += 15 ) {
+            assertCovered( plan, destination( JFK, degrees, HALF_WIDTH_NM ) );
+            assertCovered( plan, destination( LAX, degrees, HALF_WIDTH_NM ) );
+        }
+    }
+
+    @Test
+    public void plan_halfWidthNotBelowMaxRadius_throwsIllegalArgumentException()
+    {
+        FlightPath flightPath = pathOf( JFK, LAX );
+
+        assertThrows( IllegalArgumentException.class, () -> RouteQueryPlanner
+                .plan( flightPath, MAX_RADIUS_NM, MAX_RADIUS_NM ) );
+        assertThrows( IllegalArgumentException.class, () -> RouteQueryPlanner
+                .plan( flightPath, -1, MAX_RADIUS_NM ) );
+    }
+
+    private static FlightPath pathOf( Point2D start, Point2D end )
+    {
+        FlightPath flightPath = mock( FlightPath.class );
+        when( flightPath.getWaypoints() ).thenReturn( FlightPathCalculator
+                .interpolate( start, end ) );
+        return flightPath;
+    }
+
+    private static void assertCovered( List<LocationQuery> plan, Point2D point )
+    {
+        for( LocationQuery query : plan ) {
+            double distanceNm = FlightPathCalculator.haversineDistance(
+                    new Point2D.Double( query.getLatitude(), query
+                            .getLongitude() ), point );
+            if( distanceNm <= query.getRadiusNm() + 1e-6 ) {
+                return;
+            }
+        }
+        fail( "Point not covered by any query: " + point );
+    }
+
+    private static double initialBearing( Point2D from, Point2D to )
+    {
+        double lat1 = Math.toRadians( from.getX() );
+        double lat2 = Math.toRadians( to.getX() );
+        double dLon = Math.toRadians( to.getY() - from.getY() );
+        double y = Math.sin( dLon ) * Math.cos( lat2 );
+        double x = Math.cos( lat1 ) * Math.sin( lat2 ) - Math.sin( lat1 ) * Math
+                .cos( lat2 ) * Math.cos( dLon );
+        return Math.toDegrees( Math.atan2( y, x ) );
+    }
+
+    private static Point2D destination( Point2D from,
+                                        double bearingDegrees,
+                                        double distanceNm )
+    {
+        double lat1 = Math.toRadians( from.getX() );
+        double lon1 = Math.toRadians( from.getY() );
+        double bearing = Math.toRadians( bearingDegrees );
+        double d = distanceNm / EARTH_RADIUS_NM;
+
+        double lat2 = Math.asin( Math.sin( lat1 ) * Math.cos( d ) + Math.cos(
+                lat1 ) * Math.sin( d ) * Math.cos( bearing ) );
+        double lon2 = lon1 + Math.atan2( Math.sin( bearing ) * Math.sin( d )
+                * Math.cos( lat1 ), Math.cos( d ) - Math.sin( lat1 ) * Math.sin(
+                        lat2 ) );
+        return new Point2D.Double( Math.toDegrees( lat2 ), Math.toDegrees(
+                lon2 ) );
+    }
+}
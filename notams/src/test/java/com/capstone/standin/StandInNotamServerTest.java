@@ -0,0 +1,171 @@
+package com.capstone.standin;
+
+import com.capstone.BearerTokenManager;
+import com.capstone.NMSNotamParser;
+import com.capstone.NmsNotamFetcher;
+import com.capstone.NotamFetcher;
+import com.capstone.NotamParser;
+import com.capstone.exceptions.NotamApiException;
+import com.capstone.models.Notam;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StandInNotamServerTest
+{
+	private final HttpClient httpClient = HttpClient.newHttpClient();
+	private StandInNotamServer server;
+
+	@AfterEach
+	void tearDown()
+	{
+		if( server != null ) {
+			server.close();
+		}
+	}
+
+	private NmsNotamFetcher nmsFetcher()
+	{
+		return new NmsNotamFetcher( new BearerTokenManager( "id", "secret",
+				server.getAuthUrl(), httpClient ), server.getNmsBaseUrl(),
+				httpClient );
+	}
+
+	@Test
+	void nmsFetcher_streamsSyntheticNotamsThroughParser() throws Exception
+	{
+		server = StandInNotamServer.builder().notamsPerCell( 3 ).start();
+		NmsNotamFetcher fetcher = nmsFetcher();
+
+		List<Notam> notams = new ArrayList<>();
+		try (InputStream in = fetcher.streamByLocation( 35.39, -97.6, 50 )) {
+			new NMSNotamParser().parseNotams( in, new HashMap<>(), notams::add );
+		}
+
+		assertFalse( notams.isEmpty() );
+		assertEquals( 0, notams.size() % 3 );
+		assertEquals( "QMRLC", notams.get( 0 ).getSelectionCode().orElseThrow() );
+		assertEquals( 1, server.getTokenRequestCount() );
+		assertEquals( 1, server.getNotamRequestCount() );
+	}
+
+	@Test
+	void nmsFetcher_overlappingCircles_shareNotams() throws Exception
+	{
+		server = StandInNotamServer.start();
+		NmsNotamFetcher fetcher = nmsFetcher();
+		NMSNotamParser parser = new NMSNotamParser();
+
+		Set<String> first = ids( parser.parseNotams( fetcher.fetchByLocation(
+				35.0, -97.0, 60 ) ) );
+		Set<String> second = ids( parser.parseNotams( fetcher.fetchByLocation(
+				35.5, -97.0, 60 ) ) );
+		first.retainAll( second );
+
+		assertFalse( first.isEmpty() );
+		assertEquals( ids( parser.parseNotams( fetcher.fetchByIcao(
+				"KOKC" ) ) ), ids( parser.parseNotams( fetcher.fetchByIcao(
+						"kokc" ) ) ) );
+	}
+
+	@Test
+	void faaFetcher_pagesThroughAllNotams() throws Exception
+	{
+		server = StandInNotamServer.builder().notamsPerAirport( 25 ).start();
+		NotamFetcher fetcher = new NotamFetcher( "id", "secret", server
+				.getFaaBaseUrl(), httpClient );
+
+		List<Notam> notams = new ArrayList<>();
+		for( String page : fetcher.fetchAllPagesByIcao( "KOKC" ) ) {
+			notams.addAll( new NotamParser().parseNotams( page ) );
+		}
+		String firstPage = fetcher.fetchByIcao( "KOKC", 10, 1 );
+
+		assertEquals( 25, notams.size() );
+		assertTrue( firstPage.contains( "\"totalPages\":3" ) );
+	}
+
+	@Test
+	void injectedErrors_carryRetryAfter() throws Exception
+	{
+		server = StandInNotamServer.builder().errorRate( 1 ).errorStatus( 503,
+				Duration.ofSeconds( 2 ) ).start();
+		NmsNotamFetcher fetcher = nmsFetcher();
+
+		NotamApiException ex = assertThrows( NotamApiException.class,
+				() -> fetcher.fetchByIcao( "KOKC" ) );
+
+		assertEquals( 503, ex.getStatusCode() );
+		assertEquals( Duration.ofSeconds( 2 ), ex.getRetryAfter()
+				.orElseThrow() );
+		assertEquals( 1, server.getInjectedErrorCount() );
+	}
+
+	@Test
+	void nmsRequest_withoutToken_isRejected() throws Exception
+	{
+		server = StandInNotamServer.start();
+
+		HttpResponse<String> response = httpClient.send( HttpRequest
+				.newBuilder( URI.create( server.getNmsBaseUrl()
+						+ "?location=KOKC" ) ).GET().build(),
+				HttpResponse.BodyHandlers.ofString() );
+
+		assertEquals( 401, response.statusCode() );
+	}
+
+	@Test
+	void faaRequest_malformedNumber_isRejectedWith400() throws Exception
+	{
+		server = StandInNotamServer.start();
+
+		HttpResponse<String> response = httpClient.send( HttpRequest
+				.newBuilder( URI.create( server.getFaaBaseUrl()
+						+ "?icaoLocation=KOKC&pageNum=two" ) )
+				.header( "client_id", "id" ).header( "client_secret", "secret" )
+				.GET().build(), HttpResponse.BodyHandlers.ofString() );
+
+		assertEquals( 400, response.statusCode() );
+		assertTrue( response.body().contains( "pageNum" ) );
+	}
+
+	@Test
+	void recordedResponse_isServedForEveryQuery() throws Exception
+	{
+		String recorded;
+		try (StandInNotamServer source = StandInNotamServer.builder()
+				.notamsPerAirport( 4 ).start()) {
+			server = source;
+			recorded = nmsFetcher().fetchByIcao( "KOKC" );
+		}
+		server = StandInNotamServer.builder().recordedResponse( recorded )
+				.start();
+
+		List<Notam> notams = new NMSNotamParser().parseNotams( nmsFetcher()
+				.fetchByLocation( 40.0, -100.0, 10 ) );
+
+		assertEquals( 4, notams.size() );
+		assertEquals( "KOKC", notams.get( 0 ).getIcaoLocation().orElseThrow() );
+	}
+
+	private static Set<String> ids( List<Notam> notams )
+	{
+		Set<String> ids = new HashSet<>();
+		notams.forEach( notam -> ids.add( notam.getId() ) );
+		return ids;
+	}
+}